@@ -45,6 +45,9 @@ from core.architecture.handlers.control.replay_current_tuple_handler import (
 )
 from core.architecture.handlers.control.resume_worker_handler import ResumeWorkerHandler
 from core.architecture.handlers.control.start_worker_handler import StartWorkerHandler
+from core.architecture.handlers.control.stop_producing_handler import (
+    StopProducingHandler,
+)
 
 
 class AsyncRPCHandlerInitializer(
@@ -64,5 +67,6 @@ class AsyncRPCHandlerInitializer(
     StartChannelHandler,
     EndChannelHandler,
     NoOperationHandler,
+    StopProducingHandler,
 ):
     pass
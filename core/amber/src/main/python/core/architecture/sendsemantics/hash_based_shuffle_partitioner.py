@@ -22,6 +22,7 @@ from loguru import logger
 from overrides import overrides
 from core.architecture.sendsemantics.partitioner import Partitioner
 from core.models import Tuple
+from core.models.tuple import int_32
 from core.models.state import State
 from core.util import set_one_of
 from proto.edu.uci.ics.amber.engine.architecture.sendsemantics import (
@@ -32,6 +33,39 @@ from proto.edu.uci.ics.amber.core import ActorVirtualIdentity
 from proto.edu.uci.ics.amber.engine.architecture.rpc import EmbeddedControlMessage
 
 
+# the seed and the murmur3 steps of the JVM HashBasedShufflePartitioner, so that
+# tuples with equal keys go to the same receiver from Python and Java workers
+HASH_SEED = 0x3C074A61
+MASK_32 = 0xFFFFFFFF
+
+
+def rotate_left(value: int, distance: int) -> int:
+    value &= MASK_32
+    return ((value << distance) | (value >> (32 - distance))) & MASK_32
+
+
+def murmur3_mix(hash_: int, data: int) -> int:
+    """
+    scala.util.hashing.MurmurHash3.mix on 32-bit integers.
+    """
+    k = rotate_left((data & MASK_32) * 0xCC9E2D51, 15) * 0x1B873593
+    h = rotate_left((hash_ & MASK_32) ^ (k & MASK_32), 13)
+    return int_32(h * 5 + 0xE6546B64)
+
+
+def murmur3_finalize(hash_: int, length: int) -> int:
+    """
+    scala.util.hashing.MurmurHash3.finalizeHash on 32-bit integers.
+    """
+    h = (hash_ ^ length) & MASK_32
+    h ^= h >> 16
+    h = (h * 0x85EBCA6B) & MASK_32
+    h ^= h >> 13
+    h = (h * 0xC2B2AE35) & MASK_32
+    h ^= h >> 16
+    return int_32(h)
+
+
 class HashBasedShufflePartitioner(Partitioner):
     def __init__(self, partitioning: HashBasedShufflePartitioning):
         super().__init__(set_one_of(Partitioning, partitioning))
@@ -55,18 +89,24 @@ class HashBasedShufflePartitioner(Partitioner):
     def add_tuple_to_batch(
         self, tuple_: Tuple
     ) -> Iterator[typing.Tuple[ActorVirtualIdentity, typing.List[Tuple]]]:
-        partial_tuple = (
-            tuple_
-            if not self.hash_attribute_names
-            else tuple_.get_partial_tuple(self.hash_attribute_names)
-        )
-        hash_code = hash(partial_tuple) % len(self.receivers)
+        hash_code = self.get_bucket_index(tuple_)
         receiver, batch = self.receivers[hash_code]
         batch.append(tuple_)
         if len(batch) == self.batch_size:
             yield receiver, batch
             self.receivers[hash_code] = (receiver, list())
 
+    def get_bucket_index(self, tuple_: Tuple) -> int:
+        """
+        Hashes the key fields with murmur3 like the JVM partitioner does, so both
+        pick the same receiver for equal keys.
+        """
+        key_names = self.hash_attribute_names or tuple_.get_field_names()
+        hash_ = HASH_SEED
+        for name in key_names:
+            hash_ = murmur3_mix(hash_, tuple_.get_java_field_hash(name))
+        return murmur3_finalize(hash_, len(key_names)) % len(self.receivers)
+
     @overrides
     def flush(
         self, to: ActorVirtualIdentity, ecm: EmbeddedControlMessage
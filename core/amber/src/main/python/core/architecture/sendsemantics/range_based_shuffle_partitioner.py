@@ -15,6 +15,8 @@
 # specific language governing permissions and limitations
 # under the License.
 
+import bisect
+import datetime
 import typing
 from typing import Iterator
 
@@ -23,6 +25,7 @@ from overrides import overrides
 
 from core.architecture.sendsemantics.partitioner import Partitioner
 from core.models import Tuple
+from core.models.schema.attribute_type import AttributeType
 from core.models.state import State
 from core.util import set_one_of
 from proto.edu.uci.ics.amber.engine.architecture.sendsemantics import (
@@ -60,6 +63,67 @@ class RangeBasedShufflePartitioner(Partitioner):
             )
             + 1
         )
+        # Encoded split points, decoded on the first tuple using the types of the
+        # range attributes in its schema.
+        self.encoded_split_points = [
+            split_point.values for split_point in partitioning.split_points
+        ]
+        self.split_points = None
+
+    EPOCH = datetime.datetime(1970, 1, 1, tzinfo=datetime.timezone.utc)
+
+    @staticmethod
+    def key_component(value) -> typing.Tuple:
+        # Nulls come before any other value; timestamps compare as epoch milliseconds,
+        # the same encoding as the split points. Naive datetimes, which is how
+        # timestamps arrive from Arrow, hold UTC time.
+        if value is None:
+            return (0,)
+        if isinstance(value, datetime.datetime):
+            if value.tzinfo is None:
+                value = value.replace(tzinfo=datetime.timezone.utc)
+            epoch = RangeBasedShufflePartitioner.EPOCH
+            return 1, (value - epoch) // datetime.timedelta(milliseconds=1)
+        return 1, value
+
+    @staticmethod
+    def decode_split_value(encoded: str, attr_type: AttributeType):
+        if attr_type == AttributeType.BOOL:
+            return encoded == "true"
+        if attr_type in (
+            AttributeType.INT,
+            AttributeType.LONG,
+            AttributeType.TIMESTAMP,
+        ):
+            return int(encoded)
+        if attr_type == AttributeType.DOUBLE:
+            return float(encoded)
+        if attr_type == AttributeType.STRING:
+            return encoded
+        raise TypeError(
+            f"unsupported attribute type for range partitioning: {attr_type}"
+        )
+
+    def get_split_receiver_index(self, tuple_: Tuple) -> int:
+        values = [tuple_[name] for name in self.range_attribute_names]
+        if self.split_points is None:
+            schema = tuple_._schema
+            attr_types = [
+                schema.get_attr_type(name) for name in self.range_attribute_names
+            ]
+            self.split_points = [
+                tuple(
+                    (1, self.decode_split_value(encoded, attr_type))
+                    for encoded, attr_type in zip(split_point, attr_types)
+                )
+                for split_point in self.encoded_split_points
+            ]
+        key = tuple(self.key_component(value) for value in values)
+        # There may be fewer ranges than receivers if the sample had few
+        # distinct keys.
+        return min(
+            bisect.bisect_right(self.split_points, key), len(self.receivers) - 1
+        )
 
     def get_receiver_index(self, column_val) -> int:
         if column_val < self.range_min:
@@ -73,8 +137,11 @@ class RangeBasedShufflePartitioner(Partitioner):
     def add_tuple_to_batch(
         self, tuple_: Tuple
     ) -> Iterator[typing.Tuple[ActorVirtualIdentity, typing.List[Tuple]]]:
-        column_val = tuple_[self.range_attribute_names[0]]
-        receiver_index = self.get_receiver_index(column_val)
+        if self.encoded_split_points:
+            receiver_index = self.get_split_receiver_index(tuple_)
+        else:
+            column_val = tuple_[self.range_attribute_names[0]]
+            receiver_index = self.get_receiver_index(column_val)
         receiver, batch = self.receivers[receiver_index]
         batch.append(tuple_)
         if len(batch) == self.batch_size:
@@ -0,0 +1,117 @@
+# Licensed to the Apache Software Foundation (ASF) under one
+# or more contributor license agreements.  See the NOTICE file
+# distributed with this work for additional information
+# regarding copyright ownership.  The ASF licenses this file
+# to you under the Apache License, Version 2.0 (the
+# "License"); you may not use this file except in compliance
+# with the License.  You may obtain a copy of the License at
+#
+#   http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing,
+# software distributed under the License is distributed on an
+# "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+# KIND, either express or implied.  See the License for the
+# specific language governing permissions and limitations
+# under the License.
+
+from core.architecture.handlers.control.control_handler_base import ControlHandler
+
+import datetime
+
+import pytest
+
+from core.architecture.sendsemantics.hash_based_shuffle_partitioner import (
+    HashBasedShufflePartitioner,
+)
+from core.models import Tuple
+from core.models.schema.schema import Schema
+from proto.edu.uci.ics.amber.core import ActorVirtualIdentity, ChannelIdentity
+from proto.edu.uci.ics.amber.engine.architecture.sendsemantics import (
+    HashBasedShufflePartitioning,
+)
+
+
+class TestHashBasedShufflePartitioner:
+    schema = Schema(
+        raw_schema={
+            "col-string": "STRING",
+            "col-int": "INTEGER",
+            "col-long": "LONG",
+            "col-double": "DOUBLE",
+            "col-bool": "BOOLEAN",
+            "col-timestamp": "TIMESTAMP",
+            "col-binary": "BINARY",
+        }
+    )
+
+    @staticmethod
+    def partitioner(num_receivers, hash_attribute_names):
+        sender = ActorVirtualIdentity("sender")
+        return HashBasedShufflePartitioner(
+            HashBasedShufflePartitioning(
+                batch_size=400,
+                channels=[
+                    ChannelIdentity(
+                        from_worker_id=sender,
+                        to_worker_id=ActorVirtualIdentity(f"receiver-{i}"),
+                        is_control=False,
+                    )
+                    for i in range(num_receivers)
+                ],
+                hash_attribute_names=hash_attribute_names,
+            )
+        )
+
+    def tuple_(self, fields):
+        values = {name: None for name in self.schema.get_attr_names()}
+        values.update(fields)
+        return Tuple(values, self.schema)
+
+    # the buckets for 4 and 7 receivers are calculated with the JVM
+    # HashBasedShufflePartitioner; see HashBasedShuffleSpec for the same keys
+    @pytest.mark.parametrize(
+        "attribute_name, value, bucket_of_4, bucket_of_7",
+        [
+            ("col-string", "key0", 1, 6),
+            ("col-int", 42, 2, 4),
+            ("col-int", -3245763, 0, 6),
+            ("col-long", 1123213213213, 3, 1),
+            ("col-long", -1123213213213, 2, 6),
+            ("col-double", 214214.9969346, 0, 5),
+            ("col-bool", True, 3, 4),
+            (
+                "col-timestamp",
+                datetime.datetime(
+                    2001, 9, 9, 1, 46, 40, 123456, tzinfo=datetime.timezone.utc
+                ),
+                3,
+                4,
+            ),
+            ("col-binary", b"\x00\xffhi", 0, 1),
+            ("col-string", None, 0, 2),
+        ],
+    )
+    def test_bucket_matches_the_jvm(
+        self, attribute_name, value, bucket_of_4, bucket_of_7
+    ):
+        tuple_ = self.tuple_({attribute_name: value})
+        key = [attribute_name]
+        assert self.partitioner(4, key).get_bucket_index(tuple_) == bucket_of_4
+        assert self.partitioner(7, key).get_bucket_index(tuple_) == bucket_of_7
+
+    def test_composite_key_matches_the_jvm(self):
+        tuple_ = self.tuple_(
+            {"col-string": "héllo \U0001f600", "col-int": -7, "col-bool": False}
+        )
+        key = ["col-string", "col-int", "col-long", "col-bool"]
+        assert self.partitioner(4, key).get_bucket_index(tuple_) == 0
+        assert self.partitioner(7, key).get_bucket_index(tuple_) == 6
+
+    def test_batches_go_to_the_bucket_receiver(self):
+        partitioner = self.partitioner(4, ["col-string"])
+        partitioner.batch_size = 1
+        tuple_ = self.tuple_({"col-string": "key0"})
+        (receiver, batch) = next(partitioner.add_tuple_to_batch(tuple_))
+        assert receiver == ActorVirtualIdentity("receiver-1")
+        assert batch == [tuple_]
@@ -155,6 +155,41 @@ def java_hash_bytes(bytes: Iterator[int], init: int, salt: int):
     return h
 
 
+def java_hash_field(value: Field, attr_type: AttributeType) -> int:
+    """
+    The hashCode of a field value as stored on the JVM: a String hashes its UTF-16
+    code units, a byte[] its signed bytes (java.util.Arrays.hashCode), and a
+    Timestamp its epoch milliseconds.
+    :param value: A field value, or None.
+    :param attr_type: The AttributeType of the field.
+    :return: Java's hash value in a 32-bit integer.
+    """
+    if value is None:
+        return 0
+    if attr_type == AttributeType.BOOL:
+        return java_hash_bool(value)
+    if attr_type == AttributeType.INT:
+        return int_32(value)
+    if attr_type == AttributeType.LONG:
+        return java_hash_long(value)
+    if attr_type == AttributeType.DOUBLE:
+        return java_hash_long(double_to_long(value))
+    if attr_type == AttributeType.STRING:
+        code_units = value.encode("utf-16-be")
+        return java_hash_bytes(
+            struct.unpack(f">{len(code_units) // 2}H", code_units), 0, 31
+        )
+    if attr_type == AttributeType.TIMESTAMP:
+        millis = (
+            int(value.replace(microsecond=0).timestamp()) * 1000
+            + value.microsecond // 1000
+        )
+        return java_hash_long(millis)
+    if attr_type == AttributeType.BINARY:
+        return java_hash_bytes((b - 256 if b > 127 else b for b in value), 1, 31)
+    raise TypeError(f"unsupported attribute type for hashing: {attr_type}")
+
+
 class Tuple:
     """
     Lazy-Tuple implementation.
@@ -347,6 +382,16 @@ class Tuple:
             new_raw_tuple[name] = self[name]
         return Tuple(new_raw_tuple, schema=schema)
 
+    def get_java_field_hash(self, field_name: str) -> int:
+        """
+        Hashes a field the same way as Java's hashCode of the field value on the JVM.
+
+        :param field_name: The name of the field to hash.
+        :return: A 32-bit integer value.
+        """
+        assert self._schema is not None
+        return java_hash_field(self[field_name], self._schema.get_attr_type(field_name))
+
     def __iter__(self) -> Iterator[Field]:
         return iter(self.get_fields())
 
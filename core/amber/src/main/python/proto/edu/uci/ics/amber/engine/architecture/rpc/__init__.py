@@ -1047,6 +1047,23 @@ class WorkerServiceStub(betterproto.ServiceStub):
             metadata=metadata,
         )
 
+    async def stop_producing(
+        self,
+        empty_request: "EmptyRequest",
+        *,
+        timeout: Optional[float] = None,
+        deadline: Optional["Deadline"] = None,
+        metadata: Optional["MetadataLike"] = None
+    ) -> "EmptyReturn":
+        return await self._unary_unary(
+            "/edu.uci.ics.amber.engine.architecture.rpc.WorkerService/StopProducing",
+            empty_request,
+            EmptyReturn,
+            timeout=timeout,
+            deadline=deadline,
+            metadata=metadata,
+        )
+
 
 class ControllerServiceStub(betterproto.ServiceStub):
     async def retrieve_workflow_state(
@@ -1564,6 +1581,9 @@ class WorkerServiceBase(ServiceBase):
     async def no_operation(self, empty_request: "EmptyRequest") -> "EmptyReturn":
         raise grpclib.GRPCError(grpclib.const.Status.UNIMPLEMENTED)
 
+    async def stop_producing(self, empty_request: "EmptyRequest") -> "EmptyReturn":
+        raise grpclib.GRPCError(grpclib.const.Status.UNIMPLEMENTED)
+
     async def __rpc_add_input_channel(
         self, stream: "grpclib.server.Stream[AddInputChannelRequest, EmptyReturn]"
     ) -> None:
@@ -1706,6 +1726,13 @@ class WorkerServiceBase(ServiceBase):
         response = await self.no_operation(request)
         await stream.send_message(response)
 
+    async def __rpc_stop_producing(
+        self, stream: "grpclib.server.Stream[EmptyRequest, EmptyReturn]"
+    ) -> None:
+        request = await stream.recv_message()
+        response = await self.stop_producing(request)
+        await stream.send_message(response)
+
     def __mapping__(self) -> Dict[str, grpclib.const.Handler]:
         return {
             "/edu.uci.ics.amber.engine.architecture.rpc.WorkerService/AddInputChannel": grpclib.const.Handler(
@@ -1828,6 +1855,12 @@ class WorkerServiceBase(ServiceBase):
                 EmptyRequest,
                 EmptyReturn,
             ),
+            "/edu.uci.ics.amber.engine.architecture.rpc.WorkerService/StopProducing": grpclib.const.Handler(
+                self.__rpc_stop_producing,
+                grpclib.const.Cardinality.UNARY_UNARY,
+                EmptyRequest,
+                EmptyReturn,
+            ),
         }
 
 
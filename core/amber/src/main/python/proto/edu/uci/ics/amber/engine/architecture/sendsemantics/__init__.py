@@ -73,6 +73,14 @@ class RangeBasedShufflePartitioning(betterproto.Message):
     range_attribute_names: List[str] = betterproto.string_field(3)
     range_min: int = betterproto.int64_field(4)
     range_max: int = betterproto.int64_field(5)
+    split_points: List["RangeSplitPoint"] = betterproto.message_field(6)
+
+
+@dataclass(eq=False, repr=False)
+class RangeSplitPoint(betterproto.Message):
+    """The upper bound (exclusive) of one range, one value per range attribute."""
+
+    values: List[str] = betterproto.string_field(1)
 
 
 @dataclass(eq=False, repr=False)
@@ -56,6 +56,7 @@ class WorkerStatistics(betterproto.Message):
     data_processing_time: int = betterproto.int64_field(3)
     control_processing_time: int = betterproto.int64_field(4)
     idle_time: int = betterproto.int64_field(5)
+    spilled_bytes: int = betterproto.int64_field(6)
 
 
 @dataclass(eq=False, repr=False)
@@ -122,6 +122,7 @@ class OperatorStatistics(betterproto.Message):
     data_processing_time: int = betterproto.int64_field(4)
     control_processing_time: int = betterproto.int64_field(5)
     idle_time: int = betterproto.int64_field(6)
+    spilled_bytes: int = betterproto.int64_field(7)
 
 
 @dataclass(eq=False, repr=False)
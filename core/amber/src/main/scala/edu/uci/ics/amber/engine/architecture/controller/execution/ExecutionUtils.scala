@@ -64,6 +64,7 @@ object ExecutionUtils {
     val dataProcessingTimeSum = metrics.map(_.operatorStatistics.dataProcessingTime).sum
     val controlProcessingTimeSum = metrics.map(_.operatorStatistics.controlProcessingTime).sum
     val idleTimeSum = metrics.map(_.operatorStatistics.idleTime).sum
+    val spilledBytesSum = metrics.map(_.operatorStatistics.spilledBytes).sum
 
     OperatorMetrics(
       aggregatedState,
@@ -73,7 +74,8 @@ object ExecutionUtils {
         numWorkersSum,
         dataProcessingTimeSum,
         controlProcessingTimeSum,
-        idleTimeSum
+        idleTimeSum,
+        spilledBytesSum
       )
     )
   }
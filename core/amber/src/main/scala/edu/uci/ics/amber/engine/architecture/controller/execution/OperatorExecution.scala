@@ -98,7 +98,8 @@ case class OperatorExecution() {
         getWorkerIds.size,
         dataProcessingTime = workerRawStats.map(_.dataProcessingTime).sum,
         controlProcessingTime = workerRawStats.map(_.controlProcessingTime).sum,
-        idleTime = workerRawStats.map(_.idleTime).sum
+        idleTime = workerRawStats.map(_.idleTime).sum,
+        spilledBytes = workerRawStats.map(_.spilledBytes).sum
       )
     )
   }
@@ -44,6 +44,7 @@ trait EmbeddedControlMessageHandler {
     // step1: create separate control commands for each target actor.
     val inputSet = msg.targetOps.flatMap { target =>
       cp.workflowExecution.getRunningRegionExecutions
+        .filter(_.hasOperatorExecution(target))
         .map(_.getOperatorExecution(target))
         .flatMap(_.getWorkerIds.map { worker =>
           worker -> createInvocation(msg.methodName, msg.command, worker)
@@ -37,6 +37,8 @@ class InputManager(
 ) extends AmberLogging {
   private var inputBatch: Array[Tuple] = _
   private var currentInputIdx: Int = -1
+  // set once a batch taken by getRemainingBatch failed, until the next batch arrives
+  private var tupleAtATime: Boolean = false
   var currentChannelId: ChannelIdentity = _
 
   private val ports: mutable.HashMap[PortIdentity, WorkerPort] = mutable.HashMap()
@@ -137,6 +139,31 @@ class InputManager(
     inputBatch(currentInputIdx)
   }
 
+  /**
+    * Takes all tuples of the current batch that have not been consumed yet,
+    * and marks them as consumed.
+    */
+  def getRemainingBatch: Array[Tuple] = {
+    val remaining = inputBatch.slice(currentInputIdx + 1, inputBatch.length)
+    currentInputIdx = inputBatch.length - 1
+    remaining
+  }
+
+  /**
+    * Whether the rest of the current batch can be taken at once. After a failed batch, its
+    * remaining tuples are only handed out one at a time.
+    */
+  def canTakeRemainingBatch: Boolean = !tupleAtATime
+
+  /**
+    * Hands the last `count` tuples taken by [[getRemainingBatch]] back to the current batch,
+    * to be taken again one at a time through [[getNextTuple]].
+    */
+  def returnUnprocessed(count: Int): Unit = {
+    currentInputIdx -= count
+    tupleAtATime = true
+  }
+
   def getCurrentTuple: Tuple = {
     if (inputBatch == null) {
       null
@@ -151,5 +178,6 @@ class InputManager(
     currentChannelId = channelId
     inputBatch = batch
     currentInputIdx = -1
+    tupleAtATime = false
   }
 }
@@ -21,7 +21,7 @@ package edu.uci.ics.amber.engine.architecture.messaginglayer
 
 import edu.uci.ics.amber.core.state.State
 import edu.uci.ics.amber.core.storage.DocumentFactory
-import edu.uci.ics.amber.core.storage.model.BufferedItemWriter
+import edu.uci.ics.amber.core.storage.model.{BufferedItemWriter, VirtualDocument}
 import edu.uci.ics.amber.core.tuple._
 import edu.uci.ics.amber.core.virtualidentity.{ActorVirtualIdentity, ChannelIdentity}
 import edu.uci.ics.amber.core.workflow.{PhysicalLink, PortIdentity}
@@ -32,10 +32,7 @@ import edu.uci.ics.amber.engine.architecture.messaginglayer.OutputManager.{
 }
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners._
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings._
-import edu.uci.ics.amber.engine.architecture.worker.managers.{
-  OutputPortResultWriterThread,
-  PortStorageWriterTerminateSignal
-}
+import edu.uci.ics.amber.engine.architecture.worker.managers.OutputPortResultWriterThread
 import edu.uci.ics.amber.engine.common.AmberLogging
 import edu.uci.ics.amber.util.VirtualIdentityUtils
 import java.net.URI
@@ -158,8 +155,13 @@ class OutputManager(
       case None         => partitioners // send to all ports
     }).foreach {
       case (link, partitioner) =>
-        partitioner.getBucketIndex(tuple).foreach { bucketIndex =>
+        if (partitioner.hasSingleBucket) {
+          val bucketIndex = partitioner.getSingleBucketIndex(tuple)
           networkOutputBuffers((link, partitioner.allReceivers(bucketIndex))).addTuple(tuple)
+        } else {
+          partitioner.getBucketIndex(tuple).foreach { bucketIndex =>
+            networkOutputBuffers((link, partitioner.allReceivers(bucketIndex))).addTuple(tuple)
+          }
         }
     }
   }
@@ -188,11 +190,27 @@ class OutputManager(
     buffersToFlush.foreach(_.flush())
   }
 
+  /**
+    * Flushes the network output buffers whose oldest tuple has waited past the batch deadline.
+    */
+  def flushExpired(): Unit = {
+    networkOutputBuffers.values.foreach(_.flushIfDeadlineReached())
+  }
+
   def emitState(state: State): Unit = {
     networkOutputBuffers.foreach(kv => kv._2.sendState(state))
   }
 
-  def addPort(portId: PortIdentity, schema: Schema, storageURIOption: Option[URI]): Unit = {
+  /**
+    * @param storagePartitioning if provided, the storage is written split by this partitioning, so that each
+    *                            worker of its reader only reads its own partition.
+    */
+  def addPort(
+      portId: PortIdentity,
+      schema: Schema,
+      storageURIOption: Option[URI],
+      storagePartitioning: Option[Partitioning] = None
+  ): Unit = {
     // each port can only be added and initialized once.
     if (this.ports.contains(portId)) {
       return
@@ -201,14 +219,16 @@ class OutputManager(
 
     // if a storage URI is provided, set up a storage writer thread
     storageURIOption match {
-      case Some(storageUri) => setupOutputStorageWriterThread(portId, storageUri)
-      case None             => // No need to add a writer
+      case Some(storageUri) =>
+        setupOutputStorageWriterThread(portId, storageUri, storagePartitioning)
+      case None => // No need to add a writer
     }
   }
 
   /**
     * Optionally write the tuple to storage if the specified output port is determined by the scheduler to need storage.
-    * This method is not blocking because a separate thread is used to flush the tuple to storage in batch.
+    * A separate thread flushes the tuples to storage in batch; this method only blocks when that thread
+    * has fallen behind by more than its queue capacity.
     *
     * @param tuple TupleLike to be written to storage.
     * @param outputPortId If not specified, the tuple will be written to all output ports that need storage.
@@ -226,8 +246,8 @@ class OutputManager(
       case None => this.outputPortResultWriterThreads
     }).foreach({
       case (portId, writerThread) =>
-        // write to storage in a separate thread
-        writerThread.queue.put(Left(tuple))
+        // write to storage in a separate thread, blocking only when its queue is full
+        writerThread.putTuple(tuple)
     })
   }
 
@@ -238,10 +258,8 @@ class OutputManager(
   def closeOutputStorageWriterIfNeeded(outputPortId: PortIdentity): Unit = {
     this.outputPortResultWriterThreads.get(outputPortId) match {
       case Some(writerThread) =>
-        // Non-blocking call
-        writerThread.queue.put(Right(PortStorageWriterTerminateSignal))
-        // Blocking call
-        writerThread.join()
+        // Blocking call, rethrows the failure of the writer thread if any
+        writerThread.terminate()
       case None =>
     }
 
@@ -251,6 +269,13 @@ class OutputManager(
 
   def hasUnfinishedOutput: Boolean = outputIterator.hasNext
 
+  /**
+    * Whether all output of this worker goes to a single downstream operator and none of it is
+    * stored, in which case that operator alone decides how much of the output is needed.
+    */
+  def hasSingleConsumer: Boolean =
+    outputPortResultWriterThreads.isEmpty && partitioners.keys.map(_.toOpId).size == 1
+
   def finalizeOutput(): Unit = {
     this.ports.keys
       .foreach(outputPortId =>
@@ -278,12 +303,26 @@ class OutputManager(
     ports.head._1
   }
 
-  private def setupOutputStorageWriterThread(portId: PortIdentity, storageUri: URI): Unit = {
-    val bufferedItemWriter = DocumentFactory
+  private def setupOutputStorageWriterThread(
+      portId: PortIdentity,
+      storageUri: URI,
+      storagePartitioning: Option[Partitioning]
+  ): Unit = {
+    val document = DocumentFactory
       .openDocument(storageUri)
       ._1
-      .writer(VirtualIdentityUtils.getWorkerIndex(actorId).toString)
-      .asInstanceOf[BufferedItemWriter[Tuple]]
+      .asInstanceOf[VirtualDocument[Tuple]]
+    val writerIdentifier = VirtualIdentityUtils.getWorkerIndex(actorId).toString
+    val bufferedItemWriter: BufferedItemWriter[Tuple] =
+      storagePartitioning.map(toPartitioner(_, actorId)) match {
+        case Some(partitioner) if partitioner.hasSingleBucket =>
+          document.partitionedWriter(
+            writerIdentifier,
+            partitioner.allReceivers.size,
+            tuple => partitioner.getSingleBucketIndex(tuple)
+          )
+        case _ => document.writer(writerIdentifier)
+      }
     val writerThread = new OutputPortResultWriterThread(bufferedItemWriter)
     this.outputPortResultWriterThreads(portId) = writerThread
     writerThread.start()
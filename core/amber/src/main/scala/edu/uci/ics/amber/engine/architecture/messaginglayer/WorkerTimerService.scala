@@ -45,10 +45,12 @@ class WorkerTimerService(actorService: AkkaActorService) {
     if (this.adaptiveBatchingHandle.nonEmpty) {
       return
     }
+    // buffers are only flushed once their deadline, which equals the interval, has passed; ticking
+    // twice per interval bounds how long a batch waits to 1.5 intervals
     this.adaptiveBatchingHandle = Some(
       actorService.sendToSelfWithFixedDelay(
         0.milliseconds,
-        FiniteDuration.apply(adaptiveBatchInterval, MILLISECONDS),
+        FiniteDuration.apply(math.max(1, adaptiveBatchInterval / 2), MILLISECONDS),
         ControlInvocation(
           METHOD_FLUSH_NETWORK_BUFFER, // uses method descriptor instead of method name string
           EmptyRequest(),
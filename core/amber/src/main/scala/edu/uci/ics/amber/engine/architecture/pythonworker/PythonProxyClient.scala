@@ -220,9 +220,8 @@ class PythonProxyClient(portNumberPromise: Promise[Int], val actorId: ActorVirtu
     val schemaRoot = VectorSchemaRoot.create(ArrowUtils.fromTexeraSchema(schema), allocator)
     val writer = flightClient.startPut(descriptor, schemaRoot, flightListener)
     schemaRoot.allocateNew()
-    while (tuples.nonEmpty) {
-      ArrowUtils.appendTexeraTuple(tuples.dequeue(), schemaRoot)
-    }
+    ArrowUtils.appendTexeraTuples(tuples, schemaRoot)
+    tuples.clear()
     writer.putNext()
     schemaRoot.clear()
     writer.completed()
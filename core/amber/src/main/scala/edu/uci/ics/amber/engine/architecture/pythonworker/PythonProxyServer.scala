@@ -22,7 +22,6 @@ package edu.uci.ics.amber.engine.architecture.pythonworker
 import com.google.common.primitives.Longs
 import com.twitter.util.Promise
 import edu.uci.ics.amber.core.state.State
-import edu.uci.ics.amber.core.tuple.Tuple
 import edu.uci.ics.amber.core.virtualidentity.{ActorVirtualIdentity, ChannelIdentity}
 import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkOutputGateway
 import edu.uci.ics.amber.engine.architecture.rpc.controlcommands.EmbeddedControlMessage
@@ -43,7 +42,6 @@ import java.net.ServerSocket
 import java.nio.charset.Charset
 import java.nio.{ByteBuffer, ByteOrder}
 import java.util.concurrent.atomic.AtomicInteger
-import scala.collection.mutable
 
 private class AmberProducer(
     actorId: ActorVirtualIdentity,
@@ -138,10 +136,7 @@ private class AmberProducer(
           )
         )
       case _ => // normal data batches
-        val queue = mutable.Queue[Tuple]()
-        for (i <- 0 until root.getRowCount)
-          queue.enqueue(ArrowUtils.getTexeraTuple(i, root))
-        outputPort.sendTo(to, DataFrame(queue.toArray))
+        outputPort.sendTo(to, DataFrame(ArrowUtils.getTexeraTuples(root)))
     }
   }
 }
@@ -91,9 +91,11 @@ class CostBasedScheduleGenerator(
     val startTime = System.nanoTime()
     val regionDAG = createRegionDAG()
     val totalRPGTime = System.nanoTime() - startTime
-    val regionPlan = RegionPlan(
-      regions = regionDAG.iterator().asScala.toSet,
-      regionLinks = regionDAG.edgeSet().asScala.toSet
+    val regionPlan = partitionMaterializationWriters(
+      RegionPlan(
+        regions = regionDAG.iterator().asScala.toSet,
+        regionLinks = regionDAG.edgeSet().asScala.toSet
+      )
     )
     val schedule = generateScheduleFromRegionPlan(regionPlan)
     logger.info(
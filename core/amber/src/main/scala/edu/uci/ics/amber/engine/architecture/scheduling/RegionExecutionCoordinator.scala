@@ -414,20 +414,22 @@ class RegionExecutionCoordinator(
                 }
                 .flatMap {
                   case (outputPortId, (_, _, Right(schema))) =>
-                    val storageURI = resourceConfig.portConfigs
+                    val outputPortConfig = resourceConfig.portConfigs
                       .collectFirst {
                         case (gid, cfg: OutputPortConfig)
                             if gid == GlobalPortIdentity(
                               opId = physicalOp.id,
                               portId = outputPortId
                             ) =>
-                          cfg.storageURI.toString
+                          cfg
                       }
-                      .getOrElse("")
+                    val storageURI = outputPortConfig.map(_.storageURI.toString).getOrElse("")
+                    // the partitioning, if any, by which the workers split the materialization
+                    val storagePartitionings = outputPortConfig.flatMap(_.partitioning).toList
                     Some(
                       GlobalPortIdentity(physicalOp.id, outputPortId) -> (List(
                         storageURI
-                      ), List.empty, schema)
+                      ), storagePartitionings, schema)
                     )
                   case _ => None
                 }
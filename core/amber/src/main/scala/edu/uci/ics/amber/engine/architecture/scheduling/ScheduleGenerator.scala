@@ -21,12 +21,18 @@ package edu.uci.ics.amber.engine.architecture.scheduling
 
 import edu.uci.ics.amber.config.ApplicationConfig
 import edu.uci.ics.amber.core.workflow._
+import edu.uci.ics.amber.engine.architecture.scheduling.config.{InputPortConfig, OutputPortConfig}
 import edu.uci.ics.amber.engine.architecture.scheduling.resourcePolicies.{
   DefaultResourceAllocator,
   ExecutionClusterInfo
 }
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  HashBasedShufflePartitioning,
+  Partitioning
+}
 import org.jgrapht.graph.DirectedAcyclicGraph
 
+import java.net.URI
 import scala.collection.mutable
 import scala.jdk.CollectionConverters.CollectionHasAsScala
 
@@ -76,6 +82,40 @@ abstract class ScheduleGenerator(
 
   def generate(): (Schedule, PhysicalPlan)
 
+  /**
+    * Lets the writer of a materialization split its output by the partitioning of its reader, so that each
+    * reader worker reads only its own partition instead of scanning the whole materialization. This applies
+    * when the materialization has exactly one reader, the reader uses hash partitioning, and the result of the
+    * output port is not displayed by the frontend, since splitting changes the order of the stored result.
+    */
+  def partitionMaterializationWriters(regionPlan: RegionPlan): RegionPlan = {
+    val readerPartitionings: Map[URI, List[Partitioning]] = regionPlan.regions.toList
+      .flatMap(_.resourceConfig)
+      .flatMap(_.portConfigs.values)
+      .collect { case inputPortConfig: InputPortConfig => inputPortConfig.storagePairs }
+      .flatten
+      .groupMap(_._1)(_._2)
+    val displayedOutputPorts = workflowContext.workflowSettings.outputPortsNeedingStorage
+    val updatedRegions = regionPlan.regions.map { region =>
+      region.resourceConfig match {
+        case Some(resourceConfig) =>
+          val portConfigs = resourceConfig.portConfigs.map {
+            case (portId, outputPortConfig: OutputPortConfig)
+                if !displayedOutputPorts.contains(portId) =>
+              readerPartitionings.getOrElse(outputPortConfig.storageURI, List.empty) match {
+                case List(partitioning: HashBasedShufflePartitioning) =>
+                  portId -> outputPortConfig.copy(partitioning = Some(partitioning))
+                case _ => portId -> outputPortConfig
+              }
+            case other => other
+          }
+          region.copy(resourceConfig = Some(resourceConfig.copy(portConfigs = portConfigs)))
+        case None => region
+      }
+    }
+    regionPlan.copy(regions = updatedRegions)
+  }
+
   /**
     * A schedule is a ranking on the regions of a region plan.
     * Regions are dispatched in batches of up to AmberConfig.maxConcurrentRegions, respecting the DAG dependencies.
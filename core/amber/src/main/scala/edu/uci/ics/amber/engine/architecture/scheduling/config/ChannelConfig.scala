@@ -39,7 +39,8 @@ case object ChannelConfig {
       partitionInfo: PartitionInfo
   ): List[ChannelConfig] = {
     partitionInfo match {
-      case HashPartition(_) | RangePartition(_, _, _) | BroadcastPartition() | UnknownPartition() =>
+      case HashPartition(_) | RangePartition(_, _, _, _) | BroadcastPartition() |
+          UnknownPartition() =>
         fromWorkerIds.flatMap(fromWorkerId =>
           toWorkerIds.map(toWorkerId =>
             ChannelConfig(ChannelIdentity(fromWorkerId, toWorkerId, isControl = false), toPortId)
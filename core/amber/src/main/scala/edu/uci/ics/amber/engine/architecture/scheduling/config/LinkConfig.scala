@@ -48,7 +48,7 @@ case object LinkConfig {
           hashAttributeNames
         )
 
-      case RangePartition(rangeAttributeNames, rangeMin, rangeMax) =>
+      case RangePartition(rangeAttributeNames, rangeMin, rangeMax, splitPoints) =>
         RangeBasedShufflePartitioning(
           dataTransferBatchSize,
           fromWorkerIds.flatMap(fromId =>
@@ -56,7 +56,8 @@ case object LinkConfig {
           ),
           rangeAttributeNames,
           rangeMin,
-          rangeMax
+          rangeMax,
+          Option(splitPoints).getOrElse(List.empty).map(RangeSplitPoint(_))
         )
 
       case SinglePartition() =>
@@ -78,12 +79,12 @@ case object LinkConfig {
         )
 
       case BroadcastPartition() =>
+        // every sender reaches every receiver, matching the channels of ChannelConfig
         BroadcastPartitioning(
           dataTransferBatchSize,
-          fromWorkerIds.zip(toWorkerIds).map {
-            case (fromWorkerId, toWorkerId) =>
-              ChannelIdentity(fromWorkerId, toWorkerId, isControl = false)
-          }
+          fromWorkerIds.flatMap(from =>
+            toWorkerIds.map(to => ChannelIdentity(from, to, isControl = false))
+          )
         )
 
       case UnknownPartition() =>
@@ -30,8 +30,15 @@ sealed trait PortConfig {
   def storageURIs: List[URI]
 }
 
-/** An output port requires exactly one materialization URI. */
-final case class OutputPortConfig(storageURI: URI) extends PortConfig {
+/**
+  * An output port requires exactly one materialization URI.
+  *
+  * @param storageURI   the materialization written by the output port.
+  * @param partitioning when set, the workers write the materialization split by this partitioning, which is the
+  *                     partitioning of its only reader, so that each reader worker only reads its own partition.
+  */
+final case class OutputPortConfig(storageURI: URI, partitioning: Option[Partitioning] = None)
+    extends PortConfig {
   override val storageURIs: List[URI] = List(storageURI)
 }
 
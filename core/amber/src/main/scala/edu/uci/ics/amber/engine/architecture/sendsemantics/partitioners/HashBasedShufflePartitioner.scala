@@ -19,23 +19,61 @@
 
 package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
 
-import edu.uci.ics.amber.core.tuple.Tuple
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple}
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.HashBasedShufflePartitioning
 import edu.uci.ics.amber.core.virtualidentity.ActorVirtualIdentity
 
+import scala.util.hashing.MurmurHash3
+
 case class HashBasedShufflePartitioner(partitioning: HashBasedShufflePartitioning)
     extends Partitioner {
 
   private val receivers = partitioning.channels.map(_.toWorkerId).distinct
+  private val numBuckets = receivers.length
+
+  // key positions are resolved once per schema instance
+  @transient private var resolvedSchema: Schema = _
+  @transient private var keyIndices: Array[Int] = _
+
+  override def getBucketIndex(tuple: Tuple): Iterator[Int] =
+    Iterator.single(getSingleBucketIndex(tuple))
+
+  override def hasSingleBucket: Boolean = true
 
-  override def getBucketIndex(tuple: Tuple): Iterator[Int] = {
-    val numBuckets = receivers.length
-    val partialTuple =
-      if (partitioning.hashAttributeNames.isEmpty) tuple
-      else tuple.getPartialTuple(partitioning.hashAttributeNames.toList)
-    val index = Math.floorMod(partialTuple.hashCode(), numBuckets)
-    Iterator(index)
+  /**
+    * Hashes the key fields in place with murmur3, without building a partial tuple or boxing
+    * the key. Tuples with equal key values map to the same bucket regardless of their schema,
+    * which the sides of a join rely on. The Python HashBasedShufflePartitioner computes the
+    * same hash, so Python and Java workers send equal keys to the same receiver.
+    */
+  override def getSingleBucketIndex(tuple: Tuple): Int = {
+    val schema = tuple.getSchema
+    if (schema ne resolvedSchema) {
+      keyIndices =
+        if (partitioning.hashAttributeNames.isEmpty) schema.getAttributes.indices.toArray
+        else partitioning.hashAttributeNames.map(schema.getIndex).toArray
+      resolvedSchema = schema
+    }
+    val fields = tuple.getFields
+    var hash = HashBasedShufflePartitioner.HASH_SEED
+    var i = 0
+    while (i < keyIndices.length) {
+      hash = MurmurHash3.mix(hash, HashBasedShufflePartitioner.fieldHash(fields(keyIndices(i))))
+      i += 1
+    }
+    Math.floorMod(MurmurHash3.finalizeHash(hash, keyIndices.length), numBuckets)
   }
 
   override def allReceivers: Seq[ActorVirtualIdentity] = receivers
 }
+
+object HashBasedShufflePartitioner {
+  private val HASH_SEED = 0x3c074a61
+
+  private def fieldHash(field: Any): Int =
+    field match {
+      case null               => 0
+      case bytes: Array[Byte] => java.util.Arrays.hashCode(bytes)
+      case other              => other.hashCode()
+    }
+}
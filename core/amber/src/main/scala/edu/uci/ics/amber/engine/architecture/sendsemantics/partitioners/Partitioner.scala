@@ -30,24 +30,66 @@ import scala.collection.mutable.ArrayBuffer
 trait Partitioner extends Serializable {
   def getBucketIndex(tuple: Tuple): Iterator[Int]
 
+  /**
+    * Whether every tuple goes to exactly one bucket. If so, callers on the hot path use
+    * [[getSingleBucketIndex]], which does not allocate an iterator per tuple.
+    */
+  def hasSingleBucket: Boolean = false
+
+  /**
+    * The bucket of a tuple that goes to exactly one bucket. Partitioners with
+    * [[hasSingleBucket]] override it to avoid the iterator of [[getBucketIndex]].
+    */
+  def getSingleBucketIndex(tuple: Tuple): Int = getBucketIndex(tuple).next()
+
   def allReceivers: Seq[ActorVirtualIdentity]
 }
 
+/**
+  * Buffers the tuples sent to one receiver and sends them as a [[DataFrame]] once the batch is
+  * closed by whichever comes first of:
+  *  - the tuple count reaching `batchSize`,
+  *  - the in-memory size reaching `batchByteBudget`, so that wide rows do not produce frames
+  *    larger than the receiver's flow-control credit,
+  *  - the first buffered tuple having waited longer than `batchDeadlineNanos`, so that slow
+  *    producers still deliver tuples while the periodic flush is queued behind data.
+  *
+  * The deadline is checked when a tuple is added and by the periodic [[flushIfDeadlineReached]],
+  * which delivers the batch of a producer that stopped adding tuples.
+  */
 class NetworkOutputBuffer(
     val to: ActorVirtualIdentity,
     val dataOutputPort: NetworkOutputGateway,
-    val batchSize: Int = ApplicationConfig.defaultDataTransferBatchSize
+    val batchSize: Int = ApplicationConfig.defaultDataTransferBatchSize,
+    val batchByteBudget: Long = NetworkOutputBuffer.defaultBatchByteBudget,
+    val batchDeadlineNanos: Long = NetworkOutputBuffer.defaultBatchDeadlineNanos
 ) {
 
   var buffer = new ArrayBuffer[Tuple]()
+  private var bufferedBytes: Long = 0L
+  private var firstTupleNanos: Long = 0L
 
   def addTuple(tuple: Tuple): Unit = {
+    if (buffer.isEmpty && batchDeadlineNanos > 0) {
+      firstTupleNanos = System.nanoTime()
+    }
     buffer.append(tuple)
-    if (buffer.size >= batchSize) {
+    bufferedBytes += tuple.inMemSize
+    if (buffer.size >= batchSize || bufferedBytes >= batchByteBudget || deadlineReached) {
+      flush()
+    }
+  }
+
+  def flushIfDeadlineReached(): Unit = {
+    if (deadlineReached) {
       flush()
     }
   }
 
+  private def deadlineReached: Boolean =
+    batchDeadlineNanos > 0 && buffer.nonEmpty &&
+      System.nanoTime() - firstTupleNanos >= batchDeadlineNanos
+
   def sendState(state: State): Unit = {
     flush()
     dataOutputPort.sendTo(to, StateFrame(state))
@@ -58,7 +100,31 @@ class NetworkOutputBuffer(
     if (buffer.nonEmpty) {
       dataOutputPort.sendTo(to, DataFrame(buffer.toArray))
       buffer = new ArrayBuffer[Tuple]()
+      bufferedBytes = 0L
     }
   }
 
 }
+
+object NetworkOutputBuffer {
+
+  /**
+    * The configured byte budget, capped at half of the per-channel credit so that a full batch
+    * always passes flow control and a second one can be in flight while the first is consumed.
+    */
+  val defaultBatchByteBudget: Long =
+    math.max(
+      1L,
+      math.min(
+        ApplicationConfig.maxDataTransferBatchBytes,
+        ApplicationConfig.maxCreditAllowedInBytesPerChannel / 2
+      )
+    )
+
+  val defaultBatchDeadlineNanos: Long =
+    if (ApplicationConfig.enableAdaptiveNetworkBuffering) {
+      ApplicationConfig.adaptiveBufferingTimeoutMs * 1000000L
+    } else {
+      0L
+    }
+}
@@ -20,9 +20,12 @@
 package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
 
 import edu.uci.ics.amber.core.tuple.{AttributeType, Tuple}
+import edu.uci.ics.amber.core.workflow.RangeSplitPoints
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.RangeBasedShufflePartitioning
 import edu.uci.ics.amber.core.virtualidentity.ActorVirtualIdentity
 
+import java.sql.Timestamp
+
 case class RangeBasedShufflePartitioner(partitioning: RangeBasedShufflePartitioning)
     extends Partitioner {
 
@@ -30,8 +33,43 @@ case class RangeBasedShufflePartitioner(partitioning: RangeBasedShufflePartition
   private val keysPerReceiver =
     ((partitioning.rangeMax - partitioning.rangeMin) / receivers.length) + 1
 
+  // resolved from the schema of the first tuple, as the partitioning only carries names
+  private var keyIndices: Array[Int] = _
+  private var keyTypes: Array[AttributeType] = _
+  private var splitPoints: Array[Array[Any]] = _
+
   override def getBucketIndex(tuple: Tuple): Iterator[Int] = {
-    // Do range partitioning only on the first attribute in `rangeAttributeNames`.
+    if (partitioning.splitPoints.nonEmpty) {
+      Iterator(getRangeIndex(tuple))
+    } else {
+      Iterator(getUniformRangeIndex(tuple))
+    }
+  }
+
+  /**
+    * Binary searches the split points with the composite key of all range attributes.
+    */
+  private def getRangeIndex(tuple: Tuple): Int = {
+    if (keyIndices == null) {
+      val schema = tuple.getSchema
+      keyIndices = partitioning.rangeAttributeNames.map(schema.getIndex).toArray
+      keyTypes = partitioning.rangeAttributeNames.map(schema.getAttribute(_).getType).toArray
+      splitPoints = RangeSplitPoints.decode(partitioning.splitPoints.map(_.values), keyTypes)
+    }
+    val key = new Array[Any](keyIndices.length)
+    var i = 0
+    while (i < keyIndices.length) {
+      key(i) = tuple.getField[Any](keyIndices(i))
+      i += 1
+    }
+    // there may be fewer ranges than receivers if the sample had few distinct keys
+    math.min(RangeSplitPoints.rangeIndex(keyTypes, splitPoints, key), receivers.length - 1)
+  }
+
+  /**
+    * Divides [rangeMin, rangeMax] uniformly, using only the first range attribute.
+    */
+  private def getUniformRangeIndex(tuple: Tuple): Int = {
     val attribute = tuple.getSchema.getAttribute(partitioning.rangeAttributeNames.head)
     var fieldVal: Long = -1
     attribute.getType match {
@@ -41,17 +79,19 @@ case class RangeBasedShufflePartitioner(partitioning: RangeBasedShufflePartition
         fieldVal = tuple.getField[Int](attribute)
       case AttributeType.DOUBLE =>
         fieldVal = tuple.getField[Double](attribute).toLong
+      case AttributeType.TIMESTAMP =>
+        fieldVal = tuple.getField[Timestamp](attribute).getTime
       case _ =>
         throw new RuntimeException(s"unsupported attribute type: ${attribute.getType}")
     }
 
     if (fieldVal < partitioning.rangeMin) {
-      return Iterator(0)
+      return 0
     }
     if (fieldVal > partitioning.rangeMax) {
-      return Iterator(receivers.length - 1)
+      return receivers.length - 1
     }
-    Iterator(((fieldVal - partitioning.rangeMin) / keysPerReceiver).toInt)
+    ((fieldVal - partitioning.rangeMin) / keysPerReceiver).toInt
   }
 
   override def allReceivers: Seq[ActorVirtualIdentity] = receivers
@@ -20,7 +20,7 @@
 package edu.uci.ics.amber.engine.architecture.worker
 
 import com.softwaremill.macwire.wire
-import edu.uci.ics.amber.core.executor.OperatorExecutor
+import edu.uci.ics.amber.core.executor.{OperatorExecutor, PartialBatchException}
 import edu.uci.ics.amber.core.state.State
 import edu.uci.ics.amber.core.tuple.{
   FinalizeExecutor,
@@ -63,7 +63,11 @@ import edu.uci.ics.amber.core.virtualidentity.{
 }
 import edu.uci.ics.amber.core.workflow.PortIdentity
 import edu.uci.ics.amber.engine.architecture.rpc.controlreturns.EmptyReturn
-import edu.uci.ics.amber.engine.architecture.rpc.workerservice.WorkerServiceGrpc.METHOD_END_CHANNEL
+import edu.uci.ics.amber.engine.architecture.rpc.workerservice.WorkerServiceGrpc.{
+  METHOD_END_CHANNEL,
+  METHOD_STOP_PRODUCING
+}
+import edu.uci.ics.amber.util.VirtualIdentityUtils
 import io.grpc.MethodDescriptor
 
 import java.util.concurrent.LinkedBlockingQueue
@@ -83,6 +87,9 @@ class DataProcessor(
 
   @transient var adaptiveBatchingMonitor: WorkerTimerService = _
 
+  // whether upstream workers have been asked to stop producing, see requestUpstreamStop
+  private var upstreamStopRequested = false
+
   // inner dependencies
   private val initializer = new DataProcessorRPCHandlerInitializer(this)
   val pauseManager: PauseManager = wire[PauseManager]
@@ -127,6 +134,91 @@ class DataProcessor(
     }
   }
 
+  /**
+    * process all remaining tuples of the current input batch through executor logic in one call.
+    * if the executor fails, the tuples it did not process are handed back to the input manager
+    * and processed one by one, so that only the failing tuple is reported and skipped.
+    * this function is only called by the DP thread.
+    */
+  private[this] def processInputBatch(batch: Array[Tuple]): Unit = {
+    val portIdentity: PortIdentity =
+      this.inputGateway.getChannel(inputManager.currentChannelId).getPortId
+    val processed =
+      try {
+        outputManager.outputIterator.setTupleOutput(
+          executor.processBatchMultiPort(
+            batch,
+            portIdentity.id
+          )
+        )
+        batch.length
+      } catch safely {
+        case e =>
+          logger.info(s"processing a batch failed with $e, processing the rest tuple by tuple")
+          e match {
+            case partial: PartialBatchException => partial.processedTuples
+            case _                              => 0
+          }
+      }
+    if (processed < batch.length) {
+      inputManager.returnUnprocessed(batch.length - processed)
+    }
+
+    var batchSize = 0L
+    var i = 0
+    while (i < processed) {
+      batchSize += batch(i).inMemSize
+      i += 1
+    }
+    statisticsManager.increaseInputStatistics(portIdentity, processed, batchSize)
+  }
+
+  /**
+    * process the next input of the current batch, either a single tuple or,
+    * if the executor supports it, all remaining tuples of the batch.
+    */
+  private[this] def processNextInput(): Unit = {
+    if (executor.supportsBatchProcessing && inputManager.canTakeRemainingBatch) {
+      processInputBatch(inputManager.getRemainingBatch)
+    } else {
+      processInputTuple(inputManager.getNextTuple)
+    }
+    if (!upstreamStopRequested && !executor.needsMoreInput) {
+      requestUpstreamStop()
+    }
+  }
+
+  /**
+    * Ask the workers of all upstream operators, through the controller, to stop producing once
+    * the executor needs no more input. The remaining input is still consumed until the
+    * upstream workers complete, so this only shortens the execution.
+    */
+  private[this] def requestUpstreamStop(): Unit = {
+    upstreamStopRequested = true
+    val upstreamOps = inputGateway.getAllDataChannels
+      .map(_.channelId.fromWorkerId)
+      .filter(VirtualIdentityUtils.isWorker)
+      .map(VirtualIdentityUtils.getPhysicalOpId)
+      .toSeq
+      .distinct
+    if (upstreamOps.isEmpty) {
+      return
+    }
+    logger.info(s"$executor needs no more input, asking $upstreamOps to stop producing")
+    asyncRPCClient.controllerInterface.propagateEmbeddedControlMessage(
+      PropagateEmbeddedControlMessageRequest(
+        upstreamOps,
+        EmbeddedControlMessageIdentity(s"StopProducing_${actorId.name}"),
+        NO_ALIGNMENT,
+        upstreamOps,
+        upstreamOps,
+        EmptyRequest(),
+        METHOD_STOP_PRODUCING.getBareMethodName
+      ),
+      asyncRPCClient.mkContext(CONTROLLER)
+    )
+  }
+
   private[this] def processInputState(state: State, port: Int): Unit = {
     try {
       val outputState = executor.processState(state, port)
@@ -201,7 +293,7 @@ class DataProcessor(
     if (outputManager.hasUnfinishedOutput) {
       outputOneTuple()
     } else {
-      processInputTuple(inputManager.getNextTuple)
+      processNextInput()
     }
     statisticsManager.increaseDataProcessingTime(System.nanoTime() - dataProcessingStartTime)
   }
@@ -225,7 +317,7 @@ class DataProcessor(
           }
         )
         inputManager.initBatch(channelId, tuples)
-        processInputTuple(inputManager.getNextTuple)
+        processNextInput()
       case StateFrame(state) =>
         processInputState(state, portId.id)
     }
@@ -52,7 +52,8 @@ class DataProcessorRPCHandlerInitializer(val dp: DataProcessor)
     with FlushNetworkBufferHandler
     with RetrieveStateHandler
     with PrepareCheckpointHandler
-    with FinalizeCheckpointHandler {
+    with FinalizeCheckpointHandler
+    with StopProducingHandler {
   val actorId: ActorVirtualIdentity = dp.actorId
 
   override def debugCommand(
@@ -45,7 +45,11 @@ import edu.uci.ics.amber.engine.architecture.rpc.workerservice.WorkerServiceGrpc
   METHOD_END_CHANNEL,
   METHOD_START_CHANNEL
 }
-import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.Partitioning
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  HashBasedShufflePartitioning,
+  Partitioning,
+  RoundRobinPartitioning
+}
 import edu.uci.ics.amber.engine.architecture.worker.WorkflowWorker.{
   DPInputQueueElement,
   FIFOMessageElement
@@ -93,16 +97,34 @@ class InputPortMaterializationReaderThread(
         .openDocument(uri)
         ._1
         .asInstanceOf[VirtualDocument[Tuple]]
-      val storageReadIterator = materialization.get()
+      val receiverIndex = partitioner.allReceivers.indexOf(workerActorId)
+      val numReceivers = partitioner.allReceivers.size
+      // Read only the part of the materialization destined to this worker when the storage allows it.
+      val (storageReadIterator, isOnlyForThisWorker) = partitioning match {
+        case _: RoundRobinPartitioning =>
+          // Any disjoint split is a valid round-robin distribution.
+          (materialization.getSplit(receiverIndex, numReceivers), true)
+        case _: HashBasedShufflePartitioning =>
+          materialization.getPartition(receiverIndex, numReceivers) match {
+            case Some(partitionIterator) => (partitionIterator, true)
+            case None                    => (materialization.get(), false)
+          }
+        case _ => (materialization.get(), false)
+      }
       // Produce tuples
       while (storageReadIterator.hasNext) {
         val tuple = storageReadIterator.next()
-        if (
-          partitioner
-            .getBucketIndex(tuple)
-            .toList
-            .exists(bucketIndex => partitioner.allReceivers(bucketIndex) == workerActorId)
-        ) {
+        val isForThisWorker =
+          if (isOnlyForThisWorker) {
+            true
+          } else if (partitioner.hasSingleBucket) {
+            partitioner.allReceivers(partitioner.getSingleBucketIndex(tuple)) == workerActorId
+          } else {
+            partitioner
+              .getBucketIndex(tuple)
+              .exists(bucketIndex => partitioner.allReceivers(bucketIndex) == workerActorId)
+          }
+        if (isForThisWorker) {
           buffer.append(tuple)
           if (buffer.size >= batchSize) {
             flush()
@@ -20,29 +20,102 @@
 package edu.uci.ics.amber.engine.architecture.worker.managers
 
 import com.google.common.collect.Queues
+import edu.uci.ics.amber.config.StorageConfig
 import edu.uci.ics.amber.core.storage.model.BufferedItemWriter
 import edu.uci.ics.amber.core.tuple.Tuple
 
-import java.util.concurrent.LinkedBlockingQueue
+import java.util
+import java.util.concurrent.{LinkedBlockingQueue, Semaphore, TimeUnit}
+import scala.jdk.CollectionConverters.CollectionHasAsScala
 
 sealed trait TerminateSignal
 case object PortStorageWriterTerminateSignal extends TerminateSignal
 
+/**
+  * Writes the tuples of an output port to storage, off the DP thread.
+  *
+  * The queue is bounded by the in-memory size of the queued tuples: `putTuple` blocks once
+  * `queueCapacityBytes` worth of tuples are waiting, so a slow storage backpressures the worker
+  * instead of filling its heap. The thread drains all queued tuples at once and hands them to
+  * the writer, which encodes and commits data files in the background. At least every
+  * `commitIntervalMs` the writer is asked to commit the files it has written, so they become
+  * visible even while no tuples arrive.
+  *
+  * If writing fails, the thread stops and the failure is rethrown by the next `putTuple` or by
+  * `terminate`.
+  */
 class OutputPortResultWriterThread(
-    bufferedItemWriter: BufferedItemWriter[Tuple]
+    bufferedItemWriter: BufferedItemWriter[Tuple],
+    queueCapacityBytes: Long = StorageConfig.icebergTableCommitQueueSize,
+    commitIntervalMs: Long = StorageConfig.icebergTableCommitIntervalMs
 ) extends Thread {
 
-  val queue: LinkedBlockingQueue[Either[Tuple, TerminateSignal]] =
+  private val queue: LinkedBlockingQueue[Either[Tuple, TerminateSignal]] =
     Queues.newLinkedBlockingQueue[Either[Tuple, TerminateSignal]]()
 
+  private val capacity: Int = math.max(1L, math.min(queueCapacityBytes, Int.MaxValue)).toInt
+  private val availableBytes = new Semaphore(capacity)
+  private val pollIntervalMs: Long = math.max(1L, commitIntervalMs)
+
+  @volatile private var failure: Option[Throwable] = None
+
+  // A tuple larger than the whole capacity takes all of it, so it is still admitted
+  private def permitsOf(tuple: Tuple): Int = math.min(tuple.inMemSize, capacity.toLong).toInt
+
+  private def rethrowFailure(): Unit =
+    failure.foreach { cause =>
+      throw new RuntimeException("failed to write the output port to storage", cause)
+    }
+
+  /**
+    * Queues a tuple to be written, blocking while the queue is full.
+    */
+  def putTuple(tuple: Tuple): Unit = {
+    rethrowFailure()
+    availableBytes.acquire(permitsOf(tuple))
+    // the permits may have been released because the thread failed
+    rethrowFailure()
+    queue.put(Left(tuple))
+  }
+
+  /**
+    * Signals the thread to write the remaining tuples and close the writer, and waits for it to
+    * finish.
+    */
+  def terminate(): Unit = {
+    queue.put(Right(PortStorageWriterTerminateSignal))
+    join()
+    rethrowFailure()
+  }
+
   override def run(): Unit = {
+    try {
+      writeUntilTerminated()
+    } catch {
+      case e: Throwable =>
+        failure = Some(e)
+        // wake up a putTuple blocked on the full queue, which then sees the failure
+        availableBytes.release(capacity - availableBytes.availablePermits())
+    }
+  }
+
+  private def writeUntilTerminated(): Unit = {
+    val drained = new util.ArrayList[Either[Tuple, TerminateSignal]]()
     var internalStop = false
     while (!internalStop) {
-      val queueContent = queue.take()
-      queueContent match {
-        case Left(tuple) => bufferedItemWriter.putOne(tuple)
-        case Right(_)    => internalStop = true
+      val head = queue.poll(pollIntervalMs, TimeUnit.MILLISECONDS)
+      if (head != null) {
+        drained.add(head)
+        queue.drainTo(drained)
+        drained.asScala.foreach {
+          case Left(tuple) =>
+            bufferedItemWriter.putOne(tuple)
+            availableBytes.release(permitsOf(tuple))
+          case Right(_) => internalStop = true
+        }
+        drained.clear()
       }
+      bufferedItemWriter.commitIfDue()
     }
     bufferedItemWriter.close()
   }
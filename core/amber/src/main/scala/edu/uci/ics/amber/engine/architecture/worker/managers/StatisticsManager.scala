@@ -59,7 +59,8 @@ class StatisticsManager {
       }.toSeq,
       dataProcessingTime,
       controlProcessingTime,
-      totalExecutionTime - dataProcessingTime - controlProcessingTime
+      totalExecutionTime - dataProcessingTime - controlProcessingTime,
+      Option(operator).map(_.spilledBytes).getOrElse(0L)
     )
   }
 
@@ -86,6 +87,19 @@ class StatisticsManager {
     inputStatistics.update(portId, (count + 1, totalSize + size))
   }
 
+  /**
+    * Increases the input statistics for a given port by a batch of tuples.
+    * @param portId the port identity
+    * @param count the number of tuples in the batch
+    * @param size the total size of the tuples in the batch
+    */
+  def increaseInputStatistics(portId: PortIdentity, count: Long, size: Long): Unit = {
+    require(count >= 0, "Tuple count must be non-negative")
+    require(size >= 0, "Tuple size must be non-negative")
+    val (currentCount, totalSize) = inputStatistics(portId)
+    inputStatistics.update(portId, (currentCount + count, totalSize + size))
+  }
+
   /**
     * Increases the output statistics for a given port.
     * @param portId the port identity
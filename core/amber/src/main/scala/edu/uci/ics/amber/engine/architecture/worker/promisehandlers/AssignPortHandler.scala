@@ -58,7 +58,12 @@ trait AssignPortHandler {
         case ""        => None
         case uriString => Some(URI.create(uriString))
       }
-      dp.outputManager.addPort(msg.portId, schema, storageURIOption)
+      dp.outputManager.addPort(
+        msg.portId,
+        schema,
+        storageURIOption,
+        msg.partitionings.headOption
+      )
     }
     EmptyReturn()
   }
@@ -31,7 +31,7 @@ trait FlushNetworkBufferHandler {
       request: EmptyRequest,
       ctx: AsyncRPCContext
   ): Future[EmptyReturn] = {
-    dp.outputManager.flush()
+    dp.outputManager.flushExpired()
     EmptyReturn()
   }
 
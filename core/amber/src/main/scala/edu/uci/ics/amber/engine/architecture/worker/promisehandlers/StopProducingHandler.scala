@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.engine.architecture.worker.promisehandlers
+
+import com.twitter.util.Future
+import edu.uci.ics.amber.core.executor.SourceOperatorExecutor
+import edu.uci.ics.amber.engine.architecture.rpc.controlcommands.{AsyncRPCContext, EmptyRequest}
+import edu.uci.ics.amber.engine.architecture.rpc.controlreturns.EmptyReturn
+import edu.uci.ics.amber.engine.architecture.worker.DataProcessorRPCHandlerInitializer
+
+/**
+  * Sent by a downstream operator, such as Limit, that needs no more input. A source worker
+  * whose output only feeds that operator drops the tuples it has not produced yet, while the
+  * port and executor completion markers queued behind them are kept so the worker still
+  * completes normally. Other workers ignore the request.
+  */
+trait StopProducingHandler {
+  this: DataProcessorRPCHandlerInitializer =>
+
+  override def stopProducing(request: EmptyRequest, ctx: AsyncRPCContext): Future[EmptyReturn] = {
+    dp.executor match {
+      case _: SourceOperatorExecutor if dp.outputManager.hasSingleConsumer =>
+        logger.info("downstream operator needs no more input, stop producing")
+        dp.outputManager.outputIterator.setTupleOutput(Iterator.empty)
+      case _ =>
+    }
+    EmptyReturn()
+  }
+
+}
@@ -22,6 +22,7 @@ package edu.uci.ics.amber.engine.common
 import akka.actor.ExtendedActorSystem
 import com.esotericsoftware.kryo.serializers.ClosureSerializer
 import com.esotericsoftware.kryo.serializers.ClosureSerializer.Closure
+import edu.uci.ics.amber.engine.common.ambermessage.{DataFrame, DataFrameSerializer}
 import io.altoo.akka.serialization.kryo.DefaultKryoInitializer
 import io.altoo.akka.serialization.kryo.serializer.scala.ScalaKryo
 
@@ -31,5 +32,6 @@ class AmberKryoInitializer extends DefaultKryoInitializer {
   override def preInit(kryo: ScalaKryo, system: ExtendedActorSystem): Unit = {
     kryo.register(classOf[SerializedLambda])
     kryo.register(classOf[Closure], new ClosureSerializer())
+    kryo.register(classOf[DataFrame], new DataFrameSerializer())
   }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.engine.common.ambermessage
+
+import com.esotericsoftware.kryo.io.{Input, Output}
+import com.esotericsoftware.kryo.{Kryo, Serializer}
+import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple}
+
+import java.sql.Timestamp
+
+/**
+  * Kryo serializer that encodes a [[DataFrame]] column by column, writing the schema once per
+  * frame instead of once per tuple. Each column is a null bitmap followed by the non-null
+  * values in a compact binary layout for its type. The decoded tuples share one [[Schema]].
+  *
+  * Frames whose tuples do not all share one schema are written tuple by tuple.
+  */
+class DataFrameSerializer extends Serializer[DataFrame] {
+
+  override def write(kryo: Kryo, output: Output, dataFrame: DataFrame): Unit = {
+    val frame = dataFrame.frame
+    output.writeVarInt(frame.length, true)
+    if (frame.isEmpty) {
+      return
+    }
+    val schema = frame(0).getSchema
+    val isColumnar = frame.forall(tuple => (tuple.getSchema eq schema) || tuple.getSchema == schema)
+    output.writeBoolean(isColumnar)
+    if (!isColumnar) {
+      frame.foreach(tuple => kryo.writeObject(output, tuple))
+      return
+    }
+
+    val attributes = schema.getAttributes.toArray
+    output.writeVarInt(attributes.length, true)
+    attributes.foreach { attribute =>
+      output.writeString(attribute.getName)
+      output.writeString(attribute.getType.name())
+    }
+    var column = 0
+    while (column < attributes.length) {
+      writeColumn(kryo, output, frame, column, attributes(column).getType)
+      column += 1
+    }
+  }
+
+  override def read(kryo: Kryo, input: Input, dataFrameClass: Class[_ <: DataFrame]): DataFrame = {
+    val length = input.readVarInt(true)
+    if (length == 0) {
+      return DataFrame(Array.empty)
+    }
+    if (!input.readBoolean()) {
+      return DataFrame(Array.fill(length)(kryo.readObject(input, classOf[Tuple])))
+    }
+
+    val numAttributes = input.readVarInt(true)
+    val attributes = Array.fill(numAttributes)(
+      new Attribute(input.readString(), AttributeType.valueOf(input.readString()))
+    )
+    val schema = Schema(attributes.toList)
+    val rows = Array.fill(length)(new Array[Any](numAttributes))
+    var column = 0
+    while (column < numAttributes) {
+      readColumn(kryo, input, rows, column, attributes(column).getType)
+      column += 1
+    }
+    DataFrame(rows.map(fields => Tuple(schema, fields)))
+  }
+
+  private def writeColumn(
+      kryo: Kryo,
+      output: Output,
+      frame: Array[Tuple],
+      column: Int,
+      attributeType: AttributeType
+  ): Unit = {
+    val nulls = new Array[Byte]((frame.length + 7) / 8)
+    var row = 0
+    while (row < frame.length) {
+      if (frame(row).getField[Any](column) == null) {
+        nulls(row >> 3) = (nulls(row >> 3) | (1 << (row & 7))).toByte
+      }
+      row += 1
+    }
+    output.writeBytes(nulls)
+
+    row = 0
+    while (row < frame.length) {
+      val field = frame(row).getField[Any](column)
+      if (field != null) {
+        attributeType match {
+          case AttributeType.INTEGER => output.writeVarInt(field.asInstanceOf[Int], false)
+          case AttributeType.LONG    => output.writeVarLong(field.asInstanceOf[Long], false)
+          case AttributeType.DOUBLE  => output.writeDouble(field.asInstanceOf[Double])
+          case AttributeType.BOOLEAN => output.writeBoolean(field.asInstanceOf[Boolean])
+          case AttributeType.STRING  => output.writeString(field.asInstanceOf[String])
+          case AttributeType.TIMESTAMP =>
+            val timestamp = field.asInstanceOf[Timestamp]
+            output.writeVarLong(timestamp.getTime, false)
+            output.writeVarInt(timestamp.getNanos, true)
+          case AttributeType.BINARY =>
+            val bytes = field.asInstanceOf[Array[Byte]]
+            output.writeVarInt(bytes.length, true)
+            output.writeBytes(bytes)
+          case _ => kryo.writeClassAndObject(output, field)
+        }
+      }
+      row += 1
+    }
+  }
+
+  private def readColumn(
+      kryo: Kryo,
+      input: Input,
+      rows: Array[Array[Any]],
+      column: Int,
+      attributeType: AttributeType
+  ): Unit = {
+    val nulls = input.readBytes((rows.length + 7) / 8)
+    var row = 0
+    while (row < rows.length) {
+      if ((nulls(row >> 3) & (1 << (row & 7))) == 0) {
+        rows(row)(column) = attributeType match {
+          case AttributeType.INTEGER => input.readVarInt(false)
+          case AttributeType.LONG    => input.readVarLong(false)
+          case AttributeType.DOUBLE  => input.readDouble()
+          case AttributeType.BOOLEAN => input.readBoolean()
+          case AttributeType.STRING  => input.readString()
+          case AttributeType.TIMESTAMP =>
+            val timestamp = new Timestamp(input.readVarLong(false))
+            timestamp.setNanos(input.readVarInt(true))
+            timestamp
+          case AttributeType.BINARY => input.readBytes(input.readVarInt(true))
+          case _                    => kryo.readClassAndObject(input)
+        }
+      }
+      row += 1
+    }
+  }
+}
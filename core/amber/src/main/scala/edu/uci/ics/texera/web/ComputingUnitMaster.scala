@@ -22,7 +22,8 @@ package edu.uci.ics.texera.web
 import com.fasterxml.jackson.module.scala.DefaultScalaModule
 import com.typesafe.scalalogging.LazyLogging
 import edu.uci.ics.amber.config.{ApplicationConfig, StorageConfig}
-import edu.uci.ics.amber.core.storage.DocumentFactory
+import edu.uci.ics.amber.core.storage.{DocumentFactory, IcebergCatalogInstance}
+import edu.uci.ics.amber.core.storage.result.iceberg.IcebergTableCompactor
 import edu.uci.ics.amber.core.workflow.{PhysicalPlan, WorkflowContext}
 import edu.uci.ics.amber.engine.architecture.controller.ControllerConfig
 import edu.uci.ics.amber.engine.architecture.rpc.controlreturns.WorkflowAggregatedState.{
@@ -182,6 +183,24 @@ class ComputingUnitMaster extends io.dropwizard.Application[Configuration] with
       }
     }
 
+    if (
+      StorageConfig.resultStorageMode.toLowerCase == DocumentFactory.ICEBERG &&
+      StorageConfig.icebergTableCompactionEnabled
+    ) {
+      scheduleRecurringCallThroughActorSystem(
+        StorageConfig.icebergTableCompactionIntervalInSecs.seconds,
+        StorageConfig.icebergTableCompactionIntervalInSecs.seconds
+      ) {
+        IcebergTableCompactor.compactNamespaces(
+          IcebergCatalogInstance.getInstance(),
+          Seq(
+            StorageConfig.icebergTableResultNamespace,
+            StorageConfig.icebergTableRuntimeStatisticsNamespace
+          )
+        )
+      }
+    }
+
     environment.jersey.register(classOf[WorkflowExecutionsResource])
   }
 
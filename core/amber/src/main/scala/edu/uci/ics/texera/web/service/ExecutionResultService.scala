@@ -31,6 +31,7 @@ import edu.uci.ics.amber.core.storage.result._
 import edu.uci.ics.amber.core.tuple.{AttributeType, Tuple, TupleUtils}
 import edu.uci.ics.amber.core.workflow.{PhysicalOp, PhysicalPlan, PortIdentity}
 import edu.uci.ics.amber.engine.architecture.controller.{ExecutionStateUpdate, FatalError}
+import edu.uci.ics.amber.engine.architecture.rpc.controlreturns.WorkflowAggregatedState
 import edu.uci.ics.amber.engine.architecture.rpc.controlreturns.WorkflowAggregatedState.{
   COMPLETED,
   FAILED,
@@ -60,12 +61,14 @@ import edu.uci.ics.texera.web.service.WorkflowExecutionService.getLatestExecutio
 import edu.uci.ics.texera.web.storage.{ExecutionStateStore, WorkflowStateStore}
 
 import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
 import scala.collection.mutable
+import scala.jdk.CollectionConverters._
 import scala.concurrent.duration.DurationInt
 
 object ExecutionResultService {
 
-  private val defaultPageSize: Int = 5
+  private[service] val defaultPageSize: Int = 5
 
   /**
     * Converts a collection of Tuples to a list of JSON ObjectNodes.
@@ -197,6 +200,15 @@ object ExecutionResultService {
       }
     }
 
+    // The tuple counts are known, so pagination only needs the pages they changed
+    if (webOutputMode == PaginationMode()) {
+      return WebPaginationUpdate(
+        PaginationMode(),
+        newTupleCount,
+        dirtyPageIndices(oldTupleCount, newTupleCount)
+      )
+    }
+
     // Cannot assume the storage is available at this point. The storage object is only available
     // after a region is scheduled to execute.
     val storageUriOption = WorkflowExecutionsResource.getResultUriByLogicalPortId(
@@ -209,18 +221,6 @@ object ExecutionResultService {
         val storage: VirtualDocument[Tuple] =
           DocumentFactory.openDocument(storageUri)._1.asInstanceOf[VirtualDocument[Tuple]]
         val webUpdate = webOutputMode match {
-          case PaginationMode() =>
-            val numTuples = storage.getCount
-            val maxPageIndex =
-              Math.ceil(numTuples / defaultPageSize.toDouble).toInt
-            // This can be extremly expensive when we have a lot of pages.
-            // It causes delays in some obseved cases.
-            // TODO: try to optimize this.
-            WebPaginationUpdate(
-              PaginationMode(),
-              newTupleCount,
-              (1 to maxPageIndex).toList
-            )
           case SetSnapshotMode() =>
             tuplesToWebData(webOutputMode, storage.get().toList)
           case SetDeltaMode() =>
@@ -242,6 +242,21 @@ object ExecutionResultService {
     }
   }
 
+  /**
+    * The pages changed by the result growing from `oldTupleCount` to `newTupleCount` tuples: the
+    * last page that was partially filled, and every page after it. No page is dirty if the count
+    * did not change, and all pages are dirty if the result shrank, as it was replaced.
+    */
+  private[service] def dirtyPageIndices(oldTupleCount: Int, newTupleCount: Int): List[Int] = {
+    if (newTupleCount == oldTupleCount) {
+      return List.empty
+    }
+    val maxPageIndex = Math.ceil(newTupleCount / defaultPageSize.toDouble).toInt
+    val firstDirtyPageIndex =
+      if (newTupleCount < oldTupleCount) 1 else oldTupleCount / defaultPageSize + 1
+    (firstDirtyPageIndex to maxPageIndex).toList
+  }
+
   /**
     * Behavior for different web output modes:
     *  - PaginationMode   (used by view result operator)
@@ -295,6 +310,11 @@ class ExecutionResultService(
     with LazyLogging {
   private val resultPullingFrequency = ApplicationConfig.executionResultPollingInSecs
   private var resultUpdateCancellable: Cancellable = _
+  // The engine's output tuple count and state of each operator when its stored result was last
+  // counted, and whether that count had changed. The polling timer and the final update when the
+  // execution terminates run on different threads, so it is a concurrent map.
+  private val resultCountProgress =
+    new ConcurrentHashMap[OperatorIdentity, ((Long, WorkflowAggregatedState), Boolean)]().asScala
 
   def attachToExecution(
       executionId: ExecutionIdentity,
@@ -307,6 +327,7 @@ class ExecutionResultService(
     }
 
     unsubscribeAll()
+    resultCountProgress.clear()
 
     addSubscription(stateStore.metadataStore.getStateObservable.subscribe {
       newState: ExecutionMetadataStore =>
@@ -318,7 +339,7 @@ class ExecutionResultService(
                   2.seconds,
                   resultPullingFrequency.seconds
                 ) {
-                  onResultUpdate(executionId, physicalPlan)
+                  onResultUpdate(executionId, stateStore, physicalPlan)
                 }
             }
           } else {
@@ -336,7 +357,7 @@ class ExecutionResultService(
             logger.info("Workflow execution terminated. Stop update results.")
             if (resultUpdateCancellable.cancel() || resultUpdateCancellable.isCancelled) {
               // immediately perform final update
-              onResultUpdate(executionId, physicalPlan)
+              onResultUpdate(executionId, stateStore, physicalPlan, countAll = true)
             }
           }
         })
@@ -457,28 +478,56 @@ class ExecutionResultService(
     }
   }
 
-  private def onResultUpdate(executionId: ExecutionIdentity, physicalPlan: PhysicalPlan): Unit = {
-    workflowStateStore.resultStore.updateState { _ =>
+  private def onResultUpdate(
+      executionId: ExecutionIdentity,
+      stateStore: ExecutionStateStore,
+      physicalPlan: PhysicalPlan,
+      countAll: Boolean = false
+  ): Unit = {
+    val operatorInfo = stateStore.statsStore.getState.operatorInfo
+    workflowStateStore.resultStore.updateState { oldResultStore =>
       val newInfo: Map[OperatorIdentity, OperatorResultMetadata] = {
         WorkflowExecutionsResource
           .getResultUrisByExecutionId(executionId)
           .map(uri => {
-            val count = DocumentFactory.openDocument(uri)._1.getCount.toInt
-
             val (_, _, globalPortIdOption, _) = VFSURIFactory.decodeURI(uri)
+            val opId = globalPortIdOption.get.opId.logicalOpId
+
+            // Only count the stored result if the engine reports progress since it was last
+            // counted, or if that count still changed, as the storage may lag behind the engine
+            val progress = operatorInfo
+              .get(opId.id)
+              .map(metrics =>
+                (
+                  metrics.operatorStatistics.outputMetrics.map(_.tupleMetrics.count).sum,
+                  metrics.operatorState
+                )
+              )
+            val lastInfo = oldResultStore.resultInfo.get(opId)
+            val unchanged = !countAll && lastInfo.nonEmpty && resultCountProgress.get(opId).exists {
+              case (lastProgress, countChanged) => progress.contains(lastProgress) && !countChanged
+            }
+            if (unchanged) {
+              (opId, lastInfo.get)
+            } else {
+              val count = DocumentFactory.openDocument(uri)._1.getCount.toInt
+              progress.foreach { p =>
+                resultCountProgress(opId) = (p, !lastInfo.map(_.tupleCount).contains(count))
+              }
 
-            // Retrieve the mode of the specified output port
-            val mode = physicalPlan
-              .getPhysicalOpsOfLogicalOp(globalPortIdOption.get.opId.logicalOpId)
-              .flatMap(_.outputPorts.get(globalPortIdOption.get.portId))
-              .map(_._1.mode)
-              .head
-
-            val changeDetector =
-              if (mode == OutputMode.SET_SNAPSHOT) {
-                UUID.randomUUID.toString
-              } else ""
-            (globalPortIdOption.get.opId.logicalOpId, OperatorResultMetadata(count, changeDetector))
+              // Retrieve the mode of the specified output port
+              val mode = physicalPlan
+                .getPhysicalOpsOfLogicalOp(opId)
+                .flatMap(_.outputPorts.get(globalPortIdOption.get.portId))
+                .map(_._1.mode)
+                .head
+
+              val changeDetector =
+                if (mode == OutputMode.SET_SNAPSHOT) {
+                  UUID.randomUUID.toString
+                } else ""
+              (opId, OperatorResultMetadata(count, changeDetector))
+            }
           })
           .toMap
       }
@@ -125,7 +125,8 @@ class ExecutionStatsService(
                 metrics.operatorStatistics.numWorkers,
                 metrics.operatorStatistics.dataProcessingTime,
                 metrics.operatorStatistics.controlProcessingTime,
-                metrics.operatorStatistics.idleTime
+                metrics.operatorStatistics.idleTime,
+                metrics.operatorStatistics.spilledBytes
               )
               (x._1, res)
           })
@@ -249,7 +250,8 @@ class ExecutionStatsService(
             metrics.operatorStatistics.numWorkers,
             metrics.operatorStatistics.dataProcessingTime,
             metrics.operatorStatistics.controlProcessingTime,
-            metrics.operatorStatistics.idleTime
+            metrics.operatorStatistics.idleTime,
+            metrics.operatorStatistics.spilledBytes
           )
         )
     }
@@ -351,14 +351,7 @@ class ResultExportService(workflowIdentity: WorkflowIdentity, computingUnitId: I
         }
 
         if (buffer.nonEmpty) {
-          val currentBatchSize = buffer.size
-
-          for (i <- 0 until currentBatchSize) {
-            val tuple = buffer(i)
-            ArrowUtils.setTexeraTuple(tuple, i, root)
-          }
-
-          root.setRowCount(currentBatchSize)
+          ArrowUtils.appendTexeraTuples(buffer, root)
           writer.writeBatch()
 
           root.clear()
@@ -21,8 +21,14 @@ package edu.uci.ics.texera.workflow
 
 import com.typesafe.scalalogging.LazyLogging
 import edu.uci.ics.amber.core.storage.FileResolver
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema}
 import edu.uci.ics.amber.operator.LogicalOp
+import edu.uci.ics.amber.operator.filter.{ComparisonType, FilterPredicate, SpecializedFilterOpDesc}
+import edu.uci.ics.amber.operator.limit.LimitOpDesc
 import edu.uci.ics.amber.operator.source.scan.ScanSourceOpDesc
+import edu.uci.ics.amber.operator.source.sql.SQLSourceOpDesc
+import edu.uci.ics.amber.operator.source.sql.mysql.MySQLSourceOpDesc
+import edu.uci.ics.amber.operator.source.sql.postgresql.PostgreSQLSourceOpDesc
 import edu.uci.ics.amber.core.virtualidentity.OperatorIdentity
 import edu.uci.ics.texera.web.model.websocket.request.LogicalPlanPojo
 import org.jgrapht.graph.DirectedAcyclicGraph
@@ -87,6 +93,93 @@ case class LogicalPlan(
     links.filter(l => l.toOpId == opId)
   }
 
+  def getDownstreamLinks(opId: OperatorIdentity): List[LogicalLink] = {
+    links.filter(l => l.fromOpId == opId)
+  }
+
+  /**
+    * The operator directly upstream of the given one, if the given operator is its single
+    * consumer and its own result is not viewed, so that it can be changed to produce less.
+    */
+  private def exclusiveUpstreamOp(
+      opId: OperatorIdentity,
+      opsToViewResult: List[String]
+  ): Option[LogicalOp] =
+    getUpstreamLinks(opId) match {
+      case List(link)
+          if getDownstreamLinks(link.fromOpId).size == 1 &&
+            !opsToViewResult.contains(link.fromOpId.id) =>
+        Some(getOperator(link.fromOpId))
+      case _ => None
+    }
+
+  /**
+    * Push the limit of each Limit operator into its upstream scan or SQL source, so the source
+    * stops reading once enough rows are produced. The Limit operator itself is kept, as
+    * parallel sources apply the limit per worker. A Limit can only be lowered at runtime, so the
+    * pushed limit stays large enough.
+    *
+    * @param opsToViewResult the operators whose results are shown to the user
+    */
+  def pushDownLimits(opsToViewResult: List[String]): Unit = {
+    operators.foreach {
+      case limitOp: LimitOpDesc =>
+        exclusiveUpstreamOp(limitOp.operatorIdentifier, opsToViewResult) match {
+          case Some(scanOp: ScanSourceOpDesc) =>
+            scanOp.limit = Some(scanOp.limit.fold(limitOp.limit)(math.min(_, limitOp.limit)))
+          case Some(sqlOp: SQLSourceOpDesc) =>
+            sqlOp.limit =
+              Some(sqlOp.limit.fold(limitOp.limit.toLong)(math.min(_, limitOp.limit.toLong)))
+          case _ =>
+        }
+      case _ =>
+    }
+  }
+
+  /**
+    * Push the predicates of each Filter operator into its upstream MySQL or PostgreSQL source,
+    * so the database only returns matching rows. Only predicates that the database evaluates
+    * like the Filter operator are pushed: null checks and comparisons on numeric columns. The
+    * Filter operator itself is kept. A source with a limit or an offset is not changed, as those
+    * apply to the rows before the Filter.
+    *
+    * @param opsToViewResult the operators whose results are shown to the user
+    */
+  def pushDownFilters(opsToViewResult: List[String]): Unit = {
+    operators.foreach {
+      case filterOp: SpecializedFilterOpDesc if filterOp.predicates.nonEmpty =>
+        exclusiveUpstreamOp(filterOp.operatorIdentifier, opsToViewResult) match {
+          case Some(sqlOp @ (_: MySQLSourceOpDesc | _: PostgreSQLSourceOpDesc)) =>
+            val sqlSourceOp = sqlOp.asInstanceOf[SQLSourceOpDesc]
+            val schema = Try(sqlSourceOp.sourceSchema()).toOption.orNull
+            if (
+              schema != null && !sqlSourceOp.filterCondition.getOrElse(false) &&
+              sqlSourceOp.limit.isEmpty && sqlSourceOp.offset.isEmpty &&
+              filterOp.predicates.forall(isPushableFilterPredicate(schema, _))
+            ) {
+              sqlSourceOp.filterCondition = Some(true)
+              sqlSourceOp.filterPredicates = filterOp.predicates
+            }
+          case _ =>
+        }
+      case _ =>
+    }
+  }
+
+  private def isPushableFilterPredicate(schema: Schema, predicate: FilterPredicate): Boolean =
+    predicate.condition match {
+      case ComparisonType.IS_NULL | ComparisonType.IS_NOT_NULL =>
+        schema.containsAttribute(predicate.attribute)
+      case _ =>
+        schema.containsAttribute(predicate.attribute) && predicate.value != null &&
+          (schema.getAttribute(predicate.attribute).getType match {
+            case AttributeType.INTEGER | AttributeType.DOUBLE =>
+              Try(predicate.value.trim.toDouble).isSuccess
+            case AttributeType.LONG => Try(predicate.value.trim.toLong).isSuccess
+            case _                  => false
+          })
+    }
+
   /**
     * Resolve all user-given filename for the scan source operators to URIs, and call op.setFileUri to set the URi
     *
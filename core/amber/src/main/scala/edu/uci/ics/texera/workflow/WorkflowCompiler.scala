@@ -147,7 +147,12 @@ class WorkflowCompiler(
     // 2. resolve the file name in each scan source operator
     logicalPlan.resolveScanSourceOpFileName(None)
 
-    // 3. expand the logical plan to the physical plan, and get a set of output ports that need storage
+    // 3. push the limits and filters of Limit and Filter operators into their directly
+    // connected sources
+    logicalPlan.pushDownLimits(logicalPlanPojo.opsToViewResult)
+    logicalPlan.pushDownFilters(logicalPlanPojo.opsToViewResult)
+
+    // 4. expand the logical plan to the physical plan, and get a set of output ports that need storage
     val (physicalPlan, outputPortsNeedingStorage) =
       expandLogicalPlan(logicalPlan, logicalPlanPojo.opsToViewResult, None)
 
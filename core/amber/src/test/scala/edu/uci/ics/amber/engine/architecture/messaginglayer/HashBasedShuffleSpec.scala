@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple}
+import edu.uci.ics.amber.core.virtualidentity.{ActorVirtualIdentity, ChannelIdentity}
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.HashBasedShufflePartitioner
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  HashBasedShufflePartitioning
+}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.sql.Timestamp
+
+class HashBasedShuffleSpec extends AnyFlatSpec {
+  val identifier: ActorVirtualIdentity = ActorVirtualIdentity("batch producer mock")
+  val channels: Seq[ChannelIdentity] = (1 to 7).map(i =>
+    ChannelIdentity(identifier, ActorVirtualIdentity(s"rec$i"), isControl = false)
+  )
+
+  val keyAttr = new Attribute("key", AttributeType.STRING)
+  val otherAttr = new Attribute("other", AttributeType.INTEGER)
+  val schema: Schema = Schema().add(keyAttr).add(otherAttr)
+
+  def partitioner(
+      hashAttributeNames: Seq[String],
+      numReceivers: Int = 4
+  ): HashBasedShufflePartitioner =
+    HashBasedShufflePartitioner(
+      HashBasedShufflePartitioning(400, channels.take(numReceivers), hashAttributeNames)
+    )
+
+  "HashBasedShuffleSpec" should "send equal keys to the same receiver across schemas" in {
+    val left = partitioner(Seq("key"))
+    val right = partitioner(Seq("renamedKey"))
+    val renamedAttr = new Attribute("renamedKey", AttributeType.STRING)
+    val renamedSchema = Schema().add(otherAttr).add(renamedAttr)
+
+    (0 until 100).foreach { i =>
+      val tuple = Tuple.builder(schema).add(keyAttr, s"key$i").add(otherAttr, i).build()
+      val renamed =
+        Tuple.builder(renamedSchema).add(otherAttr, -i).add(renamedAttr, s"key$i").build()
+      assert(left.getSingleBucketIndex(tuple) == right.getSingleBucketIndex(renamed))
+      assert(left.getBucketIndex(tuple).toList == List(left.getSingleBucketIndex(tuple)))
+    }
+  }
+
+  "HashBasedShuffleSpec" should "spread keys over all receivers" in {
+    val all = partitioner(Seq.empty)
+    val buckets = (0 until 1000).map { i =>
+      all.getSingleBucketIndex(
+        Tuple.builder(schema).add(keyAttr, null).add(otherAttr, i).build()
+      )
+    }
+    assert(buckets.toSet == Set(0, 1, 2, 3))
+    assert(buckets.groupBy(identity).values.forall(_.size > 150))
+  }
+
+  "HashBasedShuffleSpec" should "pick the same buckets as the Python partitioner" in {
+    // the same keys and buckets are asserted in test_hash_based_shuffle_partitioner.py
+    val cases: Seq[(AttributeType, Any, Int, Int)] = Seq(
+      (AttributeType.STRING, "key0", 1, 6),
+      (AttributeType.INTEGER, 42, 2, 4),
+      (AttributeType.INTEGER, -3245763, 0, 6),
+      (AttributeType.LONG, 1123213213213L, 3, 1),
+      (AttributeType.LONG, -1123213213213L, 2, 6),
+      (AttributeType.DOUBLE, 214214.9969346, 0, 5),
+      (AttributeType.BOOLEAN, true, 3, 4),
+      (AttributeType.TIMESTAMP, new Timestamp(1000000000123L), 3, 4),
+      (AttributeType.BINARY, Array[Byte](0, -1, 'h', 'i'), 0, 1),
+      (AttributeType.STRING, null, 0, 2)
+    )
+    cases.foreach {
+      case (attributeType, value, bucketOf4, bucketOf7) =>
+        val attr = new Attribute("col", attributeType)
+        val tuple = Tuple.builder(Schema().add(attr)).add(attr, value).build()
+        assert(partitioner(Seq("col")).getSingleBucketIndex(tuple) == bucketOf4)
+        assert(partitioner(Seq("col"), 7).getSingleBucketIndex(tuple) == bucketOf7)
+    }
+
+    val compositeSchema = Schema()
+      .add(new Attribute("col-string", AttributeType.STRING))
+      .add(new Attribute("col-int", AttributeType.INTEGER))
+      .add(new Attribute("col-long", AttributeType.LONG))
+      .add(new Attribute("col-bool", AttributeType.BOOLEAN))
+    val composite = Tuple
+      .builder(compositeSchema)
+      .addSequentially(Array[Any]("h\u00e9llo \ud83d\ude00", -7, null, false))
+      .build()
+    val key = compositeSchema.getAttributeNames
+    assert(partitioner(key).getSingleBucketIndex(composite) == 0)
+    assert(partitioner(key, 7).getSingleBucketIndex(composite) == 6)
+  }
+}
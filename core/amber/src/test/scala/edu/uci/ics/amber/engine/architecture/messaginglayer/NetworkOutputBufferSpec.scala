@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple, TupleLike}
+import edu.uci.ics.amber.core.virtualidentity.ActorVirtualIdentity
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.NetworkOutputBuffer
+import edu.uci.ics.amber.engine.common.ambermessage.{DataFrame, WorkflowFIFOMessage}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import scala.collection.mutable.ArrayBuffer
+
+class NetworkOutputBufferSpec extends AnyFlatSpec {
+  private val sender = ActorVirtualIdentity("sender")
+  private val receiver = ActorVirtualIdentity("receiver")
+  private val schema: Schema = Schema().add("text", AttributeType.STRING)
+
+  private def tuple(text: String): Tuple = TupleLike(text).enforceSchema(schema)
+
+  /**
+    * Creates a buffer whose sent frames are collected in the returned buffer.
+    */
+  private def outputBuffer(
+      batchSize: Int = 100,
+      batchByteBudget: Long = Long.MaxValue,
+      batchDeadlineNanos: Long = 0L
+  ): (NetworkOutputBuffer, ArrayBuffer[Array[Tuple]]) = {
+    val frames = new ArrayBuffer[Array[Tuple]]()
+    val gateway = new NetworkOutputGateway(
+      sender,
+      (message: WorkflowFIFOMessage) =>
+        message.payload match {
+          case DataFrame(frame) => frames += frame
+          case _                =>
+        }
+    )
+    val buffer =
+      new NetworkOutputBuffer(receiver, gateway, batchSize, batchByteBudget, batchDeadlineNanos)
+    (buffer, frames)
+  }
+
+  "NetworkOutputBuffer" should "send a batch once the tuple count reaches the batch size" in {
+    val (buffer, frames) = outputBuffer(batchSize = 3)
+    (0 until 7).foreach(i => buffer.addTuple(tuple(i.toString)))
+    assert(frames.map(_.length) == ArrayBuffer(3, 3))
+    buffer.flush()
+    assert(frames.map(_.length) == ArrayBuffer(3, 3, 1))
+  }
+
+  it should "send a batch once its size reaches the byte budget" in {
+    val wide = tuple("x" * 1000)
+    val narrow = tuple("x")
+    // the wide tuples fill the budget after two of them, while 10 narrow ones still fit
+    val (buffer, frames) = outputBuffer(batchByteBudget = wide.inMemSize * 2)
+    buffer.addTuple(wide)
+    assert(frames.isEmpty)
+    buffer.addTuple(wide)
+    assert(frames.map(_.length) == ArrayBuffer(2))
+    (0 until 10).foreach(_ => buffer.addTuple(narrow))
+    assert(frames.length == 1)
+    buffer.flush()
+    assert(frames.map(_.length) == ArrayBuffer(2, 10))
+  }
+
+  it should "send a batch on the next tuple once the first tuple waited past the deadline" in {
+    val (buffer, frames) = outputBuffer(batchDeadlineNanos = 20000000L)
+    buffer.addTuple(tuple("a"))
+    assert(frames.isEmpty)
+    Thread.sleep(30)
+    buffer.addTuple(tuple("b"))
+    assert(frames.map(_.length) == ArrayBuffer(2))
+  }
+
+  it should "send a batch on the periodic check only once the deadline has passed" in {
+    val (buffer, frames) = outputBuffer(batchDeadlineNanos = 20000000L)
+    buffer.flushIfDeadlineReached()
+    assert(frames.isEmpty)
+    buffer.addTuple(tuple("a"))
+    buffer.flushIfDeadlineReached()
+    assert(frames.isEmpty)
+    Thread.sleep(30)
+    buffer.flushIfDeadlineReached()
+    assert(frames.map(_.length) == ArrayBuffer(1))
+    // the deadline starts again with the next batch
+    buffer.addTuple(tuple("b"))
+    buffer.flushIfDeadlineReached()
+    assert(frames.length == 1)
+  }
+
+  it should "not flush on the periodic check without a deadline" in {
+    val (buffer, frames) = outputBuffer()
+    buffer.addTuple(tuple("a"))
+    Thread.sleep(5)
+    buffer.flushIfDeadlineReached()
+    assert(frames.isEmpty)
+  }
+}
@@ -21,11 +21,16 @@ package edu.uci.ics.amber.engine.architecture.messaginglayer
 
 import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple}
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.RangeBasedShufflePartitioner
-import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.RangeBasedShufflePartitioning
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  RangeBasedShufflePartitioning,
+  RangeSplitPoint
+}
 import edu.uci.ics.amber.core.virtualidentity.{ActorVirtualIdentity, ChannelIdentity}
 import org.scalamock.scalatest.MockFactory
 import org.scalatest.flatspec.AnyFlatSpec
 
+import java.sql.Timestamp
+
 class RangeBasedShuffleSpec extends AnyFlatSpec with MockFactory {
   val identifier = ActorVirtualIdentity("batch producer mock")
   val fakeID1: ActorVirtualIdentity = ActorVirtualIdentity("rec1")
@@ -48,7 +53,8 @@ class RangeBasedShuffleSpec extends AnyFlatSpec with MockFactory {
       ),
       Seq("Attr1"),
       -400,
-      600
+      600,
+      Seq.empty
     )
 
   val partitioner: RangeBasedShufflePartitioner = RangeBasedShufflePartitioner(partitioning)
@@ -96,7 +102,8 @@ class RangeBasedShuffleSpec extends AnyFlatSpec with MockFactory {
         ),
         Seq("Attr2"),
         -400,
-        600
+        600,
+        Seq.empty
       )
 
     val partitioner2: RangeBasedShufflePartitioner = RangeBasedShufflePartitioner(partitioning2)
@@ -118,7 +125,8 @@ class RangeBasedShuffleSpec extends AnyFlatSpec with MockFactory {
         ),
         Seq("Attr3"),
         -400,
-        600
+        600,
+        Seq.empty
       )
 
     val partitioner3: RangeBasedShufflePartitioner = RangeBasedShufflePartitioner(partitioning3)
@@ -129,4 +137,39 @@ class RangeBasedShuffleSpec extends AnyFlatSpec with MockFactory {
     assert(idx.next() == 1)
   }
 
+  "RangeBasedShuffleSpec" should "partition composite string and timestamp keys by split points" in {
+    val nameAttr = new Attribute("name", AttributeType.STRING)
+    val timeAttr = new Attribute("time", AttributeType.TIMESTAMP)
+    val keySchema = Schema().add(nameAttr).add(timeAttr)
+    def keyTuple(name: String, time: Long): Tuple =
+      Tuple.builder(keySchema).add(nameAttr, name).add(timeAttr, new Timestamp(time)).build()
+
+    // skewed keys: most of them share the name "a"
+    val keys = (0 until 80).map(i => keyTuple("a", i)) ++ (0 until 20).map(i => keyTuple("b", i))
+    // timestamps are encoded as epoch milliseconds
+    val splitPoints = List(List("a", "20"), List("a", "40"), List("a", "60"), List("b", "0"))
+
+    val sampledPartitioner = RangeBasedShufflePartitioner(
+      RangeBasedShufflePartitioning(
+        400,
+        partitioning.channels,
+        Seq("name", "time"),
+        0,
+        0,
+        splitPoints.map(RangeSplitPoint(_))
+      )
+    )
+    val counts = keys.groupBy(t => sampledPartitioner.getBucketIndex(t).next()).map {
+      case (bucket, tuples) => bucket -> tuples.size
+    }
+    assert(counts == Map(0 -> 20, 1 -> 20, 2 -> 20, 3 -> 20, 4 -> 20))
+
+    assert(sampledPartitioner.getBucketIndex(keyTuple("0", 100)).next() == 0)
+    assert(sampledPartitioner.getBucketIndex(keyTuple("a", 39)).next() == 1)
+    assert(sampledPartitioner.getBucketIndex(keyTuple("a", 40)).next() == 2)
+    assert(sampledPartitioner.getBucketIndex(keyTuple("z", 0)).next() == 4)
+    // nulls come before any other value
+    assert(sampledPartitioner.getBucketIndex(keyTuple(null, 100)).next() == 0)
+  }
+
 }
@@ -66,6 +66,8 @@ class DPThreadSpec extends AnyFlatSpec with MockFactory {
     val inputQueue = new LinkedBlockingQueue[DPInputQueueElement]()
     val dp = new DataProcessor(workerId, x => {}, inputMessageQueue = inputQueue)
     dp.executor = executor
+    (() => executor.supportsBatchProcessing).expects().returning(false).anyNumberOfTimes()
+    (() => executor.needsMoreInput).expects().returning(true).anyNumberOfTimes()
     dp.inputManager.addPort(mockInputPortId, schema, List.empty, List.empty)
     dp.inputGateway.getChannel(dataChannelId).setPortId(mockInputPortId)
     dp.adaptiveBatchingMonitor = mock[WorkerTimerService]
@@ -110,6 +112,8 @@ class DPThreadSpec extends AnyFlatSpec with MockFactory {
     (dp.adaptiveBatchingMonitor.resumeAdaptiveBatching _).expects().anyNumberOfTimes()
     val dpThread = new DPThread(workerId, dp, logManager, inputQueue)
     dp.executor = executor
+    (() => executor.supportsBatchProcessing).expects().returning(false).anyNumberOfTimes()
+    (() => executor.needsMoreInput).expects().returning(true).anyNumberOfTimes()
     dpThread.start()
     tuples.foreach { x =>
       (
@@ -149,6 +153,8 @@ class DPThreadSpec extends AnyFlatSpec with MockFactory {
     val inputQueue = new LinkedBlockingQueue[DPInputQueueElement]()
     val dp = new DataProcessor(workerId, x => {}, inputMessageQueue = inputQueue)
     dp.executor = executor
+    (() => executor.supportsBatchProcessing).expects().returning(false).anyNumberOfTimes()
+    (() => executor.needsMoreInput).expects().returning(true).anyNumberOfTimes()
     val anotherSenderWorkerId = ActorVirtualIdentity("another")
     dp.inputManager.addPort(mockInputPortId, schema, List.empty, List.empty)
     dp.inputGateway.getChannel(dataChannelId).setPortId(mockInputPortId)
@@ -189,6 +195,8 @@ class DPThreadSpec extends AnyFlatSpec with MockFactory {
     val inputQueue = new LinkedBlockingQueue[DPInputQueueElement]()
     val dp = new DataProcessor(workerId, _ => {}, inputMessageQueue = inputQueue)
     dp.executor = executor
+    (() => executor.supportsBatchProcessing).expects().returning(false).anyNumberOfTimes()
+    (() => executor.needsMoreInput).expects().returning(true).anyNumberOfTimes()
     val anotherSenderWorkerId = ActorVirtualIdentity("another")
     dp.inputManager.addPort(mockInputPortId, schema, List.empty, List.empty)
     dp.inputGateway.getChannel(dataChannelId).setPortId(mockInputPortId)
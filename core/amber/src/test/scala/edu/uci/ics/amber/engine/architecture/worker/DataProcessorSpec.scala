@@ -19,7 +19,7 @@
 
 package edu.uci.ics.amber.engine.architecture.worker
 
-import edu.uci.ics.amber.core.executor.OperatorExecutor
+import edu.uci.ics.amber.core.executor.{OperatorExecutor, PartialBatchException}
 import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple, TupleLike}
 import edu.uci.ics.amber.core.workflow.WorkflowContext.DEFAULT_WORKFLOW_ID
 import edu.uci.ics.amber.engine.architecture.messaginglayer.WorkerTimerService
@@ -58,6 +58,7 @@ import org.scalatest.BeforeAndAfterEach
 import org.scalatest.flatspec.AnyFlatSpec
 
 import java.util.concurrent.LinkedBlockingQueue
+import scala.collection.mutable.ArrayBuffer
 
 class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfterEach {
   private val testOpId = PhysicalOpIdentity(OperatorIdentity("testop"), "main")
@@ -113,6 +114,8 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
   "data processor" should "process data messages" in {
     val dp = mkDataProcessor
     dp.executor = executor
+    (() => executor.supportsBatchProcessing).expects().returning(false).anyNumberOfTimes()
+    (() => executor.needsMoreInput).expects().returning(true).anyNumberOfTimes()
     dp.stateManager.transitTo(READY)
     (outputHandler.apply _).expects(*).once()
     (executor.open _).expects().once()
@@ -179,6 +182,8 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
   "data processor" should "process control messages during data processing" in {
     val dp = mkDataProcessor
     dp.executor = executor
+    (() => executor.supportsBatchProcessing).expects().returning(false).anyNumberOfTimes()
+    (() => executor.needsMoreInput).expects().returning(true).anyNumberOfTimes()
     dp.stateManager.transitTo(READY)
     (outputHandler.apply _).expects(*).anyNumberOfTimes()
     (executor.open _).expects().once()
@@ -247,4 +252,86 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
     }
   }
 
+  /**
+    * Runs all tuples through a data processor with the given executor, continuing after
+    * executor errors as a resumed worker would.
+    */
+  private def processAllTuples(batchExecutor: OperatorExecutor): DataProcessor = {
+    val dp = mkDataProcessor
+    dp.executor = batchExecutor
+    dp.stateManager.transitTo(READY)
+    (outputHandler.apply _).expects(*).anyNumberOfTimes()
+    (adaptiveBatchingMonitor.startAdaptiveBatching _).expects().anyNumberOfTimes()
+    dp.inputManager.addPort(inputPortId, schema, List.empty, List.empty)
+    dp.inputGateway
+      .getChannel(ChannelIdentity(senderWorkerId, testWorkerId, isControl = false))
+      .setPortId(inputPortId)
+    dp.outputManager.addPort(outputPortId, schema, None)
+    dp.processDataPayload(
+      ChannelIdentity(senderWorkerId, testWorkerId, isControl = false),
+      DataFrame(tuples)
+    )
+    while (dp.inputManager.hasUnfinishedInput || dp.outputManager.hasUnfinishedOutput) {
+      dp.continueDataProcessing()
+    }
+    dp
+  }
+
+  "data processor" should "process a whole data message in one batch" in {
+    val batchSizes = new ArrayBuffer[Int]()
+    val dp = processAllTuples(new OperatorExecutor {
+      override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] =
+        fail("tuples should be processed in a batch")
+      override def supportsBatchProcessing: Boolean = true
+      override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] = {
+        batchSizes += batch.length
+        batch.iterator
+      }
+    })
+    assert(batchSizes.toList == List(tuples.length))
+    assert(dp.statisticsManager.getInputTupleCount == tuples.length)
+    assert(dp.statisticsManager.getOutputTupleCount == tuples.length)
+  }
+
+  "data processor" should "process the rest of a failed batch tuple by tuple" in {
+    val processedOneByOne = new ArrayBuffer[Int]()
+    val dp = processAllTuples(new OperatorExecutor {
+      private def check(tuple: Tuple): Tuple = {
+        if (tuple.getField[Int](0) == 200) throw new RuntimeException("bad tuple")
+        tuple
+      }
+      override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
+        processedOneByOne += tuple.getField[Int](0)
+        Iterator(check(tuple))
+      }
+      override def supportsBatchProcessing: Boolean = true
+      override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] =
+        batch.map(check).iterator
+    })
+    // the failed batch had no effect, so all of it is processed again and only tuple 200 fails
+    assert(processedOneByOne.toList == tuples.indices.toList)
+    assert(dp.statisticsManager.getInputTupleCount == tuples.length - 1)
+    assert(dp.statisticsManager.getOutputTupleCount == tuples.length - 1)
+  }
+
+  "data processor" should "keep the tuples a failed batch already applied" in {
+    val applied = new ArrayBuffer[Int]()
+    def apply(tuple: Tuple): Unit = {
+      if (tuple.getField[Int](0) == 200) throw new RuntimeException("bad tuple")
+      applied += tuple.getField[Int](0)
+    }
+    processAllTuples(new OperatorExecutor {
+      override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
+        apply(tuple)
+        Iterator.empty
+      }
+      override def supportsBatchProcessing: Boolean = true
+      override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] = {
+        PartialBatchException.foreachTracked(batch)(apply)
+        Iterator.empty
+      }
+    })
+    assert(applied.toList == tuples.indices.filterNot(_ == 200).toList)
+  }
+
 }
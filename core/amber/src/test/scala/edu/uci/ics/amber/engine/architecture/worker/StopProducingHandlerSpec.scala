@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package edu.uci.ics.amber.engine.architecture.worker
+
+import edu.uci.ics.amber.core.executor.{OperatorExecutor, SourceOperatorExecutor}
+import edu.uci.ics.amber.core.tuple.{
+  AttributeType,
+  FinalizeExecutor,
+  FinalizePort,
+  Schema,
+  Tuple,
+  TupleLike
+}
+import edu.uci.ics.amber.core.virtualidentity.{
+  ActorVirtualIdentity,
+  ChannelIdentity,
+  OperatorIdentity,
+  PhysicalOpIdentity
+}
+import edu.uci.ics.amber.core.workflow.WorkflowContext.DEFAULT_WORKFLOW_ID
+import edu.uci.ics.amber.core.workflow.{PhysicalLink, PortIdentity}
+import edu.uci.ics.amber.engine.architecture.rpc.controlcommands.EmptyRequest
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.OneToOnePartitioning
+import edu.uci.ics.amber.engine.architecture.worker.WorkflowWorker.DPInputQueueElement
+import edu.uci.ics.amber.engine.common.virtualidentity.util.CONTROLLER
+import edu.uci.ics.amber.util.VirtualIdentityUtils
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.util.concurrent.LinkedBlockingQueue
+
+class StopProducingHandlerSpec extends AnyFlatSpec {
+  private val sourceOpId = PhysicalOpIdentity(OperatorIdentity("source"), "main")
+  private val workerId: ActorVirtualIdentity =
+    VirtualIdentityUtils.createWorkerIdentity(DEFAULT_WORKFLOW_ID, sourceOpId, 0)
+  private val schema: Schema = Schema().add("field1", AttributeType.INTEGER)
+  private val tuples: List[Tuple] = (0 until 10).map(i => TupleLike(i).enforceSchema(schema)).toList
+  private val markers: List[TupleLike] =
+    List(FinalizePort(PortIdentity(), input = false), FinalizeExecutor())
+
+  private val sourceExecutor: SourceOperatorExecutor = new SourceOperatorExecutor {
+    override def produceTuple(): Iterator[TupleLike] = tuples.iterator
+  }
+
+  private val processingExecutor: OperatorExecutor = new OperatorExecutor {
+    override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = Iterator(tuple)
+  }
+
+  /**
+    * Creates a worker whose executor has produced the test tuples, followed by the completion
+    * markers, and whose output goes to the given downstream operators.
+    */
+  private def mkDataProcessor(
+      executor: OperatorExecutor,
+      downstreamOps: List[String]
+  ): DataProcessor = {
+    val dp = new DataProcessor(
+      workerId,
+      _ => {},
+      inputMessageQueue = new LinkedBlockingQueue[DPInputQueueElement]()
+    )
+    dp.executor = executor
+    downstreamOps.foreach { opName =>
+      val downstreamOpId = PhysicalOpIdentity(OperatorIdentity(opName), "main")
+      val receiver =
+        VirtualIdentityUtils.createWorkerIdentity(DEFAULT_WORKFLOW_ID, downstreamOpId, 0)
+      dp.outputManager.addPartitionerWithPartitioning(
+        PhysicalLink(sourceOpId, PortIdentity(), downstreamOpId, PortIdentity()),
+        OneToOnePartitioning(10, Seq(ChannelIdentity(workerId, receiver, isControl = false)))
+      )
+    }
+    dp.outputManager.outputIterator.setTupleOutput(tuples.iterator.map(tuple => (tuple, None)))
+    markers.foreach(dp.outputManager.outputIterator.appendSpecialTupleToEnd)
+    dp
+  }
+
+  private def stopProducing(dp: DataProcessor): Unit =
+    new DataProcessorRPCHandlerInitializer(dp)
+      .stopProducing(EmptyRequest(), dp.asyncRPCClient.mkContext(CONTROLLER))
+
+  private def remainingOutput(dp: DataProcessor): List[TupleLike] =
+    dp.outputManager.outputIterator.map(_._1).toList
+
+  "StopProducingHandler" should "drop the remaining output of a source with a single consumer" in {
+    val dp = mkDataProcessor(sourceExecutor, List("limit"))
+    stopProducing(dp)
+    assert(remainingOutput(dp) == markers)
+  }
+
+  it should "keep the output of a source that feeds other operators too" in {
+    val dp = mkDataProcessor(sourceExecutor, List("limit", "sink"))
+    stopProducing(dp)
+    assert(remainingOutput(dp) == tuples ++ markers)
+  }
+
+  it should "keep the output of an operator that is not a source" in {
+    val dp = mkDataProcessor(processingExecutor, List("limit"))
+    stopProducing(dp)
+    assert(remainingOutput(dp) == tuples ++ markers)
+  }
+}
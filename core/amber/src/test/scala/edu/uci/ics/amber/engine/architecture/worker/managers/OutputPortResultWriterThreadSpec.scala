@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package edu.uci.ics.amber.engine.architecture.worker.managers
+
+import edu.uci.ics.amber.core.storage.model.BufferedItemWriter
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple, TupleLike}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.util.concurrent.{ConcurrentLinkedQueue, CountDownLatch, TimeUnit}
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Future}
+import scala.jdk.CollectionConverters.CollectionHasAsScala
+
+class OutputPortResultWriterThreadSpec extends AnyFlatSpec {
+  private val schema: Schema = Schema().add("text", AttributeType.STRING)
+
+  private def tuple(text: String): Tuple = TupleLike(text).enforceSchema(schema)
+
+  /**
+    * Collects the tuples it is given, after running `onPut` on each of them.
+    */
+  private class RecordingWriter(
+      onPut: Tuple => Unit = _ => (),
+      onCommitCheck: () => Unit = () => ()
+  ) extends BufferedItemWriter[Tuple] {
+    val written = new ConcurrentLinkedQueue[Tuple]()
+    @volatile var closed = false
+    override val bufferSize: Int = 1
+    override def open(): Unit = {}
+    override def close(): Unit = closed = true
+    override def putOne(item: Tuple): Unit = {
+      onPut(item)
+      written.add(item)
+    }
+    override def removeOne(item: Tuple): Unit = {}
+    override def commitIfDue(): Unit = onCommitCheck()
+  }
+
+  "OutputPortResultWriterThread" should "write every queued tuple and close the writer" in {
+    val writer = new RecordingWriter()
+    val writerThread = new OutputPortResultWriterThread(writer)
+    writerThread.start()
+    val tuples = (0 until 1000).map(i => tuple(i.toString))
+    tuples.foreach(writerThread.putTuple)
+    writerThread.terminate()
+
+    assert(writer.written.asScala.toList == tuples.toList)
+    assert(writer.closed)
+  }
+
+  it should "block putTuple while the queued tuples exceed the byte capacity" in {
+    val writing = new CountDownLatch(1)
+    val unblock = new CountDownLatch(1)
+    val writer = new RecordingWriter(onPut = _ => {
+      writing.countDown()
+      unblock.await()
+    })
+    val first = tuple("a")
+    // room for two tuples of the same size: the one being written and one queued
+    val writerThread = new OutputPortResultWriterThread(writer, 2 * first.inMemSize)
+    writerThread.start()
+    writerThread.putTuple(first)
+    assert(writing.await(5, TimeUnit.SECONDS))
+    writerThread.putTuple(tuple("b"))
+
+    val blockedPut = Future(writerThread.putTuple(tuple("c")))
+    Thread.sleep(200)
+    assert(!blockedPut.isCompleted)
+
+    unblock.countDown()
+    Await.result(blockedPut, 5.seconds)
+    writerThread.terminate()
+    assert(writer.written.asScala.map(_.getField[String]("text")).toList == List("a", "b", "c"))
+  }
+
+  it should "rethrow the failure of the writer from putTuple and terminate" in {
+    val writer = new RecordingWriter(onPut = _ => throw new IllegalStateException("disk full"))
+    val writerThread = new OutputPortResultWriterThread(writer)
+    writerThread.start()
+    writerThread.putTuple(tuple("failing"))
+    writerThread.join(5000)
+
+    val putFailure = intercept[RuntimeException](writerThread.putTuple(tuple("after failure")))
+    assert(putFailure.getCause.isInstanceOf[IllegalStateException])
+    assertThrows[RuntimeException](writerThread.terminate())
+    assert(!writer.closed)
+  }
+
+  it should "wake up a putTuple blocked on the full queue when the writer fails" in {
+    val writing = new CountDownLatch(1)
+    val fail = new CountDownLatch(1)
+    val writer = new RecordingWriter(onPut = _ => {
+      writing.countDown()
+      fail.await()
+      throw new IllegalStateException("disk full")
+    })
+    val first = tuple("a")
+    val writerThread = new OutputPortResultWriterThread(writer, first.inMemSize)
+    writerThread.start()
+    writerThread.putTuple(first)
+    assert(writing.await(5, TimeUnit.SECONDS))
+
+    val blockedPut = Future(writerThread.putTuple(tuple("c")))
+    Thread.sleep(200)
+    assert(!blockedPut.isCompleted)
+
+    fail.countDown()
+    assertThrows[RuntimeException](Await.result(blockedPut, 5.seconds))
+  }
+
+  it should "ask the writer to commit periodically while no tuples arrive" in {
+    val commitChecks = new CountDownLatch(3)
+    val writer = new RecordingWriter(onCommitCheck = () => commitChecks.countDown())
+    val writerThread = new OutputPortResultWriterThread(writer, commitIntervalMs = 10)
+    writerThread.start()
+    writerThread.putTuple(tuple("only"))
+
+    assert(commitChecks.await(5, TimeUnit.SECONDS))
+    writerThread.terminate()
+    assert(writer.written.asScala.toList == List(tuple("only")))
+  }
+}
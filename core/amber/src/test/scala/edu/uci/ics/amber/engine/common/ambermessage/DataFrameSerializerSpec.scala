@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.engine.common.ambermessage
+
+import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple}
+import edu.uci.ics.amber.engine.common.AmberRuntime
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.sql.Timestamp
+
+class DataFrameSerializerSpec extends AnyFlatSpec {
+
+  private val allTypesSchema: Schema = Schema(
+    AttributeType.values().toList.map(attributeType =>
+      new Attribute(attributeType.name().toLowerCase, attributeType)
+    )
+  )
+
+  private def timestamp(millis: Long, nanos: Int): Timestamp = {
+    val timestamp = new Timestamp(millis)
+    timestamp.setNanos(nanos)
+    timestamp
+  }
+
+  /**
+    * A tuple of the all-types schema with values depending on i. Every 3rd tuple has nulls in
+    * all fields, and every 4th tuple has a null in the field at index i % number of fields.
+    */
+  private def allTypesTuple(i: Int): Tuple = {
+    val fields: Array[Any] = AttributeType.values().map {
+      case AttributeType.STRING    => s"value $i é中"
+      case AttributeType.INTEGER   => Integer.valueOf(i - 50)
+      case AttributeType.LONG      => java.lang.Long.valueOf(Long.MaxValue - i)
+      case AttributeType.DOUBLE    => java.lang.Double.valueOf(i * -1.5)
+      case AttributeType.BOOLEAN   => java.lang.Boolean.valueOf(i % 2 == 0)
+      case AttributeType.TIMESTAMP => timestamp(1700000000000L + i, 123456789)
+      case AttributeType.BINARY    => Array.tabulate[Byte](i % 5)(j => (i * j).toByte)
+      case AttributeType.ANY       => List(i, s"nested $i")
+    }
+    if (i % 3 == 0) {
+      fields.indices.foreach(fields(_) = null)
+    } else if (i % 4 == 0) {
+      fields(i % fields.length) = null
+    }
+    Tuple(allTypesSchema, fields)
+  }
+
+  private def roundTrip(frame: DataFrame): DataFrame = {
+    val bytes = AmberRuntime.serde.serialize(frame).get
+    AmberRuntime.serde.deserialize(bytes, classOf[DataFrame]).get
+  }
+
+  private def assertSameTuples(expected: Array[Tuple], actual: Array[Tuple]): Unit = {
+    assert(actual.length == expected.length)
+    expected.zip(actual).foreach {
+      case (expectedTuple, actualTuple) => assert(actualTuple == expectedTuple)
+    }
+  }
+
+  "DataFrameSerializer" should "round trip every attribute type including nulls" in {
+    val tuples = Array.tabulate(37)(allTypesTuple)
+    val decoded = roundTrip(DataFrame(tuples)).frame
+    assertSameTuples(tuples, decoded)
+    // the columnar layout shares one decoded schema between all tuples
+    assert(decoded.forall(_.getSchema eq decoded.head.getSchema))
+    assert(decoded.head.getSchema == allTypesSchema)
+  }
+
+  it should "round trip a column that is null in every row" in {
+    val schema = Schema().add("id", AttributeType.INTEGER).add("empty", AttributeType.STRING)
+    val tuples = Array.tabulate(9)(i => Tuple(schema, Array[Any](i, null)))
+    assertSameTuples(tuples, roundTrip(DataFrame(tuples)).frame)
+  }
+
+  it should "round trip an empty frame" in {
+    assert(roundTrip(DataFrame(Array.empty)).frame.isEmpty)
+  }
+
+  it should "round trip binary and ANY values" in {
+    val schema = Schema().add("bytes", AttributeType.BINARY).add("any", AttributeType.ANY)
+    val anyValues = List[Any](
+      Map("key" -> 1),
+      new java.util.ArrayList[Integer](java.util.Arrays.asList[Integer](1, 2, 3)),
+      Array(1.5, 2.5),
+      "a string"
+    )
+    val tuples = anyValues.zipWithIndex.map {
+      case (value, i) => Tuple(schema, Array[Any](Array.fill[Byte](i * 1000)(i.toByte), value))
+    }.toArray
+    val decoded = roundTrip(DataFrame(tuples)).frame
+
+    assert(decoded.length == tuples.length)
+    decoded.zip(tuples).foreach {
+      case (actual, expected) =>
+        val actualBytes = actual.getField[Array[Byte]]("bytes")
+        assert(actualBytes.sameElements(expected.getField[Array[Byte]]("bytes")))
+        (actual.getField[Any]("any"), expected.getField[Any]("any")) match {
+          case (actualArray: Array[Double], expectedArray: Array[Double]) =>
+            assert(actualArray.sameElements(expectedArray))
+          case (actualValue, expectedValue) => assert(actualValue == expectedValue)
+        }
+    }
+  }
+
+  it should "round trip a frame whose tuples have different schemas" in {
+    val intSchema = Schema().add("value", AttributeType.INTEGER)
+    val stringSchema = Schema().add("value", AttributeType.STRING)
+    val tuples = Array(
+      Tuple(intSchema, Array[Any](1)),
+      Tuple(stringSchema, Array[Any]("one")),
+      Tuple(intSchema, Array[Any](null)),
+      allTypesTuple(1)
+    )
+    val decoded = roundTrip(DataFrame(tuples)).frame
+    assertSameTuples(tuples, decoded)
+    assert(decoded.map(_.getSchema).toList == tuples.map(_.getSchema).toList)
+  }
+
+  it should "round trip tuples whose schemas are equal but not the same instance" in {
+    val tuples = Array.tabulate(4) { i =>
+      Tuple(Schema().add("value", AttributeType.LONG), Array[Any](i.toLong))
+    }
+    val decoded = roundTrip(DataFrame(tuples)).frame
+    assertSameTuples(tuples, decoded)
+    assert(decoded.forall(_.getSchema eq decoded.head.getSchema))
+  }
+}
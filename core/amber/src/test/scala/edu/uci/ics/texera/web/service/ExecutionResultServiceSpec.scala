@@ -475,4 +475,30 @@ class ExecutionResultServiceSpec extends AnyFlatSpec with Matchers {
     resultsDefault(2).get("value").asText() shouldBe "medium length"
     resultsDefault(3).get("value").asText() should endWith("...")
   }
+
+  "dirtyPageIndices" should "mark only the last page when the result grows inside it" in {
+    val pageSize = ExecutionResultService.defaultPageSize
+    ExecutionResultService.dirtyPageIndices(0, pageSize - 2) shouldBe List(1)
+    ExecutionResultService.dirtyPageIndices(pageSize + 1, pageSize + 3) shouldBe List(2)
+  }
+
+  it should "mark every page from the partially filled one when the result crosses pages" in {
+    val pageSize = ExecutionResultService.defaultPageSize
+    ExecutionResultService.dirtyPageIndices(pageSize - 2, 2 * pageSize + 2) shouldBe List(1, 2, 3)
+    // a full page is not dirty
+    ExecutionResultService.dirtyPageIndices(pageSize, 2 * pageSize + 1) shouldBe List(2, 3)
+    ExecutionResultService.dirtyPageIndices(pageSize + 3, 2 * pageSize) shouldBe List(2)
+  }
+
+  it should "mark no page when the result count does not change" in {
+    val pageSize = ExecutionResultService.defaultPageSize
+    ExecutionResultService.dirtyPageIndices(0, 0) shouldBe empty
+    ExecutionResultService.dirtyPageIndices(pageSize + 2, pageSize + 2) shouldBe empty
+    ExecutionResultService.dirtyPageIndices(2 * pageSize, 2 * pageSize) shouldBe empty
+  }
+
+  it should "mark every page when the result shrinks" in {
+    val pageSize = ExecutionResultService.defaultPageSize
+    ExecutionResultService.dirtyPageIndices(2 * pageSize + 2, pageSize + 1) shouldBe List(1, 2)
+  }
 }
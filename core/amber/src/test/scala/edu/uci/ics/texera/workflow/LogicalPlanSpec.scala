@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package edu.uci.ics.texera.workflow
+
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema}
+import edu.uci.ics.amber.core.workflow.PortIdentity
+import edu.uci.ics.amber.operator.{LogicalOp, TestOperators}
+import edu.uci.ics.amber.operator.filter.{ComparisonType, FilterPredicate, SpecializedFilterOpDesc}
+import edu.uci.ics.amber.operator.limit.LimitOpDesc
+import edu.uci.ics.amber.operator.source.sql.mysql.MySQLSourceOpDesc
+import org.scalatest.flatspec.AnyFlatSpec
+
+class LogicalPlanSpec extends AnyFlatSpec {
+
+  private def limitOpDesc(limit: Int): LimitOpDesc = {
+    val opDesc = new LimitOpDesc()
+    opDesc.limit = limit
+    opDesc
+  }
+
+  private val tableSchema: Schema = Schema()
+    .add("id", AttributeType.LONG)
+    .add("price", AttributeType.DOUBLE)
+    .add("name", AttributeType.STRING)
+
+  // the schema of a SQL source is otherwise read from the database
+  private def mySQLSourceOpDesc(): MySQLSourceOpDesc =
+    new MySQLSourceOpDesc {
+      override def sourceSchema(): Schema = tableSchema
+    }
+
+  private def filterOpDesc(predicates: FilterPredicate*): SpecializedFilterOpDesc = {
+    val opDesc = new SpecializedFilterOpDesc()
+    opDesc.predicates = predicates.toList
+    opDesc
+  }
+
+  private def link(from: LogicalOp, to: LogicalOp): LogicalLink =
+    LogicalLink(from.operatorIdentifier, PortIdentity(), to.operatorIdentifier, PortIdentity())
+
+  "LogicalPlan" should "push a limit into the scan source that only feeds it" in {
+    val scanOp = TestOperators.smallCsvScanOpDesc()
+    val limitOp = limitOpDesc(10)
+    LogicalPlan(List(scanOp, limitOp), List(link(scanOp, limitOp))).pushDownLimits(List())
+
+    assert(scanOp.limit.contains(10))
+    assert(limitOp.limit == 10)
+  }
+
+  it should "keep a smaller limit that the source already has" in {
+    val scanOp = TestOperators.smallCsvScanOpDesc()
+    scanOp.limit = Some(5)
+    val limitOp = limitOpDesc(10)
+    LogicalPlan(List(scanOp, limitOp), List(link(scanOp, limitOp))).pushDownLimits(List())
+
+    assert(scanOp.limit.contains(5))
+  }
+
+  it should "not push a limit into a source whose result is viewed" in {
+    val scanOp = TestOperators.smallCsvScanOpDesc()
+    val limitOp = limitOpDesc(10)
+    LogicalPlan(List(scanOp, limitOp), List(link(scanOp, limitOp)))
+      .pushDownLimits(List(scanOp.operatorIdentifier.id))
+
+    assert(scanOp.limit.isEmpty)
+  }
+
+  it should "not push a limit into a source that feeds other operators" in {
+    val scanOp = TestOperators.smallCsvScanOpDesc()
+    val limitOp = limitOpDesc(10)
+    val keywordOp = TestOperators.keywordSearchOpDesc("Region", "Asia")
+    LogicalPlan(
+      List(scanOp, limitOp, keywordOp),
+      List(link(scanOp, limitOp), link(scanOp, keywordOp))
+    ).pushDownLimits(List())
+
+    assert(scanOp.limit.isEmpty)
+  }
+
+  it should "not push a limit through an operator between it and the source" in {
+    val scanOp = TestOperators.smallCsvScanOpDesc()
+    val keywordOp = TestOperators.keywordSearchOpDesc("Region", "Asia")
+    val limitOp = limitOpDesc(10)
+    LogicalPlan(
+      List(scanOp, keywordOp, limitOp),
+      List(link(scanOp, keywordOp), link(keywordOp, limitOp))
+    ).pushDownLimits(List())
+
+    assert(scanOp.limit.isEmpty)
+  }
+
+  it should "push numeric filter predicates into the SQL source that only feeds it" in {
+    val sqlOp = mySQLSourceOpDesc()
+    val predicates = List(
+      new FilterPredicate("price", ComparisonType.GREATER_THAN, "9.5"),
+      new FilterPredicate("id", ComparisonType.IS_NULL, null)
+    )
+    val filterOp = filterOpDesc(predicates: _*)
+    LogicalPlan(List(sqlOp, filterOp), List(link(sqlOp, filterOp))).pushDownFilters(List())
+
+    assert(sqlOp.filterCondition.contains(true))
+    assert(sqlOp.filterPredicates == predicates)
+    assert(filterOp.predicates == predicates)
+  }
+
+  it should "not push filter predicates that the database may evaluate differently" in {
+    val sqlOp = mySQLSourceOpDesc()
+    val filterOp = filterOpDesc(
+      new FilterPredicate("price", ComparisonType.GREATER_THAN, "9.5"),
+      new FilterPredicate("name", ComparisonType.EQUAL_TO, "Texera")
+    )
+    LogicalPlan(List(sqlOp, filterOp), List(link(sqlOp, filterOp))).pushDownFilters(List())
+
+    assert(!sqlOp.filterCondition.getOrElse(false))
+    assert(sqlOp.filterPredicates.isEmpty)
+  }
+
+  it should "not push filter predicates into a SQL source with a limit or an offset" in {
+    val limitedOp = mySQLSourceOpDesc()
+    limitedOp.limit = Some(100L)
+    val offsetOp = mySQLSourceOpDesc()
+    offsetOp.offset = Some(10L)
+    List(limitedOp, offsetOp).foreach { sqlOp =>
+      val filterOp = filterOpDesc(new FilterPredicate("id", ComparisonType.LESS_THAN, "5"))
+      LogicalPlan(List(sqlOp, filterOp), List(link(sqlOp, filterOp))).pushDownFilters(List())
+
+      assert(!sqlOp.filterCondition.getOrElse(false))
+      assert(sqlOp.filterPredicates.isEmpty)
+    }
+  }
+
+  it should "not push filter predicates into a SQL source whose result is viewed" in {
+    val sqlOp = mySQLSourceOpDesc()
+    val filterOp = filterOpDesc(new FilterPredicate("id", ComparisonType.LESS_THAN, "5"))
+    LogicalPlan(List(sqlOp, filterOp), List(link(sqlOp, filterOp)))
+      .pushDownFilters(List(sqlOp.operatorIdentifier.id))
+
+    assert(sqlOp.filterPredicates.isEmpty)
+  }
+}
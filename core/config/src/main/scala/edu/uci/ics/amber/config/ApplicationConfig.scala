@@ -19,9 +19,11 @@
 package edu.uci.ics.amber.config
 
 import com.typesafe.config.{Config, ConfigFactory}
+import edu.uci.ics.amber.util.ConfigParserUtil.parseSizeStringToBytes
 
 import java.io.File
 import java.net.URI
+import java.nio.file.{Path, Paths}
 
 object ApplicationConfig {
 
@@ -64,6 +66,18 @@ object ApplicationConfig {
     getConfSource.getBoolean("network-buffering.enable-adaptive-buffering")
   val adaptiveBufferingTimeoutMs: Int =
     getConfSource.getInt("network-buffering.adaptive-buffering-timeout-ms")
+  val maxDataTransferBatchBytes: Long =
+    parseSizeStringToBytes(
+      getConfSource.getString("network-buffering.max-data-transfer-batch-bytes")
+    )
+
+  // Operator spilling
+  val operatorSpillMemoryBudgetInBytes: Long =
+    parseSizeStringToBytes(getConfSource.getString("operator-spill.memory-budget"))
+  val operatorSpillDirectory: Option[Path] =
+    Option(getConfSource.getString("operator-spill.directory"))
+      .filter(_.nonEmpty)
+      .map(Paths.get(_))
 
   // Reconfiguration
   val enableTransactionalReconfiguration: Boolean =
@@ -71,9 +71,22 @@ object EnvironmentalVariable {
   val ENV_ICEBERG_TABLE_RUNTIME_STATISTICS_NAMESPACE =
     "STORAGE_ICEBERG_TABLE_RUNTIME_STATISTICS_NAMESPACE"
   val ENV_ICEBERG_TABLE_COMMIT_BATCH_SIZE = "STORAGE_ICEBERG_TABLE_COMMIT_BATCH_SIZE"
+  val ENV_ICEBERG_TABLE_COMMIT_MAX_FILES = "STORAGE_ICEBERG_TABLE_COMMIT_MAX_FILES"
+  val ENV_ICEBERG_TABLE_COMMIT_INTERVAL_MS = "STORAGE_ICEBERG_TABLE_COMMIT_INTERVAL_MS"
+  val ENV_ICEBERG_TABLE_COMMIT_QUEUE_SIZE = "STORAGE_ICEBERG_TABLE_COMMIT_QUEUE_SIZE"
   val ENV_ICEBERG_TABLE_COMMIT_NUM_RETRIES = "STORAGE_ICEBERG_TABLE_COMMIT_NUM_RETRIES"
   val ENV_ICEBERG_TABLE_COMMIT_MIN_WAIT_MS = "STORAGE_ICEBERG_TABLE_COMMIT_MIN_WAIT_MS"
   val ENV_ICEBERG_TABLE_COMMIT_MAX_WAIT_MS = "STORAGE_ICEBERG_TABLE_COMMIT_MAX_WAIT_MS"
+  val ENV_ICEBERG_TABLE_COMPACTION_ENABLED = "STORAGE_ICEBERG_TABLE_COMPACTION_ENABLED"
+  val ENV_ICEBERG_TABLE_COMPACTION_INTERVAL_IN_SECONDS =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_INTERVAL_IN_SECONDS"
+  val ENV_ICEBERG_TABLE_COMPACTION_SMALL_FILE_SIZE =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_SMALL_FILE_SIZE"
+  val ENV_ICEBERG_TABLE_COMPACTION_TARGET_FILE_SIZE =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_TARGET_FILE_SIZE"
+  val ENV_ICEBERG_TABLE_COMPACTION_MIN_FILES = "STORAGE_ICEBERG_TABLE_COMPACTION_MIN_FILES"
+  val ENV_ICEBERG_TABLE_COMPACTION_SNAPSHOT_RETENTION_IN_SECONDS =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_SNAPSHOT_RETENTION_IN_SECONDS"
 
   // LakeFS
   val ENV_LAKEFS_ENDPOINT = "STORAGE_LAKEFS_ENDPOINT"
@@ -111,6 +124,12 @@ object EnvironmentalVariable {
     "NETWORK_BUFFERING_ENABLE_ADAPTIVE_BUFFERING"
   val ENV_NETWORK_BUFFERING_ADAPTIVE_BUFFERING_TIMEOUT_MS =
     "NETWORK_BUFFERING_ADAPTIVE_BUFFERING_TIMEOUT_MS"
+  val ENV_NETWORK_BUFFERING_MAX_DATA_TRANSFER_BATCH_BYTES =
+    "NETWORK_BUFFERING_MAX_DATA_TRANSFER_BATCH_BYTES"
+
+  // Operator Spill
+  val ENV_OPERATOR_SPILL_MEMORY_BUDGET = "OPERATOR_SPILL_MEMORY_BUDGET"
+  val ENV_OPERATOR_SPILL_DIRECTORY = "OPERATOR_SPILL_DIRECTORY"
 
   // Reconfiguration
   val ENV_RECONFIGURATION_ENABLE_TRANSACTIONAL_RECONFIGURATION =
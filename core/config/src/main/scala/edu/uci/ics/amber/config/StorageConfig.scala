@@ -57,12 +57,33 @@ object StorageConfig {
     conf.getString("storage.iceberg.table.runtime-statistics-namespace")
   val icebergTableCommitBatchSize: Int =
     conf.getInt("storage.iceberg.table.commit.batch-size")
+  val icebergTableCommitMaxFiles: Int =
+    conf.getInt("storage.iceberg.table.commit.max-files")
+  val icebergTableCommitIntervalMs: Int =
+    conf.getInt("storage.iceberg.table.commit.interval-ms")
+  val icebergTableCommitQueueSize: Long = parseSizeStringToBytes(
+    conf.getString("storage.iceberg.table.commit.queue-size")
+  )
   val icebergTableCommitNumRetries: Int =
     conf.getInt("storage.iceberg.table.commit.retry.num-retries")
   val icebergTableCommitMinRetryWaitMs: Int =
     conf.getInt("storage.iceberg.table.commit.retry.min-wait-ms")
   val icebergTableCommitMaxRetryWaitMs: Int =
     conf.getInt("storage.iceberg.table.commit.retry.max-wait-ms")
+  val icebergTableCompactionEnabled: Boolean =
+    conf.getBoolean("storage.iceberg.table.compaction.enabled")
+  val icebergTableCompactionIntervalInSecs: Int =
+    conf.getInt("storage.iceberg.table.compaction.interval-in-seconds")
+  val icebergTableCompactionSmallFileSize: Long = parseSizeStringToBytes(
+    conf.getString("storage.iceberg.table.compaction.small-file-size")
+  )
+  val icebergTableCompactionTargetFileSize: Long = parseSizeStringToBytes(
+    conf.getString("storage.iceberg.table.compaction.target-file-size")
+  )
+  val icebergTableCompactionMinFiles: Int =
+    conf.getInt("storage.iceberg.table.compaction.min-files")
+  val icebergTableCompactionSnapshotRetentionInSecs: Int =
+    conf.getInt("storage.iceberg.table.compaction.snapshot-retention-in-seconds")
 
   // LakeFS specifics
   val lakefsEndpoint: String = conf.getString("storage.lakefs.endpoint")
@@ -107,9 +128,22 @@ object StorageConfig {
   val ENV_ICEBERG_TABLE_RUNTIME_STATISTICS_NAMESPACE =
     "STORAGE_ICEBERG_TABLE_RUNTIME_STATISTICS_NAMESPACE"
   val ENV_ICEBERG_TABLE_COMMIT_BATCH_SIZE = "STORAGE_ICEBERG_TABLE_COMMIT_BATCH_SIZE"
+  val ENV_ICEBERG_TABLE_COMMIT_MAX_FILES = "STORAGE_ICEBERG_TABLE_COMMIT_MAX_FILES"
+  val ENV_ICEBERG_TABLE_COMMIT_INTERVAL_MS = "STORAGE_ICEBERG_TABLE_COMMIT_INTERVAL_MS"
+  val ENV_ICEBERG_TABLE_COMMIT_QUEUE_SIZE = "STORAGE_ICEBERG_TABLE_COMMIT_QUEUE_SIZE"
   val ENV_ICEBERG_TABLE_COMMIT_NUM_RETRIES = "STORAGE_ICEBERG_TABLE_COMMIT_NUM_RETRIES"
   val ENV_ICEBERG_TABLE_COMMIT_MIN_WAIT_MS = "STORAGE_ICEBERG_TABLE_COMMIT_MIN_WAIT_MS"
   val ENV_ICEBERG_TABLE_COMMIT_MAX_WAIT_MS = "STORAGE_ICEBERG_TABLE_COMMIT_MAX_WAIT_MS"
+  val ENV_ICEBERG_TABLE_COMPACTION_ENABLED = "STORAGE_ICEBERG_TABLE_COMPACTION_ENABLED"
+  val ENV_ICEBERG_TABLE_COMPACTION_INTERVAL_IN_SECONDS =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_INTERVAL_IN_SECONDS"
+  val ENV_ICEBERG_TABLE_COMPACTION_SMALL_FILE_SIZE =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_SMALL_FILE_SIZE"
+  val ENV_ICEBERG_TABLE_COMPACTION_TARGET_FILE_SIZE =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_TARGET_FILE_SIZE"
+  val ENV_ICEBERG_TABLE_COMPACTION_MIN_FILES = "STORAGE_ICEBERG_TABLE_COMPACTION_MIN_FILES"
+  val ENV_ICEBERG_TABLE_COMPACTION_SNAPSHOT_RETENTION_IN_SECONDS =
+    "STORAGE_ICEBERG_TABLE_COMPACTION_SNAPSHOT_RETENTION_IN_SECONDS"
 
   // LakeFS
   val ENV_LAKEFS_ENDPOINT = "STORAGE_LAKEFS_ENDPOINT"
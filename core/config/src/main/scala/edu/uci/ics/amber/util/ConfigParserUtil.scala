@@ -31,7 +31,7 @@ object ConfigParserUtil {
         value.toLong * multiplier
       case _ =>
         throw new IllegalArgumentException(
-          s"Invalid s3 multipart part-size format in StorageConfig.scala with value $size"
+          s"Invalid size format, expected a number followed by KB, MB or GB, got $size"
         )
     }
   }
@@ -46,6 +46,40 @@ trait OperatorExecutor {
 
   def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike]
 
+  /**
+    * Whether the executor consumes a whole input batch in one call to [[processBatchMultiPort]].
+    * When enabled, the DataProcessor hands over the remaining tuples of a DataFrame at once
+    * instead of invoking [[processTupleMultiPort]] once per DP loop iteration.
+    */
+  def supportsBatchProcessing: Boolean = false
+
+  def processBatchMultiPort(
+      batch: Array[Tuple],
+      port: Int
+  ): Iterator[(TupleLike, Option[PortIdentity])] = {
+    processBatch(batch, port).map(t => (t, None))
+  }
+
+  /**
+    * Processes a batch of tuples from the same input port. The default implementation
+    * falls back to [[processTuple]]; batch-aware executors should override it and
+    * set [[supportsBatchProcessing]] to true.
+    *
+    * If it throws, the DataProcessor processes the batch again through [[processTuple]], one
+    * tuple at a time, so that the failing tuple is reported on its own. An implementation that
+    * has already applied some tuples to its state when it fails must throw a
+    * [[PartialBatchException]] so that only the remaining tuples are processed again.
+    */
+  def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] = {
+    batch.iterator.flatMap(tuple => processTuple(tuple, port))
+  }
+
+  /**
+    * Whether further input tuples can still change the output of the executor. Once it turns
+    * false, e.g. after a limit is reached, upstream sources may be asked to stop producing.
+    */
+  def needsMoreInput: Boolean = true
+
   def produceStateOnFinish(port: Int): Option[State] = None
 
   def onFinishMultiPort(port: Int): Iterator[(TupleLike, Option[PortIdentity])] = {
@@ -56,4 +90,10 @@ trait OperatorExecutor {
 
   def close(): Unit = {}
 
+  /**
+    * The number of bytes the executor has written to disk because its state exceeded the
+    * memory budget, reported in the operator statistics.
+    */
+  def spilledBytes: Long = 0L
+
 }
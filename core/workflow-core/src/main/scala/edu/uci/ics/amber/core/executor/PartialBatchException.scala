@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.core.executor
+
+import edu.uci.ics.amber.core.tuple.Tuple
+
+import scala.util.control.NonFatal
+
+/**
+  * Thrown by [[OperatorExecutor.processBatch]] when it fails after the first `processedTuples`
+  * tuples of the batch have already changed the executor's state. Those tuples stay consumed;
+  * the rest of the batch is processed again one tuple at a time.
+  */
+class PartialBatchException(val processedTuples: Int, cause: Throwable)
+    extends RuntimeException(cause.getMessage, cause)
+
+object PartialBatchException {
+
+  /**
+    * Applies `f` to the tuples of the batch in order. If it fails on a tuple, the failure is
+    * rethrown as a [[PartialBatchException]] counting the tuples applied before it.
+    */
+  def foreachTracked(batch: Array[Tuple])(f: Tuple => Unit): Unit = {
+    var i = 0
+    while (i < batch.length) {
+      try {
+        f(batch(i))
+      } catch {
+        case NonFatal(e) => throw new PartialBatchException(i, e)
+      }
+      i += 1
+    }
+  }
+}
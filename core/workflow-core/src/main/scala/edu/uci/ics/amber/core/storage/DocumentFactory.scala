@@ -28,7 +28,7 @@ import edu.uci.ics.amber.core.storage.result.iceberg.IcebergDocument
 import edu.uci.ics.amber.core.tuple.{Schema, Tuple}
 import edu.uci.ics.amber.util.IcebergUtil
 import org.apache.iceberg.data.Record
-import org.apache.iceberg.{Schema => IcebergSchema}
+import org.apache.iceberg.{FileScanTask, Table, Schema => IcebergSchema}
 
 import java.net.URI
 
@@ -39,6 +39,19 @@ object DocumentFactory {
   private def sanitizeURIPath(uri: URI): String =
     uri.getPath.stripPrefix("/").replace("/", "_")
 
+  /**
+    * Result tables are read in Arrow batches; other tables are read record by record.
+    */
+  private def vectorizedReader(
+      resourceType: VFSResourceType.Value,
+      schema: Schema
+  ): Option[(Table, FileScanTask) => Iterator[Tuple] with AutoCloseable] =
+    if (resourceType == RESULT) {
+      Some((table, task) => IcebergUtil.readDataFileAsTuples(task, table, schema))
+    } else {
+      None
+    }
+
   /**
     * Open a document specified by the uri for read purposes only.
     * @param fileUri the uri of the document
@@ -95,7 +108,8 @@ object DocumentFactory {
               storageKey,
               icebergSchema,
               serde,
-              deserde
+              deserde,
+              vectorizedReader(resourceType, schema)
             )
           case unsupportedMode =>
             throw new IllegalArgumentException(
@@ -153,7 +167,8 @@ object DocumentFactory {
                 storageKey,
                 table.schema(),
                 serde,
-                deserde
+                deserde,
+                vectorizedReader(resourceType, amberSchema)
               ),
               Some(amberSchema)
             )
@@ -56,4 +56,10 @@ trait BufferedItemWriter[T] {
     * @param item the data item to be removed.
     */
   def removeOne(item: T): Unit
+
+  /**
+    * Persist the items already written if the writer's interval to do so has passed. It is called
+    * periodically by the owner of the writer; writers that persist items eagerly ignore it.
+    */
+  def commitIfDue(): Unit = {}
 }
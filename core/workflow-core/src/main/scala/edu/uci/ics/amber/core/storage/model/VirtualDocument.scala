@@ -68,6 +68,24 @@ abstract class VirtualDocument[T] extends ReadonlyVirtualDocument[T] {
   def getAfter(offset: Int): Iterator[T] =
     throw new NotImplementedError("getAfter method is not implemented")
 
+  /**
+    * get an iterator of the items written to one partition by writers from `partitionedWriter`
+    * @param partition the partition to read, from 0 until `numPartitions`
+    * @param numPartitions the number of partitions the items were written in
+    * @return an iterator over the partition, or None if the document was not written in `numPartitions` partitions
+    */
+  def getPartition(partition: Int, numPartitions: Int): Option[Iterator[T]] =
+    throw new NotImplementedError("getPartition method is not implemented")
+
+  /**
+    * get an iterator of one of `numSplits` disjoint splits of the items; together the splits cover all items
+    * @param split the split to read, from 0 until `numSplits`
+    * @param numSplits the number of splits
+    * @return an iterator that returns data items of type T
+    */
+  def getSplit(split: Int, numSplits: Int): Iterator[T] =
+    throw new NotImplementedError("getSplit method is not implemented")
+
   /**
     * get the count of items in the document
     * @return the count of items
@@ -90,6 +108,20 @@ abstract class VirtualDocument[T] extends ReadonlyVirtualDocument[T] {
   def writer(writerIdentifier: String): BufferedItemWriter[T] =
     throw new NotImplementedError("write method is not implemented")
 
+  /**
+    * return a writer that stores the items of each partition separately, so that they can be read with `getPartition`
+    * @param writerIdentifier the id of the writer, maybe required by some implementations
+    * @param numPartitions the number of partitions
+    * @param partitionOf the partition of an item, from 0 until `numPartitions`
+    * @return a buffered item writer
+    */
+  def partitionedWriter(
+      writerIdentifier: String,
+      numPartitions: Int,
+      partitionOf: T => Int
+  ): BufferedItemWriter[T] =
+    throw new NotImplementedError("partitionedWriter method is not implemented")
+
   /**
     * append one data item to the document
     * @param item the data item
@@ -57,6 +57,9 @@ object Constants {
   * @param tableSchema    schema of the table.
   * @param serde          function to serialize T into an Iceberg Record.
   * @param deserde        function to deserialize an Iceberg Record into T.
+  * @param readDataFile   optionally, a function that reads all items of a file scan task (a data file or some of
+  *                       its row groups) at once, used instead of reading generic Records one by one.
+  *                       The returned iterator is closed once no more of its items are needed.
   * @tparam T type of the data items stored in the Iceberg table.
   */
 private[storage] class IcebergDocument[T >: Null <: AnyRef](
@@ -64,7 +67,8 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
     val tableName: String,
     val tableSchema: org.apache.iceberg.Schema,
     val serde: (org.apache.iceberg.Schema, T) => Record,
-    val deserde: (org.apache.iceberg.Schema, Record) => T
+    val deserde: (org.apache.iceberg.Schema, Record) => T,
+    val readDataFile: Option[(Table, FileScanTask) => Iterator[T] with AutoCloseable] = None
 ) extends VirtualDocument[T]
     with OnIceberg {
 
@@ -95,6 +99,7 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
       if (catalog.tableExists(identifier)) {
         catalog.dropTable(identifier)
       }
+      IcebergOffsetIndex.invalidate(identifier.toString)
     }
 
   /**
@@ -103,11 +108,64 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
   override def get(): Iterator[T] = getUsingFileSequenceOrder(0, None)
 
   /**
-    * Get records within a specified range [from, until).
+    * Get records within a specified range [from, until) of the current snapshot.
+    * - The file and the row group holding `from` are located through the offset index of the table,
+    *   so only the row groups overlapping the range are read.
+    * - The reader of a file is closed as soon as the range is filled, even mid-file.
     */
-  override def getRange(from: Int, until: Int): Iterator[T] = {
-    getUsingFileSequenceOrder(from, Some(until))
-  }
+  override def getRange(from: Int, until: Int): Iterator[T] =
+    withReadLock(lock) {
+      IcebergUtil.loadTableMetadata(catalog, tableNamespace, tableName) match {
+        case Some(table) =>
+          val tasks = offsetIndexOf(table).seek(table, from)
+          new Iterator[T] {
+            private var remaining = until - from
+
+            // Reader of the active task, closed once the task or the range is exhausted
+            private var currentReader: Option[Iterator[T] with AutoCloseable] = None
+
+            private def closeCurrentReader(): Unit = {
+              currentReader.foreach(_.close())
+              currentReader = None
+            }
+
+            override def hasNext: Boolean = {
+              if (remaining <= 0) {
+                closeCurrentReader()
+                return false
+              }
+              while (!currentReader.exists(_.hasNext) && tasks.hasNext) {
+                closeCurrentReader()
+                val (task, recordsToSkip) = tasks.next()
+                val reader = readTask(table, task)
+                currentReader = Some(reader)
+                var skipped = 0L
+                while (skipped < recordsToSkip && reader.hasNext) {
+                  reader.next()
+                  skipped += 1
+                }
+              }
+              if (!currentReader.exists(_.hasNext)) {
+                closeCurrentReader()
+                return false
+              }
+              true
+            }
+
+            override def next(): T = {
+              if (!hasNext) throw new NoSuchElementException("No more records available")
+
+              val item = currentReader.get.next()
+              remaining -= 1
+              if (remaining == 0) {
+                closeCurrentReader()
+              }
+              item
+            }
+          }
+        case None => Iterator.empty
+      }
+    }
 
   /**
     * Get records starting after a specified offset.
@@ -116,6 +174,46 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
     getUsingFileSequenceOrder(offset, None)
   }
 
+  /**
+    * Get the records written to one partition by partitioned writers. Returns None unless every data file
+    * of the table was written by a writer with `numPartitions` partitions.
+    */
+  override def getPartition(partition: Int, numPartitions: Int): Option[Iterator[T]] = {
+    val table = IcebergUtil
+      .loadTableMetadata(catalog, tableNamespace, tableName)
+      .getOrElse(
+        return None
+      )
+    val isPartitioned = table.newScan().planFiles().iterator().asScala.forall { task =>
+      IcebergTableWriter
+        .partitionOfFile(task.file().path().toString)
+        .exists(_._2 == numPartitions)
+    }
+    if (!isPartitioned) {
+      return None
+    }
+    Some(
+      getUsingFileSequenceOrder(
+        0,
+        None,
+        task =>
+          IcebergTableWriter
+            .partitionOfFile(task.file().path().toString)
+            .contains((partition, numPartitions))
+      )
+    )
+  }
+
+  /**
+    * Get the records of the data files assigned to one split. Files are assigned by the hash of their path.
+    */
+  override def getSplit(split: Int, numSplits: Int): Iterator[T] =
+    getUsingFileSequenceOrder(
+      0,
+      None,
+      task => Math.floorMod(task.file().path().toString.hashCode, numSplits) == split
+    )
+
   /**
     * Get the total count of records in the table.
     */
@@ -125,9 +223,34 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
       .getOrElse(
         return 0
       )
-    table.newScan().planFiles().iterator().asScala.map(f => f.file().recordCount()).sum
+    offsetIndexOf(table).count
   }
 
+  private def offsetIndexOf(table: Table): IcebergOffsetIndex =
+    IcebergOffsetIndex.of(TableIdentifier.of(tableNamespace, tableName).toString, table)
+
+  /**
+    * Read the items of a file scan task, which covers a whole data file or some of its row groups.
+    */
+  private def readTask(table: Table, task: FileScanTask): Iterator[T] with AutoCloseable =
+    readDataFile match {
+      case Some(read) => read(table, task)
+      case None =>
+        val records = IcebergUtil.readDataFileAsIterator(
+          task.file(),
+          tableSchema,
+          table,
+          Some((task.start(), task.length()))
+        )
+        new Iterator[T] with AutoCloseable {
+          override def hasNext: Boolean = records.hasNext
+
+          override def next(): T = deserde(tableSchema, records.next())
+
+          override def close(): Unit = records.close()
+        }
+    }
+
   /**
     * Creates a BufferedItemWriter for writing data to the table.
     *
@@ -145,13 +268,41 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
     )
   }
 
+  /**
+    * Creates a BufferedItemWriter that writes the items of each partition to separate data files.
+    *
+    * @param writerIdentifier The writer's ID, see `writer`.
+    * @param numPartitions    The number of partitions.
+    * @param partitionOf      The partition of an item.
+    */
+  override def partitionedWriter(
+      writerIdentifier: String,
+      numPartitions: Int,
+      partitionOf: T => Int
+  ): BufferedItemWriter[T] = {
+    new IcebergTableWriter[T](
+      writerIdentifier,
+      catalog,
+      tableNamespace,
+      tableName,
+      tableSchema,
+      serde,
+      Some((numPartitions, partitionOf))
+    )
+  }
+
   /**
     * Util iterator to get T in certain range
     *
     * @param from  start from which record inclusively, if 0 means start from the first
     * @param until end at which record exclusively, if None means read to the table's EOF
+    * @param fileFilter the data files to read; records of other files are neither returned nor counted
     */
-  private def getUsingFileSequenceOrder(from: Int, until: Option[Int]): Iterator[T] =
+  private def getUsingFileSequenceOrder(
+      from: Int,
+      until: Option[Int],
+      fileFilter: FileScanTask => Boolean = _ => true
+  ): Iterator[T] =
     withReadLock(lock) {
       new Iterator[T] {
         private val iteLock = new ReentrantLock()
@@ -173,8 +324,17 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
         // Iterator for usable file scan tasks
         private var usableFileIterator: Iterator[FileScanTask] = seekToUsableFile()
 
-        // Current record iterator for the active file
-        private var currentRecordIterator: Iterator[Record] = Iterator.empty
+        // Current item iterator for the active file
+        private var currentItemIterator: Iterator[T] = Iterator.empty
+
+        // Reader of the active file, closed once the file or the range is exhausted
+        private var currentFileReader: Option[AutoCloseable] = None
+
+        private def closeCurrentFile(): Unit = {
+          currentFileReader.foreach(_.close())
+          currentFileReader = None
+          currentItemIterator = Iterator.empty
+        }
 
         // Util function to load the table's metadata
         private def loadTableMetadata(): Option[Table] = {
@@ -197,7 +357,8 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
             }
             table.foreach(_.refresh())
 
-            // Retrieve and sort the file scan tasks by file sequence number
+            // Retrieve and sort the file scan tasks by data sequence number, then by filename index.
+            // Compacted files keep the data sequence number of the files they replace.
             val fileScanTasksIterator: Iterator[FileScanTask] = table match {
               case Some(t) =>
                 val currentSnapshotId = Option(t.currentSnapshot()).map(_.snapshotId())
@@ -228,7 +389,11 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
                   case _ =>
                     Iterator.empty
                 }
-                fileScanTasks.toSeq.sortBy(_.file().fileSequenceNumber()).iterator
+                fileScanTasks
+                  .filter(fileFilter)
+                  .toSeq
+                  .sortBy(task => IcebergTableWriter.readOrderOf(task.file()))
+                  .iterator
 
               case None =>
                 Iterator.empty
@@ -250,6 +415,7 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
 
         override def hasNext: Boolean = {
           if (numOfReturnedRecords >= totalRecordsToReturn) {
+            closeCurrentFile()
             return false
           }
 
@@ -257,31 +423,32 @@ private[storage] class IcebergDocument[T >: Null <: AnyRef](
             usableFileIterator = seekToUsableFile()
           }
 
-          while (!currentRecordIterator.hasNext && usableFileIterator.hasNext) {
+          while (!currentItemIterator.hasNext && usableFileIterator.hasNext) {
+            closeCurrentFile()
             val nextFile = usableFileIterator.next()
-            currentRecordIterator = IcebergUtil.readDataFileAsIterator(
-              nextFile.file(),
-              tableSchema,
-              table.get
-            )
+            val reader = readTask(table.get, nextFile)
+            currentFileReader = Some(reader)
+            currentItemIterator = reader
 
             // Skip records within the file if necessary
             val recordsToSkipInFile = from - numOfSkippedRecords
             if (recordsToSkipInFile > 0) {
-              currentRecordIterator = currentRecordIterator.drop(recordsToSkipInFile)
+              currentItemIterator = currentItemIterator.drop(recordsToSkipInFile)
               numOfSkippedRecords += recordsToSkipInFile
             }
           }
 
-          currentRecordIterator.hasNext
+          if (!currentItemIterator.hasNext) {
+            closeCurrentFile()
+          }
+          currentItemIterator.hasNext
         }
 
         override def next(): T = {
           if (!hasNext) throw new NoSuchElementException("No more records available")
 
-          val record = currentRecordIterator.next()
           numOfReturnedRecords += 1
-          deserde(tableSchema, record)
+          currentItemIterator.next()
         }
       }
     }
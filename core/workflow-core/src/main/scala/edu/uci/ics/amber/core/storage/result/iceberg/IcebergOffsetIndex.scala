@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.core.storage.result.iceberg
+
+import org.apache.iceberg.io.{InputFile => IcebergInputFile}
+import org.apache.iceberg.{DataOperations, FileScanTask, Table}
+import org.apache.parquet.hadoop.ParquetFileReader
+import org.apache.parquet.io.{DelegatingSeekableInputStream, InputFile, SeekableInputStream}
+
+import java.util
+import java.util.Collections
+import scala.jdk.CollectionConverters._
+
+/**
+  * The data files of a table in read order, with the offset of the first record of each file,
+  * so that a record can be located without planning and sorting all files.
+  *
+  * @param snapshotId the snapshot the index describes.
+  * @param tasks the file scan tasks of all data files, in read order.
+  * @param startOffsets the offset of the first record of each file.
+  * @param count the number of records in the table.
+  */
+private[iceberg] case class IcebergOffsetIndex(
+    snapshotId: Long,
+    tasks: Vector[FileScanTask],
+    startOffsets: Array[Long],
+    count: Long
+) {
+
+  /**
+    * The parts of the table to read to start at the record at `offset`: the row group of the
+    * file containing it, with the number of records to skip in it, and then every following row
+    * group and file.
+    */
+  def seek(table: Table, offset: Long): Iterator[(FileScanTask, Long)] = {
+    if (offset >= count) {
+      return Iterator.empty
+    }
+    val found = util.Arrays.binarySearch(startOffsets, offset)
+    // the last file starting at or before the offset
+    val fileIdx = if (found >= 0) found else -found - 2
+    val recordsToSkip = offset - startOffsets(fileIdx)
+    IcebergOffsetIndex.seekInFile(table, tasks(fileIdx), recordsToSkip) ++
+      tasks.iterator.drop(fileIdx + 1).map(task => (task, 0L))
+  }
+
+  /**
+    * The index after the given tasks were appended to the table by the given snapshot.
+    */
+  def append(newSnapshotId: Long, appendedTasks: Seq[FileScanTask]): IcebergOffsetIndex = {
+    val sortedTasks = appendedTasks.sortBy(task => IcebergTableWriter.readOrderOf(task.file()))
+    val appendedOffsets = sortedTasks.scanLeft(count)(_ + _.file().recordCount())
+    IcebergOffsetIndex(
+      newSnapshotId,
+      tasks ++ sortedTasks,
+      startOffsets ++ appendedOffsets.init,
+      appendedOffsets.last
+    )
+  }
+}
+
+private[iceberg] object IcebergOffsetIndex {
+
+  private val MAX_CACHED_TABLES = 256
+  private val MAX_CACHED_FILES = 4096
+
+  // The latest index of each table, by table identifier
+  private val indexes: util.Map[String, IcebergOffsetIndex] = lruMap(MAX_CACHED_TABLES)
+
+  // The row groups of each data file as (starting position, record count); data files never change
+  private val rowGroups: util.Map[String, Vector[(Long, Long)]] = lruMap(MAX_CACHED_FILES)
+
+  private def lruMap[K, V](maxEntries: Int): util.Map[K, V] =
+    Collections.synchronizedMap(new util.LinkedHashMap[K, V](16, 0.75f, true) {
+      override def removeEldestEntry(eldest: util.Map.Entry[K, V]): Boolean = size() > maxEntries
+    })
+
+  /**
+    * The index of the current snapshot of a table. The cached index is extended with the files
+    * of the snapshots appended since it was built, and rebuilt if any other operation, such as a
+    * compaction, happened in between.
+    */
+  def of(tableIdentifier: String, table: Table): IcebergOffsetIndex = {
+    val currentSnapshot = Option(table.currentSnapshot())
+    val cached = Option(indexes.get(tableIdentifier))
+    val index = (cached, currentSnapshot) match {
+      case (_, None) => IcebergOffsetIndex(-1L, Vector.empty, Array.empty, 0L)
+      case (Some(index), Some(snapshot)) if index.snapshotId == snapshot.snapshotId() => index
+      case (Some(index), Some(snapshot)) if onlyAppendedSince(table, index.snapshotId) =>
+        val appendedTasks = table
+          .newIncrementalAppendScan()
+          .fromSnapshotExclusive(index.snapshotId)
+          .toSnapshot(snapshot.snapshotId())
+          .planFiles()
+          .asScala
+          .toSeq
+        index.append(snapshot.snapshotId(), appendedTasks)
+      case (_, Some(snapshot)) =>
+        IcebergOffsetIndex(-1L, Vector.empty, Array.empty, 0L)
+          .append(snapshot.snapshotId(), table.newScan().planFiles().asScala.toSeq)
+    }
+    indexes.put(tableIdentifier, index)
+    index
+  }
+
+  def invalidate(tableIdentifier: String): Unit = indexes.remove(tableIdentifier)
+
+  // Whether every snapshot after the given one, up to the current snapshot, is an append
+  private def onlyAppendedSince(table: Table, snapshotId: Long): Boolean = {
+    var snapshot = table.currentSnapshot()
+    while (snapshot != null && snapshot.snapshotId() != snapshotId) {
+      if (snapshot.operation() != DataOperations.APPEND) {
+        return false
+      }
+      snapshot = Option(snapshot.parentId()).map(table.snapshot(_)).orNull
+    }
+    snapshot != null
+  }
+
+  /**
+    * The row groups of a file to read to skip the given number of records, with the records to
+    * skip in the first one. Files without recorded row group offsets are read from the start.
+    */
+  private def seekInFile(
+      table: Table,
+      task: FileScanTask,
+      recordsToSkip: Long
+  ): Iterator[(FileScanTask, Long)] = {
+    val wholeFile = Iterator((task, recordsToSkip))
+    if (recordsToSkip == 0 || task.file().splitOffsets() == null) {
+      return wholeFile
+    }
+    val recordCounts = rowGroupsOf(table, task).toMap
+    // a split size of 1 puts each row group into its own task
+    val rowGroupTasks = task.split(1).asScala.toList
+    if (!rowGroupTasks.forall(rowGroupTask => recordCounts.contains(rowGroupTask.start()))) {
+      return wholeFile
+    }
+    var remaining = recordsToSkip
+    rowGroupTasks.flatMap { rowGroupTask =>
+      val recordCount = recordCounts(rowGroupTask.start())
+      if (remaining >= recordCount) {
+        remaining -= recordCount
+        None
+      } else {
+        val skip = remaining
+        remaining = 0
+        Some((rowGroupTask, skip))
+      }
+    }.iterator
+  }
+
+  private def rowGroupsOf(table: Table, task: FileScanTask): Vector[(Long, Long)] = {
+    val path = task.file().path().toString
+    Option(rowGroups.get(path)).getOrElse {
+      val inputFile = new ParquetInputFile(table.io().newInputFile(task.file()))
+      val reader = ParquetFileReader.open(inputFile)
+      val fileRowGroups =
+        try {
+          reader.getRowGroups.asScala
+            .map(block => (block.getStartingPos, block.getRowCount))
+            .toVector
+        } finally {
+          reader.close()
+        }
+      rowGroups.put(path, fileRowGroups)
+      fileRowGroups
+    }
+  }
+
+  /**
+    * Lets the Parquet reader read the footer of a file through the table's FileIO.
+    */
+  private class ParquetInputFile(file: IcebergInputFile) extends InputFile {
+    override def getLength: Long = file.getLength
+
+    override def newStream(): SeekableInputStream = {
+      val stream = file.newStream()
+      new DelegatingSeekableInputStream(stream) {
+        override def getPos: Long = stream.getPos
+
+        override def seek(newPos: Long): Unit = stream.seek(newPos)
+      }
+    }
+  }
+}
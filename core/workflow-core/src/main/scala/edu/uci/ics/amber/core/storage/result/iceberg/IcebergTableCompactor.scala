@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.core.storage.result.iceberg
+
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.config.StorageConfig
+import edu.uci.ics.amber.util.IcebergUtil
+import org.apache.iceberg.catalog.{Catalog, Namespace}
+import org.apache.iceberg.data.Record
+import org.apache.iceberg.data.parquet.GenericParquetWriter
+import org.apache.iceberg.io.DataWriter
+import org.apache.iceberg.parquet.Parquet
+import org.apache.iceberg.{DataFile, Table}
+
+import java.nio.file.Paths
+import java.util.UUID
+import scala.collection.mutable.ArrayBuffer
+import scala.jdk.CollectionConverters._
+
+/**
+  * IcebergTableCompactor rewrites the small data files of tables into larger ones and expires
+  * old snapshots, so that planning the files of a table stays cheap on long executions.
+  *
+  * Readers order data files by data sequence number and then by filename index (see
+  * `IcebergDocument`). A rewrite therefore only replaces a consecutive range of that order made
+  * of whole sequence numbers, and gives its files the largest data sequence number in the range,
+  * so they take the place of the files they replace. Files written by partitioned writers are
+  * compacted per partition and keep their partition in the filename.
+  */
+object IcebergTableCompactor extends LazyLogging {
+
+  /**
+    * Compacts all tables in the given namespaces. Failures are logged per table.
+    */
+  def compactNamespaces(catalog: Catalog, namespaces: Seq[String]): Unit = {
+    namespaces.foreach { namespace =>
+      val tableIdentifiers =
+        try catalog.listTables(Namespace.of(namespace)).asScala.toList
+        catch {
+          case _: Exception => List.empty
+        }
+      tableIdentifiers.foreach { identifier =>
+        try {
+          IcebergUtil
+            .loadTableMetadata(catalog, namespace, identifier.name())
+            .foreach(compactTable)
+        } catch {
+          case e: Exception =>
+            logger.warn(s"Failed to compact table $identifier", e)
+        }
+      }
+    }
+  }
+
+  /**
+    * Rewrites the runs of small data files of a table, then expires the snapshots older
+    * than the configured retention.
+    */
+  def compactTable(table: Table): Unit = {
+    val smallFileSize = StorageConfig.icebergTableCompactionSmallFileSize
+    val targetFileSize = StorageConfig.icebergTableCompactionTargetFileSize
+    val minFiles = math.max(2, StorageConfig.icebergTableCompactionMinFiles)
+
+    // Data files in read order, grouped by data sequence number
+    val sequences = table
+      .newScan()
+      .planFiles()
+      .iterator()
+      .asScala
+      .map(_.file())
+      .toList
+      .groupBy(_.dataSequenceNumber().longValue())
+      .toList
+      .sortBy(_._1)
+
+    // Consecutive sequences made only of small files form runs of at most the target size
+    val runs = new ArrayBuffer[(Long, List[DataFile])]()
+    val run = new ArrayBuffer[DataFile]()
+    var runSequenceNumber = 0L
+    def closeRun(): Unit = {
+      if (run.nonEmpty) {
+        runs.append((runSequenceNumber, run.toList))
+        run.clear()
+      }
+    }
+    sequences.foreach {
+      case (sequenceNumber, files) =>
+        if (files.exists(_.fileSizeInBytes() >= smallFileSize)) {
+          closeRun()
+        } else {
+          val filesSize = files.map(_.fileSizeInBytes()).sum
+          if (run.map(_.fileSizeInBytes()).sum + filesSize > targetFileSize) {
+            closeRun()
+          }
+          run ++= files
+          runSequenceNumber = sequenceNumber
+        }
+    }
+    closeRun()
+
+    runs
+      .filter { case (_, files) => files.size >= minFiles }
+      .foreach { case (sequenceNumber, files) => rewriteRun(table, sequenceNumber, files) }
+
+    val retentionMs = StorageConfig.icebergTableCompactionSnapshotRetentionInSecs * 1000L
+    table
+      .expireSnapshots()
+      .retainLast(1)
+      .expireOlderThan(System.currentTimeMillis() - retentionMs)
+      .cleanExpiredFiles(true)
+      .commit()
+  }
+
+  /**
+    * Replaces the files of a run with one file per partition, committed with the given data
+    * sequence number. The records keep the order of the files they are read from.
+    */
+  private def rewriteRun(table: Table, sequenceNumber: Long, files: List[DataFile]): Unit = {
+    val schema = table.schema()
+    val compactionId = s"compacted-${UUID.randomUUID().toString.take(8)}"
+    val orderedFiles =
+      files.sortBy(IcebergTableWriter.readOrderOf)
+    val compactedFiles = orderedFiles
+      .groupBy(file => IcebergTableWriter.partitionOfFile(file.path().toString))
+      .toList
+      .map {
+        case (partition, partitionFiles) =>
+          val filename = partition match {
+            case Some((p, numPartitions)) =>
+              IcebergTableWriter.partitionFileName(compactionId, p, numPartitions, 0)
+            case None => s"${compactionId}_0"
+          }
+          val outputFile =
+            table.io().newOutputFile(Paths.get(table.location()).resolve(filename).toString)
+          val dataWriter: DataWriter[Record] = Parquet
+            .writeData(outputFile)
+            .forTable(table)
+            .createWriterFunc(GenericParquetWriter.buildWriter)
+            .overwrite()
+            .build()
+          try {
+            partitionFiles.foreach { file =>
+              val records = IcebergUtil.readDataFileAsIterator(file, schema, table)
+              try {
+                records.foreach(dataWriter.write)
+              } finally {
+                records.close()
+              }
+            }
+          } finally {
+            dataWriter.close()
+          }
+          dataWriter.toDataFile
+      }
+
+    val rewrite = table
+      .newRewrite()
+      .dataSequenceNumber(sequenceNumber)
+    files.foreach(rewrite.deleteFile)
+    compactedFiles.foreach(rewrite.addFile)
+    rewrite.commit()
+    logger.info(
+      s"Compacted ${files.size} data files of table ${table.name()} into ${compactedFiles.size}"
+    )
+  }
+}
@@ -22,7 +22,7 @@ package edu.uci.ics.amber.core.storage.result.iceberg
 import edu.uci.ics.amber.config.StorageConfig
 import edu.uci.ics.amber.core.storage.model.BufferedItemWriter
 import edu.uci.ics.amber.util.IcebergUtil
-import org.apache.iceberg.{Schema, Table}
+import org.apache.iceberg.{DataFile, Schema, Table}
 import org.apache.iceberg.catalog.Catalog
 import org.apache.iceberg.data.Record
 import org.apache.iceberg.data.parquet.GenericParquetWriter
@@ -30,13 +30,19 @@ import org.apache.iceberg.io.{DataWriter, OutputFile}
 import org.apache.iceberg.parquet.Parquet
 
 import java.nio.file.Paths
+import java.util.concurrent.{Executors, ThreadFactory}
 import scala.collection.mutable.ArrayBuffer
+import scala.concurrent.duration.Duration
+import scala.concurrent.{Await, ExecutionContext, Future}
 
 /**
   * IcebergTableWriter writes data to the given Iceberg table in an append-only way.
   * - Each time the buffer is flushed, a new data file is created with a unique name.
   * - The `writerIdentifier` is used to prefix the created files.
   * - Iceberg data files are immutable once created. So each flush will create a distinct file.
+  * - Written files are committed in groups: one snapshot appends all files written since the
+  *   previous commit, once enough files are pending or enough time has passed. Commits run in
+  *   the background while the next files are written, with at most one commit in flight.
   *
   * **Thread Safety**: This writer is **NOT thread-safe**, so only one thread should call this writer.
   *
@@ -46,6 +52,10 @@ import scala.collection.mutable.ArrayBuffer
   * @param tableName the name of the Iceberg table.
   * @param tableSchema the schema of the Iceberg table.
   * @param serde a function to serialize `T` into an Iceberg `Record`.
+  * @param partitioning optionally, the number of partitions and the partition of each item. Items of each
+  *                     partition are buffered and written to separate files, named after the partition.
+  * @param commitMaxFiles the number of pending data files that triggers a commit.
+  * @param commitIntervalMs the time since the last commit after which pending data files are committed.
   * @tparam T the type of the data items written to the table.
   */
 private[storage] class IcebergTableWriter[T](
@@ -54,18 +64,30 @@ private[storage] class IcebergTableWriter[T](
     val tableNamespace: String,
     val tableName: String,
     val tableSchema: Schema,
-    val serde: (org.apache.iceberg.Schema, T) => Record
+    val serde: (org.apache.iceberg.Schema, T) => Record,
+    val partitioning: Option[(Int, T => Int)] = None,
+    commitMaxFiles: Int = StorageConfig.icebergTableCommitMaxFiles,
+    commitIntervalMs: Long = StorageConfig.icebergTableCommitIntervalMs
 ) extends BufferedItemWriter[T] {
 
-  // Buffer to hold items before flushing to the table
-  private val buffer = new ArrayBuffer[T]()
+  // Buffers to hold items before flushing to the table, one per partition
+  private val buffers = Array.fill(partitioning.map(_._1).getOrElse(1))(new ArrayBuffer[T]())
   // Incremental filename index, incremented each time a new buffer is flushed
   private var filenameIdx = 0
   // Incremental record ID, incremented for each record
   private var recordId = 0
 
+  // Data files written but not yet committed, in the order they were written
+  private val pendingDataFiles = new ArrayBuffer[DataFile]()
+  // The commit currently running in the background, if any
+  private var inFlightCommit: Option[Future[Unit]] = None
+  private var lastCommitNanos = System.nanoTime()
+
   override val bufferSize: Int = StorageConfig.icebergTableCommitBatchSize
 
+  private val maxPendingFiles: Int = math.max(1, commitMaxFiles)
+  private val commitIntervalNanos: Long = commitIntervalMs * 1000000L
+
   // Load the Iceberg table
   private val table: Table =
     IcebergUtil
@@ -76,7 +98,7 @@ private[storage] class IcebergTableWriter[T](
     * Open the writer and clear the buffer.
     */
   override def open(): Unit = {
-    buffer.clear()
+    buffers.foreach(_.clear())
   }
 
   /**
@@ -85,9 +107,13 @@ private[storage] class IcebergTableWriter[T](
     * @param item the item to add to the buffer.
     */
   override def putOne(item: T): Unit = {
-    buffer.append(item)
-    if (buffer.size >= bufferSize) {
-      flushBuffer()
+    val partition = partitioning match {
+      case Some((_, partitionOf)) => partitionOf(item)
+      case None                   => 0
+    }
+    buffers(partition).append(item)
+    if (buffers(partition).size >= bufferSize) {
+      flushBuffer(partition)
     }
   }
 
@@ -96,18 +122,29 @@ private[storage] class IcebergTableWriter[T](
     * @param item the item to remove from the buffer.
     */
   override def removeOne(item: T): Unit = {
-    buffer -= item
+    buffers.foreach(_ -= item)
   }
 
   /**
-    * Flush the current buffer to a new Iceberg data file.
-    * - Creates a new data file using the writer identifier and an incremental filename index.
-    * - Writes all buffered items to the new file and commits it to the Iceberg table.
+    * Flush the buffer of a partition to a new Iceberg data file.
+    * - Creates a new data file using the writer identifier, the partition and an incremental filename index.
+    * - Writes all buffered items to the new file, which is committed with the next group.
     */
-  private def flushBuffer(): Unit = {
+  private def flushBuffer(partition: Int): Unit = {
+    val buffer = buffers(partition)
     if (buffer.nonEmpty) {
       // Create a unique file path using the writer's identifier and the filename index
-      val filepath = Paths.get(table.location()).resolve(s"${writerIdentifier}_${filenameIdx}")
+      val filename = partitioning match {
+        case Some((numPartitions, _)) =>
+          IcebergTableWriter.partitionFileName(
+            writerIdentifier,
+            partition,
+            numPartitions,
+            filenameIdx
+          )
+        case None => s"${writerIdentifier}_${filenameIdx}"
+      }
+      val filepath = Paths.get(table.location()).resolve(filename)
       // Increment the filename index by 1
       filenameIdx += 1
       val outputFile: OutputFile = table.io().newOutputFile(filepath.toString)
@@ -126,20 +163,115 @@ private[storage] class IcebergTableWriter[T](
       } finally {
         dataWriter.close()
       }
-      // Commit the new file to the table
-      val dataFile = dataWriter.toDataFile
-      table.newAppend().appendFile(dataFile).commit()
+      pendingDataFiles.append(dataWriter.toDataFile)
       // Clear the item buffer
       buffer.clear()
+      maybeCommit()
     }
   }
 
   /**
-    * Close the writer, ensuring any remaining buffered items are flushed.
+    * Start a commit of the pending files if enough files are pending or the last commit is old
+    * enough. While a commit is in flight, files keep accumulating into the next group, unless
+    * twice the group size is already pending, in which case the writer waits for the commit.
     */
-  override def close(): Unit = {
-    if (buffer.nonEmpty) {
-      flushBuffer()
+  private def maybeCommit(): Unit = {
+    val due = pendingDataFiles.size >= maxPendingFiles ||
+      System.nanoTime() - lastCommitNanos >= commitIntervalNanos
+    if (due) {
+      val commitRunning = inFlightCommit.exists(!_.isCompleted)
+      if (!commitRunning || pendingDataFiles.size >= 2 * maxPendingFiles) {
+        commitPendingFiles()
+      }
     }
   }
+
+  /**
+    * Wait for the in-flight commit, then commit all pending files in one snapshot in the
+    * background.
+    */
+  private def commitPendingFiles(): Unit = {
+    awaitInFlightCommit()
+    if (pendingDataFiles.nonEmpty) {
+      val dataFiles = pendingDataFiles.toList
+      pendingDataFiles.clear()
+      lastCommitNanos = System.nanoTime()
+      inFlightCommit = Some(Future {
+        val append = table.newAppend()
+        dataFiles.foreach(append.appendFile)
+        append.commit()
+      }(IcebergTableWriter.commitExecutionContext))
+    }
+  }
+
+  // A failed commit is rethrown here, on the writing thread
+  private def awaitInFlightCommit(): Unit = {
+    inFlightCommit.foreach(Await.result(_, Duration.Inf))
+    inFlightCommit = None
+  }
+
+  /**
+    * Commit the pending files if the last commit is older than the commit interval. Called
+    * periodically, so written files are committed in time even when no more items arrive.
+    */
+  override def commitIfDue(): Unit = maybeCommit()
+
+  /**
+    * Close the writer, ensuring any remaining buffered items are flushed and all written files
+    * are committed before returning.
+    */
+  override def close(): Unit = {
+    buffers.indices.foreach(flushBuffer)
+    commitPendingFiles()
+    awaitInFlightCommit()
+  }
+}
+
+private[storage] object IcebergTableWriter {
+  private val partitionFilePattern = """.*_part-(\d+)-of-(\d+)_\d+$""".r
+  private val fileIndexPattern = """.*_(\d+)$""".r
+
+  // Commits only wait on the catalog and the file system, so they share a cached pool
+  private val commitExecutionContext: ExecutionContext =
+    ExecutionContext.fromExecutorService(Executors.newCachedThreadPool(new ThreadFactory {
+      override def newThread(runnable: Runnable): Thread = {
+        val thread = new Thread(runnable, "iceberg-table-commit")
+        thread.setDaemon(true)
+        thread
+      }
+    }))
+
+  def partitionFileName(
+      writerIdentifier: String,
+      partition: Int,
+      numPartitions: Int,
+      filenameIdx: Int
+  ): String = s"${writerIdentifier}_part-$partition-of-${numPartitions}_$filenameIdx"
+
+  /**
+    * The partition and the number of partitions of a data file written by a partitioned writer.
+    */
+  def partitionOfFile(filePath: String): Option[(Int, Int)] =
+    filePath match {
+      case partitionFilePattern(partition, numPartitions) =>
+        Some((partition.toInt, numPartitions.toInt))
+      case _ => None
+    }
+
+  /**
+    * The position of a data file in the read order of a table: by data sequence number, then by
+    * filename index.
+    */
+  def readOrderOf(file: DataFile): (Long, Long) =
+    (file.dataSequenceNumber().longValue(), fileIndexOf(file.path().toString))
+
+  /**
+    * The filename index of a data file, which orders the files written by one writer. Files
+    * committed in the same snapshot share a sequence number, so readers order them by this index.
+    */
+  def fileIndexOf(filePath: String): Long =
+    filePath match {
+      case fileIndexPattern(index) => index.toLong
+      case _                       => 0L
+    }
 }
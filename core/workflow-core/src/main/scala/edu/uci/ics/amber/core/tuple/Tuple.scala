@@ -19,7 +19,7 @@
 
 package edu.uci.ics.amber.core.tuple
 
-import Tuple.checkSchemaMatchesFields
+import Tuple.{checkSchemaMatchesFields, estimateInMemSize}
 import com.fasterxml.jackson.annotation.{JsonCreator, JsonIgnore, JsonProperty}
 import com.google.common.base.Preconditions.checkNotNull
 import org.ehcache.sizeof.SizeOf
@@ -52,7 +52,11 @@ case class Tuple @JsonCreator() (
   checkNotNull(fieldVals)
   checkSchemaMatchesFields(schema.getAttributes, fieldVals)
 
-  override val inMemSize: Long = SizeOf.newInstance().deepSizeOf(this)
+  /**
+    * Estimated in-memory size of this tuple, computed on first access from the schema
+    * and the field values, and cached afterwards. It is not transferred with the tuple.
+    */
+  @transient override lazy val inMemSize: Long = estimateInMemSize(schema, fieldVals)
 
   @JsonIgnore def length: Int = fieldVals.length
 
@@ -112,6 +116,62 @@ case class Tuple @JsonCreator() (
 
 object Tuple {
 
+  // approximate JVM object layout sizes, assuming a 64-bit JVM with compressed oops
+  private val ARRAY_HEADER_SIZE = 16L
+  private val REFERENCE_SIZE = 4L
+  private val TUPLE_SHELL_SIZE = 32L
+
+  // sizes of the boxed field objects for fixed-width attribute types
+  private val BOXED_INT_SIZE = 16L
+  private val BOXED_LONG_SIZE = 24L
+  private val BOXED_DOUBLE_SIZE = 24L
+  private val BOXED_BOOLEAN_SIZE = 16L
+  private val TIMESTAMP_SIZE = 32L
+  private val STRING_SHELL_SIZE = 24L
+
+  // only needed for values of type ANY
+  private lazy val sizeOf: SizeOf = SizeOf.newInstance()
+
+  private def alignTo8(size: Long): Long = (size + 7L) & ~7L
+
+  /**
+    * Estimates the in-memory size of a tuple without reflection. Fixed-width types use
+    * their boxed object size, strings and binaries are sized by their length, and only
+    * values of type ANY fall back to a deep size computation.
+    * The schema is shared among tuples and is therefore not included in the estimate.
+    *
+    * @param schema The schema of the tuple.
+    * @param fields The field values of the tuple, in the order of the schema.
+    * @return The estimated size in bytes.
+    */
+  def estimateInMemSize(schema: Schema, fields: Array[Any]): Long = {
+    var size = TUPLE_SHELL_SIZE + alignTo8(ARRAY_HEADER_SIZE + REFERENCE_SIZE * fields.length)
+    var attributes = schema.getAttributes
+    var i = 0
+    while (i < fields.length) {
+      val field = fields(i)
+      if (field != null) {
+        size += (attributes.head.getType match {
+          case AttributeType.INTEGER   => BOXED_INT_SIZE
+          case AttributeType.LONG      => BOXED_LONG_SIZE
+          case AttributeType.DOUBLE    => BOXED_DOUBLE_SIZE
+          case AttributeType.BOOLEAN   => BOXED_BOOLEAN_SIZE
+          case AttributeType.TIMESTAMP => TIMESTAMP_SIZE
+          case AttributeType.STRING =>
+            // compact strings store one byte per latin-1 char; count two to stay conservative
+            STRING_SHELL_SIZE +
+              alignTo8(ARRAY_HEADER_SIZE + 2L * field.asInstanceOf[String].length)
+          case AttributeType.BINARY =>
+            alignTo8(ARRAY_HEADER_SIZE + field.asInstanceOf[Array[Byte]].length)
+          case _ => sizeOf.deepSizeOf(field.asInstanceOf[AnyRef])
+        })
+      }
+      attributes = attributes.tail
+      i += 1
+    }
+    size
+  }
+
   /**
     * Validates that the provided attributes match the provided fields in type and order.
     *
@@ -120,21 +180,22 @@ object Tuple {
     * @throws RuntimeException if the sizes of attributes and fields do not match, or if their types are incompatible.
     */
   private def checkSchemaMatchesFields(
-      attributes: Iterable[Attribute],
-      fields: Iterable[Any]
+      attributes: List[Attribute],
+      fields: Array[Any]
   ): Unit = {
-    val attributeList = attributes.toList
-    val fieldList = fields.toList
-
-    if (attributeList.size != fieldList.size) {
+    val attributeCount = attributes.size
+    if (attributeCount != fields.length) {
       throw new RuntimeException(
-        s"Schema size (${attributeList.size}) and field size (${fieldList.size}) are different"
+        s"Schema size ($attributeCount) and field size (${fields.length}) are different"
       )
     }
 
-    (attributeList zip fieldList).foreach {
-      case (attribute, field) =>
-        checkAttributeMatchesField(attribute, field)
+    var remainingAttributes = attributes
+    var i = 0
+    while (i < fields.length) {
+      checkAttributeMatchesField(remainingAttributes.head, fields(i))
+      remainingAttributes = remainingAttributes.tail
+      i += 1
     }
   }
 
@@ -215,9 +276,11 @@ object Tuple {
     def addSequentially(fields: Array[Any]): Builder = {
       require(fields != null, "Fields cannot be null")
       checkSchemaMatchesFields(schema.getAttributes, fields)
+      // the attributes come from the schema and the fields are already checked above,
+      // so the per-attribute checks of add() can be skipped.
       schema.getAttributes.zip(fields).foreach {
         case (attribute, field) =>
-          this.add(attribute, field)
+          fieldNameMap.put(attribute.getName.toLowerCase, field)
       }
       this
     }
@@ -55,13 +55,9 @@ trait SeqTupleLike extends TupleLike with SchemaEnforceable {
     * @return Tuple constructed according to the schema.
     */
   override def enforceSchema(schema: Schema): Tuple = {
-    val attributes = schema.getAttributes
-    val builder = Tuple.builder(schema)
-    getFields.zipWithIndex.foreach {
-      case (value, i) =>
-        builder.add(attributes(i), value)
-    }
-    builder.build()
+    // the fields are positionally aligned with the schema, so they are handed to
+    // the Tuple directly, which checks the size and the field types in one pass.
+    Tuple(schema, getFields)
   }
 
 }
@@ -83,12 +79,14 @@ trait MapTupleLike extends SeqTupleLike with SchemaEnforceable {
     *         by the `tupleLike` object.
     */
   override def enforceSchema(schema: Schema): Tuple = {
-    val builder = Tuple.builder(schema)
-    schema.getAttributes.foreach { attribute =>
-      val value = fieldMappings.getOrElse(attribute.getName, null)
-      builder.add(attribute, value)
+    val attributes = schema.getAttributes
+    val fields = new Array[Any](attributes.size)
+    var i = 0
+    attributes.foreach { attribute =>
+      fields(i) = fieldMappings.getOrElse(attribute.getName, null)
+      i += 1
     }
-    builder.build()
+    Tuple(schema, fields)
   }
 }
 
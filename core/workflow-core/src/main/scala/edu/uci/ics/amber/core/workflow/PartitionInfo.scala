@@ -62,9 +62,14 @@ sealed abstract class PartitionInfo {
 final case class HashPartition(hashAttributeNames: List[String] = List.empty) extends PartitionInfo
 object RangePartition {
 
-  def apply(rangeAttributeNames: List[String], rangeMin: Long, rangeMax: Long): PartitionInfo = {
+  def apply(
+      rangeAttributeNames: List[String],
+      rangeMin: Long,
+      rangeMax: Long,
+      splitPoints: List[List[String]] = List.empty
+  ): PartitionInfo = {
     if (rangeAttributeNames.nonEmpty)
-      new RangePartition(rangeAttributeNames, rangeMin, rangeMax)
+      new RangePartition(rangeAttributeNames, rangeMin, rangeMax, splitPoints)
     else
       UnknownPartition()
   }
@@ -75,9 +80,17 @@ object RangePartition {
   * Represents an input stream is partitioned on multiple nodes
   * and each node contains data fit in a specific range.
   * The data within each node is also sorted.
+  *
+  * The ranges are given by `splitPoints` (see [[RangeSplitPoints]]) when present, which
+  * supports composite keys of any comparable type. Otherwise the domain [rangeMin, rangeMax]
+  * of the first numeric attribute is divided uniformly.
   */
-final case class RangePartition(rangeAttributeNames: List[String], rangeMin: Long, rangeMax: Long)
-    extends PartitionInfo {
+final case class RangePartition(
+    rangeAttributeNames: List[String],
+    rangeMin: Long,
+    rangeMax: Long,
+    splitPoints: List[List[String]]
+) extends PartitionInfo {
 
   // if two streams of input with the same range partition are merged (without another sort),
   // we cannot ensure that the output stream follow the same sorting order.
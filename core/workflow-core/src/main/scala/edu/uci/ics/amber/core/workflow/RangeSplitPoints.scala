@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.core.workflow
+
+import edu.uci.ics.amber.core.tuple.AttributeType
+
+import java.sql.Timestamp
+
+/**
+  * Split points for range partitioning. Each split point holds one value per range attribute
+  * and is the exclusive upper bound of a range: with split points s(0) < s(1) < ... < s(n-2),
+  * a key k belongs to range i if s(i-1) <= k < s(i). Keys are compared attribute by attribute,
+  * with nulls before any other value.
+  *
+  * Split points are carried as strings so that they can be part of a [[RangePartition]] and of
+  * the partitioning sent to workers; timestamps are encoded as epoch milliseconds.
+  */
+object RangeSplitPoints {
+
+  /**
+    * Computes the split points that divide a sample of the input, e.g. a reservoir sample of
+    * the upstream, into at most `numPartitions` ranges of about the same size under the given
+    * ordering. Equal split points are dropped, as they would leave ranges empty, so a sample
+    * with few distinct keys yields fewer ranges. The result does not depend on the order of
+    * the sample, so every worker that sees the same sample computes the same split points.
+    */
+  def fromSample[T](sample: Seq[T], numPartitions: Int, ordering: Ordering[T]): IndexedSeq[T] = {
+    if (sample.isEmpty || numPartitions <= 1) {
+      return IndexedSeq.empty
+    }
+    val sorted = sample.sorted(ordering).toIndexedSeq
+    (1 until numPartitions)
+      .map(i => sorted((i.toLong * sorted.length / numPartitions).toInt))
+      .foldLeft(Vector.empty[T]) {
+        case (splitPoints, key)
+            if splitPoints.nonEmpty && ordering.equiv(splitPoints.last, key) =>
+          splitPoints
+        case (splitPoints, key) => splitPoints :+ key
+      }
+  }
+
+  /**
+    * Returns the index of the range the key belongs to under the given ordering, by binary
+    * search over the split points.
+    */
+  def rangeIndex[T](splitPoints: IndexedSeq[T], key: T, ordering: Ordering[T]): Int = {
+    var low = 0
+    var high = splitPoints.length
+    // find the first split point greater than the key
+    while (low < high) {
+      val mid = (low + high) >>> 1
+      if (ordering.lteq(splitPoints(mid), key)) {
+        low = mid + 1
+      } else {
+        high = mid
+      }
+    }
+    low
+  }
+
+  /**
+    * Parses encoded split points into key values of the given attribute types.
+    */
+  def decode(splitPoints: Seq[Seq[String]], types: Array[AttributeType]): Array[Array[Any]] =
+    splitPoints.map(values => types.indices.map(i => decode(types(i), values(i))).toArray).toArray
+
+  /**
+    * Returns the index of the range the key belongs to, by binary search over the split points.
+    */
+  def rangeIndex(
+      types: Array[AttributeType],
+      splitPoints: Array[Array[Any]],
+      key: Array[Any]
+  ): Int = {
+    var low = 0
+    var high = splitPoints.length
+    // find the first split point greater than the key
+    while (low < high) {
+      val mid = (low + high) >>> 1
+      if (compareKeys(types, splitPoints(mid), key) <= 0) {
+        low = mid + 1
+      } else {
+        high = mid
+      }
+    }
+    low
+  }
+
+  def compareKeys(types: Array[AttributeType], a: Array[Any], b: Array[Any]): Int = {
+    var i = 0
+    while (i < types.length) {
+      val result = compareValues(types(i), a(i), b(i))
+      if (result != 0) {
+        return result
+      }
+      i += 1
+    }
+    0
+  }
+
+  private def compareValues(attributeType: AttributeType, a: Any, b: Any): Int = {
+    if (a == null || b == null) {
+      return if (a == null && b == null) 0 else if (a == null) -1 else 1
+    }
+    attributeType match {
+      case AttributeType.INTEGER | AttributeType.LONG | AttributeType.DOUBLE |
+          AttributeType.BOOLEAN | AttributeType.TIMESTAMP | AttributeType.STRING =>
+        // all of them are stored as their boxed, comparable java values
+        a.asInstanceOf[Comparable[Any]].compareTo(b)
+      case _ => throw unsupportedType(attributeType)
+    }
+  }
+
+  private def decode(attributeType: AttributeType, value: String): Any =
+    attributeType match {
+      case AttributeType.INTEGER   => value.toInt
+      case AttributeType.LONG      => value.toLong
+      case AttributeType.DOUBLE    => value.toDouble
+      case AttributeType.BOOLEAN   => value.toBoolean
+      case AttributeType.TIMESTAMP => new Timestamp(value.toLong)
+      case AttributeType.STRING    => value
+      case _                       => throw unsupportedType(attributeType)
+    }
+
+  private def unsupportedType(attributeType: AttributeType): RuntimeException =
+    new RuntimeException(s"unsupported attribute type for range partitioning: $attributeType")
+}
@@ -32,6 +32,8 @@ import org.apache.arrow.vector.{
   FieldVector,
   Float8Vector,
   IntVector,
+  TimeStampMicroVector,
+  TimeStampMilliTZVector,
   TimeStampVector,
   VarBinaryVector,
   VarCharVector,
@@ -40,6 +42,8 @@ import org.apache.arrow.vector.{
 import org.apache.arrow.memory.{BufferAllocator, RootAllocator}
 
 import java.nio.charset.StandardCharsets
+import java.sql.Timestamp
+import java.time.{LocalDateTime, ZoneOffset}
 import java.util
 import scala.jdk.CollectionConverters.CollectionHasAsScala
 import scala.language.implicitConversions
@@ -67,32 +71,100 @@ object ArrowUtils extends LazyLogging {
       rowIndex: Int,
       vectorSchemaRoot: VectorSchemaRoot
   ): Tuple = {
-    val arrowSchema = vectorSchemaRoot.getSchema
-    val schema = toTexeraSchema(arrowSchema)
-
-    Tuple
-      .builder(schema)
-      .addSequentially(
-        vectorSchemaRoot.getFieldVectors.asScala
-          .map((fieldVector: FieldVector) => {
-            val value: AnyRef = fieldVector.getObject(rowIndex)
-            try {
-              val arrowType = fieldVector.getField.getFieldType.getType
-              val attributeType = toAttributeType(arrowType)
-              AttributeTypeUtils.parseField(value, attributeType)
-
-            } catch {
-              case e: Exception =>
-                logger.warn("Caught error during parsing Arrow value back to Texera value", e)
-                null
-            }
+    val schema = toTexeraSchema(vectorSchemaRoot.getSchema)
+    val readers = columnReaders(vectorSchemaRoot)
+    Tuple(schema, readers.map(read => read(rowIndex)))
+  }
 
-          })
-          .toArray
-      )
-      .build()
+  /**
+    * Reads all rows of the given Arrow Vectors into Texera.Tuples. The schema and the reader of
+    * each column are resolved once for the whole batch, and the tuples share one Schema.
+    *
+    * @param vectorSchemaRoot The root of the Vectors that stores the Arrow Fields.
+    * @return The tuples, one per row, in row order.
+    */
+  def getTexeraTuples(vectorSchemaRoot: VectorSchemaRoot): Array[Tuple] =
+    getTexeraTuples(vectorSchemaRoot, toTexeraSchema(vectorSchemaRoot.getSchema))
+
+  /**
+    * Reads all rows of the given Arrow Vectors into Texera.Tuples of a known schema, whose attributes
+    * correspond to the vectors in order.
+    *
+    * @param vectorSchemaRoot The root of the Vectors that stores the Arrow Fields.
+    * @param schema           The schema of the tuples.
+    * @return The tuples, one per row, in row order.
+    */
+  def getTexeraTuples(vectorSchemaRoot: VectorSchemaRoot, schema: Schema): Array[Tuple] = {
+    val readers = columnReaders(vectorSchemaRoot)
+    val tuples = new Array[Tuple](vectorSchemaRoot.getRowCount)
+    var row = 0
+    while (row < tuples.length) {
+      val fields = new Array[Any](readers.length)
+      var column = 0
+      while (column < readers.length) {
+        fields(column) = readers(column)(row)
+        column += 1
+      }
+      // the values are parsed according to the schema derived from the same vectors,
+      // so the tuple is constructed directly instead of going through the builder.
+      tuples(row) = Tuple(schema, fields)
+      row += 1
+    }
+    tuples
   }
 
+  private def columnReaders(vectorSchemaRoot: VectorSchemaRoot): Array[Int => Any] =
+    vectorSchemaRoot.getFieldVectors.asScala.map(columnReader).toArray
+
+  /**
+    * Resolves how to read a Texera value from a row of the vector. Common vector types are read
+    * directly; the others go through their boxed object and the Texera parser.
+    */
+  private def columnReader(fieldVector: FieldVector): Int => Any =
+    fieldVector match {
+      case vector: IntVector =>
+        row => if (vector.isNull(row)) null else vector.get(row)
+      case vector: BigIntVector =>
+        row => if (vector.isNull(row)) null else vector.get(row)
+      case vector: Float8Vector =>
+        row => if (vector.isNull(row)) null else vector.get(row)
+      case vector: BitVector =>
+        row => if (vector.isNull(row)) null else vector.get(row) != 0
+      case vector: TimeStampMilliTZVector =>
+        row => if (vector.isNull(row)) null else new Timestamp(vector.get(row))
+      case vector: TimeStampMicroVector =>
+        // a timestamp without zone holds the local date-time, as written from Iceberg tables
+        row => if (vector.isNull(row)) null else localTimestampOfMicros(vector.get(row))
+      case vector: VarCharVector =>
+        row =>
+          if (vector.isNull(row)) null else new String(vector.get(row), StandardCharsets.UTF_8)
+      case vector: VarBinaryVector =>
+        row => if (vector.isNull(row)) null else vector.get(row)
+      case vector =>
+        val attributeType = toAttributeType(vector.getField.getFieldType.getType)
+        row =>
+          try {
+            AttributeTypeUtils.parseField(vector.getObject(row), attributeType)
+          } catch {
+            case e: Exception =>
+              logger.warn("Caught error during parsing Arrow value back to Texera value", e)
+              null
+          }
+    }
+
+  /**
+    * Converts the microseconds of a timestamp without zone, which hold its local date-time as if
+    * in UTC, into a Timestamp of the same local date-time.
+    */
+  def localTimestampOfMicros(micros: Long): Timestamp =
+    Timestamp.valueOf(
+      LocalDateTime.ofEpochSecond(
+        Math.floorDiv(micros, 1000000L),
+        (Math.floorMod(micros, 1000000L) * 1000).toInt,
+        ZoneOffset.UTC
+      )
+    )
+
   /**
     * Converts an Arrow Schema into Texera Schema.
     *
@@ -152,6 +224,28 @@ object ArrowUtils extends LazyLogging {
     setTexeraTuple(tuple, nextRowIndex, vectorSchemaRoot)
   }
 
+  /**
+    * Appends Texera.Tuples as rows after the existing rows of the Arrow Vectors. The writer of
+    * each column is resolved once for the whole batch.
+    *
+    * @param tuples           Texera.Tuples with the schema of the Vectors.
+    * @param vectorSchemaRoot The root of the Vectors that stores the Arrow Fields.
+    */
+  def appendTexeraTuples(tuples: Iterable[Tuple], vectorSchemaRoot: VectorSchemaRoot): Unit = {
+    val writers = columnWriters(vectorSchemaRoot)
+    var row = vectorSchemaRoot.getRowCount
+    tuples.foreach { tuple =>
+      val fields = tuple.getFields
+      var column = 0
+      while (column < writers.length) {
+        writers(column)(row, fields(column).asInstanceOf[AnyRef])
+        column += 1
+      }
+      row += 1
+    }
+    vectorSchemaRoot.setRowCount(row)
+  }
+
   /**
     * Writes a Texera.Tuple into a row of the Arrow Vectors. It will overwrite the data on the
     * target row of the Vectors.
@@ -162,69 +256,95 @@ object ArrowUtils extends LazyLogging {
     *                         multiple Vectors.
     */
   def setTexeraTuple(tuple: Tuple, index: Int, vectorSchemaRoot: VectorSchemaRoot): Unit = {
-    val arrowSchema = vectorSchemaRoot.getSchema
-    val arrowFields = arrowSchema.getFields.asScala.toList
-
-    for (i <- arrowFields.indices) {
-      val vector: FieldVector = vectorSchemaRoot.getVector(i)
-      val value = tuple.getField[AnyRef](i)
-      val isNull = value == null
-      arrowFields.apply(i).getFieldType.getType match {
-        case _: ArrowType.Int =>
-          vector.getField.getFieldType.getType.asInstanceOf[ArrowType.Int].getBitWidth match {
-            case 16 | 32 =>
-              vector
-                .asInstanceOf[IntVector]
-                .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Int])
-
-            case 64 | _ =>
-              vector
-                .asInstanceOf[BigIntVector]
-                .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Long])
-          }
+    val writers = columnWriters(vectorSchemaRoot)
+    for (i <- writers.indices) {
+      writers(i)(index, tuple.getField[AnyRef](i))
+    }
 
-        case _: ArrowType.Bool =>
-          vector
-            .asInstanceOf[BitVector]
-            .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Boolean])
+    vectorSchemaRoot.setRowCount(vectorSchemaRoot.getRowCount + 1)
+  }
 
-        case _: ArrowType.FloatingPoint =>
-          vector
-            .asInstanceOf[Float8Vector]
-            .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Double])
+  private def columnWriters(vectorSchemaRoot: VectorSchemaRoot): Array[(Int, AnyRef) => Unit] =
+    vectorSchemaRoot.getFieldVectors.asScala.map(columnWriter).toArray
 
-        case _: ArrowType.Timestamp =>
-          vector
-            .asInstanceOf[TimeStampVector]
-            .setSafe(
-              index,
-              !isNull,
-              if (isNull) 0L
-              else
+  /**
+    * Resolves how to write a Texera value, possibly null, into a row of the vector.
+    */
+  private def columnWriter(vector: FieldVector): (Int, AnyRef) => Unit =
+    vector.getField.getFieldType.getType match {
+      case int: ArrowType.Int =>
+        int.getBitWidth match {
+          case 16 | 32 =>
+            val intVector = vector.asInstanceOf[IntVector]
+            (index, value) =>
+              intVector.setSafe(
+                index,
+                value != null,
+                if (value == null) 0 else value.asInstanceOf[Int]
+              )
+
+          case 64 | _ =>
+            val bigIntVector = vector.asInstanceOf[BigIntVector]
+            (index, value) =>
+              bigIntVector.setSafe(
+                index,
+                value != null,
+                if (value == null) 0 else value.asInstanceOf[Long]
+              )
+        }
+
+      case _: ArrowType.Bool =>
+        val bitVector = vector.asInstanceOf[BitVector]
+        (index, value) =>
+          bitVector.setSafe(
+            index,
+            value != null,
+            if (value == null) 0 else value.asInstanceOf[Boolean]
+          )
+
+      case _: ArrowType.FloatingPoint =>
+        val float8Vector = vector.asInstanceOf[Float8Vector]
+        (index, value) =>
+          float8Vector.setSafe(
+            index,
+            value != null,
+            if (value == null) 0 else value.asInstanceOf[Double]
+          )
+
+      case _: ArrowType.Timestamp =>
+        val timeStampVector = vector.asInstanceOf[TimeStampVector]
+        (index, value) =>
+          timeStampVector.setSafe(
+            index,
+            value != null,
+            value match {
+              case null                 => 0L
+              case timestamp: Timestamp => timestamp.getTime
+              case other =>
                 AttributeTypeUtils
-                  .parseField(value, AttributeType.LONG)
+                  .parseField(other, AttributeType.LONG)
                   .asInstanceOf[Long]
-            )
+            }
+          )
 
-        case _: ArrowType.Utf8 =>
-          if (isNull) vector.asInstanceOf[VarCharVector].setNull(index)
-          else
-            vector
-              .asInstanceOf[VarCharVector]
-              .setSafe(index, value.asInstanceOf[String].getBytes(StandardCharsets.UTF_8))
-        case _: ArrowType.Binary | _: ArrowType.LargeBinary =>
-          if (isNull) vector.asInstanceOf[VarBinaryVector].setNull(index)
-          else
-            vector
-              .asInstanceOf[VarBinaryVector]
-              .setSafe(index, value.asInstanceOf[Array[Byte]])
+      case _: ArrowType.Utf8 =>
+        val varCharVector = vector.asInstanceOf[VarCharVector]
+        (index, value) =>
+          if (value == null) varCharVector.setNull(index)
+          else {
+            varCharVector.setSafe(
+              index,
+              value.asInstanceOf[String].getBytes(StandardCharsets.UTF_8)
+            )
+          }
 
-      }
+      case _: ArrowType.Binary | _: ArrowType.LargeBinary =>
+        val varBinaryVector = vector.asInstanceOf[VarBinaryVector]
+        (index, value) =>
+          if (value == null) varBinaryVector.setNull(index)
+          else varBinaryVector.setSafe(index, value.asInstanceOf[Array[Byte]])
     }
 
-    vectorSchemaRoot.setRowCount(vectorSchemaRoot.getRowCount + 1)
-  }
-
   /**
     * Converts an Amber schema into Arrow schema.
     *
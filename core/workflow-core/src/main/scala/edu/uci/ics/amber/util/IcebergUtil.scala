@@ -32,9 +32,13 @@ import org.apache.iceberg.jdbc.JdbcCatalog
 import org.apache.iceberg.parquet.{Parquet, ParquetValueReader}
 import org.apache.iceberg.rest.RESTCatalog
 import org.apache.iceberg.types.Type.PrimitiveType
+import org.apache.iceberg.arrow.vectorized.{ArrowReader, ColumnVector, ColumnarBatch}
 import org.apache.iceberg.{
+  BaseCombinedScanTask,
   CatalogProperties,
+  CombinedScanTask,
   DataFile,
+  FileScanTask,
   PartitionSpec,
   Table,
   TableProperties,
@@ -53,6 +57,9 @@ import scala.jdk.CollectionConverters._
   */
 object IcebergUtil {
 
+  // Number of rows decoded at a time by the vectorized reader
+  private val ARROW_READ_BATCH_SIZE = 4096
+
   /**
     * Creates and initializes a HadoopCatalog with the given parameters.
     * - Uses an empty Hadoop `Configuration`, meaning the local file system (or `file:/`) will be used by default
@@ -314,18 +321,119 @@ object IcebergUtil {
     }
   }
 
+  /**
+    * Reads a data file with Iceberg's vectorized Arrow reader and converts each Arrow batch into Amber Tuples.
+    * Values are decoded a column batch at a time instead of into one generic Record per row.
+    *
+    * The reader is released once the file is exhausted; a caller that stops earlier must close
+    * the iterator.
+    *
+    * @param fileScanTask the scan task of the data file to read.
+    * @param table        the table that the file belongs to.
+    * @param amberSchema  the Amber schema of the table.
+    * @return a closeable iterator over the tuples of the file, in file order.
+    */
+  def readDataFileAsTuples(
+      fileScanTask: FileScanTask,
+      table: Table,
+      amberSchema: Schema
+  ): Iterator[Tuple] with AutoCloseable = {
+    val arrowReader = new ArrowReader(table.newScan(), ARROW_READ_BATCH_SIZE, false)
+    val batches = arrowReader.open(
+      CloseableIterable.withNoopClose[CombinedScanTask](new BaseCombinedScanTask(fileScanTask))
+    )
+    new Iterator[Tuple] with AutoCloseable {
+      private var currentBatch: Iterator[Tuple] = Iterator.empty
+      private var closed = false
+
+      override def hasNext: Boolean = {
+        while (!currentBatch.hasNext && !closed && batches.hasNext) {
+          val batch = batches.next()
+          try {
+            // the tuples are copied out of the vectors, which are released with the batch
+            currentBatch = batchToTuples(batch, amberSchema).iterator
+          } finally {
+            batch.close()
+          }
+        }
+        if (!currentBatch.hasNext) {
+          close()
+        }
+        currentBatch.hasNext
+      }
+
+      override def next(): Tuple = {
+        if (!hasNext) throw new NoSuchElementException("No more tuples in the data file")
+        currentBatch.next()
+      }
+
+      override def close(): Unit = {
+        if (!closed) {
+          closed = true
+          currentBatch = Iterator.empty
+          batches.close()
+          arrowReader.close()
+        }
+      }
+    }
+  }
+
+  /**
+    * Converts the rows of a batch read by the vectorized reader into Amber Tuples, whose attributes
+    * correspond to the columns of the batch in order. The values are read through Iceberg's
+    * column accessors rather than the raw Arrow vectors, as a dictionary-encoded column is held as
+    * a vector of dictionary ids.
+    */
+  private def batchToTuples(batch: ColumnarBatch, amberSchema: Schema): Array[Tuple] = {
+    val readers = amberSchema.getAttributes.zipWithIndex.map {
+      case (attribute, column) => columnReader(batch.column(column), attribute.getType)
+    }.toArray
+    val tuples = new Array[Tuple](batch.numRows())
+    var row = 0
+    while (row < tuples.length) {
+      val fields = new Array[Any](readers.length)
+      var column = 0
+      while (column < readers.length) {
+        fields(column) = readers(column)(row)
+        column += 1
+      }
+      tuples(row) = Tuple(amberSchema, fields)
+      row += 1
+    }
+    tuples
+  }
+
+  private def columnReader(vector: ColumnVector, attributeType: AttributeType): Int => Any = {
+    val read: Int => Any = attributeType match {
+      case AttributeType.STRING  => vector.getString
+      case AttributeType.INTEGER => vector.getInt
+      case AttributeType.LONG    => vector.getLong
+      case AttributeType.DOUBLE  => vector.getDouble
+      case AttributeType.BOOLEAN => vector.getBoolean
+      case AttributeType.TIMESTAMP =>
+        row => ArrowUtils.localTimestampOfMicros(vector.getLong(row))
+      case AttributeType.BINARY => vector.getBinary
+      case _ =>
+        throw new IllegalArgumentException(s"Unsupported attribute type: $attributeType")
+    }
+    row => if (vector.isNullAt(row)) null else read(row)
+  }
+
   /**
     * Util function to create a Record iterator over the given DataFile in Iceberg
     * @param dataFile the data file
     * @param schema the schema of the table
     * @param table the iceberg table
-    * @return an iterator over the records in the data file
+    * @param split optionally, the start and the length in bytes of the part of the file to read;
+    *              only the row groups starting within it are read
+    * @return a closeable iterator over the records in the data file
     */
   def readDataFileAsIterator(
       dataFile: DataFile,
       schema: IcebergSchema,
-      table: Table
-  ): Iterator[Record] = {
+      table: Table,
+      split: Option[(Long, Long)] = None
+  ): Iterator[Record] with AutoCloseable = {
     val inputFile: InputFile = table.io().newInputFile(dataFile)
     val readerFunc
         : java.util.function.Function[org.apache.parquet.schema.MessageType, ParquetValueReader[
@@ -333,13 +441,23 @@ object IcebergUtil {
         ]] =
       (messageType: org.apache.parquet.schema.MessageType) =>
         GenericParquetReaders.buildReader(schema, messageType)
-    val closeableIterable: CloseableIterable[Record] =
-      Parquet
-        .read(inputFile)
-        .project(schema)
-        .createReaderFunc(readerFunc)
-        .build()
-    closeableIterable.iterator().asScala
+    val readBuilder = Parquet
+      .read(inputFile)
+      .project(schema)
+      .createReaderFunc(readerFunc)
+    split.foreach { case (start, length) => readBuilder.split(start, length) }
+    val closeableIterable: CloseableIterable[Record] = readBuilder.build()
+    val records = closeableIterable.iterator()
+    new Iterator[Record] with AutoCloseable {
+      override def hasNext: Boolean = records.hasNext
+
+      override def next(): Record = records.next()
+
+      override def close(): Unit = {
+        records.close()
+        closeableIterable.close()
+      }
+    }
   }
 
 }
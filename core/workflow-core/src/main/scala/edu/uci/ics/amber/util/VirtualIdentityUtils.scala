@@ -68,6 +68,13 @@ object VirtualIdentityUtils {
     }
   }
 
+  /**
+    * Whether the actor id names a worker of a physical operator, as opposed to special actors
+    * such as the controller or input port materialization readers.
+    */
+  def isWorker(actorId: ActorVirtualIdentity): Boolean =
+    workerNamePattern.matches(actorId.name)
+
   def getWorkerIndex(workerId: ActorVirtualIdentity): Int = {
     workerId.name match {
       case workerNamePattern(_, _, _, idx) =>
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.core.storage.result.iceberg
+
+import edu.uci.ics.amber.core.storage.{DocumentFactory, VFSURIFactory}
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple}
+import edu.uci.ics.amber.core.virtualidentity.{
+  ExecutionIdentity,
+  OperatorIdentity,
+  PhysicalOpIdentity,
+  WorkflowIdentity
+}
+import edu.uci.ics.amber.core.workflow.{GlobalPortIdentity, PortIdentity}
+import edu.uci.ics.amber.util.IcebergUtil
+import org.apache.iceberg.{Table, TableProperties}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.util.UUID
+import scala.jdk.CollectionConverters._
+
+class IcebergDocumentRangeSpec extends AnyFlatSpec {
+  private val schema: Schema = Schema()
+    .add("value", AttributeType.INTEGER)
+    .add("payload", AttributeType.STRING)
+
+  private def tuple(value: Int): Tuple =
+    Tuple
+      .builder(schema)
+      .add("value", AttributeType.INTEGER, value)
+      .add("payload", AttributeType.STRING, s"$value-" + UUID.randomUUID().toString * 3)
+      .build()
+
+  /**
+    * Creates a document whose data files hold many small row groups, written by one writer
+    * that flushes two files.
+    */
+  private def createDocument(): (IcebergDocument[Tuple], List[Tuple]) = {
+    val uri = VFSURIFactory.createResultURI(
+      WorkflowIdentity(0),
+      ExecutionIdentity(0),
+      GlobalPortIdentity(
+        PhysicalOpIdentity(
+          logicalOpId =
+            OperatorIdentity(s"test_table_${UUID.randomUUID().toString.replace("-", "")}"),
+          layerName = "main"
+        ),
+        PortIdentity()
+      )
+    )
+    DocumentFactory.createDocument(uri, schema)
+    val document = DocumentFactory.openDocument(uri)._1.asInstanceOf[IcebergDocument[Tuple]]
+    tableOf(document)
+      .updateProperties()
+      .set(TableProperties.PARQUET_ROW_GROUP_SIZE_BYTES, "16384")
+      .commit()
+
+    val writer = document.writer(UUID.randomUUID().toString)
+    writer.open()
+    val items = (0 until 2 * writer.bufferSize).map(tuple).toList
+    items.foreach(writer.putOne)
+    writer.close()
+    (document, items)
+  }
+
+  private def tableOf(document: IcebergDocument[Tuple]): Table =
+    IcebergUtil
+      .loadTableMetadata(document.catalog, document.tableNamespace, document.tableName)
+      .get
+
+  "IcebergDocument" should "read ranges that start and end inside row groups" in {
+    val (document, items) = createDocument()
+    val files = tableOf(document).newScan().planFiles().asScala.map(_.file()).toList
+    assert(files.size == 2)
+    assert(files.forall(_.splitOffsets().size() > 1))
+
+    val firstFileSize = files.minBy(IcebergTableWriter.readOrderOf).recordCount().toInt
+    val ranges = List(
+      (0, 10),
+      (1000, 1500),
+      (firstFileSize - 100, firstFileSize + 100),
+      (items.size - 50, items.size + 50)
+    )
+    ranges.foreach {
+      case (from, until) =>
+        assert(document.getRange(from, until).toList == items.slice(from, until))
+    }
+  }
+
+  it should "close the reader of a file once a range ending in it is filled" in {
+    val (document, items) = createDocument()
+    var opened = 0
+    var closed = 0
+    val countingDocument = new IcebergDocument[Tuple](
+      document.tableNamespace,
+      document.tableName,
+      document.tableSchema,
+      document.serde,
+      document.deserde,
+      Some((table, task) => {
+        val reader = IcebergUtil.readDataFileAsTuples(task, table, schema)
+        opened += 1
+        new Iterator[Tuple] with AutoCloseable {
+          private var isClosed = false
+
+          override def hasNext: Boolean = reader.hasNext
+
+          override def next(): Tuple = reader.next()
+
+          override def close(): Unit = {
+            if (!isClosed) {
+              isClosed = true
+              closed += 1
+            }
+            reader.close()
+          }
+        }
+      })
+    )
+
+    assert(countingDocument.getRange(1000, 1500).toList == items.slice(1000, 1500))
+    assert(opened > 0)
+    assert(closed == opened)
+
+    // the reader is closed with the last item of the range, before hasNext is called again
+    val range = countingDocument.getRange(2000, 2010)
+    assert(range.take(10).toList == items.slice(2000, 2010))
+    assert(closed == opened)
+  }
+}
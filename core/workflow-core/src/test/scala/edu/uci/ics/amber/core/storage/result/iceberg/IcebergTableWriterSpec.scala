@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package edu.uci.ics.amber.core.storage.result.iceberg
+
+import edu.uci.ics.amber.core.storage.{DocumentFactory, VFSURIFactory}
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple}
+import edu.uci.ics.amber.core.virtualidentity.{
+  ExecutionIdentity,
+  OperatorIdentity,
+  PhysicalOpIdentity,
+  WorkflowIdentity
+}
+import edu.uci.ics.amber.core.workflow.{GlobalPortIdentity, PortIdentity}
+import edu.uci.ics.amber.util.IcebergUtil
+import org.apache.iceberg.Table
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.util.UUID
+import scala.jdk.CollectionConverters._
+
+class IcebergTableWriterSpec extends AnyFlatSpec {
+  private val schema: Schema = Schema().add("value", AttributeType.INTEGER)
+
+  private def createDocument(): IcebergDocument[Tuple] = {
+    val uri = VFSURIFactory.createResultURI(
+      WorkflowIdentity(0),
+      ExecutionIdentity(0),
+      GlobalPortIdentity(
+        PhysicalOpIdentity(
+          logicalOpId =
+            OperatorIdentity(s"test_table_${UUID.randomUUID().toString.replace("-", "")}"),
+          layerName = "main"
+        ),
+        PortIdentity()
+      )
+    )
+    DocumentFactory.createDocument(uri, schema)
+    DocumentFactory.openDocument(uri)._1.asInstanceOf[IcebergDocument[Tuple]]
+  }
+
+  private def tableOf(document: IcebergDocument[Tuple]): Table =
+    IcebergUtil
+      .loadTableMetadata(document.catalog, document.tableNamespace, document.tableName)
+      .get
+
+  private def writerOf(
+      document: IcebergDocument[Tuple],
+      commitMaxFiles: Int,
+      commitIntervalMs: Long
+  ): IcebergTableWriter[Tuple] =
+    new IcebergTableWriter[Tuple](
+      UUID.randomUUID().toString,
+      document.catalog,
+      document.tableNamespace,
+      document.tableName,
+      document.tableSchema,
+      document.serde,
+      commitMaxFiles = commitMaxFiles,
+      commitIntervalMs = commitIntervalMs
+    )
+
+  private def tuple(value: Int): Tuple =
+    Tuple.builder(schema).add("value", AttributeType.INTEGER, value).build()
+
+  "IcebergTableWriter" should "commit the written data files in groups" in {
+    val document = createDocument()
+    val writer = writerOf(document, commitMaxFiles = 4, commitIntervalMs = 3600000L)
+    writer.open()
+    val numFiles = 8
+    val items = (0 until numFiles * writer.bufferSize).map(tuple)
+    items.foreach(writer.putOne)
+    writer.close()
+
+    val table = tableOf(document)
+    assert(table.newScan().planFiles().asScala.size == numFiles)
+    assert(table.snapshots().asScala.size == 2)
+    assert(document.get().toList == items.toList)
+  }
+
+  it should "commit pending data files once the commit interval has passed" in {
+    val document = createDocument()
+    val writer = writerOf(document, commitMaxFiles = 100, commitIntervalMs = 2000L)
+    writer.open()
+    val items = (0 until writer.bufferSize).map(tuple)
+    items.foreach(writer.putOne)
+
+    val table = tableOf(document)
+    assert(table.currentSnapshot() == null)
+
+    Thread.sleep(2100)
+    writer.commitIfDue()
+    val deadline = System.currentTimeMillis() + 10000
+    while (table.currentSnapshot() == null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50)
+      table.refresh()
+    }
+    assert(table.snapshots().asScala.size == 1)
+    assert(document.get().toList == items.toList)
+    writer.close()
+  }
+}
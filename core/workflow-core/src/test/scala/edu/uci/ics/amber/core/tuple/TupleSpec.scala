@@ -191,4 +191,41 @@ class TupleSpec extends AnyFlatSpec {
       .build()
     assert(inputTuple5.hashCode() == -2099556631)
   }
+
+  it should "estimate in-memory size from the schema" in {
+    val schema = Schema().add(integerAttribute).add(stringAttribute).add(binaryAttribute)
+    val smallTuple = Tuple
+      .builder(schema)
+      .add(integerAttribute, 1)
+      .add(stringAttribute, "a")
+      .add(binaryAttribute, Array[Byte](1))
+      .build()
+    val largeTuple = Tuple
+      .builder(schema)
+      .add(integerAttribute, 1)
+      .add(stringAttribute, "a" * 1000)
+      .add(binaryAttribute, Array.fill[Byte](4096)(1))
+      .build()
+    val nullTuple = Tuple
+      .builder(schema)
+      .add(integerAttribute, null)
+      .add(stringAttribute, null)
+      .add(binaryAttribute, null)
+      .build()
+
+    assert(nullTuple.inMemSize > 0)
+    assert(smallTuple.inMemSize > nullTuple.inMemSize)
+    assert(largeTuple.inMemSize - smallTuple.inMemSize >= 1000 + 4096)
+    assert(smallTuple.inMemSize == Tuple.estimateInMemSize(schema, smallTuple.getFields))
+  }
+
+  it should "fail when fields passed to the constructor do not match the schema" in {
+    val schema = Schema().add(stringAttribute).add(integerAttribute)
+    assertThrows[RuntimeException] {
+      Tuple(schema, Array[Any]("string-value"))
+    }
+    assertThrows[RuntimeException] {
+      Tuple(schema, Array[Any]("string-value", "not-an-int"))
+    }
+  }
 }
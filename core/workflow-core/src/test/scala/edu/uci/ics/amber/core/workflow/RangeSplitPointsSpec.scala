@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.core.workflow
+
+import org.scalatest.flatspec.AnyFlatSpec
+
+import scala.util.Random
+
+class RangeSplitPointsSpec extends AnyFlatSpec {
+
+  "RangeSplitPoints" should "split a sample into ranges of about the same size" in {
+    val splitPoints = RangeSplitPoints.fromSample((0 until 100).toList, 4, Ordering.Int)
+    assert(splitPoints == IndexedSeq(25, 50, 75))
+    val rangeSizes = (0 until 100)
+      .groupBy(RangeSplitPoints.rangeIndex(splitPoints, _, Ordering.Int))
+      .view
+      .mapValues(_.size)
+      .toMap
+    assert(rangeSizes == Map(0 -> 25, 1 -> 25, 2 -> 25, 3 -> 25))
+  }
+
+  it should "compute the same split points regardless of the order of the sample" in {
+    val sample = (0 until 1000).map(_ % 97)
+    val expected = RangeSplitPoints.fromSample(sample, 8, Ordering.Int)
+    assert(RangeSplitPoints.fromSample(new Random(42).shuffle(sample), 8, Ordering.Int) == expected)
+  }
+
+  it should "drop equal split points of a skewed sample" in {
+    // 90% of the keys are 7, which must not leave empty ranges behind
+    val sample = List.fill(90)(7) ++ (0 until 10).map(_ * 100)
+    val splitPoints = RangeSplitPoints.fromSample(sample, 4, Ordering.Int)
+    assert(splitPoints == splitPoints.distinct)
+    assert(splitPoints.contains(7))
+    assert(RangeSplitPoints.rangeIndex(splitPoints, 6, Ordering.Int) == 0)
+  }
+
+  it should "produce no split points for an empty sample or a single partition" in {
+    assert(RangeSplitPoints.fromSample(List.empty[Int], 4, Ordering.Int).isEmpty)
+    assert(RangeSplitPoints.fromSample(List(1, 2, 3), 1, Ordering.Int).isEmpty)
+  }
+
+  it should "follow the given ordering, such as a descending one" in {
+    val descending = Ordering.Int.reverse
+    val splitPoints = RangeSplitPoints.fromSample((0 until 100).toList, 2, descending)
+    assert(splitPoints == IndexedSeq(49))
+    assert(RangeSplitPoints.rangeIndex(splitPoints, 99, descending) == 0)
+    assert(RangeSplitPoints.rangeIndex(splitPoints, 49, descending) == 1)
+    assert(RangeSplitPoints.rangeIndex(splitPoints, 0, descending) == 1)
+  }
+}
@@ -19,8 +19,10 @@
 
 package edu.uci.ics.amber.storage.result.iceberg
 
+import edu.uci.ics.amber.config.StorageConfig
 import edu.uci.ics.amber.core.storage.{DocumentFactory, VFSURIFactory}
 import edu.uci.ics.amber.core.storage.model.{VirtualDocument, VirtualDocumentSpec}
+import edu.uci.ics.amber.core.storage.result.iceberg.{IcebergTableCompactor, OnIceberg}
 import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple}
 import edu.uci.ics.amber.core.virtualidentity.{
   ExecutionIdentity,
@@ -38,6 +40,7 @@ import org.scalatest.BeforeAndAfterAll
 import java.net.URI
 import java.sql.Timestamp
 import java.util.UUID
+import scala.jdk.CollectionConverters._
 
 class IcebergDocumentSpec extends VirtualDocumentSpec[Tuple] with BeforeAndAfterAll {
 
@@ -99,6 +102,173 @@ class IcebergDocumentSpec extends VirtualDocumentSpec[Tuple] with BeforeAndAfter
     DocumentFactory.openDocument(uri)._1.asInstanceOf[VirtualDocument[Tuple]]
   }
 
+  "IcebergDocument" should "read back each partition written by partitioned writers" in {
+    val items = generateSampleItems()
+    val numPartitions = 3
+    val partitionOf = (tuple: Tuple) =>
+      Math.floorMod(Option(tuple.getField[Any]("col-string")).hashCode, numPartitions)
+
+    // two writers, each writing half of the items
+    items.grouped(items.size / 2 + 1).zipWithIndex.foreach {
+      case (writerItems, writerIdx) =>
+        val writer = document.partitionedWriter(writerIdx.toString, numPartitions, partitionOf)
+        writer.open()
+        writerItems.foreach(writer.putOne)
+        writer.close()
+    }
+
+    (0 until numPartitions).foreach { partition =>
+      val partitionItems = document.getPartition(partition, numPartitions).get.toList
+      assert(partitionItems.forall(partitionOf(_) == partition))
+      assert(partitionItems.size == items.count(partitionOf(_) == partition))
+    }
+    assert(document.getPartition(0, numPartitions + 1).isEmpty)
+    assert(document.get().toSet == items.toSet)
+  }
+
+  it should "not read partitions of a document written without partitions" in {
+    val writer = document.writer(UUID.randomUUID().toString)
+    writer.open()
+    generateSampleItems().take(10).foreach(writer.putOne)
+    writer.close()
+
+    assert(document.getPartition(0, 2).isEmpty)
+  }
+
+  it should "read disjoint splits that cover all items" in {
+    val items = generateSampleItems()
+    val writer = document.writer(UUID.randomUUID().toString)
+    writer.open()
+    items.foreach(writer.putOne)
+    writer.close()
+
+    val splits = (0 until 4).map(split => document.getSplit(split, 4).toList)
+    assert(splits.map(_.size).sum == items.size)
+    assert(splits.flatten.toSet == items.toSet)
+  }
+
+  it should "keep the order of items after its small files are compacted" in {
+    val items = generateSampleItems()
+    // each writer commits its own file, so the table holds many small files
+    items.grouped(items.size / 10 + 1).zipWithIndex.foreach {
+      case (writerItems, writerIdx) =>
+        val writer = document.writer(writerIdx.toString)
+        writer.open()
+        writerItems.foreach(writer.putOne)
+        writer.close()
+    }
+    val icebergDocument = document.asInstanceOf[OnIceberg]
+    val table = IcebergUtil
+      .loadTableMetadata(
+        icebergDocument.catalog,
+        icebergDocument.tableNamespace,
+        icebergDocument.tableName
+      )
+      .get
+    assert(table.newScan().planFiles().asScala.size == 10)
+
+    IcebergTableCompactor.compactTable(table)
+
+    table.refresh()
+    assert(table.newScan().planFiles().asScala.size == 1)
+    assert(document.get().toList == items)
+    assert(document.getCount == items.size)
+    assert(document.getRange(100, 200).toList == items.slice(100, 200))
+  }
+
+  it should "keep the order of items when a writer's files are compacted with later files" in {
+    val batchSize = StorageConfig.icebergTableCommitBatchSize
+    val items = (generateSampleItems() ++ generateSampleItems()).take(7 * batchSize + 101)
+    // the first writer flushes 8 files, all committed before the single file of the second
+    // writer, so its later files precede a file with a smaller filename index in read order
+    val (firstItems, laterItems) = items.splitAt(7 * batchSize + 1)
+    val firstWriter = document.writer("0")
+    firstWriter.open()
+    firstItems.foreach(firstWriter.putOne)
+    firstWriter.close()
+    val laterWriter = document.writer("1")
+    laterWriter.open()
+    laterItems.foreach(laterWriter.putOne)
+    laterWriter.close()
+    val icebergDocument = document.asInstanceOf[OnIceberg]
+    val table = IcebergUtil
+      .loadTableMetadata(
+        icebergDocument.catalog,
+        icebergDocument.tableNamespace,
+        icebergDocument.tableName
+      )
+      .get
+    assert(table.newScan().planFiles().asScala.size == 9)
+
+    IcebergTableCompactor.compactTable(table)
+
+    table.refresh()
+    assert(table.newScan().planFiles().asScala.size == 1)
+    assert(document.get().toList == items)
+  }
+
+  it should "read ranges across files appended after a range was read" in {
+    val items = generateSampleItems()
+    val (firstItems, laterItems) = items.splitAt(items.size / 2)
+    val firstWriter = document.writer("0")
+    firstWriter.open()
+    firstItems.foreach(firstWriter.putOne)
+    firstWriter.close()
+    assert(document.getRange(10, 20).toList == items.slice(10, 20))
+
+    val laterWriter = document.writer("1")
+    laterWriter.open()
+    laterItems.foreach(laterWriter.putOne)
+    laterWriter.close()
+
+    val from = firstItems.size - 5
+    assert(document.getRange(from, from + 10).toList == items.slice(from, from + 10))
+    assert(document.getRange(items.size - 3, items.size + 3).toList == items.takeRight(3))
+    assert(document.getCount == items.size)
+  }
+
+  it should "read a dictionary-encoded string column back as strings" in {
+    // a few distinct values make the Parquet writer dictionary-encode the column
+    val items = generateSampleItems().zipWithIndex.map {
+      case (tuple, i) =>
+        val category = if (i % 11 == 0) null else s"category ${i % 3}"
+        Tuple.builder(amberSchema).addSequentially(tuple.getFields.updated(0, category)).build()
+    }
+    val writer = document.writer(UUID.randomUUID().toString)
+    writer.open()
+    items.foreach(writer.putOne)
+    writer.close()
+
+    assert(document.get().toList == items)
+    assert(document.getRange(100, 200).toList == items.slice(100, 200))
+  }
+
+  it should "release the reader of a data file that is read only in part" in {
+    val items = generateSampleItems().take(1000)
+    val writer = document.writer(UUID.randomUUID().toString)
+    writer.open()
+    items.foreach(writer.putOne)
+    writer.close()
+    val icebergDocument = document.asInstanceOf[OnIceberg]
+    val table = IcebergUtil
+      .loadTableMetadata(
+        icebergDocument.catalog,
+        icebergDocument.tableNamespace,
+        icebergDocument.tableName
+      )
+      .get
+    val task = table.newScan().planFiles().asScala.head
+
+    val tuples = IcebergUtil.readDataFileAsTuples(task, table, amberSchema)
+    assert(tuples.take(10).toList == items.take(10))
+    tuples.close()
+    assert(!tuples.hasNext)
+    tuples.close()
+
+    assert(document.getRange(10, 20).toList == items.slice(10, 20))
+    assert(document.get().toList == items)
+  }
+
   override def generateSampleItems(): List[Tuple] = {
     val baseTuples = List(
       Tuple
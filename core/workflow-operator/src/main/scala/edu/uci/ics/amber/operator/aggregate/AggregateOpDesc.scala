@@ -65,7 +65,10 @@ class AggregateOpDesc extends LogicalOp {
         PhysicalOpIdentity(operatorIdentifier, "localAgg"),
         workflowId,
         executionId,
-        OpExecWithClassName("edu.uci.ics.amber.operator.aggregate.AggregateOpExec", partialDesc)
+        OpExecWithClassName(
+          "edu.uci.ics.amber.operator.aggregate.PartialAggregateOpExec",
+          partialDesc
+        )
       )
       .withIsOneToManyOp(true)
       .withInputPorts(List(inputPort))
@@ -96,7 +99,9 @@ class AggregateOpDesc extends LogicalOp {
         executionId,
         OpExecWithClassName("edu.uci.ics.amber.operator.aggregate.AggregateOpExec", finalDesc)
       )
-      .withParallelizable(false)
+      // groups are hash partitioned across the final workers; without group keys there is
+      // only one group, which a single worker aggregates
+      .withParallelizable(groupByKeys.nonEmpty)
       .withIsOneToManyOp(true)
       .withInputPorts(List(finalInputPort))
       .withOutputPorts(List(finalOutputPort))
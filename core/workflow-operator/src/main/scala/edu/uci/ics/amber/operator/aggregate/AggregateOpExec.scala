@@ -19,64 +19,64 @@
 
 package edu.uci.ics.amber.operator.aggregate
 
-import edu.uci.ics.amber.core.executor.OperatorExecutor
-import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.core.executor.{OperatorExecutor, PartialBatchException}
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple, TupleLike}
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
-import scala.collection.mutable
-
 /**
   * AggregateOpExec performs aggregation operations on input tuples, optionally grouping them by specified keys.
   */
 class AggregateOpExec(descString: String) extends OperatorExecutor {
-  private val desc: AggregateOpDesc = objectMapper.readValue(descString, classOf[AggregateOpDesc])
-  private var keyedPartialAggregates: mutable.HashMap[List[Object], List[Object]] = _
-  private var distributedAggregations: List[DistributedAggregation[Object]] = _
+  protected val desc: AggregateOpDesc = objectMapper.readValue(descString, classOf[AggregateOpDesc])
+  private var inputSchema: Schema = _
+  private var state: AggregationState = _
 
   override def open(): Unit = {
-    keyedPartialAggregates = new mutable.HashMap[List[Object], List[Object]]()
-    distributedAggregations = null
+    state = null
   }
 
   override def close(): Unit = {
-    keyedPartialAggregates.clear()
-    distributedAggregations = null
+    state = null
   }
 
   override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
+    aggregate(tuple)
+    flushPartialResults()
+  }
 
-    // Initialize distributedAggregations if it's not yet initialized
-    if (distributedAggregations == null) {
-      distributedAggregations = desc.aggregations.map(agg =>
-        agg.getAggFunc(tuple.getSchema.getAttribute(agg.attribute).getType)
-      )
-    }
+  override def supportsBatchProcessing: Boolean = true
 
-    // Construct the group key
-    val key = desc.groupByKeys.map(tuple.getField[Object])
+  override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] = {
+    PartialBatchException.foreachTracked(batch)(aggregate)
+    flushPartialResults()
+  }
 
-    // Get or initialize the partial aggregate for the key
-    val partialAggregates =
-      keyedPartialAggregates.getOrElseUpdate(key, distributedAggregations.map(_.init()))
+  override def onFinish(port: Int): Iterator[TupleLike] =
+    if (state == null) Iterator.empty else state.results
 
-    // Update the partial aggregates with the current tuple
-    val updatedAggregates = (distributedAggregations zip partialAggregates).map {
-      case (aggregation, partial) => aggregation.iterate(partial, tuple)
-    }
+  /**
+    * Called after each input tuple or batch. The final aggregation keeps all groups until the
+    * input ends; see [[PartialAggregateOpExec]] for the local stage.
+    */
+  protected def flushPartialResults(): Iterator[TupleLike] = Iterator.empty
 
-    keyedPartialAggregates(key) = updatedAggregates
-    Iterator.empty
+  protected def stateSizeInBytes: Long = if (state == null) 0L else state.estimatedSizeInBytes
 
+  /**
+    * Emits the current groups and starts aggregating into an empty state.
+    */
+  protected def flushGroups(): Iterator[TupleLike] = {
+    val flushed = state
+    state = new AggregationState(inputSchema, desc.groupByKeys, desc.aggregations)
+    flushed.results
   }
 
-  override def onFinish(port: Int): Iterator[TupleLike] = {
-    // Finalize aggregation for all keys and produce the result
-    keyedPartialAggregates.iterator.map {
-      case (key, partials) =>
-        val finalAggregates = partials.zipWithIndex.map {
-          case (partial, index) => distributedAggregations(index).finalAgg(partial)
-        }
-        TupleLike(key ++ finalAggregates)
+  private def aggregate(tuple: Tuple): Unit = {
+    // The state is laid out by the input schema, known from the first tuple
+    if (state == null) {
+      inputSchema = tuple.getSchema
+      state = new AggregationState(inputSchema, desc.groupByKeys, desc.aggregations)
     }
+    state.aggregate(tuple)
   }
 }
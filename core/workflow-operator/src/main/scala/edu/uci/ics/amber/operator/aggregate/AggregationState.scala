@@ -0,0 +1,431 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.aggregate
+
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple, TupleLike}
+
+import java.sql.Timestamp
+import java.util.Arrays
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * The aggregation state of one executor, laid out column-wise: every group gets a slot from a
+  * [[GroupTable]], and each aggregation keeps its partial results in arrays indexed by slot.
+  * SUM, COUNT, AVERAGE, MIN and MAX over numeric attributes use primitive arrays, so
+  * aggregating a tuple into an existing group does not allocate. Other aggregations keep the
+  * boxed partials of their [[DistributedAggregation]].
+  */
+class AggregationState(
+    schema: Schema,
+    groupByKeys: List[String],
+    aggregations: List[AggregationOperation]
+) {
+  private val groupTable = GroupTable(schema, groupByKeys)
+  private val accumulators: Array[SlotAccumulator] =
+    aggregations.map(aggregation => SlotAccumulator(aggregation, schema)).toArray
+
+  private var groupBytes: Long = 0L
+
+  def numGroups: Int = groupTable.size
+
+  /**
+    * The estimated in-memory size of the groups, taking the size of the tuple that created a
+    * group as the size of its key and partial results.
+    */
+  def estimatedSizeInBytes: Long = groupBytes
+
+  def aggregate(tuple: Tuple): Unit = {
+    val newSlot = groupTable.size
+    val slot = groupTable.slotOf(tuple)
+    if (slot == newSlot) {
+      groupBytes += tuple.inMemSize
+    }
+    var i = 0
+    while (i < accumulators.length) {
+      accumulators(i).update(slot, tuple)
+      i += 1
+    }
+  }
+
+  def results: Iterator[TupleLike] =
+    Iterator
+      .range(0, groupTable.size)
+      .map(slot => TupleLike(groupTable.keyFields(slot) ++ accumulators.map(_.result(slot))))
+}
+
+/**
+  * Assigns consecutive slots, starting at 0, to the distinct group keys.
+  */
+abstract class GroupTable {
+  def size: Int
+
+  def slotOf(tuple: Tuple): Int
+
+  def keyFields(slot: Int): List[Any]
+}
+
+object GroupTable {
+  def apply(schema: Schema, groupByKeys: List[String]): GroupTable =
+    groupByKeys match {
+      case Nil => new SingleGroupTable
+      case key :: Nil
+          if schema.getAttribute(key).getType == AttributeType.INTEGER ||
+            schema.getAttribute(key).getType == AttributeType.LONG =>
+        new PrimitiveKeyGroupTable(schema.getIndex(key), schema.getAttribute(key).getType)
+      case _ => new GenericKeyGroupTable(groupByKeys.map(schema.getIndex).toArray)
+    }
+}
+
+/**
+  * Without group keys, all tuples belong to one group.
+  */
+class SingleGroupTable extends GroupTable {
+  private var seen = false
+
+  override def size: Int = if (seen) 1 else 0
+
+  override def slotOf(tuple: Tuple): Int = {
+    seen = true
+    0
+  }
+
+  override def keyFields(slot: Int): List[Any] = List.empty
+}
+
+/**
+  * Open addressing table for a single INTEGER or LONG group key, looked up without boxing.
+  */
+class PrimitiveKeyGroupTable(keyIndex: Int, keyType: AttributeType) extends GroupTable {
+  private var capacity = 16
+  private var keys = new Array[Long](capacity)
+  // slot of the key at the same position, -1 if the position is empty
+  private var slots = Array.fill(capacity)(-1)
+  private var slotKeys = new Array[Long](capacity)
+  private var nullSlot = -1
+  private var count = 0
+
+  override def size: Int = count
+
+  override def slotOf(tuple: Tuple): Int = {
+    val field = tuple.getField[Any](keyIndex)
+    if (field == null) {
+      if (nullSlot < 0) {
+        nullSlot = newSlot(0L)
+      }
+      return nullSlot
+    }
+    val key = field.asInstanceOf[Number].longValue()
+    var position = PrimitiveKeyGroupTable.mix(key) & (capacity - 1)
+    while (slots(position) >= 0) {
+      if (keys(position) == key) {
+        return slots(position)
+      }
+      position = (position + 1) & (capacity - 1)
+    }
+    val slot = newSlot(key)
+    keys(position) = key
+    slots(position) = slot
+    if (count * 2 > capacity) {
+      rehash()
+    }
+    slot
+  }
+
+  override def keyFields(slot: Int): List[Any] =
+    if (slot == nullSlot) List(null)
+    else if (keyType == AttributeType.INTEGER) List(Integer.valueOf(slotKeys(slot).toInt))
+    else List(java.lang.Long.valueOf(slotKeys(slot)))
+
+  private def newSlot(key: Long): Int = {
+    if (count == slotKeys.length) {
+      slotKeys = Arrays.copyOf(slotKeys, count * 2)
+    }
+    slotKeys(count) = key
+    count += 1
+    count - 1
+  }
+
+  private def rehash(): Unit = {
+    val oldKeys = keys
+    val oldSlots = slots
+    capacity *= 2
+    keys = new Array[Long](capacity)
+    slots = Array.fill(capacity)(-1)
+    var i = 0
+    while (i < oldSlots.length) {
+      if (oldSlots(i) >= 0) {
+        var position = PrimitiveKeyGroupTable.mix(oldKeys(i)) & (capacity - 1)
+        while (slots(position) >= 0) {
+          position = (position + 1) & (capacity - 1)
+        }
+        keys(position) = oldKeys(i)
+        slots(position) = oldSlots(i)
+      }
+      i += 1
+    }
+  }
+}
+
+object PrimitiveKeyGroupTable {
+  private def mix(key: Long): Int = {
+    val h = key * 0x9e3779b97f4a7c15L
+    (h ^ (h >>> 32)).toInt
+  }
+}
+
+/**
+  * Group keys of any type and arity, looked up in a hash map by the key value itself for a
+  * single key, or by the list of key values otherwise.
+  */
+class GenericKeyGroupTable(keyIndices: Array[Int]) extends GroupTable {
+  private val slotsByKey = new java.util.HashMap[Any, Integer]()
+  private val slotKeys = new ArrayBuffer[Any]()
+
+  override def size: Int = slotKeys.size
+
+  override def slotOf(tuple: Tuple): Int = {
+    val key =
+      if (keyIndices.length == 1) tuple.getField[Any](keyIndices(0))
+      else keyIndices.map(i => tuple.getField[Any](i)).toList
+    val slot = slotsByKey.get(key)
+    if (slot != null) {
+      return slot
+    }
+    slotsByKey.put(key, slotKeys.size)
+    slotKeys += key
+    slotKeys.size - 1
+  }
+
+  override def keyFields(slot: Int): List[Any] =
+    if (keyIndices.length == 1) List(slotKeys(slot))
+    else slotKeys(slot).asInstanceOf[List[Any]]
+}
+
+/**
+  * The partial results of one aggregation, indexed by group slot. Slots are updated in the
+  * order they are assigned, so a slot equal to the number of slots seen so far is a new group.
+  */
+abstract class SlotAccumulator {
+  protected var numSlots = 0
+
+  def update(slot: Int, tuple: Tuple): Unit
+
+  def result(slot: Int): Any
+
+  protected def grownLength(length: Int): Int = math.max(16, length * 2)
+}
+
+object SlotAccumulator {
+  def apply(aggregation: AggregationOperation, schema: Schema): SlotAccumulator = {
+    if (aggregation.aggFunction == AggregationFunction.COUNT) {
+      return new CountAccumulator(
+        if (aggregation.attribute == null) -1 else schema.getIndex(aggregation.attribute)
+      )
+    }
+    val attributeType = schema.getAttribute(aggregation.attribute).getType
+    val index = schema.getIndex(aggregation.attribute)
+    val isIntegral = attributeType == AttributeType.INTEGER || attributeType == AttributeType.LONG
+    aggregation.aggFunction match {
+      case AggregationFunction.SUM if isIntegral => new LongSumAccumulator(index, attributeType)
+      case AggregationFunction.SUM if attributeType == AttributeType.DOUBLE =>
+        new DoubleSumAccumulator(index)
+      case AggregationFunction.AVERAGE
+          if isIntegral || attributeType == AttributeType.DOUBLE ||
+            attributeType == AttributeType.TIMESTAMP =>
+        new AverageAccumulator(index, attributeType == AttributeType.TIMESTAMP)
+      case AggregationFunction.MIN | AggregationFunction.MAX if isIntegral =>
+        new LongExtremumAccumulator(
+          index,
+          attributeType,
+          aggregation.aggFunction == AggregationFunction.MIN
+        )
+      case AggregationFunction.MIN | AggregationFunction.MAX
+          if attributeType == AttributeType.DOUBLE =>
+        new DoubleExtremumAccumulator(index, aggregation.aggFunction == AggregationFunction.MIN)
+      case _ => new BoxedAccumulator(aggregation.getAggFunc(attributeType))
+    }
+  }
+}
+
+/**
+  * Counts the non-null values of an attribute, or all tuples if the index is -1.
+  */
+class CountAccumulator(index: Int) extends SlotAccumulator {
+  private var counts = new Array[Long](16)
+
+  override def update(slot: Int, tuple: Tuple): Unit = {
+    if (slot == numSlots) {
+      if (slot == counts.length) counts = Arrays.copyOf(counts, grownLength(slot))
+      numSlots += 1
+    }
+    if (index < 0 || tuple.getField[Any](index) != null) {
+      counts(slot) += 1
+    }
+  }
+
+  override def result(slot: Int): Any = Integer.valueOf(counts(slot).toInt)
+}
+
+/**
+  * Sums an INTEGER or LONG attribute; INTEGER sums wrap around like int arithmetic.
+  */
+class LongSumAccumulator(index: Int, attributeType: AttributeType) extends SlotAccumulator {
+  private var sums = new Array[Long](16)
+
+  override def update(slot: Int, tuple: Tuple): Unit = {
+    if (slot == numSlots) {
+      if (slot == sums.length) sums = Arrays.copyOf(sums, grownLength(slot))
+      numSlots += 1
+    }
+    val field = tuple.getField[Any](index)
+    if (field != null) {
+      sums(slot) += field.asInstanceOf[Number].longValue()
+    }
+  }
+
+  override def result(slot: Int): Any =
+    if (attributeType == AttributeType.INTEGER) Integer.valueOf(sums(slot).toInt)
+    else java.lang.Long.valueOf(sums(slot))
+}
+
+class DoubleSumAccumulator(index: Int) extends SlotAccumulator {
+  private var sums = new Array[Double](16)
+
+  override def update(slot: Int, tuple: Tuple): Unit = {
+    if (slot == numSlots) {
+      if (slot == sums.length) sums = Arrays.copyOf(sums, grownLength(slot))
+      numSlots += 1
+    }
+    val field = tuple.getField[Any](index)
+    if (field != null) {
+      sums(slot) += field.asInstanceOf[Number].doubleValue()
+    }
+  }
+
+  override def result(slot: Int): Any = java.lang.Double.valueOf(sums(slot))
+}
+
+/**
+  * Averages a numeric attribute, or a TIMESTAMP attribute as epoch milliseconds.
+  */
+class AverageAccumulator(index: Int, isTimestamp: Boolean) extends SlotAccumulator {
+  private var sums = new Array[Double](16)
+  private var counts = new Array[Long](16)
+
+  override def update(slot: Int, tuple: Tuple): Unit = {
+    if (slot == numSlots) {
+      if (slot == sums.length) {
+        sums = Arrays.copyOf(sums, grownLength(slot))
+        counts = Arrays.copyOf(counts, grownLength(slot))
+      }
+      numSlots += 1
+    }
+    val field = tuple.getField[Any](index)
+    if (field != null) {
+      sums(slot) +=
+        (if (isTimestamp) field.asInstanceOf[Timestamp].getTime.toDouble
+         else field.asInstanceOf[Number].doubleValue())
+      counts(slot) += 1
+    }
+  }
+
+  override def result(slot: Int): Any =
+    if (counts(slot) == 0) null else java.lang.Double.valueOf(sums(slot) / counts(slot))
+}
+
+/**
+  * MIN or MAX of an INTEGER or LONG attribute; null for groups without a non-null value.
+  */
+class LongExtremumAccumulator(index: Int, attributeType: AttributeType, isMin: Boolean)
+    extends SlotAccumulator {
+  private var values = new Array[Long](16)
+  private var seen = new Array[Boolean](16)
+
+  override def update(slot: Int, tuple: Tuple): Unit = {
+    if (slot == numSlots) {
+      if (slot == values.length) {
+        values = Arrays.copyOf(values, grownLength(slot))
+        seen = Arrays.copyOf(seen, grownLength(slot))
+      }
+      numSlots += 1
+    }
+    val field = tuple.getField[Any](index)
+    if (field != null) {
+      val value = field.asInstanceOf[Number].longValue()
+      if (!seen(slot) || (if (isMin) value < values(slot) else value > values(slot))) {
+        values(slot) = value
+        seen(slot) = true
+      }
+    }
+  }
+
+  override def result(slot: Int): Any =
+    if (!seen(slot)) null
+    else if (attributeType == AttributeType.INTEGER) Integer.valueOf(values(slot).toInt)
+    else java.lang.Long.valueOf(values(slot))
+}
+
+/**
+  * MIN or MAX of a DOUBLE attribute, ordered like java.lang.Double.compare.
+  */
+class DoubleExtremumAccumulator(index: Int, isMin: Boolean) extends SlotAccumulator {
+  private var values = new Array[Double](16)
+  private var seen = new Array[Boolean](16)
+
+  override def update(slot: Int, tuple: Tuple): Unit = {
+    if (slot == numSlots) {
+      if (slot == values.length) {
+        values = Arrays.copyOf(values, grownLength(slot))
+        seen = Arrays.copyOf(seen, grownLength(slot))
+      }
+      numSlots += 1
+    }
+    val field = tuple.getField[Any](index)
+    if (field != null) {
+      val value = field.asInstanceOf[Number].doubleValue()
+      val compared = java.lang.Double.compare(value, values(slot))
+      if (!seen(slot) || (if (isMin) compared < 0 else compared > 0)) {
+        values(slot) = value
+        seen(slot) = true
+      }
+    }
+  }
+
+  override def result(slot: Int): Any =
+    if (!seen(slot)) null else java.lang.Double.valueOf(values(slot))
+}
+
+/**
+  * Keeps the boxed partial of a [[DistributedAggregation]] per slot.
+  */
+class BoxedAccumulator(aggregation: DistributedAggregation[Object]) extends SlotAccumulator {
+  private var partials = new Array[Object](16)
+
+  override def update(slot: Int, tuple: Tuple): Unit = {
+    if (slot == numSlots) {
+      if (slot == partials.length) partials = Arrays.copyOf(partials, grownLength(slot))
+      partials(slot) = aggregation.init()
+      numSlots += 1
+    }
+    partials(slot) = aggregation.iterate(partials(slot), tuple)
+  }
+
+  override def result(slot: Int): Any = aggregation.finalAgg(partials(slot))
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.aggregate
+
+import edu.uci.ics.amber.config.ApplicationConfig
+import edu.uci.ics.amber.core.tuple.TupleLike
+
+/**
+  * The local stage of a grouped aggregation. Once the estimated size of its groups exceeds the
+  * operator spill budget, it emits them as partial results and starts over, so
+  * high-cardinality group-bys do not have to fit into one worker before the final stage
+  * merges them.
+  *
+  * Averages are finalized into a mean by the local stage and cannot be merged correctly from
+  * more partials, so the table is never flushed when an average is computed.
+  */
+class PartialAggregateOpExec(descString: String) extends AggregateOpExec(descString) {
+  private[aggregate] var memoryBudget: Long = ApplicationConfig.operatorSpillMemoryBudgetInBytes
+
+  private val canFlush =
+    desc.groupByKeys.nonEmpty && !desc.aggregations.exists(
+      _.aggFunction == AggregationFunction.AVERAGE
+    )
+
+  override protected def flushPartialResults(): Iterator[TupleLike] =
+    if (canFlush && stateSizeInBytes > memoryBudget) flushGroups()
+    else Iterator.empty
+}
@@ -56,9 +56,9 @@ class DifferenceOpDesc extends LogicalOp {
       "find the set difference of two inputs",
       OperatorGroupConstants.SET_GROUP,
       inputPorts = List(
-        InputPort(PortIdentity(), displayName = "left"),
+        InputPort(PortIdentity(), displayName = "left", dependencies = List(PortIdentity(1))),
         InputPort(PortIdentity(1), displayName = "right")
       ),
-      outputPorts = List(OutputPort(blocking = true))
+      outputPorts = List(OutputPort())
     )
 }
@@ -19,14 +19,26 @@
 
 package edu.uci.ics.amber.operator.distinct
 
+import com.fasterxml.jackson.annotation.{JsonProperty, JsonPropertyDescription}
+import com.kjetland.jackson.jsonSchema.annotations.JsonSchemaTitle
 import edu.uci.ics.amber.core.executor.OpExecWithClassName
 import edu.uci.ics.amber.core.virtualidentity.{ExecutionIdentity, WorkflowIdentity}
 import edu.uci.ics.amber.core.workflow.{HashPartition, InputPort, OutputPort, PhysicalOp}
 import edu.uci.ics.amber.operator.LogicalOp
 import edu.uci.ics.amber.operator.metadata.{OperatorGroupConstants, OperatorInfo}
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
 class DistinctOpDesc extends LogicalOp {
 
+  @JsonProperty(defaultValue = "false")
+  @JsonSchemaTitle("Compact Deduplication")
+  @JsonPropertyDescription(
+    "remember 128-bit hashes instead of whole rows; uses much less memory, " +
+      "with a negligible chance of dropping a distinct row; " +
+      "rows with ANY columns are always compared in full"
+  )
+  var useFingerprints: Boolean = false
+
   override def getPhysicalOp(
       workflowId: WorkflowIdentity,
       executionId: ExecutionIdentity
@@ -36,7 +48,10 @@ class DistinctOpDesc extends LogicalOp {
         workflowId,
         executionId,
         operatorIdentifier,
-        OpExecWithClassName("edu.uci.ics.amber.operator.distinct.DistinctOpExec")
+        OpExecWithClassName(
+          "edu.uci.ics.amber.operator.distinct.DistinctOpExec",
+          objectMapper.writeValueAsString(this)
+        )
       )
       .withInputPorts(operatorInfo.inputPorts)
       .withOutputPorts(operatorInfo.outputPorts)
@@ -51,7 +66,7 @@ class DistinctOpDesc extends LogicalOp {
       "Remove duplicate tuples",
       OperatorGroupConstants.CLEANING_GROUP,
       inputPorts = List(InputPort()),
-      outputPorts = List(OutputPort(blocking = true))
+      outputPorts = List(OutputPort())
     )
 
 }
@@ -19,33 +19,119 @@
 
 package edu.uci.ics.amber.operator.distinct
 
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.config.ApplicationConfig
 import edu.uci.ics.amber.core.executor.OperatorExecutor
-import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple, TupleLike}
+import edu.uci.ics.amber.operator.util.{FingerprintSet, TupleSpillPartitions}
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
 import scala.collection.mutable
 
 /**
-  * An executor for the distinct operation that filters out duplicate tuples.
-  * It uses a `LinkedHashSet` to preserve the input order while removing duplicates.
+  * An executor for the distinct operation that emits the first occurrence of each tuple as
+  * soon as it arrives. Seen tuples are tracked either as tuples or, when fingerprints are
+  * enabled and the schema has no ANY columns, as 128-bit fingerprints in a compact
+  * [[FingerprintSet]].
+  *
+  * Once the seen set exceeds the operator spill budget it stops growing: tuples it already
+  * contains are still dropped immediately, while all other tuples are hash partitioned into
+  * spill files and deduplicated partition by partition after the input ends. A partition still
+  * exceeding the budget is split again before it is deduplicated, unless all of its tuples are
+  * equal.
   */
-class DistinctOpExec extends OperatorExecutor {
-  private var seenTuples: mutable.LinkedHashSet[Tuple] = _
+class DistinctOpExec(descString: String) extends OperatorExecutor with LazyLogging {
+  private val desc: DistinctOpDesc = objectMapper.readValue(descString, classOf[DistinctOpDesc])
+  private[distinct] var memoryBudget: Long = ApplicationConfig.operatorSpillMemoryBudgetInBytes
 
-  override def open(): Unit = {
-    seenTuples = mutable.LinkedHashSet()
-  }
+  private var seenTuples: SeenTuples = _
+  private var spillPartitions: TupleSpillPartitions = _
+
+  def isSpilling: Boolean = spillPartitions != null
+
+  override def spilledBytes: Long = if (isSpilling) spillPartitions.sizeInBytes else 0L
 
   override def close(): Unit = {
-    seenTuples.clear()
+    seenTuples = null
+    if (isSpilling) {
+      spillPartitions.delete()
+      spillPartitions = null
+    }
   }
 
-  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
-    seenTuples.add(tuple)
-    Iterator.empty
-  }
+  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] =
+    if (isFirstOccurrence(tuple)) Iterator.single(tuple) else Iterator.empty
+
+  override def onFinish(port: Int): Iterator[TupleLike] =
+    if (isSpilling) {
+      logger.info(s"Distinct spilled $spilledBytes bytes, deduplicating partitions from disk")
+      TupleSpillPartitions.flatMapPartitions(
+        Seq(TupleSpillPartitions.Side(spillPartitions, identity, loaded = true)),
+        memoryBudget
+      ) {
+        case Seq(tuples) =>
+          val partitionSeenTuples = newSeenTuples(spillPartitions.schema)
+          tuples.filter(partitionSeenTuples.add)
+      }
+    } else {
+      Iterator.empty
+    }
 
-  override def onFinish(port: Int): Iterator[TupleLike] = {
-    seenTuples.iterator
+  private def isFirstOccurrence(tuple: Tuple): Boolean = {
+    if (seenTuples == null) {
+      seenTuples = newSeenTuples(tuple.getSchema)
+    }
+    if (isSpilling) {
+      if (!seenTuples.contains(tuple)) {
+        spillPartitions.write(tuple, tuple)
+      }
+      false
+    } else if (seenTuples.add(tuple)) {
+      if (seenTuples.sizeInBytes > memoryBudget) {
+        logger.info(
+          s"Distinct seen set reached ${seenTuples.sizeInBytes} bytes, " +
+            s"exceeding the budget of $memoryBudget bytes; spilling unseen tuples"
+        )
+        spillPartitions = new TupleSpillPartitions(tuple.getSchema)
+      }
+      true
+    } else {
+      false
+    }
   }
 
+  private def newSeenTuples(schema: Schema): SeenTuples =
+    if (desc.useFingerprints && FingerprintSet.supports(schema)) new SeenFingerprints
+    else new SeenExactTuples
+}
+
+private sealed trait SeenTuples {
+  def add(tuple: Tuple): Boolean
+  def contains(tuple: Tuple): Boolean
+  def sizeInBytes: Long
+}
+
+private class SeenExactTuples extends SeenTuples {
+  private val tuples = mutable.HashSet[Tuple]()
+  private var bytes = 0L
+
+  override def add(tuple: Tuple): Boolean =
+    tuples.add(tuple) && {
+      bytes += tuple.inMemSize
+      true
+    }
+
+  override def contains(tuple: Tuple): Boolean = tuples.contains(tuple)
+
+  override def sizeInBytes: Long = bytes
+}
+
+private class SeenFingerprints extends SeenTuples {
+  private val fingerprints = new FingerprintSet
+
+  override def add(tuple: Tuple): Boolean = fingerprints.add(tuple)
+
+  override def contains(tuple: Tuple): Boolean = fingerprints.contains(tuple)
+
+  override def sizeInBytes: Long = fingerprints.sizeInBytes
 }
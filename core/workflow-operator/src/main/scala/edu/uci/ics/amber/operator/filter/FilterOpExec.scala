@@ -32,4 +32,9 @@ abstract class FilterOpExec extends OperatorExecutor with Serializable {
   override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] =
     if (filterFunc(tuple)) Iterator.single(tuple) else Iterator.empty
 
+  override def supportsBatchProcessing: Boolean = true
+
+  override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] =
+    batch.filter(filterFunc).iterator
+
 }
@@ -26,12 +26,15 @@ import com.kjetland.jackson.jsonSchema.annotations.JsonSchemaInject;
 import com.kjetland.jackson.jsonSchema.annotations.JsonSchemaString;
 import edu.uci.ics.amber.core.tuple.AttributeType;
 import edu.uci.ics.amber.core.tuple.AttributeTypeUtils;
+import edu.uci.ics.amber.core.tuple.Schema;
 import edu.uci.ics.amber.core.tuple.Tuple;
 import edu.uci.ics.amber.operator.metadata.annotations.AutofillAttributeName;
 import edu.uci.ics.amber.operator.metadata.annotations.HideAnnotation;
 
 import java.sql.Timestamp;
 import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 public class FilterPredicate {
 
@@ -61,100 +64,166 @@ public class FilterPredicate {
         this.value = value;
     }
 
-    private static <T extends Comparable<T>> boolean evaluateFilter(T tupleValue, T userSuppliedValue, ComparisonType comparisonType) {
-        int compareResult = tupleValue.compareTo(userSuppliedValue);
-        switch (comparisonType) {
-            case EQUAL_TO:
-                return compareResult == 0;
-            case GREATER_THAN:
-                return compareResult > 0;
-            case GREATER_THAN_OR_EQUAL_TO:
-                return compareResult >= 0;
-            case LESS_THAN:
-                return compareResult < 0;
-            case LESS_THAN_OR_EQUAL_TO:
-                return compareResult <= 0;
-            case NOT_EQUAL_TO:
-                return compareResult != 0;
-            default:
-                throw new RuntimeException(
-                        "Unable to do comparison: unknown comparison type: " + comparisonType);
-        }
-    }
-
+    /**
+     * Compiles this predicate for tuples of the given schema. The attribute index is resolved
+     * and the user supplied value is parsed once, so the returned predicate does no schema
+     * lookup or parsing per tuple.
+     */
     @JsonIgnore
-    public boolean evaluate(Tuple tuple) {
-        boolean isFieldNull = tuple.getField(attribute) == null;
-        if (condition == edu.uci.ics.amber.operator.filter.ComparisonType.IS_NULL) {
-            return isFieldNull;
-        } else if (condition == edu.uci.ics.amber.operator.filter.ComparisonType.IS_NOT_NULL) {
-            return !isFieldNull;
-        } else if (isFieldNull) {
-            return false;
+    public Predicate<Tuple> compile(Schema schema) {
+        if (!schema.containsAttribute(attribute)) {
+            throw new RuntimeException(attribute + " is not in the tuple");
+        }
+        int index = schema.getIndex(attribute);
+        if (condition == ComparisonType.IS_NULL) {
+            return tuple -> tuple.getField(index) == null;
+        } else if (condition == ComparisonType.IS_NOT_NULL) {
+            return tuple -> tuple.getField(index) != null;
         }
 
-        AttributeType type = tuple.getSchema().getAttribute(this.attribute).getType();
+        IntPredicate accepts = acceptedComparisonResults(condition);
+        AttributeType type = schema.getAttribute(attribute).getType();
         switch (type) {
             case STRING:
             case ANY:
-                return evaluateFilterString(tuple);
+                return compileFilterString(index, accepts);
             case BOOLEAN:
-                return evaluateFilterBoolean(tuple);
+                return compileFilterBoolean(index, accepts);
             case LONG:
-                return evaluateFilterLong(tuple);
+                return compileFilterLong(index, accepts);
             case INTEGER:
-                return evaluateFilterInt(tuple);
+                return compileFilterInt(index, accepts);
             case DOUBLE:
-                return evaluateFilterDouble(tuple);
+                return compileFilterDouble(index, accepts);
             case TIMESTAMP:
-                return evaluateFilterTimestamp(tuple);
+                return compileFilterTimestamp(index, accepts);
 
             default:
                 throw new RuntimeException("unsupported attribute type: " + type);
         }
     }
 
-    private boolean evaluateFilterBoolean(Tuple inputTuple) {
-        Boolean tupleValue = inputTuple.getField(attribute);
-        return evaluateFilter(tupleValue.toString().toLowerCase(), value.trim().toLowerCase(), condition);
+    @JsonIgnore
+    public boolean evaluate(Tuple tuple) {
+        return compile(tuple.getSchema()).test(tuple);
     }
 
-    private boolean evaluateFilterDouble(Tuple inputTuple) {
-        Double tupleValue = inputTuple.getField(attribute);
-        Double compareToValue = Double.parseDouble(value);
-        return evaluateFilter(tupleValue, compareToValue, condition);
+    private static IntPredicate acceptedComparisonResults(ComparisonType comparisonType) {
+        switch (comparisonType) {
+            case EQUAL_TO:
+                return compareResult -> compareResult == 0;
+            case GREATER_THAN:
+                return compareResult -> compareResult > 0;
+            case GREATER_THAN_OR_EQUAL_TO:
+                return compareResult -> compareResult >= 0;
+            case LESS_THAN:
+                return compareResult -> compareResult < 0;
+            case LESS_THAN_OR_EQUAL_TO:
+                return compareResult -> compareResult <= 0;
+            case NOT_EQUAL_TO:
+                return compareResult -> compareResult != 0;
+            default:
+                throw new RuntimeException(
+                        "Unable to do comparison: unknown comparison type: " + comparisonType);
+        }
     }
 
-    private boolean evaluateFilterInt(Tuple inputTuple) {
-        Integer tupleValueInt = inputTuple.getField(attribute);
-        Double tupleValueDouble = tupleValueInt == null ? null : (double) tupleValueInt;
-        Double compareToValue = Double.parseDouble(value);
-        return evaluateFilter(tupleValueDouble, compareToValue, condition);
+    private Predicate<Tuple> compileFilterBoolean(int index, IntPredicate accepts) {
+        String compareToValue = value.trim().toLowerCase();
+        boolean acceptsTrue = accepts.test("true".compareTo(compareToValue));
+        boolean acceptsFalse = accepts.test("false".compareTo(compareToValue));
+        return tuple -> {
+            Boolean tupleValue = tuple.getField(index);
+            return tupleValue != null && (tupleValue ? acceptsTrue : acceptsFalse);
+        };
     }
 
-    private boolean evaluateFilterLong(Tuple inputTuple) {
-        Long tupleValue = inputTuple.getField(attribute);
-        Long compareToValue = Long.valueOf(value.trim());
-        return evaluateFilter(tupleValue, compareToValue, condition);
+    private Predicate<Tuple> compileFilterDouble(int index, IntPredicate accepts) {
+        double compareToValue = Double.parseDouble(value);
+        return tuple -> {
+            Double tupleValue = tuple.getField(index);
+            return tupleValue != null && accepts.test(Double.compare(tupleValue, compareToValue));
+        };
     }
 
-    private boolean evaluateFilterString(Tuple inputTuple) {
-        String tupleValue = inputTuple.getField(attribute).toString();
-        try {
-            Double tupleValueDouble = tupleValue == null ? null : Double.parseDouble(tupleValue.trim());
-            Double compareToValueDouble = Double.parseDouble(value);
-            return evaluateFilter(tupleValueDouble, compareToValueDouble, condition);
-        } catch (NumberFormatException e) {
-            return evaluateFilter(tupleValue, value, condition);
+    private Predicate<Tuple> compileFilterInt(int index, IntPredicate accepts) {
+        double compareToValue = Double.parseDouble(value);
+        return tuple -> {
+            Integer tupleValue = tuple.getField(index);
+            return tupleValue != null && accepts.test(Double.compare(tupleValue, compareToValue));
+        };
+    }
+
+    private Predicate<Tuple> compileFilterLong(int index, IntPredicate accepts) {
+        long compareToValue = Long.parseLong(value.trim());
+        return tuple -> {
+            Long tupleValue = tuple.getField(index);
+            return tupleValue != null && accepts.test(Long.compare(tupleValue, compareToValue));
+        };
+    }
+
+    /**
+     * String values are compared as numbers if both the tuple value and the user supplied
+     * value are numeric, and as strings otherwise.
+     */
+    private Predicate<Tuple> compileFilterString(int index, IntPredicate accepts) {
+        Double compareToDouble = parseDoubleOrNull(value);
+        if (compareToDouble == null) {
+            return tuple -> {
+                Object tupleValue = tuple.getField(index);
+                return tupleValue != null && accepts.test(tupleValue.toString().compareTo(value));
+            };
         }
+        double compareToValue = compareToDouble;
+        return tuple -> {
+            Object field = tuple.getField(index);
+            if (field == null) {
+                return false;
+            }
+            String tupleValue = field.toString();
+            Double tupleValueDouble = parseDoubleOrNull(tupleValue);
+            return accepts.test(tupleValueDouble != null
+                    ? Double.compare(tupleValueDouble, compareToValue)
+                    : tupleValue.compareTo(value));
+        };
     }
 
-    private boolean evaluateFilterTimestamp(Tuple inputTuple) {
-        Timestamp ts = inputTuple.getField(attribute);
-        Long tupleValue = ts.getTime();
-        Long compareToValue = AttributeTypeUtils.parseTimestamp(value.trim()).getTime();
-        return evaluateFilter(tupleValue, compareToValue, condition);
+    private Predicate<Tuple> compileFilterTimestamp(int index, IntPredicate accepts) {
+        long compareToValue = AttributeTypeUtils.parseTimestamp(value.trim()).getTime();
+        return tuple -> {
+            Timestamp tupleValue = tuple.getField(index);
+            return tupleValue != null
+                    && accepts.test(Long.compare(tupleValue.getTime(), compareToValue));
+        };
+    }
 
+    /**
+     * Parses a double the way {@link Double#parseDouble} does, but returns null instead of
+     * throwing for the common case of text that does not start like a number.
+     */
+    private static Double parseDoubleOrNull(String text) {
+        int i = 0;
+        int length = text.length();
+        // parseDouble ignores leading whitespace and control characters
+        while (i < length && text.charAt(i) <= ' ') {
+            i++;
+        }
+        if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            i++;
+        }
+        if (i == length) {
+            return null;
+        }
+        char first = text.charAt(i);
+        // digits, a leading dot, "NaN" or "Infinity"
+        if (!(first >= '0' && first <= '9') && first != '.' && first != 'N' && first != 'I') {
+            return null;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     @Override
@@ -19,11 +19,55 @@
 
 package edu.uci.ics.amber.operator.filter
 
-import edu.uci.ics.amber.core.tuple.Tuple
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple, TupleLike}
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
+import java.util.function.Predicate
+import scala.collection.mutable.ArrayBuffer
+
 class SpecializedFilterOpExec(descString: String) extends FilterOpExec {
   private val desc: SpecializedFilterOpDesc =
     objectMapper.readValue(descString, classOf[SpecializedFilterOpDesc])
-  setFilterFunc((tuple: Tuple) => desc.predicates.exists(_.evaluate(tuple)))
+
+  // predicates compiled for the schema of the input tuples, recompiled if the schema changes
+  @transient private var compiledSchema: Schema = _
+  @transient private var compiledPredicates: Array[Predicate[Tuple]] = _
+
+  setFilterFunc((tuple: Tuple) => matches(predicatesFor(tuple.getSchema), tuple))
+
+  private def predicatesFor(schema: Schema): Array[Predicate[Tuple]] = {
+    if (compiledPredicates == null || ((schema ne compiledSchema) && schema != compiledSchema)) {
+      compiledPredicates = desc.predicates.map(_.compile(schema)).toArray
+      compiledSchema = schema
+    }
+    compiledPredicates
+  }
+
+  private def matches(predicates: Array[Predicate[Tuple]], tuple: Tuple): Boolean = {
+    var i = 0
+    while (i < predicates.length) {
+      if (predicates(i).test(tuple)) {
+        return true
+      }
+      i += 1
+    }
+    false
+  }
+
+  override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] = {
+    if (batch.isEmpty) {
+      return Iterator.empty
+    }
+    val predicates = predicatesFor(batch(0).getSchema)
+    val output = new ArrayBuffer[Tuple](batch.length)
+    var i = 0
+    while (i < batch.length) {
+      val tuple = batch(i)
+      if (matches(predicates, tuple)) {
+        output += tuple
+      }
+      i += 1
+    }
+    output.iterator
+  }
 }
@@ -19,36 +19,69 @@
 
 package edu.uci.ics.amber.operator.hashJoin
 
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.config.ApplicationConfig
 import edu.uci.ics.amber.core.executor.OperatorExecutor
 import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.operator.util.TupleSpillFile
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
-import scala.collection.mutable
-import scala.collection.mutable.ListBuffer
+import scala.collection.mutable.ArrayBuffer
 
-class HashJoinBuildOpExec[K](descString: String) extends OperatorExecutor {
+/**
+  * Collects the build side and emits every tuple prefixed with its join key once the input
+  * is exhausted. Tuples are buffered in memory up to the operator spill budget; beyond it
+  * they are appended to a spill file and streamed back in [[onFinish]].
+  */
+class HashJoinBuildOpExec[K](descString: String) extends OperatorExecutor with LazyLogging {
   private val desc: HashJoinOpDesc[K] =
     objectMapper.readValue(descString, classOf[HashJoinOpDesc[K]])
-  var buildTableHashMap: mutable.HashMap[K, ListBuffer[Tuple]] = _
+  private[hashJoin] var memoryBudget: Long = ApplicationConfig.operatorSpillMemoryBudgetInBytes
+
+  private var buffer: ArrayBuffer[Tuple] = _
+  private var bufferedBytes: Long = 0L
+  private var spillFile: Option[TupleSpillFile] = None
+
+  override def spilledBytes: Long = spillFile.map(_.sizeInBytes).getOrElse(0L)
 
   override def open(): Unit = {
-    buildTableHashMap = new mutable.HashMap[K, mutable.ListBuffer[Tuple]]()
+    buffer = new ArrayBuffer[Tuple]()
+    bufferedBytes = 0L
   }
 
   override def close(): Unit = {
-    buildTableHashMap.clear()
+    buffer.clear()
+    spillFile.foreach(_.delete())
+    spillFile = None
   }
 
   override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
-
-    val key = tuple.getField(desc.buildAttributeName).asInstanceOf[K]
-    buildTableHashMap.getOrElseUpdate(key, new ListBuffer[Tuple]()) += tuple
+    if (bufferedBytes + tuple.inMemSize > memoryBudget) {
+      spillBuffer(tuple)
+    }
+    buffer += tuple
+    bufferedBytes += tuple.inMemSize
     Iterator()
   }
 
   override def onFinish(port: Int): Iterator[TupleLike] = {
-    buildTableHashMap.iterator.flatMap {
-      case (k, v) => v.map(t => TupleLike(List(k) ++ t.getFields))
+    spillFile.foreach(file =>
+      logger.info(s"Hash join build spilled ${file.tupleCount} tuples (${file.sizeInBytes} bytes)")
+    )
+    val spilled = spillFile.map(_.iterator).getOrElse(Iterator.empty)
+    (spilled ++ buffer.iterator).map { t =>
+      TupleLike(List(t.getField[Any](desc.buildAttributeName)) ++ t.getFields)
+    }
+  }
+
+  private def spillBuffer(tuple: Tuple): Unit = {
+    val file = spillFile.getOrElse {
+      val created = new TupleSpillFile(tuple.getSchema)
+      spillFile = Some(created)
+      created
     }
+    buffer.foreach(file.write)
+    buffer.clear()
+    bufferedBytes = 0L
   }
 }
@@ -19,9 +19,12 @@
 
 package edu.uci.ics.amber.operator.hashJoin
 
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.config.ApplicationConfig
 import edu.uci.ics.amber.core.executor.OperatorExecutor
-import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple, TupleLike}
 import edu.uci.ics.amber.operator.hashJoin.HashJoinOpDesc.HASH_JOIN_INTERNAL_KEY_NAME
+import edu.uci.ics.amber.operator.util.TupleSpillPartitions
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
 import scala.collection.mutable
@@ -60,64 +63,174 @@ object JoinUtils {
   }
 }
 
+/**
+  * Probes the right input against a hash table of the build side.
+  *
+  * The build side is kept in memory until its estimated size exceeds the operator spill
+  * budget. From then on the join runs as a grace hash join: the build tuples already loaded
+  * and all remaining ones are hash partitioned into spill files, probe tuples are partitioned
+  * the same way, and each pair of partitions is joined in memory after the probe input ends.
+  * A build partition that still exceeds the budget is split again, together with its probe
+  * partition, unless all of its tuples share one key.
+  */
 class HashJoinProbeOpExec[K](
     descString: String
-) extends OperatorExecutor {
+) extends OperatorExecutor
+    with LazyLogging {
 
   private val desc: HashJoinOpDesc[K] =
     objectMapper.readValue(descString, classOf[HashJoinOpDesc[K]])
+  private[hashJoin] var memoryBudget: Long = ApplicationConfig.operatorSpillMemoryBudgetInBytes
   var buildTableHashMap: mutable.HashMap[K, (ListBuffer[Tuple], Boolean)] = _
 
+  private var buildTableBytes: Long = 0L
+  // the build schema without the internal key, resolved on the first build tuple
+  private var buildSchema: Schema = _
+  private var keyIndex: Int = -1
+  private var buildPartitions: TupleSpillPartitions = _
+  private var probePartitions: TupleSpillPartitions = _
+
+  def isSpilling: Boolean = buildPartitions != null
+
+  override def spilledBytes: Long =
+    Iterator(buildPartitions, probePartitions).filter(_ != null).map(_.sizeInBytes).sum
+
   override def open(): Unit = {
     buildTableHashMap = new mutable.HashMap[K, (mutable.ListBuffer[Tuple], Boolean)]()
   }
 
   override def close(): Unit = {
     buildTableHashMap.clear()
+    Iterator(buildPartitions, probePartitions).filter(_ != null).foreach(_.delete())
+    buildPartitions = null
+    probePartitions = null
   }
 
   override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] =
     if (port == 0) {
       // Load build hash map
       val key = tuple.getField[K](HASH_JOIN_INTERNAL_KEY_NAME)
-      buildTableHashMap.getOrElseUpdate(key, (new ListBuffer[Tuple](), false))._1 += tuple
-        .getPartialTuple(
-          tuple.getSchema.getAttributeNames.filterNot(n => n == HASH_JOIN_INTERNAL_KEY_NAME)
-        )
+      val buildTuple = stripInternalKey(tuple)
+      if (isSpilling) {
+        buildPartitions.write(key, buildTuple)
+      } else {
+        buildTableHashMap.getOrElseUpdate(key, (new ListBuffer[Tuple](), false))._1 += buildTuple
+        buildTableBytes += buildTuple.inMemSize
+        if (buildTableBytes > memoryBudget) {
+          spillBuildTable()
+        }
+      }
       Iterator.empty
-    } else {
-      // Probe phase
+    } else if (isSpilling) {
       val key = tuple.getField(desc.probeAttributeName).asInstanceOf[K]
-      val (matchedTuples, joined) =
-        buildTableHashMap.getOrElse(key, (new ListBuffer[Tuple](), false))
-
-      if (matchedTuples.nonEmpty) {
-        // Join match found
-        buildTableHashMap.put(key, (matchedTuples, true))
-        performJoin(tuple, matchedTuples)
-      } else if (desc.joinType == JoinType.RIGHT_OUTER || desc.joinType == JoinType.FULL_OUTER) {
-        // Handle right and full outer joins without a match
-        performRightAntiJoin(tuple)
-      } else {
-        // No match found
-        Iterator.empty
+      if (probePartitions == null) {
+        probePartitions = new TupleSpillPartitions(tuple.getSchema)
       }
+      probePartitions.write(key, tuple)
+      Iterator.empty
+    } else {
+      probe(tuple, buildTableHashMap)
     }
 
   override def onFinish(port: Int): Iterator[TupleLike] = {
-    if (
+    if (port == 1 && isSpilling) {
+      logger.info(s"Hash join probe spilled $spilledBytes bytes, joining partitions from disk")
+      TupleSpillPartitions.flatMapPartitions(
+        Seq(
+          TupleSpillPartitions
+            .Side(buildPartitions, _.getField[Any](desc.buildAttributeName), loaded = true),
+          TupleSpillPartitions
+            .Side(probePartitions, _.getField[Any](desc.probeAttributeName), loaded = false)
+        ),
+        memoryBudget
+      ) {
+        case Seq(buildTuples, probeTuples) => joinSpilledPartition(buildTuples, probeTuples)
+      }
+    } else if (
       port == 1 && (desc.joinType == JoinType.LEFT_OUTER || desc.joinType == JoinType.FULL_OUTER)
     ) {
       // Handle left and full outer joins after input is exhausted
-      performLeftAntiJoin
+      performLeftAntiJoin(buildTableHashMap)
     } else {
       Iterator.empty
     }
 
   }
 
-  private def performLeftAntiJoin: Iterator[TupleLike] = {
-    buildTableHashMap.valuesIterator
+  private def stripInternalKey(tuple: Tuple): Tuple = {
+    if (buildSchema == null) {
+      val attributes = tuple.getSchema.getAttributes
+      keyIndex = attributes.indexWhere(_.getName == HASH_JOIN_INTERNAL_KEY_NAME)
+      buildSchema = Schema(attributes.filterNot(_.getName == HASH_JOIN_INTERNAL_KEY_NAME))
+    }
+    val fields = tuple.getFields
+    val strippedFields = new Array[Any](fields.length - 1)
+    System.arraycopy(fields, 0, strippedFields, 0, keyIndex)
+    System.arraycopy(fields, keyIndex + 1, strippedFields, keyIndex, fields.length - keyIndex - 1)
+    Tuple(buildSchema, strippedFields)
+  }
+
+  private def spillBuildTable(): Unit = {
+    logger.info(
+      s"Hash join build table reached $buildTableBytes bytes, " +
+        s"exceeding the budget of $memoryBudget bytes; switching to partitioned spilling"
+    )
+    buildPartitions = new TupleSpillPartitions(buildSchema)
+    buildTableHashMap.foreach {
+      case (key, (tuples, _)) => tuples.foreach(buildPartitions.write(key, _))
+    }
+    buildTableHashMap.clear()
+    buildTableBytes = 0L
+  }
+
+  /**
+    * Joins the tuples of a pair of spilled partitions, loading the build tuples into memory.
+    */
+  private def joinSpilledPartition(
+      buildTuples: Iterator[Tuple],
+      probeTuples: Iterator[Tuple]
+  ): Iterator[TupleLike] = {
+    val hashMap = new mutable.HashMap[K, (ListBuffer[Tuple], Boolean)]()
+    buildTuples.foreach { tuple =>
+      val key = tuple.getField(desc.buildAttributeName).asInstanceOf[K]
+      hashMap.getOrElseUpdate(key, (new ListBuffer[Tuple](), false))._1 += tuple
+    }
+    // the unmatched build tuples are only known after the probe partition is exhausted,
+    // which the by-name argument of ++ guarantees
+    probeTuples.flatMap(probe(_, hashMap)) ++ {
+      if (desc.joinType == JoinType.LEFT_OUTER || desc.joinType == JoinType.FULL_OUTER) {
+        performLeftAntiJoin(hashMap)
+      } else {
+        Iterator.empty
+      }
+    }
+  }
+
+  private def probe(
+      tuple: Tuple,
+      hashMap: mutable.HashMap[K, (ListBuffer[Tuple], Boolean)]
+  ): Iterator[TupleLike] = {
+    val key = tuple.getField(desc.probeAttributeName).asInstanceOf[K]
+    val (matchedTuples, joined) =
+      hashMap.getOrElse(key, (new ListBuffer[Tuple](), false))
+
+    if (matchedTuples.nonEmpty) {
+      // Join match found
+      hashMap.put(key, (matchedTuples, true))
+      performJoin(tuple, matchedTuples)
+    } else if (desc.joinType == JoinType.RIGHT_OUTER || desc.joinType == JoinType.FULL_OUTER) {
+      // Handle right and full outer joins without a match
+      performRightAntiJoin(tuple)
+    } else {
+      // No match found
+      Iterator.empty
+    }
+  }
+
+  private def performLeftAntiJoin(
+      hashMap: mutable.HashMap[K, (ListBuffer[Tuple], Boolean)]
+  ): Iterator[TupleLike] = {
+    hashMap.valuesIterator
       .collect { case (tuples: ListBuffer[Tuple], joined: Boolean) if !joined => tuples }
       .flatMap { tuples =>
         tuples.map { tuple =>
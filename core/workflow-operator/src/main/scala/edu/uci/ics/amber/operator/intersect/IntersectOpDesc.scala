@@ -49,7 +49,10 @@ class IntersectOpDesc extends LogicalOp {
       "Intersect",
       "Take the intersect of two inputs",
       OperatorGroupConstants.SET_GROUP,
-      inputPorts = List(InputPort(PortIdentity()), InputPort(PortIdentity(1))),
-      outputPorts = List(OutputPort(blocking = true))
+      inputPorts = List(
+        InputPort(PortIdentity(), displayName = "left", dependencies = List(PortIdentity(1))),
+        InputPort(PortIdentity(1), displayName = "right")
+      ),
+      outputPorts = List(OutputPort())
     )
 }
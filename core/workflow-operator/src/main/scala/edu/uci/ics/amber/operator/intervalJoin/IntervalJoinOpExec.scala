@@ -21,25 +21,38 @@ package edu.uci.ics.amber.operator.intervalJoin
 
 import edu.uci.ics.amber.core.WorkflowRuntimeException
 import edu.uci.ics.amber.core.executor.OperatorExecutor
-import edu.uci.ics.amber.core.tuple.{AttributeType, Tuple, TupleLike}
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple, TupleLike}
 import edu.uci.ics.amber.operator.hashJoin.JoinUtils
+import edu.uci.ics.amber.operator.intervalJoin.IntervalJoinOpExec.{Interval, Point}
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
+
 import java.sql.Timestamp
-import scala.collection.mutable.ListBuffer
+import scala.collection.mutable
 
 /** This Operator have two assumptions:
   * 1. The tuples in both inputs come in ascending order
   * 2. The left input join key takes as points, join condition is: left key in the range of (right key, right key + constant)
+  *
+  * Both sides are buffered in deques sorted by their join key, with the interval bounds of the
+  * right tuples computed once on arrival. As the intervals are sorted as well, the matches of a
+  * tuple form a contiguous range of the opposite buffer, located by binary search, and tuples
+  * that can no longer match are evicted from the head of the buffers.
   */
 class IntervalJoinOpExec(descString: String) extends OperatorExecutor {
   private val desc: IntervalJoinOpDesc =
     objectMapper.readValue(descString, classOf[IntervalJoinOpDesc])
-  private var leftTable: ListBuffer[Tuple] = _
-  private var rightTable: ListBuffer[Tuple] = _
+  private var leftTable: mutable.ArrayDeque[Point] = _
+  private var rightTable: mutable.ArrayDeque[Interval] = _
+
+  // resolved from the schemas of the first tuples on each side
+  private var leftKeyIndex: Int = -1
+  private var rightKeyIndex: Int = -1
+  private var compareKeys: (Any, Any) => Int = _
+  private var intervalEnd: Any => Any = _
 
   override def open(): Unit = {
-    leftTable = new ListBuffer[Tuple]()
-    rightTable = new ListBuffer[Tuple]()
+    leftTable = new mutable.ArrayDeque[Point]()
+    rightTable = new mutable.ArrayDeque[Interval]()
   }
 
   override def close(): Unit = {
@@ -49,41 +62,47 @@ class IntervalJoinOpExec(descString: String) extends OperatorExecutor {
 
   override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
     if (port == 0) {
-      leftTable += tuple
+      if (leftKeyIndex < 0) {
+        leftKeyIndex = tuple.getSchema.getIndex(desc.leftAttributeName)
+        resolveKeyType(tuple.getSchema, desc.leftAttributeName)
+      }
+      val point = Point(tuple, tuple.getField[Any](leftKeyIndex))
+      insertSorted(leftTable, point)((a, b) => compareKeys(a.key, b.key))
       if (rightTable.nonEmpty) {
         removeTooSmallTupleInRightCache(leftTable.head)
+        // intervals still ending before the point come first, then the ones containing it
+        val from = lowerBound(rightTable.size)(i => intervalCompare(point, rightTable(i)) <= 0)
+        var until = from
+        while (until < rightTable.size && intervalCompare(point, rightTable(until)) == 0) {
+          until += 1
+        }
         rightTable
-          .filter(rightTableTuple => {
-
-            intervalCompare(
-              tuple.getField(desc.leftAttributeName),
-              rightTableTuple.getField(desc.rightAttributeName),
-              rightTableTuple.getSchema
-                .getAttribute(desc.rightAttributeName)
-                .getType
-            ) == 0
-          })
-          .map(rightTuple => JoinUtils.joinTuples(tuple, rightTuple))
+          .slice(from, until)
           .iterator
+          .map(interval => JoinUtils.joinTuples(tuple, interval.tuple))
       } else {
         Iterator()
       }
     } else {
-      rightTable += tuple
+      if (rightKeyIndex < 0) {
+        rightKeyIndex = tuple.getSchema.getIndex(desc.rightAttributeName)
+        resolveKeyType(tuple.getSchema, desc.rightAttributeName)
+      }
+      val start = tuple.getField[Any](rightKeyIndex)
+      val interval = Interval(tuple, start, intervalEnd(start))
+      insertSorted(rightTable, interval)((a, b) => compareKeys(a.start, b.start))
       if (leftTable.nonEmpty) {
         removeTooSmallTupleInLeftCache(rightTable.head)
+        // points before the interval come first, then the ones inside it
+        val from = lowerBound(leftTable.size)(i => intervalCompare(leftTable(i), interval) >= 0)
+        var until = from
+        while (until < leftTable.size && intervalCompare(leftTable(until), interval) == 0) {
+          until += 1
+        }
         leftTable
-          .filter(leftTableTuple => {
-            intervalCompare(
-              leftTableTuple.getField(desc.leftAttributeName),
-              tuple.getField(desc.rightAttributeName),
-              leftTableTuple.getSchema
-                .getAttribute(desc.leftAttributeName)
-                .getType
-            ) == 0
-          })
-          .map(leftTuple => JoinUtils.joinTuples(leftTuple, tuple))
+          .slice(from, until)
           .iterator
+          .map(point => JoinUtils.joinTuples(point.tuple, tuple))
       } else {
         Iterator()
       }
@@ -92,135 +111,105 @@ class IntervalJoinOpExec(descString: String) extends OperatorExecutor {
   }
 
   //if right table has tuple smaller than smallest tuple in left table, delete it
-  private def removeTooSmallTupleInRightCache(leftTableSmallestTuple: Tuple): Unit = {
-    while (rightTable.nonEmpty) {
-      if (
-        intervalCompare(
-          leftTableSmallestTuple.getField(desc.leftAttributeName),
-          rightTable.head.getField(desc.rightAttributeName),
-          leftTableSmallestTuple.getSchema
-            .getAttribute(desc.leftAttributeName)
-            .getType
-        ) > 0
-      ) {
-        rightTable.remove(0)
-      } else {
-        return
-      }
+  private def removeTooSmallTupleInRightCache(leftTableSmallestTuple: Point): Unit = {
+    while (rightTable.nonEmpty && intervalCompare(leftTableSmallestTuple, rightTable.head) > 0) {
+      rightTable.removeHead()
     }
-
   }
 
   //if left table has tuple smaller than smallest tuple in right table, delete it
-  private def removeTooSmallTupleInLeftCache(rightTableSmallestTuple: Tuple): Unit = {
-    while (leftTable.nonEmpty) {
-      if (
-        intervalCompare(
-          leftTable.head.getField(desc.leftAttributeName),
-          rightTableSmallestTuple.getField(desc.rightAttributeName),
-          rightTableSmallestTuple.getSchema
-            .getAttribute(desc.rightAttributeName)
-            .getType
-        ) < 0
-      ) {
-        leftTable.remove(0)
-      } else {
-        return
-      }
+  private def removeTooSmallTupleInLeftCache(rightTableSmallestTuple: Interval): Unit = {
+    while (leftTable.nonEmpty && intervalCompare(leftTable.head, rightTableSmallestTuple) < 0) {
+      leftTable.removeHead()
     }
-
   }
 
-  private def processNumValue[T](
-      pointValue: T,
-      leftBoundValue: T,
-      rightBoundValue: T
-  )(implicit ev$1: T => Ordered[T]): Int = {
-    if (desc.includeLeftBound && desc.includeRightBound) {
-      if (pointValue >= leftBoundValue && pointValue <= rightBoundValue) 0
-      else if (pointValue < leftBoundValue) -1
-      else 1
-    } else if (desc.includeLeftBound && !desc.includeRightBound) {
-      if (pointValue >= leftBoundValue && pointValue < rightBoundValue) 0
-      else if (pointValue < leftBoundValue) -1
-      else 1
-    } else if (!desc.includeLeftBound && desc.includeRightBound) {
-      if (pointValue > leftBoundValue && pointValue <= rightBoundValue) 0
-      else if (pointValue <= leftBoundValue) -1
-      else 1
+  /**
+    * Appends to the buffer, or inserts at the sorted position if the input is out of order.
+    */
+  private def insertSorted[T](buffer: mutable.ArrayDeque[T], elem: T)(
+      compare: (T, T) => Int
+  ): Unit = {
+    if (buffer.isEmpty || compare(buffer.last, elem) <= 0) {
+      buffer.append(elem)
     } else {
-      if (pointValue > leftBoundValue && pointValue < rightBoundValue) 0
-      else if (pointValue <= leftBoundValue) -1
-      else 1
+      buffer.insert(lowerBound(buffer.size)(i => compare(buffer(i), elem) > 0), elem)
     }
   }
 
-  private def intervalCompare[K](
-      point: K,
-      leftBound: K,
-      dataType: AttributeType
-  ): Int = {
-    var result: Int = -2
-    if (dataType == AttributeType.LONG) {
-      val pointValue: Long = point.asInstanceOf[Long]
-      val leftBoundValue: Long = leftBound.asInstanceOf[Long]
-      val constantValue: Long = desc.constant
-      val rightBoundValue: Long = leftBoundValue + constantValue
-      result = processNumValue[Long](
-        pointValue,
-        leftBoundValue,
-        rightBoundValue
-      )
-
-    } else if (dataType == AttributeType.DOUBLE) {
-      val pointValue: Double = point.asInstanceOf[Double]
-      val leftBoundValue: Double = leftBound.asInstanceOf[Double]
-      val constantValue: Double = desc.constant.asInstanceOf[Double]
-      val rightBoundValue: Double = leftBoundValue + constantValue
-      result = processNumValue[Double](
-        pointValue,
-        leftBoundValue,
-        rightBoundValue
-      )
-    } else if (dataType == AttributeType.INTEGER) {
-      val pointValue: Int = point.asInstanceOf[Int]
-      val leftBoundValue: Int = leftBound.asInstanceOf[Int]
-      val constantValue: Int = desc.constant.asInstanceOf[Int]
-      val rightBoundValue: Int = leftBoundValue + constantValue
-      result = processNumValue[Int](
-        pointValue,
-        leftBoundValue,
-        rightBoundValue
-      )
-    } else if (dataType == AttributeType.TIMESTAMP) {
-      val pointValue: Timestamp = point.asInstanceOf[Timestamp]
-      val leftBoundValue: Timestamp = leftBound.asInstanceOf[Timestamp]
-      val rightBoundValue: Timestamp =
-        desc.timeIntervalType match {
-          case Some(TimeIntervalType.YEAR) =>
-            Timestamp.valueOf(leftBoundValue.toLocalDateTime.plusYears(desc.constant))
-          case Some(TimeIntervalType.MONTH) =>
-            Timestamp.valueOf(leftBoundValue.toLocalDateTime.plusMonths(desc.constant))
-          case Some(TimeIntervalType.DAY) =>
-            Timestamp.valueOf(leftBoundValue.toLocalDateTime.plusDays(desc.constant))
-          case Some(TimeIntervalType.HOUR) =>
-            Timestamp.valueOf(leftBoundValue.toLocalDateTime.plusHours(desc.constant))
-          case Some(TimeIntervalType.MINUTE) =>
-            Timestamp.valueOf(leftBoundValue.toLocalDateTime.plusMinutes(desc.constant))
-          case Some(TimeIntervalType.SECOND) =>
-            Timestamp.valueOf(leftBoundValue.toLocalDateTime.plusSeconds(desc.constant))
-          case None =>
-            Timestamp.valueOf(leftBoundValue.toLocalDateTime.plusDays(desc.constant))
-        }
-      result = processNumValue(
-        pointValue.getTime,
-        leftBoundValue.getTime,
-        rightBoundValue.getTime
-      )
-    } else {
-      throw new WorkflowRuntimeException(s"The data type can not support comparison: $dataType")
+  /**
+    * The first index in [0, size) for which the monotone predicate holds, or size if none.
+    */
+  private def lowerBound(size: Int)(predicate: Int => Boolean): Int = {
+    var low = 0
+    var high = size
+    while (low < high) {
+      val mid = (low + high) >>> 1
+      if (predicate(mid)) high = mid else low = mid + 1
     }
-    result
+    low
+  }
 
+  /**
+    * -1 if the point is before the interval, 0 if it is inside and 1 if it is after.
+    */
+  private def intervalCompare(point: Point, interval: Interval): Int = {
+    val afterStart =
+      if (desc.includeLeftBound) compareKeys(point.key, interval.start) >= 0
+      else compareKeys(point.key, interval.start) > 0
+    val beforeEnd =
+      if (desc.includeRightBound) compareKeys(point.key, interval.end) <= 0
+      else compareKeys(point.key, interval.end) < 0
+    if (afterStart && beforeEnd) 0
+    else if (!afterStart) -1
+    else 1
+  }
+
+  private def resolveKeyType(schema: Schema, attributeName: String): Unit = {
+    if (compareKeys != null) {
+      return
+    }
+    schema.getAttribute(attributeName).getType match {
+      case AttributeType.LONG =>
+        compareKeys = (a, b) => java.lang.Long.compare(a.asInstanceOf[Long], b.asInstanceOf[Long])
+        intervalEnd = start => start.asInstanceOf[Long] + desc.constant
+      case AttributeType.DOUBLE =>
+        compareKeys = (a, b) => {
+          val x = a.asInstanceOf[Double]
+          val y = b.asInstanceOf[Double]
+          if (x < y) -1 else if (x > y) 1 else 0
+        }
+        intervalEnd = start => start.asInstanceOf[Double] + desc.constant.toDouble
+      case AttributeType.INTEGER =>
+        compareKeys = (a, b) => Integer.compare(a.asInstanceOf[Int], b.asInstanceOf[Int])
+        intervalEnd = start => start.asInstanceOf[Int] + desc.constant.toInt
+      case AttributeType.TIMESTAMP =>
+        compareKeys = (a, b) =>
+          java.lang.Long
+            .compare(a.asInstanceOf[Timestamp].getTime, b.asInstanceOf[Timestamp].getTime)
+        intervalEnd = start => {
+          val startTime = start.asInstanceOf[Timestamp].toLocalDateTime
+          Timestamp.valueOf(desc.timeIntervalType match {
+            case Some(TimeIntervalType.YEAR)   => startTime.plusYears(desc.constant)
+            case Some(TimeIntervalType.MONTH)  => startTime.plusMonths(desc.constant)
+            case Some(TimeIntervalType.DAY)    => startTime.plusDays(desc.constant)
+            case Some(TimeIntervalType.HOUR)   => startTime.plusHours(desc.constant)
+            case Some(TimeIntervalType.MINUTE) => startTime.plusMinutes(desc.constant)
+            case Some(TimeIntervalType.SECOND) => startTime.plusSeconds(desc.constant)
+            case None                          => startTime.plusDays(desc.constant)
+          })
+        }
+      case dataType =>
+        throw new WorkflowRuntimeException(s"The data type can not support comparison: $dataType")
+    }
   }
 }
+
+object IntervalJoinOpExec {
+
+  /** A left tuple with its join key. */
+  private case class Point(tuple: Tuple, key: Any)
+
+  /** A right tuple with the bounds of its interval. */
+  private case class Interval(tuple: Tuple, start: Any, end: Any)
+}
@@ -29,7 +29,7 @@ import edu.uci.ics.amber.util.JSONUtils.objectMapper
 import edu.uci.ics.amber.core.virtualidentity.{ExecutionIdentity, WorkflowIdentity}
 import edu.uci.ics.amber.core.workflow.{InputPort, OutputPort}
 
-import scala.util.{Success, Try}
+import scala.util.{Failure, Success, Try}
 
 class LimitOpDesc extends LogicalOp {
 
@@ -67,12 +67,25 @@ class LimitOpDesc extends LogicalOp {
       supportReconfiguration = true
     )
 
+  /**
+    * A limit can only be lowered at runtime: the upstream source may have been given the old limit
+    * at compile time, or asked to stop producing once it was reached, so it cannot produce more.
+    */
   override def runtimeReconfiguration(
       workflowId: WorkflowIdentity,
       executionId: ExecutionIdentity,
       oldLogicalOp: LogicalOp,
       newLogicalOp: LogicalOp
   ): Try[(PhysicalOp, Option[StateTransferFunc])] = {
+    val oldLimit = oldLogicalOp.asInstanceOf[LimitOpDesc].limit
+    val newLimit = newLogicalOp.asInstanceOf[LimitOpDesc].limit
+    if (newLimit > oldLimit) {
+      return Failure(
+        new IllegalArgumentException(
+          s"the limit can only be lowered during execution, not raised to $newLimit from $oldLimit"
+        )
+      )
+    }
     val newPhysicalOp = newLogicalOp.getPhysicalOp(workflowId, executionId)
     val stateTransferFunc: StateTransferFunc = (oldOp, newOp) => {
       val oldLimitOp = oldOp.asInstanceOf[LimitOpExec]
@@ -39,4 +39,14 @@ class LimitOpExec(descString: String) extends OperatorExecutor {
       Iterator()
     }
   }
+
+  override def supportsBatchProcessing: Boolean = true
+
+  override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] = {
+    val taken = math.max(0, math.min(batch.length, desc.limit - count))
+    count += taken
+    batch.iterator.take(taken)
+  }
+
+  override def needsMoreInput: Boolean = count < desc.limit
 }
@@ -39,4 +39,9 @@ abstract class MapOpExec extends OperatorExecutor with Serializable {
 
   override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = Iterator(mapFunc(tuple))
 
+  override def supportsBatchProcessing: Boolean = true
+
+  override def processBatch(batch: Array[Tuple], port: Int): Iterator[TupleLike] =
+    batch.map(mapFunc).iterator
+
 }
@@ -80,8 +80,8 @@ class ProjectionOpDesc extends MapOpDesc {
     val outputPartitionInfo = inputPartitionInfo match {
       case HashPartition(hashAttributeNames) =>
         if (hashAttributeNames.nonEmpty) HashPartition(hashAttributeNames) else UnknownPartition()
-      case RangePartition(rangeAttributeNames, min, max) =>
-        if (rangeAttributeNames.nonEmpty) RangePartition(rangeAttributeNames, min, max)
+      case RangePartition(rangeAttributeNames, min, max, splitPoints) =>
+        if (rangeAttributeNames.nonEmpty) RangePartition(rangeAttributeNames, min, max, splitPoints)
         else UnknownPartition()
       case _ => inputPartitionInfo
     }
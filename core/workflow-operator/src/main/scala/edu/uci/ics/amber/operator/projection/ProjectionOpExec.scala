@@ -20,7 +20,7 @@
 package edu.uci.ics.amber.operator.projection
 
 import com.google.common.base.Preconditions
-import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple, TupleLike}
 import edu.uci.ics.amber.operator.map.MapOpExec
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
@@ -33,33 +33,48 @@ class ProjectionOpExec(
   val desc: ProjectionOpDesc = objectMapper.readValue(descString, classOf[ProjectionOpDesc])
   setMapFunc(project)
 
-  def project(tuple: Tuple): TupleLike = {
-    Preconditions.checkArgument(desc.attributes.nonEmpty)
-    var selectedUnits: List[AttributeUnit] = List()
-    val fields = mutable.LinkedHashMap[String, Any]()
-    if (desc.isDrop) {
-      val allAttribute = tuple.schema.getAttributeNames
-      val selectedAttributes = desc.attributes.map(_.getOriginalAttribute)
-      val keepAttributes = allAttribute.diff(selectedAttributes)
+  // the projected attribute units only depend on the input schema,
+  // so they are resolved once and reused for all tuples sharing that schema.
+  @transient private var resolvedSchema: Schema = _
+  @transient private var resolvedUnits: List[AttributeUnit] = _
 
-      keepAttributes.foreach { attribute =>
-        val newList = List(
-          new AttributeUnit(attribute, attribute)
-        )
-        selectedUnits = selectedUnits ::: newList
-      }
+  private def resolveUnits(schema: Schema): List[AttributeUnit] = {
+    if (resolvedSchema ne schema) {
+      Preconditions.checkArgument(desc.attributes.nonEmpty)
+      var selectedUnits: List[AttributeUnit] = List()
+      if (desc.isDrop) {
+        val allAttribute = schema.getAttributeNames
+        val selectedAttributes = desc.attributes.map(_.getOriginalAttribute)
+        val keepAttributes = allAttribute.diff(selectedAttributes)
 
-    } else {
+        keepAttributes.foreach { attribute =>
+          val newList = List(
+            new AttributeUnit(attribute, attribute)
+          )
+          selectedUnits = selectedUnits ::: newList
+        }
 
-      selectedUnits = desc.attributes
-    }
+      } else {
+
+        selectedUnits = desc.attributes
+      }
 
-    selectedUnits.foreach { attributeUnit =>
-      val alias = attributeUnit.getAlias
-      if (fields.contains(alias)) {
-        throw new RuntimeException("have duplicated attribute name/alias")
+      val aliases = mutable.HashSet[String]()
+      selectedUnits.foreach { attributeUnit =>
+        if (!aliases.add(attributeUnit.getAlias)) {
+          throw new RuntimeException("have duplicated attribute name/alias")
+        }
       }
-      fields(alias) = tuple.getField[Any](attributeUnit.getOriginalAttribute)
+      resolvedUnits = selectedUnits
+      resolvedSchema = schema
+    }
+    resolvedUnits
+  }
+
+  def project(tuple: Tuple): TupleLike = {
+    val fields = mutable.LinkedHashMap[String, Any]()
+    resolveUnits(tuple.schema).foreach { attributeUnit =>
+      fields(attributeUnit.getAlias) = tuple.getField[Any](attributeUnit.getOriginalAttribute)
     }
 
     TupleLike(fields.toSeq: _*)
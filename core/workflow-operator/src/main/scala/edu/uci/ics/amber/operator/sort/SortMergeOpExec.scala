@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.sort
+
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.config.ApplicationConfig
+import edu.uci.ics.amber.core.executor.OperatorExecutor
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple, TupleLike}
+import edu.uci.ics.amber.operator.sort.SortOpDesc.SORT_RUN_ATTRIBUTE_NAME
+import edu.uci.ics.amber.operator.util.TupleSpillFile
+
+import java.util.Arrays
+import scala.collection.mutable
+
+/**
+  * Concatenates the sorted runs produced by the [[SortOpExec]] workers into one sorted output.
+  * Run r holds the r-th range of the sort keys, so the output is the runs in range order and no
+  * tuples need to be compared here.
+  *
+  * Run 0 is emitted as it arrives. Tuples of the other runs arrive in order, interleaved with
+  * other runs, so each run is collected separately until the input is exhausted. When the
+  * collected runs exceed the operator spill budget, every run buffer is appended to the spill
+  * file of its run.
+  */
+class SortMergeOpExec extends OperatorExecutor with LazyLogging {
+  private[sort] var memoryBudget: Long = ApplicationConfig.operatorSpillMemoryBudgetInBytes
+
+  // the input schema without the run attribute, resolved on the first tuple
+  private var schema: Schema = _
+  private var runBuffers: mutable.HashMap[Int, mutable.ArrayBuffer[Tuple]] = _
+  private val spilledRuns = new mutable.HashMap[Int, TupleSpillFile]()
+  private var bufferedBytes: Long = 0L
+
+  override def open(): Unit = {
+    runBuffers = new mutable.HashMap[Int, mutable.ArrayBuffer[Tuple]]()
+    bufferedBytes = 0L
+  }
+
+  override def close(): Unit = {
+    runBuffers.clear()
+    spilledRuns.values.foreach(_.delete())
+    spilledRuns.clear()
+  }
+
+  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
+    if (schema == null) {
+      schema = Schema(
+        tuple.getSchema.getAttributes.filterNot(_.getName == SORT_RUN_ATTRIBUTE_NAME)
+      )
+    }
+    // the run attribute is always the first one
+    val fields = tuple.getFields
+    val run = fields(0).asInstanceOf[Int]
+    val sortedTuple = Tuple(schema, Arrays.copyOfRange(fields, 1, fields.length))
+    if (run == 0) {
+      return Iterator.single(sortedTuple)
+    }
+    runBuffers.getOrElseUpdate(run, new mutable.ArrayBuffer[Tuple]()) += sortedTuple
+    bufferedBytes += sortedTuple.inMemSize
+    if (bufferedBytes > memoryBudget) {
+      spillRuns()
+    }
+    Iterator.empty
+  }
+
+  override def onFinish(port: Int): Iterator[TupleLike] = {
+    val runs = runBuffers.keySet ++ spilledRuns.keySet
+    runs.toSeq.sorted.iterator.flatMap { run =>
+      val spilled = spilledRuns.get(run).map(_.iterator).getOrElse(Iterator.empty)
+      spilled ++ runBuffers.get(run).map(_.iterator).getOrElse(Iterator.empty)
+    }
+  }
+
+  private def spillRuns(): Unit = {
+    logger.info(s"Sort merge exceeded the budget of $memoryBudget bytes, spilling runs to disk")
+    runBuffers.foreach {
+      case (run, buffer) =>
+        val file = spilledRuns.getOrElseUpdate(run, new TupleSpillFile(schema))
+        buffer.foreach(file.write)
+    }
+    runBuffers.clear()
+    bufferedBytes = 0L
+  }
+}
@@ -20,47 +20,172 @@
 package edu.uci.ics.amber.operator.sort
 
 import com.fasterxml.jackson.annotation.{JsonProperty, JsonPropertyDescription}
-import edu.uci.ics.amber.core.tuple.Schema
-import edu.uci.ics.amber.core.workflow.{InputPort, OutputPort, PortIdentity}
-import edu.uci.ics.amber.operator.PythonOperatorDescriptor
+import edu.uci.ics.amber.config.ApplicationConfig
+import edu.uci.ics.amber.core.executor.OpExecWithClassName
+import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema}
+import edu.uci.ics.amber.core.virtualidentity.{
+  ExecutionIdentity,
+  PhysicalOpIdentity,
+  WorkflowIdentity
+}
+import edu.uci.ics.amber.core.workflow._
+import edu.uci.ics.amber.operator.LogicalOp
 import edu.uci.ics.amber.operator.metadata.{OperatorGroupConstants, OperatorInfo}
-class SortOpDesc extends PythonOperatorDescriptor {
+import edu.uci.ics.amber.operator.sort.SortOpDesc.SORT_RUN_ATTRIBUTE_NAME
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
+
+object SortOpDesc {
+  val SORT_RUN_ATTRIBUTE_NAME = "__internal__sort__run__"
+
+  // tuples each sample worker contributes to the split points of the sort ranges
+  val SAMPLE_SIZE_PER_WORKER = 1000
+}
+
+class SortOpDesc extends LogicalOp {
   @JsonProperty(required = true)
   @JsonPropertyDescription("column to perform sorting on")
   var attributes: List[SortCriteriaUnit] = _
 
-  override def generatePythonCode(): String = {
-    val attributeName = "[" + attributes
-      .map { criteria =>
-        s""""${criteria.attributeName}""""
-      }
-      .mkString(", ") + "]"
-    val sortOrders: String = "[" + attributes
-      .map { criteria =>
-        criteria.sortPreference match {
-          case SortPreference.ASC  => "True"
-          case SortPreference.DESC => "False"
-        }
-      }
-      .mkString(", ") + "]"
+  /**
+    * Sorts in parallel by range partitioning: the input is sampled, every range worker divides
+    * the sample into one range per sort worker and tags each tuple with its range, each sort
+    * worker sorts one range, and a single worker concatenates the sorted ranges in order.
+    */
+  override def getPhysicalPlan(
+      workflowId: WorkflowIdentity,
+      executionId: ExecutionIdentity
+  ): PhysicalPlan = {
+    val numRanges = ApplicationConfig.numWorkerPerOperatorByDefault
 
-    s"""from pytexera import *
-       |import pandas as pd
-       |from datetime import datetime
-       |
-       |class ProcessTableOperator(UDFTableOperator):
-       |
-       |    @overrides
-       |    def process_table(self, table: Table, port: int) -> Iterator[Optional[TableLike]]:
-       |        sort_columns = $attributeName
-       |        ascending_orders = $sortOrders
-       |
-       |        sorted_df = table.sort_values(by=sort_columns, ascending=ascending_orders)
-       |        yield sorted_df""".stripMargin
-  }
+    // passes the input through while keeping a reservoir sample of it
+    val sampleDataOutputPort = OutputPort(PortIdentity(0, internal = true))
+    val sampleOutputPort = OutputPort(PortIdentity(1, internal = true))
+    val samplePhysicalOp = PhysicalOp
+      .oneToOnePhysicalOp(
+        PhysicalOpIdentity(operatorIdentifier, "sample"),
+        workflowId,
+        executionId,
+        OpExecWithClassName("edu.uci.ics.amber.operator.sort.SortSampleOpExec")
+      )
+      .withInputPorts(operatorInfo.inputPorts)
+      .withOutputPorts(List(sampleDataOutputPort, sampleOutputPort))
+      .withPropagateSchema(
+        SchemaPropagationFunc(inputSchemas => {
+          val inputSchema = inputSchemas(operatorInfo.inputPorts.head.id)
+          Map(sampleDataOutputPort.id -> inputSchema, sampleOutputPort.id -> inputSchema)
+        })
+      )
+      .withParallelizable(true)
+
+    // tags each tuple with its range once all samples have arrived
+    val rangeSampleInputPort = InputPort(PortIdentity(0, internal = true))
+    val rangeDataInputPort =
+      InputPort(PortIdentity(1, internal = true), dependencies = List(rangeSampleInputPort.id))
+    val rangeOutputPort = OutputPort(PortIdentity(internal = true))
+    val rangePhysicalOp = PhysicalOp
+      .oneToOnePhysicalOp(
+        PhysicalOpIdentity(operatorIdentifier, "range"),
+        workflowId,
+        executionId,
+        OpExecWithClassName(
+          "edu.uci.ics.amber.operator.sort.SortRangeOpExec",
+          objectMapper.writeValueAsString(this)
+        )
+      )
+      .withInputPorts(List(rangeSampleInputPort, rangeDataInputPort))
+      .withOutputPorts(List(rangeOutputPort))
+      .withPartitionRequirement(List(Option(BroadcastPartition()), None))
+      .withDerivePartition(_ => UnknownPartition())
+      .withPropagateSchema(
+        SchemaPropagationFunc(inputSchemas =>
+          Map(
+            rangeOutputPort.id -> Schema(
+              List(new Attribute(SORT_RUN_ATTRIBUTE_NAME, AttributeType.INTEGER))
+            ).add(inputSchemas(rangeDataInputPort.id))
+          )
+        )
+      )
+      .withParallelizable(true)
+      .withSuggestedWorkerNum(numRanges)
+
+    // sort worker r receives and sorts range r
+    val localInputPort = InputPort(PortIdentity(0, internal = true))
+    val localOutputPort = OutputPort(PortIdentity(internal = true))
+    val localSortPhysicalOp = PhysicalOp
+      .oneToOnePhysicalOp(
+        PhysicalOpIdentity(operatorIdentifier, "localSort"),
+        workflowId,
+        executionId,
+        OpExecWithClassName(
+          "edu.uci.ics.amber.operator.sort.SortOpExec",
+          objectMapper.writeValueAsString(this)
+        )
+      )
+      .withInputPorts(List(localInputPort))
+      .withOutputPorts(List(localOutputPort))
+      .withPartitionRequirement(
+        List(Option(RangePartition(List(SORT_RUN_ATTRIBUTE_NAME), 0, numRanges - 1)))
+      )
+      .withPropagateSchema(
+        SchemaPropagationFunc(inputSchemas =>
+          Map(localOutputPort.id -> inputSchemas(localInputPort.id))
+        )
+      )
+      .withParallelizable(true)
+      .withSuggestedWorkerNum(numRanges)
 
-  def getOutputSchemas(inputSchemas: Map[PortIdentity, Schema]): Map[PortIdentity, Schema] = {
-    Map(operatorInfo.outputPorts.head.id -> inputSchemas.values.head)
+    // a single worker concatenates the sorted ranges
+    val mergeInputPort = InputPort(PortIdentity(0, internal = true))
+    val mergePhysicalOp = PhysicalOp
+      .oneToOnePhysicalOp(
+        PhysicalOpIdentity(operatorIdentifier, "mergeSort"),
+        workflowId,
+        executionId,
+        OpExecWithClassName("edu.uci.ics.amber.operator.sort.SortMergeOpExec")
+      )
+      .withParallelizable(false)
+      .withInputPorts(List(mergeInputPort))
+      .withOutputPorts(operatorInfo.outputPorts)
+      .withPropagateSchema(
+        SchemaPropagationFunc(inputSchemas =>
+          Map(
+            operatorInfo.outputPorts.head.id -> Schema(
+              inputSchemas(mergeInputPort.id).getAttributes
+                .filterNot(_.getName == SORT_RUN_ATTRIBUTE_NAME)
+            )
+          )
+        )
+      )
+
+    PhysicalPlan(
+      operators = Set(samplePhysicalOp, rangePhysicalOp, localSortPhysicalOp, mergePhysicalOp),
+      links = Set(
+        PhysicalLink(
+          samplePhysicalOp.id,
+          sampleOutputPort.id,
+          rangePhysicalOp.id,
+          rangeSampleInputPort.id
+        ),
+        PhysicalLink(
+          samplePhysicalOp.id,
+          sampleDataOutputPort.id,
+          rangePhysicalOp.id,
+          rangeDataInputPort.id
+        ),
+        PhysicalLink(
+          rangePhysicalOp.id,
+          rangeOutputPort.id,
+          localSortPhysicalOp.id,
+          localInputPort.id
+        ),
+        PhysicalLink(
+          localSortPhysicalOp.id,
+          localOutputPort.id,
+          mergePhysicalOp.id,
+          mergeInputPort.id
+        )
+      )
+    )
   }
 
   override def operatorInfo: OperatorInfo =
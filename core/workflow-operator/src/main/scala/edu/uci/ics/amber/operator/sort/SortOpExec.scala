@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.sort
+
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.config.ApplicationConfig
+import edu.uci.ics.amber.core.executor.OperatorExecutor
+import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.operator.util.TupleSpillFile
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts one range of the input, as assigned by [[SortRangeOpExec]], and emits it as a single
+  * sorted run that keeps its range index, so that [[SortMergeOpExec]] can concatenate the runs
+  * of all workers in range order.
+  *
+  * Input is buffered up to the operator spill budget. Each time the budget is exceeded the
+  * buffer is sorted and written to a spill file; the files and the final buffer are merged
+  * when the input is exhausted.
+  */
+class SortOpExec(descString: String, idx: Int, workerCount: Int)
+    extends OperatorExecutor
+    with LazyLogging {
+  private val desc: SortOpDesc = objectMapper.readValue(descString, classOf[SortOpDesc])
+  private[sort] var memoryBudget: Long = ApplicationConfig.operatorSpillMemoryBudgetInBytes
+
+  private var ordering: Ordering[Tuple] = _
+  private var buffer: ArrayBuffer[Tuple] = _
+  private var bufferedBytes: Long = 0L
+  private val spilledRuns = new ArrayBuffer[TupleSpillFile]()
+
+  override def open(): Unit = {
+    buffer = new ArrayBuffer[Tuple]()
+    bufferedBytes = 0L
+  }
+
+  override def close(): Unit = {
+    buffer.clear()
+    spilledRuns.foreach(_.delete())
+    spilledRuns.clear()
+  }
+
+  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
+    if (ordering == null) {
+      ordering = SortUtils.tupleOrdering(tuple.getSchema, desc.attributes)
+    }
+    buffer += tuple
+    bufferedBytes += tuple.inMemSize
+    if (bufferedBytes > memoryBudget) {
+      spillRun()
+    }
+    Iterator.empty
+  }
+
+  override def onFinish(port: Int): Iterator[TupleLike] = {
+    if (buffer.isEmpty && spilledRuns.isEmpty) {
+      return Iterator.empty
+    }
+    buffer.sortInPlace()(ordering)
+    if (spilledRuns.nonEmpty) {
+      logger.info(
+        s"Sort worker $idx merging ${spilledRuns.size} spilled runs " +
+          s"(${spilledRuns.map(_.sizeInBytes).sum} bytes)"
+      )
+    }
+    SortUtils.mergeSortedRuns(spilledRuns.map(_.iterator).toSeq :+ buffer.iterator, ordering)
+  }
+
+  private def spillRun(): Unit = {
+    buffer.sortInPlace()(ordering)
+    val run = new TupleSpillFile(buffer.head.getSchema)
+    buffer.foreach(run.write)
+    spilledRuns += run
+    buffer.clear()
+    bufferedBytes = 0L
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.sort
+
+import edu.uci.ics.amber.core.executor.OperatorExecutor
+import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.core.workflow.RangeSplitPoints
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Assigns every input tuple to a sort range and prefixes it with the range index, so that
+  * each range is sent to its own [[SortOpExec]] worker.
+  *
+  * The first input port receives the samples of all [[SortSampleOpExec]] workers; the data
+  * port depends on it. Once the samples are complete, they are divided into as many ranges
+  * as there are workers. Every worker sees the same samples and therefore computes the same
+  * split points, so equal keys end up in the same range no matter which worker routes them.
+  */
+class SortRangeOpExec(descString: String, idx: Int, workerCount: Int)
+    extends OperatorExecutor {
+  private val desc: SortOpDesc = objectMapper.readValue(descString, classOf[SortOpDesc])
+
+  private var samples: ArrayBuffer[Tuple] = _
+  private var ordering: Ordering[Tuple] = _
+  private var splitPoints: IndexedSeq[Tuple] = IndexedSeq.empty
+
+  override def open(): Unit = {
+    samples = new ArrayBuffer[Tuple]()
+  }
+
+  override def close(): Unit = {
+    samples = null
+  }
+
+  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
+    if (port == 0) {
+      samples += tuple
+      Iterator.empty
+    } else {
+      val range = RangeSplitPoints.rangeIndex(splitPoints, tuple, ordering)
+      Iterator.single(TupleLike(List(range) ++ tuple.getFields))
+    }
+  }
+
+  override def onFinish(port: Int): Iterator[TupleLike] = {
+    if (port == 0 && samples.nonEmpty) {
+      ordering = SortUtils.tupleOrdering(samples.head.getSchema, desc.attributes)
+      splitPoints = RangeSplitPoints.fromSample(samples.toSeq, workerCount, ordering)
+      samples.clear()
+    }
+    Iterator.empty
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.sort
+
+import edu.uci.ics.amber.core.executor.OperatorExecutor
+import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+import edu.uci.ics.amber.core.workflow.PortIdentity
+import edu.uci.ics.amber.operator.sort.SortOpDesc.SAMPLE_SIZE_PER_WORKER
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.Random
+
+/**
+  * Passes its input through to the first output port while keeping a reservoir sample of it,
+  * which is emitted on the second output port once the input is exhausted. The samples of all
+  * workers give [[SortRangeOpExec]] the split points of the sort ranges.
+  */
+class SortSampleOpExec(idx: Int, workerCount: Int) extends OperatorExecutor {
+  private val rand: Random = new Random(idx)
+  private var n: Long = _
+  private var reservoir: ArrayBuffer[Tuple] = _
+
+  override def open(): Unit = {
+    n = 0L
+    reservoir = new ArrayBuffer[Tuple]()
+  }
+
+  override def close(): Unit = {
+    reservoir = null
+  }
+
+  override def processTupleMultiPort(
+      tuple: Tuple,
+      port: Int
+  ): Iterator[(TupleLike, Option[PortIdentity])] = {
+    if (reservoir.length < SAMPLE_SIZE_PER_WORKER) {
+      reservoir += tuple
+    } else {
+      val i = (rand.nextDouble() * (n + 1)).toLong
+      if (i < SAMPLE_SIZE_PER_WORKER) {
+        reservoir(i.toInt) = tuple
+      }
+    }
+    n += 1
+    Iterator.single((tuple, Some(PortIdentity(0, internal = true))))
+  }
+
+  override def onFinishMultiPort(port: Int): Iterator[(TupleLike, Option[PortIdentity])] =
+    reservoir.iterator.map(tuple => (tuple, Some(PortIdentity(1, internal = true))))
+
+  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = ???
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.sort
+
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple}
+
+import java.util.{Arrays, Comparator, PriorityQueue}
+
+object SortUtils {
+
+  /**
+    * Builds an ordering over tuples of the given schema following the sort criteria in order.
+    * Attribute positions and per-type comparators are resolved once, so comparing two tuples
+    * does not look up attributes by name. Nulls sort last regardless of the sort preference.
+    */
+  def tupleOrdering(schema: Schema, criteria: List[SortCriteriaUnit]): Ordering[Tuple] = {
+    val indices = criteria.map(c => schema.getIndex(c.attributeName)).toArray
+    val comparators =
+      criteria.map(c => fieldComparator(schema.getAttribute(c.attributeName).getType)).toArray
+    val descending = criteria.map(_.sortPreference == SortPreference.DESC).toArray
+
+    new Ordering[Tuple] {
+      override def compare(x: Tuple, y: Tuple): Int = {
+        var i = 0
+        while (i < indices.length) {
+          val left = x.getField[Any](indices(i))
+          val right = y.getField[Any](indices(i))
+          val result =
+            if (left == null || right == null) {
+              if (left == null && right == null) 0 else if (left == null) 1 else -1
+            } else {
+              val compared = comparators(i).compare(left, right)
+              if (descending(i)) -compared else compared
+            }
+          if (result != 0) {
+            return result
+          }
+          i += 1
+        }
+        0
+      }
+    }
+  }
+
+  private def fieldComparator(attributeType: AttributeType): Comparator[Any] =
+    attributeType match {
+      case AttributeType.BINARY =>
+        (x: Any, y: Any) =>
+          Arrays.compareUnsigned(x.asInstanceOf[Array[Byte]], y.asInstanceOf[Array[Byte]])
+      case AttributeType.ANY =>
+        (x: Any, y: Any) =>
+          x match {
+            case comparable: Comparable[Any] @unchecked if x.getClass == y.getClass =>
+              comparable.compareTo(y)
+            case _ => x.toString.compareTo(y.toString)
+          }
+      case _ =>
+        // the remaining types are stored as their boxed java.lang / java.sql.Timestamp values
+        (x: Any, y: Any) => x.asInstanceOf[Comparable[Any]].compareTo(y)
+    }
+
+  /**
+    * Merges runs that are each sorted by the ordering into one sorted iterator. Ties are broken
+    * by the position of the run in `runs`, so the merge is stable if the runs are in input order.
+    */
+  def mergeSortedRuns(runs: Seq[Iterator[Tuple]], ordering: Ordering[Tuple]): Iterator[Tuple] = {
+    val nonEmptyRuns = runs.zipWithIndex.filter(_._1.hasNext)
+    if (nonEmptyRuns.isEmpty) {
+      return Iterator.empty
+    }
+    if (nonEmptyRuns.size == 1) {
+      return nonEmptyRuns.head._1
+    }
+
+    val heap = new PriorityQueue[(Tuple, Int, Iterator[Tuple])](
+      nonEmptyRuns.size,
+      (a: (Tuple, Int, Iterator[Tuple]), b: (Tuple, Int, Iterator[Tuple])) => {
+        val compared = ordering.compare(a._1, b._1)
+        if (compared != 0) compared else Integer.compare(a._2, b._2)
+      }
+    )
+    nonEmptyRuns.foreach { case (run, index) => heap.add((run.next(), index, run)) }
+
+    new Iterator[Tuple] {
+      override def hasNext: Boolean = !heap.isEmpty
+
+      override def next(): Tuple = {
+        val (tuple, index, run) = heap.poll()
+        if (run.hasNext) {
+          heap.add((run.next(), index, run))
+        }
+        tuple
+      }
+    }
+  }
+}
@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.source;
+
+import edu.uci.ics.amber.core.tuple.AttributeType;
+import edu.uci.ics.amber.core.tuple.AttributeTypeUtils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads CSV records of a byte range of a file through a memory-mapped window.
+ * Delimiters, quotes and line breaks are located directly in the mapped buffer,
+ * numeric fields are parsed from the bytes, and only string-like fields are decoded
+ * with the given charset.
+ * <p>
+ * A record belongs to this reader if it starts at or before the end offset of the range,
+ * the reader of the next range skips its first (partial) line to align to a record boundary.
+ */
+public class MappedCSVBlockReader {
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    // size of the mapped window, a single record must fit into one window
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    // exact powers of ten for the double fast path
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long endOffset;
+    private final byte delimiter;
+    private final Charset charset;
+    private final AttributeType[] attributeTypes;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private long position;
+
+    // scratch space for decoding string fields
+    private byte[] scratch = new byte[256];
+
+    // boundaries of the field currently being converted
+    private long fieldStart;
+    private long fieldEnd;
+    private boolean fieldQuoted;
+    private boolean fieldHasEscapedQuote;
+
+    public MappedCSVBlockReader(FileChannel channel, long startOffset, long endOffset, char delimiter,
+                                Charset charset, AttributeType[] attributeTypes) throws IOException {
+        if (!isAsciiCompatible(charset)) {
+            throw new IllegalArgumentException(
+                    "Parallel CSV scan requires an ASCII compatible encoding, got " + charset.name());
+        }
+        if (delimiter > 0x7F) {
+            throw new IllegalArgumentException("Parallel CSV scan requires an ASCII delimiter");
+        }
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.endOffset = endOffset;
+        this.delimiter = (byte) delimiter;
+        this.charset = charset;
+        this.attributeTypes = attributeTypes;
+        this.position = startOffset;
+        remap(startOffset);
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    private void remap(long start) throws IOException {
+        windowStart = start;
+        windowEnd = Math.min(fileSize, start + WINDOW_SIZE);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+    }
+
+    private byte byteAt(long absolutePosition) {
+        return window.get((int) (absolutePosition - windowStart));
+    }
+
+    public boolean hasNext() {
+        return position <= endOffset && position < fileSize;
+    }
+
+    /**
+     * Skips the remainder of the current line without interpreting quotes.
+     * Used to align a reader that starts in the middle of a file to the next line.
+     */
+    public void skipLine() throws IOException {
+        while (true) {
+            long p = position;
+            while (p < windowEnd) {
+                byte b = byteAt(p);
+                if (b == LF || b == CR) {
+                    position = consumeLineBreak(p);
+                    return;
+                }
+                p++;
+            }
+            if (windowEnd >= fileSize) {
+                position = fileSize;
+                return;
+            }
+            remap(p);
+        }
+    }
+
+    /**
+     * Skips one full record, honoring quoted fields (e.g. a header line).
+     */
+    public void skipRecord() throws IOException {
+        readRecord(false);
+    }
+
+    /**
+     * Reads the next record and converts its fields according to the attribute types.
+     * Fields omitted at the end of the record are null.
+     *
+     * @return the converted fields, or null if the record is blank, has more fields than
+     * the attribute types, or contains a field that cannot be converted to its type.
+     */
+    public Object[] readLine() throws IOException {
+        return readRecord(true);
+    }
+
+    private Object[] readRecord(boolean materialize) throws IOException {
+        long recordStart = position;
+        while (true) {
+            Object[] fields = materialize ? new Object[attributeTypes.length] : null;
+            long recordEnd = scanRecord(recordStart, fields);
+            if (recordEnd >= 0) {
+                position = recordEnd;
+                return fields == null || isBlank(fields) ? null : fields;
+            }
+            // the record crosses the end of the mapped window, map a window starting at the record
+            if (windowStart == recordStart) {
+                throw new IOException("CSV record at offset " + recordStart + " exceeds " + WINDOW_SIZE + " bytes");
+            }
+            remap(recordStart);
+        }
+    }
+
+    private static boolean isBlank(Object[] fields) {
+        for (Object field : fields) {
+            if (field != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans one record starting at the given position, converting its fields into the given array.
+     * An invalid record leaves all fields null.
+     *
+     * @return the position after the record, or -1 if the record is not fully contained in the window.
+     */
+    private long scanRecord(long recordStart, Object[] fields) {
+        long p = recordStart;
+        int fieldIndex = 0;
+        boolean valid = true;
+        while (true) {
+            // scan a single field
+            fieldStart = p;
+            fieldQuoted = false;
+            fieldHasEscapedQuote = false;
+            if (p < windowEnd && byteAt(p) == QUOTE) {
+                fieldQuoted = true;
+                p++;
+                fieldStart = p;
+                while (true) {
+                    if (p >= windowEnd) {
+                        if (windowEnd < fileSize) {
+                            return -1;
+                        }
+                        // unterminated quote at the end of file, take the rest as content
+                        fieldEnd = p;
+                        break;
+                    }
+                    if (byteAt(p) == QUOTE) {
+                        if (p + 1 < windowEnd && byteAt(p + 1) == QUOTE) {
+                            fieldHasEscapedQuote = true;
+                            p += 2;
+                            continue;
+                        }
+                        if (p + 1 >= windowEnd && windowEnd < fileSize) {
+                            return -1;
+                        }
+                        fieldEnd = p;
+                        p++;
+                        break;
+                    }
+                    p++;
+                }
+                // tolerate stray characters between the closing quote and the delimiter
+                while (p < windowEnd) {
+                    byte b = byteAt(p);
+                    if (b == delimiter || b == LF || b == CR) {
+                        break;
+                    }
+                    p++;
+                }
+            } else {
+                while (p < windowEnd) {
+                    byte b = byteAt(p);
+                    if (b == delimiter || b == LF || b == CR) {
+                        break;
+                    }
+                    p++;
+                }
+                fieldEnd = p;
+            }
+
+            if (p >= windowEnd && windowEnd < fileSize) {
+                return -1;
+            }
+
+            if (fields != null && valid) {
+                if (fieldIndex >= attributeTypes.length) {
+                    valid = false;
+                } else {
+                    try {
+                        fields[fieldIndex] = convertField(attributeTypes[fieldIndex]);
+                    } catch (RuntimeException e) {
+                        valid = false;
+                    }
+                }
+            }
+            fieldIndex++;
+
+            if (p >= windowEnd) {
+                // end of file
+                break;
+            }
+            byte b = byteAt(p);
+            if (b == delimiter) {
+                p++;
+                continue;
+            }
+            // line break
+            if (b == CR && p + 1 >= windowEnd && windowEnd < fileSize) {
+                return -1;
+            }
+            p = consumeLineBreak(p);
+            break;
+        }
+        if (fields != null && !valid) {
+            Arrays.fill(fields, null);
+        }
+        return p;
+    }
+
+    /**
+     * Consumes a line break at the given position, treating "\r\n" as a single line break.
+     */
+    private long consumeLineBreak(long p) {
+        if (byteAt(p) == CR && p + 1 < windowEnd && byteAt(p + 1) == LF) {
+            return p + 2;
+        }
+        return p + 1;
+    }
+
+    private Object convertField(AttributeType attributeType) {
+        long length = fieldEnd - fieldStart;
+        if (length == 0) {
+            // an omitted field is null, while a quoted empty string stays a string
+            return fieldQuoted && attributeType == AttributeType.STRING ? "" : null;
+        }
+        switch (attributeType) {
+            case INTEGER:
+                if (!fieldHasEscapedQuote) {
+                    long value = parseLongFast(9);
+                    if (value != Long.MIN_VALUE) {
+                        return (int) value;
+                    }
+                }
+                break;
+            case LONG:
+                if (!fieldHasEscapedQuote) {
+                    long value = parseLongFast(18);
+                    if (value != Long.MIN_VALUE) {
+                        return value;
+                    }
+                }
+                break;
+            case DOUBLE:
+                if (!fieldHasEscapedQuote) {
+                    double value = parseDoubleFast();
+                    if (!Double.isNaN(value)) {
+                        return value;
+                    }
+                }
+                break;
+            case STRING:
+                return decodeField();
+            default:
+                break;
+        }
+        // values outside of the fast paths go through the regular parsing rules
+        return AttributeTypeUtils.parseField(decodeField(), attributeType, false);
+    }
+
+    /**
+     * Parses a plain optionally negative decimal integer with at most the given number of digits.
+     *
+     * @return the value, or Long.MIN_VALUE if the field is not in that form.
+     */
+    private long parseLongFast(int maxDigits) {
+        long p = fieldStart;
+        boolean negative = false;
+        if (byteAt(p) == '-') {
+            negative = true;
+            p++;
+        }
+        int digits = (int) (fieldEnd - p);
+        if (digits == 0 || digits > maxDigits) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        while (p < fieldEnd) {
+            int digit = byteAt(p) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            p++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a plain decimal number without exponent whose digits fit exactly into a double.
+     * Dividing such an exact mantissa by an exact power of ten is correctly rounded.
+     *
+     * @return the value, or NaN if the field is not in that form.
+     */
+    private double parseDoubleFast() {
+        long p = fieldStart;
+        boolean negative = false;
+        if (byteAt(p) == '-') {
+            negative = true;
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        while (p < fieldEnd) {
+            byte b = byteAt(p);
+            if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                int digit = b - '0';
+                if (digit < 0 || digit > 9) {
+                    return Double.NaN;
+                }
+                mantissa = mantissa * 10 + digit;
+                digits++;
+                if (seenDot) {
+                    fractionDigits++;
+                }
+            }
+            p++;
+        }
+        if (digits == 0 || digits > 15 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.NaN;
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private String decodeField() {
+        int length = (int) (fieldEnd - fieldStart);
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        int n = 0;
+        long p = fieldStart;
+        while (p < fieldEnd) {
+            byte b = byteAt(p);
+            scratch[n++] = b;
+            // an escaped quote ("") inside a quoted field stands for a single quote
+            if (b == QUOTE && fieldHasEscapedQuote && p + 1 < fieldEnd && byteAt(p + 1) == QUOTE) {
+                p++;
+            }
+            p++;
+        }
+        return new String(scratch, 0, n, charset);
+    }
+
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -58,35 +58,11 @@ class ArrowSourceOpExec(
   }
 
   override def produceTuple(): Iterator[TupleLike] = {
-    val rowIterator = new Iterator[TupleLike] {
-      private var currentIndex = 0
-      private var currentBatchIndex = 0
-
-      override def hasNext: Boolean = {
-        if (root.exists(_.getRowCount > currentIndex)) {
-          true
-        } else {
-          reader.exists(arrowReader => {
-            val hasMoreBatches = arrowReader.loadNextBatch()
-            if (hasMoreBatches) {
-              currentIndex = 0
-              currentBatchIndex += 1
-              true
-            } else {
-              false
-            }
-          })
-        }
-      }
-
-      override def next(): TupleLike = {
-        root.map { vectorSchemaRoot =>
-          val tuple = ArrowUtils.getTexeraTuple(currentIndex, vectorSchemaRoot)
-          currentIndex += 1
-          tuple
-        }.get
-      }
-    }
+    // each batch is converted as a whole before the next one is loaded into the shared root
+    val rowIterator: Iterator[TupleLike] = Iterator
+      .continually(reader.exists(_.loadNextBatch()))
+      .takeWhile(hasMoreBatches => hasMoreBatches)
+      .flatMap(_ => ArrowUtils.getTexeraTuples(root.get))
 
     var tupleIterator = rowIterator.drop(desc.offset.getOrElse(0))
     if (desc.limit.isDefined) tupleIterator = tupleIterator.take(desc.limit.get)
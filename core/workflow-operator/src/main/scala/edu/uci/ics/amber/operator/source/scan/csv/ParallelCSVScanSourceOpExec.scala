@@ -21,15 +21,13 @@ package edu.uci.ics.amber.operator.source.scan.csv
 
 import edu.uci.ics.amber.core.executor.SourceOperatorExecutor
 import edu.uci.ics.amber.core.storage.DocumentFactory
-import edu.uci.ics.amber.core.tuple.{Attribute, AttributeTypeUtils, TupleLike}
-import edu.uci.ics.amber.operator.source.BufferedBlockReader
+import edu.uci.ics.amber.core.tuple.{Attribute, TupleLike}
+import edu.uci.ics.amber.operator.source.MappedCSVBlockReader
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
-import org.tukaani.xz.SeekableFileInputStream
 
 import java.net.URI
-import java.util
-import java.util.stream.{IntStream, Stream}
-import scala.collection.compat.immutable.ArraySeq
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
 
 class ParallelCSVScanSourceOpExec private[csv] (
     descString: String,
@@ -38,7 +36,7 @@ class ParallelCSVScanSourceOpExec private[csv] (
 ) extends SourceOperatorExecutor {
   val desc: ParallelCSVScanSourceOpDesc =
     objectMapper.readValue(descString, classOf[ParallelCSVScanSourceOpDesc])
-  private var reader: BufferedBlockReader = _
+  private var reader: MappedCSVBlockReader = _
   private val schema = desc.sourceSchema()
 
   override def produceTuple(): Iterator[TupleLike] =
@@ -46,49 +44,20 @@ class ParallelCSVScanSourceOpExec private[csv] (
       override def hasNext: Boolean = reader.hasNext
 
       override def next(): TupleLike = {
-
-        try {
-          // obtain String representation of each field
-          // a null value will present if omit in between fields, e.g., ['hello', null, 'world']
-          val line = reader.readLine
-          if (line == null) {
-            return null
-          }
-          var fields: Array[AnyRef] = line.toArray
-
-          if (fields == null || util.Arrays.stream(fields).noneMatch(s => s != null)) {
-            // discard tuple if it's null or it only contains null
-            // which means it will always discard Tuple(null) from readLine()
-            return null
-          }
-
-          // however the null values won't present if omitted in the end, we need to match nulls.
-          if (fields.length != schema.getAttributes.size)
-            fields = Stream
-              .concat(
-                util.Arrays.stream(fields),
-                IntStream
-                  .range(0, schema.getAttributes.size - fields.length)
-                  .mapToObj((_: Int) => null)
-              )
-              .toArray()
-          // parse Strings into inferred AttributeTypes
-          val parsedFields: Array[Any] = AttributeTypeUtils.parseFields(
-            fields.asInstanceOf[Array[Any]],
-            schema.getAttributes
-              .map((attr: Attribute) => attr.getType)
-              .toArray
-          )
-          TupleLike(ArraySeq.unsafeWrapArray(parsedFields): _*)
-        } catch {
-          case _: Throwable => null
+        // fields are already converted to the inferred AttributeTypes by the reader,
+        // a null value will present if omitted, e.g., ['hello', null, 'world'].
+        // blank lines and lines that do not match the schema are returned as null.
+        val fields = reader.readLine
+        if (fields == null) {
+          return null
         }
+        TupleLike(fields.asInstanceOf[Array[Any]])
       }
 
     }.filter(tuple => tuple != null)
 
   override def open(): Unit = {
-    // here, the stream requires to be seekable, so datasetFileDesc creates a temp file here
+    // here, the file requires to be mappable, so datasetFileDesc creates a temp file here
     // TODO: consider a better way
     val file = DocumentFactory.openReadonlyDocument(new URI(desc.fileName.get)).asFile()
     val totalBytes: Long = file.length()
@@ -98,19 +67,18 @@ class ParallelCSVScanSourceOpExec private[csv] (
     val endOffset: Long =
       if (idx != workerCount - 1) totalBytes / workerCount * (idx + 1) else totalBytes
 
-    val stream = new SeekableFileInputStream(file)
-
-    stream.seek(startOffset)
-    reader = new BufferedBlockReader(
-      stream,
-      endOffset - startOffset,
+    reader = new MappedCSVBlockReader(
+      FileChannel.open(file.toPath, StandardOpenOption.READ),
+      startOffset,
+      endOffset,
       desc.customDelimiter.get.charAt(0),
-      null
+      desc.fileEncoding.getCharset,
+      schema.getAttributes.map((attr: Attribute) => attr.getType).toArray
     )
     // skip line if this worker reads from middle of a file
-    if (startOffset > 0) reader.readLine
+    if (startOffset > 0) reader.skipLine()
     // skip line if this worker reads the start of a file, and the file has a header line
-    if (startOffset == 0 && desc.hasHeader) reader.readLine
+    if (startOffset == 0 && desc.hasHeader) reader.skipRecord()
   }
 
   override def close(): Unit = reader.close()
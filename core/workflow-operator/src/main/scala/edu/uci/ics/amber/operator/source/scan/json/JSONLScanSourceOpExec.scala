@@ -19,18 +19,33 @@
 
 package edu.uci.ics.amber.operator.source.scan.json
 
+import com.fasterxml.jackson.core.{JsonFactory, JsonParser, JsonToken}
 import edu.uci.ics.amber.core.executor.SourceOperatorExecutor
 import edu.uci.ics.amber.core.storage.DocumentFactory
 import edu.uci.ics.amber.core.tuple.AttributeTypeUtils.parseField
-import edu.uci.ics.amber.core.tuple.TupleLike
-import edu.uci.ics.amber.operator.source.scan.json.JSONUtil.JSONToMap
+import edu.uci.ics.amber.core.tuple.{AttributeType, TupleLike}
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
-import java.io.{BufferedReader, InputStreamReader}
+import java.io.{BufferedReader, InputStream, InputStreamReader}
 import java.net.URI
-import scala.jdk.CollectionConverters.IteratorHasAsScala
+import java.nio.channels.{Channels, FileChannel}
+import java.nio.charset.StandardCharsets
+import java.nio.file.StandardOpenOption
+import java.util.Arrays
 import scala.util.{Failure, Success, Try}
 
+/**
+  * Scans a JSONL file with one streaming parser per line, extracting only the attributes
+  * of the schema. When no offset or limit is given and the encoding is ASCII compatible,
+  * each worker reads its own byte range of the file: it starts from
+  * `totalBytes / workerCount * idx`, skips to the next line break, and reads every line
+  * that starts within its range. Otherwise the first worker streams the whole file.
+  *
+  * Lines are framed here rather than by a single parser or MappingIterator over the stream:
+  * a blank line must still produce a tuple, a malformed line must be skipped without losing
+  * the lines after it, and a worker must stop at the end of its byte range. Only the small
+  * parser object is created per line; the factory shares its buffers and symbol table.
+  */
 class JSONLScanSourceOpExec private[json] (
     descString: String,
     idx: Int = 0,
@@ -38,45 +53,210 @@ class JSONLScanSourceOpExec private[json] (
 ) extends SourceOperatorExecutor {
   private val desc: JSONLScanSourceOpDesc =
     objectMapper.readValue(descString, classOf[JSONLScanSourceOpDesc])
-  private var rows: Iterator[String] = _
-  private var reader: BufferedReader = _
   private val schema = desc.sourceSchema()
+  private val attributeTypes: Array[AttributeType] =
+    schema.getAttributes.map(_.getType).toArray
+  private val attributeIndices: Map[String, Int] = schema.getAttributeNames.zipWithIndex.toMap
+  private val jsonFactory: JsonFactory = objectMapper.getFactory
+
+  // byte-range mode
+  private var input: InputStream = _
+  private val chunk = new Array[Byte](64 * 1024)
+  private var chunkPos = 0
+  private var chunkLen = 0
+  private var position: Long = 0L
+  private var endOffset: Long = 0L
+  private var lineBuffer = new Array[Byte](1024)
+
+  // sequential mode, used with offset/limit or non-ASCII compatible encodings
+  private var reader: BufferedReader = _
+  private var lineIndex: Long = 0L
+  private var lastLineIndex: Long = Long.MaxValue
 
   override def produceTuple(): Iterator[TupleLike] = {
-    rows.flatMap { line =>
-      Try {
-        val data = JSONToMap(objectMapper.readTree(line), desc.flatten).withDefaultValue(null)
-        val fields = schema.getAttributeNames.map { fieldName =>
-          parseField(data(fieldName), schema.getAttribute(fieldName).getType)
+    Iterator
+      .continually(nextLineParser())
+      .takeWhile(_ != null)
+      .flatMap { parser =>
+        Try {
+          try {
+            parseRow(parser)
+          } finally {
+            parser.close()
+          }
+        } match {
+          case Success(tuple) => tuple
+          case Failure(_)     => None
         }
-        TupleLike(fields: _*)
-      } match {
-        case Success(tuple) => Some(tuple)
-        case Failure(_)     => None
       }
+  }
+
+  /**
+    * Creates a parser over the next line of this worker, or returns null when there is none.
+    */
+  private def nextLineParser(): JsonParser = {
+    if (reader != null) {
+      var line = reader.readLine()
+      while (line != null && lineIndex < desc.offset.getOrElse(0)) {
+        lineIndex += 1
+        line = reader.readLine()
+      }
+      if (line == null || lineIndex >= lastLineIndex) {
+        return null
+      }
+      lineIndex += 1
+      jsonFactory.createParser(line)
+    } else if (input != null && position <= endOffset) {
+      val length = readLineBytes()
+      if (length < 0) null else jsonFactory.createParser(lineBuffer, 0, length)
+    } else {
+      null
     }
   }
 
+  /**
+    * Reads the JSON value of a line into a tuple of the schema's attributes.
+    * A blank line produces a tuple whose fields are all null.
+    */
+  private def parseRow(parser: JsonParser): Option[TupleLike] = {
+    val values = new Array[String](attributeTypes.length)
+    val token = parser.nextToken()
+    if (token != null) {
+      extractValue(parser, token, "", values)
+    }
+    val fields = new Array[Any](attributeTypes.length)
+    var i = 0
+    while (i < fields.length) {
+      fields(i) = parseField(values(i), attributeTypes(i))
+      i += 1
+    }
+    Some(TupleLike(fields))
+  }
+
+  /**
+    * Walks the value the parser currently points to and stores the text of every scalar
+    * whose key is an attribute of the schema. Keys follow the naming of JSONUtils.JSONToMap,
+    * which is used to infer the schema: nested objects and arrays are only visited in
+    * flatten mode, as `parent.child` and `parent1`, `parent2`, ... respectively.
+    */
+  private def extractValue(
+      parser: JsonParser,
+      token: JsonToken,
+      parentName: String,
+      values: Array[String]
+  ): Unit = {
+    token match {
+      case JsonToken.START_OBJECT =>
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          val key = parser.getCurrentName
+          val absoluteKey = if (parentName.nonEmpty) parentName + "." + key else key
+          val child = parser.nextToken()
+          if (child == JsonToken.START_OBJECT || child == JsonToken.START_ARRAY) {
+            if (desc.flatten) {
+              extractValue(parser, child, absoluteKey, values)
+            } else {
+              parser.skipChildren()
+            }
+          } else {
+            attributeIndices.get(absoluteKey).foreach(i => values(i) = scalarText(parser, child))
+          }
+        }
+      case JsonToken.START_ARRAY =>
+        var i = 1
+        var child = parser.nextToken()
+        while (child != JsonToken.END_ARRAY) {
+          if (child == JsonToken.START_OBJECT || child == JsonToken.START_ARRAY) {
+            extractValue(parser, child, parentName + i, values)
+          }
+          // scalars directly inside arrays carry no key and are ignored
+          i += 1
+          child = parser.nextToken()
+        }
+      case _ =>
+      // a scalar at the root carries no key
+    }
+  }
+
+  /**
+    * Returns the same text as JsonNode.asText would for the scalar the parser points to.
+    */
+  private def scalarText(parser: JsonParser, token: JsonToken): String = {
+    token match {
+      case JsonToken.VALUE_NUMBER_FLOAT => java.lang.Double.toString(parser.getDoubleValue)
+      case JsonToken.VALUE_NULL         => "null"
+      case _                            => parser.getText
+    }
+  }
+
+  /**
+    * Reads the next line of the byte range into lineBuffer, without its line break.
+    * @return the length of the line, or -1 if the stream is exhausted.
+    */
+  private def readLineBytes(): Int = {
+    var length = 0
+    var readAny = false
+    var lineEnded = false
+    while (!lineEnded) {
+      if (chunkPos >= chunkLen) {
+        chunkLen = input.read(chunk)
+        chunkPos = 0
+        if (chunkLen <= 0) {
+          chunkLen = 0
+          return if (readAny) length else -1
+        }
+      }
+      readAny = true
+      var end = chunkPos
+      while (end < chunkLen && chunk(end) != '\n') {
+        end += 1
+      }
+      val count = end - chunkPos
+      if (lineBuffer.length < length + count) {
+        lineBuffer = Arrays.copyOf(lineBuffer, math.max(length + count, lineBuffer.length * 2))
+      }
+      System.arraycopy(chunk, chunkPos, lineBuffer, length, count)
+      length += count
+      position += count
+      chunkPos = end
+      if (end < chunkLen) {
+        // consume the line break
+        chunkPos += 1
+        position += 1
+        lineEnded = true
+      }
+    }
+    if (length > 0 && lineBuffer(length - 1) == '\r') length - 1 else length
+  }
+
   override def open(): Unit = {
-    val stream = DocumentFactory.openReadonlyDocument(new URI(desc.fileName.get)).asInputStream()
-    // count lines and partition the task to each worker
-    reader = new BufferedReader(
-      new InputStreamReader(stream, desc.fileEncoding.getCharset)
-    )
-    val offsetValue = desc.offset.getOrElse(0)
-    var lines = reader.lines().iterator().asScala.drop(offsetValue)
-    if (desc.limit.isDefined) lines = lines.take(desc.limit.get)
-    val (it1, it2) = lines.duplicate
-    val count: Int = it1.map(_ => 1).sum
-
-    val startOffset: Int = offsetValue + count / workerCount * idx
-    val endOffset: Int =
-      offsetValue + (if (idx != workerCount - 1) count / workerCount * (idx + 1)
-                     else count)
-
-    rows = it2.iterator.slice(startOffset, endOffset)
+    val document = DocumentFactory.openReadonlyDocument(new URI(desc.fileName.get))
+    val charset = desc.fileEncoding.getCharset
+    val splitByBytes = desc.offset.isEmpty && desc.limit.isEmpty &&
+      (charset == StandardCharsets.UTF_8 || charset == StandardCharsets.US_ASCII)
+
+    if (splitByBytes) {
+      // here, the stream requires to be seekable, so datasetFileDesc creates a temp file here
+      val file = document.asFile()
+      val totalBytes: Long = file.length()
+      val startOffset: Long = totalBytes / workerCount * idx
+      endOffset = if (idx != workerCount - 1) totalBytes / workerCount * (idx + 1) else totalBytes
+      val channel = FileChannel.open(file.toPath, StandardOpenOption.READ)
+      channel.position(startOffset)
+      input = Channels.newInputStream(channel)
+      position = startOffset
+      // skip line if this worker reads from middle of a file
+      if (startOffset > 0) readLineBytes()
+    } else if (idx == 0) {
+      reader = new BufferedReader(new InputStreamReader(document.asInputStream(), charset))
+      lastLineIndex = desc.limit
+        .map(limit => desc.offset.getOrElse(0).toLong + limit)
+        .getOrElse(Long.MaxValue)
+    }
   }
 
-  override def close(): Unit = reader.close()
+  override def close(): Unit = {
+    if (input != null) input.close()
+    if (reader != null) reader.close()
+  }
 
 }
@@ -19,10 +19,12 @@
 
 package edu.uci.ics.amber.operator.source.sql
 
-import com.fasterxml.jackson.annotation.{JsonProperty, JsonPropertyDescription}
+import com.fasterxml.jackson.annotation.{JsonIgnore, JsonProperty, JsonPropertyDescription}
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize
 import com.kjetland.jackson.jsonSchema.annotations.{JsonSchemaInject, JsonSchemaTitle}
 import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema}
+import edu.uci.ics.amber.core.workflow.PhysicalOp
+import edu.uci.ics.amber.operator.filter.FilterPredicate
 import edu.uci.ics.amber.operator.metadata.annotations.{
   AutofillAttributeName,
   BatchByColumn,
@@ -99,7 +101,9 @@ abstract class SQLSourceOpDesc extends SourceOperatorDescriptor {
   @JsonProperty(defaultValue = "false")
   @JsonSchemaTitle("Progressive?")
   @JsonDeserialize(contentAs = classOf[java.lang.Boolean])
-  @JsonSchemaInject(json = """{"toggleHidden" : ["batchByColumn", "min", "max", "interval"]}""")
+  @JsonSchemaInject(
+    json = """{"toggleHidden" : ["batchByColumn", "min", "max", "interval", "workers"]}"""
+  )
   var progressive: Option[Boolean] = Option(false)
 
   @JsonProperty()
@@ -125,11 +129,43 @@ abstract class SQLSourceOpDesc extends SourceOperatorDescriptor {
   @BatchByColumn
   var interval = 0L
 
+  @JsonProperty(defaultValue = "1")
+  @JsonSchemaTitle("Workers")
+  @JsonPropertyDescription("parallel connections, each reading a range of the batch column")
+  @BatchByColumn
+  var workers: Int = 1
+
+  @JsonProperty(defaultValue = "false")
+  @JsonSchemaTitle("Filter Condition?")
+  @JsonDeserialize(contentAs = classOf[java.lang.Boolean])
+  @JsonSchemaInject(json = """{"toggleHidden" : ["predicates"]}""")
+  var filterCondition: Option[Boolean] = Option(false)
+
+  @JsonProperty(value = "predicates", required = false)
+  @JsonPropertyDescription("multiple predicates in OR")
+  var filterPredicates: List[FilterPredicate] = List()
+
   override def sourceSchema(): Schema = querySchema
 
   // needs to define getters for sub classes to override Jackson Annotations
   def getKeywords: Option[String] = keywords
 
+  /**
+    * A progressive scan without limit or offset can be split into disjoint ranges of the batch
+    * by column, each read by one worker over its own connection.
+    */
+  @JsonIgnore
+  def canPartitionScan: Boolean =
+    progressive.getOrElse(false) && batchByColumn.isDefined && interval > 0L &&
+      limit.isEmpty && offset.isEmpty && workers > 1
+
+  protected def withPartitionedScan(physicalOp: PhysicalOp): PhysicalOp =
+    if (canPartitionScan) {
+      physicalOp.withParallelizable(true).withSuggestedWorkerNum(workers)
+    } else {
+      physicalOp
+    }
+
   /**
     * Establish a connection with the database server base on the info provided by the user
     * query the MetaData of the table and generate a Tuple.schema accordingly
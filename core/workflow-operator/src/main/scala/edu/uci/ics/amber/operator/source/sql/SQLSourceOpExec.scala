@@ -22,13 +22,20 @@ package edu.uci.ics.amber.operator.source.sql
 import edu.uci.ics.amber.core.executor.SourceOperatorExecutor
 import edu.uci.ics.amber.core.tuple.AttributeTypeUtils.{parseField, parseTimestamp}
 import edu.uci.ics.amber.core.tuple._
+import edu.uci.ics.amber.operator.filter.ComparisonType
 import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
 import java.sql._
 import scala.collection.mutable.ArrayBuffer
 import scala.util.control.Breaks.{break, breakable}
 
-abstract class SQLSourceOpExec(descString: String) extends SourceOperatorExecutor {
+/**
+  * Reads a table through JDBC. In progressive mode the range of the batch by column is read by
+  * a sequence of sliding window queries; with several workers, each worker `idx` of
+  * `workerCount` only reads its own disjoint part of that range.
+  */
+abstract class SQLSourceOpExec(descString: String, idx: Int = 0, workerCount: Int = 1)
+    extends SourceOperatorExecutor {
   val desc: SQLSourceOpDesc = objectMapper.readValue(descString, classOf[SQLSourceOpDesc])
   var schema: Schema = _
   var curLimit: Option[Long] = None
@@ -41,6 +48,8 @@ abstract class SQLSourceOpExec(descString: String) extends SourceOperatorExecuto
   private var curResultSet: Option[ResultSet] = None
   private var curLowerBound: Number = _
   private var upperBound: Number = _
+  // the range of a worker other than the last one excludes its upper bound
+  private var upperBoundInclusive: Boolean = true
   var cachedTuple: Option[Tuple] = None
   private var querySent: Boolean = false
 
@@ -224,9 +233,11 @@ abstract class SQLSourceOpExec(descString: String) extends SourceOperatorExecuto
       case Some(attribute) =>
         attribute.getType match {
           case AttributeType.INTEGER | AttributeType.LONG | AttributeType.TIMESTAMP =>
-            curLowerBound.longValue <= upperBound.longValue
+            if (upperBoundInclusive) curLowerBound.longValue <= upperBound.longValue
+            else curLowerBound.longValue < upperBound.longValue
           case AttributeType.DOUBLE =>
-            curLowerBound.doubleValue <= upperBound.doubleValue
+            if (upperBoundInclusive) curLowerBound.doubleValue <= upperBound.doubleValue
+            else curLowerBound.doubleValue < upperBound.doubleValue
           case AttributeType.STRING | AttributeType.ANY | AttributeType.BOOLEAN | _ =>
             throw new IllegalArgumentException("Unexpected type: " + attribute.getType)
         }
@@ -290,7 +301,7 @@ abstract class SQLSourceOpExec(descString: String) extends SourceOperatorExecuto
           " >= " + batchAttributeToString(curLowerBound) +
           " AND " + attribute.getName +
           (if (isLastBatch)
-             " <= " + batchAttributeToString(upperBound)
+             (if (upperBoundInclusive) " <= " else " < ") + batchAttributeToString(upperBound)
            else
              " < " + batchAttributeToString(nextLowerBound))
       case None =>
@@ -452,7 +463,7 @@ abstract class SQLSourceOpExec(descString: String) extends SourceOperatorExecuto
       val nextQuery = generateSqlQuery
       nextQuery match {
         case Some(query) =>
-          val preparedStatement = connection.prepareStatement(query)
+          val preparedStatement = prepareStreamingStatement(query)
           var curIndex = 1
 
           // fill up the keywords
@@ -466,6 +477,9 @@ abstract class SQLSourceOpExec(descString: String) extends SourceOperatorExecuto
             curIndex += 1
           }
 
+          // fill up the values of the filter predicates
+          curIndex = bindFilterPredicates(preparedStatement, curIndex)
+
           // fill up limit
           curLimit match {
             case Some(limit) =>
@@ -523,5 +537,116 @@ abstract class SQLSourceOpExec(descString: String) extends SourceOperatorExecuto
         s"Missing required progressive configuration, $batchByAttribute, $desc.min or $desc.max."
       )
     }
+    if (workerCount > 1) {
+      val (lower, upper, inclusive) = SQLSourceOpExec.partitionBatchColumnRange(
+        curLowerBound,
+        upperBound,
+        batchByAttribute.get.getType,
+        idx,
+        workerCount
+      )
+      curLowerBound = lower
+      upperBound = upper
+      upperBoundInclusive = inclusive
+    }
+  }
+
+  /**
+    * Prepare a query whose rows are streamed from the server in chunks of
+    * [[SQLSourceOpExec.FETCH_SIZE]] rows instead of being materialized by the driver.
+    */
+  @throws[SQLException]
+  protected def prepareStreamingStatement(query: String): PreparedStatement = {
+    val preparedStatement =
+      connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+    preparedStatement.setFetchSize(SQLSourceOpExec.FETCH_SIZE)
+    preparedStatement
+  }
+
+  /**
+    * Add the filter predicates of the descriptor, in OR, with their values as parameters to be
+    * filled by [[bindFilterPredicates]]. Attribute names are checked against the table schema.
+    */
+  protected def addFilterPredicates(queryBuilder: StringBuilder): Unit = {
+    if (desc.filterCondition.getOrElse(false) && desc.filterPredicates.nonEmpty) {
+      val conditions = desc.filterPredicates.map { predicate =>
+        val column = schema.getAttribute(predicate.attribute).getName
+        predicate.condition match {
+          case ComparisonType.IS_NULL      => column + " IS NULL"
+          case ComparisonType.IS_NOT_NULL  => column + " IS NOT NULL"
+          case ComparisonType.NOT_EQUAL_TO => column + " <> ?"
+          case condition                   => column + " " + condition.getName + " ?"
+        }
+      }
+      queryBuilder ++= conditions.mkString(" AND (", " OR ", ")")
+    }
+  }
+
+  @throws[SQLException]
+  private def bindFilterPredicates(preparedStatement: PreparedStatement, startIndex: Int): Int = {
+    var curIndex = startIndex
+    if (desc.filterCondition.getOrElse(false)) {
+      desc.filterPredicates
+        .filterNot(predicate =>
+          predicate.condition == ComparisonType.IS_NULL ||
+            predicate.condition == ComparisonType.IS_NOT_NULL
+        )
+        .foreach { predicate =>
+          val value = predicate.value
+          schema.getAttribute(predicate.attribute).getType match {
+            case AttributeType.INTEGER | AttributeType.DOUBLE =>
+              preparedStatement.setDouble(curIndex, value.trim.toDouble)
+            case AttributeType.LONG =>
+              preparedStatement.setLong(curIndex, value.trim.toLong)
+            case AttributeType.TIMESTAMP =>
+              preparedStatement.setTimestamp(curIndex, parseTimestamp(value.trim))
+            case AttributeType.BOOLEAN =>
+              preparedStatement.setBoolean(curIndex, value.trim.toBoolean)
+            case _ =>
+              preparedStatement.setString(curIndex, value)
+          }
+          curIndex += 1
+        }
+    }
+    curIndex
+  }
+}
+
+object SQLSourceOpExec {
+
+  /** Number of rows the driver fetches from the server at a time. */
+  val FETCH_SIZE = 10000
+
+  /**
+    * The part of the batch by column range [lowerBound, upperBound] read by worker `idx` of
+    * `workerCount`. The range is split into `workerCount` equal parts; all but the last one
+    * exclude their upper bound.
+    *
+    * @return the lower bound, the upper bound, and whether the upper bound is inclusive.
+    */
+  def partitionBatchColumnRange(
+      lowerBound: Number,
+      upperBound: Number,
+      attributeType: AttributeType,
+      idx: Int,
+      workerCount: Int
+  ): (Number, Number, Boolean) = {
+    val isLastWorker = idx == workerCount - 1
+    attributeType match {
+      case AttributeType.DOUBLE =>
+        val lower = lowerBound.doubleValue
+        val span = upperBound.doubleValue - lower
+        val partLowerBound: Number = lower + span * idx / workerCount
+        val partUpperBound: Number =
+          if (isLastWorker) upperBound else lower + span * (idx + 1) / workerCount
+        (partLowerBound, partUpperBound, isLastWorker)
+      case _ =>
+        val lower = BigInt(lowerBound.longValue)
+        val span = BigInt(upperBound.longValue) - lower
+        val partLowerBound: Number = (lower + span * idx / workerCount).toLong
+        val partUpperBound: Number =
+          if (isLastWorker) upperBound else (lower + span * (idx + 1) / workerCount).toLong
+        (partLowerBound, partUpperBound, isLastWorker)
+    }
   }
 }
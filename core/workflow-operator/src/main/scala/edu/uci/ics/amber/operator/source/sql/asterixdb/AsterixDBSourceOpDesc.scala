@@ -31,7 +31,6 @@ import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema}
 import edu.uci.ics.amber.core.workflow.{PhysicalOp, SchemaPropagationFunc}
 import edu.uci.ics.amber.core.virtualidentity.{ExecutionIdentity, WorkflowIdentity}
 import edu.uci.ics.amber.core.workflow.OutputPort
-import edu.uci.ics.amber.operator.filter.FilterPredicate
 import edu.uci.ics.amber.operator.metadata.annotations.{
   AutofillAttributeName,
   AutofillAttributeNameList,
@@ -89,16 +88,6 @@ class AsterixDBSourceOpDesc extends SQLSourceOpDesc {
   @JsonSchemaInject(json = UIWidget.UIWidgetTextArea)
   var regex: Option[String] = None
 
-  @JsonProperty(defaultValue = "false")
-  @JsonSchemaTitle("Filter Condition?")
-  @JsonDeserialize(contentAs = classOf[java.lang.Boolean])
-  @JsonSchemaInject(json = """{"toggleHidden" : ["predicates"]}""")
-  var filterCondition: Option[Boolean] = Option(false)
-
-  @JsonProperty(value = "predicates", required = false)
-  @JsonPropertyDescription("multiple predicates in OR")
-  var filterPredicates: List[FilterPredicate] = List()
-
   @JsonProperty()
   @JsonSchemaTitle("Keywords to Search")
   @JsonDeserialize(contentAs = classOf[java.lang.String])
@@ -36,21 +36,23 @@ class MySQLSourceOpDesc extends SQLSourceOpDesc {
       workflowId: WorkflowIdentity,
       executionId: ExecutionIdentity
   ): PhysicalOp =
-    PhysicalOp
-      .sourcePhysicalOp(
-        workflowId,
-        executionId,
-        this.operatorIdentifier,
-        OpExecWithClassName(
-          "edu.uci.ics.amber.operator.source.sql.mysql.MySQLSourceOpExec",
-          objectMapper.writeValueAsString(this)
+    withPartitionedScan(
+      PhysicalOp
+        .sourcePhysicalOp(
+          workflowId,
+          executionId,
+          this.operatorIdentifier,
+          OpExecWithClassName(
+            "edu.uci.ics.amber.operator.source.sql.mysql.MySQLSourceOpExec",
+            objectMapper.writeValueAsString(this)
+          )
         )
-      )
-      .withInputPorts(operatorInfo.inputPorts)
-      .withOutputPorts(operatorInfo.outputPorts)
-      .withPropagateSchema(
-        SchemaPropagationFunc(_ => Map(operatorInfo.outputPorts.head.id -> sourceSchema()))
-      )
+        .withInputPorts(operatorInfo.inputPorts)
+        .withOutputPorts(operatorInfo.outputPorts)
+        .withPropagateSchema(
+          SchemaPropagationFunc(_ => Map(operatorInfo.outputPorts.head.id -> sourceSchema()))
+        )
+    )
 
   override def operatorInfo: OperatorInfo =
     OperatorInfo(
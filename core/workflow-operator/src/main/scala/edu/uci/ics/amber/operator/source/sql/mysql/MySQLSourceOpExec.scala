@@ -27,8 +27,10 @@ import edu.uci.ics.amber.util.JSONUtils.objectMapper
 import java.sql._
 
 class MySQLSourceOpExec private[mysql] (
-    descString: String
-) extends SQLSourceOpExec(descString) {
+    descString: String,
+    idx: Int = 0,
+    workerCount: Int = 1
+) extends SQLSourceOpExec(descString, idx, workerCount) {
   override val desc: MySQLSourceOpDesc =
     objectMapper.readValue(descString, classOf[MySQLSourceOpDesc])
   schema = desc.sourceSchema()
@@ -53,6 +55,18 @@ class MySQLSourceOpExec private[mysql] (
       else
         throw new RuntimeException("Can't do keyword search on type " + columnType.toString)
     }
+    addFilterPredicates(queryBuilder)
+  }
+
+  /**
+    * MySQL Connector/J only streams a result set row by row when the fetch size is
+    * Integer.MIN_VALUE; any other value materializes the whole result set.
+    */
+  @throws[SQLException]
+  override protected def prepareStreamingStatement(query: String): PreparedStatement = {
+    val preparedStatement = super.prepareStreamingStatement(query)
+    preparedStatement.setFetchSize(Integer.MIN_VALUE)
+    preparedStatement
   }
 
   @throws[SQLException]
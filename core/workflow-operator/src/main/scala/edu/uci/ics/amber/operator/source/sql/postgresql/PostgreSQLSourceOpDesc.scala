@@ -49,21 +49,23 @@ class PostgreSQLSourceOpDesc extends SQLSourceOpDesc {
       workflowId: WorkflowIdentity,
       executionId: ExecutionIdentity
   ): PhysicalOp =
-    PhysicalOp
-      .sourcePhysicalOp(
-        workflowId,
-        executionId,
-        operatorIdentifier,
-        OpExecWithClassName(
-          "edu.uci.ics.amber.operator.source.sql.postgresql.PostgreSQLSourceOpExec",
-          objectMapper.writeValueAsString(this)
+    withPartitionedScan(
+      PhysicalOp
+        .sourcePhysicalOp(
+          workflowId,
+          executionId,
+          operatorIdentifier,
+          OpExecWithClassName(
+            "edu.uci.ics.amber.operator.source.sql.postgresql.PostgreSQLSourceOpExec",
+            objectMapper.writeValueAsString(this)
+          )
         )
-      )
-      .withInputPorts(operatorInfo.inputPorts)
-      .withOutputPorts(operatorInfo.outputPorts)
-      .withPropagateSchema(
-        SchemaPropagationFunc(_ => Map(operatorInfo.outputPorts.head.id -> sourceSchema()))
-      )
+        .withInputPorts(operatorInfo.inputPorts)
+        .withOutputPorts(operatorInfo.outputPorts)
+        .withPropagateSchema(
+          SchemaPropagationFunc(_ => Map(operatorInfo.outputPorts.head.id -> sourceSchema()))
+        )
+    )
 
   override def operatorInfo: OperatorInfo =
     OperatorInfo(
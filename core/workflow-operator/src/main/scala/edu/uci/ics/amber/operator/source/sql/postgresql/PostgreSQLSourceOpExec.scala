@@ -26,17 +26,27 @@ import edu.uci.ics.amber.util.JSONUtils.objectMapper
 
 import java.sql._
 
-class PostgreSQLSourceOpExec private[postgresql] (descString: String)
-    extends SQLSourceOpExec(descString) {
+class PostgreSQLSourceOpExec private[postgresql] (
+    descString: String,
+    idx: Int = 0,
+    workerCount: Int = 1
+) extends SQLSourceOpExec(descString, idx, workerCount) {
   override val desc: PostgreSQLSourceOpDesc =
     objectMapper.readValue(descString, classOf[PostgreSQLSourceOpDesc])
   schema = desc.sourceSchema()
   val FETCH_TABLE_NAMES_SQL =
     "SELECT table_name FROM information_schema.tables WHERE table_type='BASE TABLE';"
 
+  /**
+    * The PostgreSQL driver only fetches rows with a cursor, as requested by the fetch size,
+    * inside a transaction, so auto-commit is turned off for this read-only connection.
+    */
   @throws[SQLException]
-  override def establishConn(): Connection =
-    connect(desc.host, desc.port, desc.database, desc.username, desc.password)
+  override def establishConn(): Connection = {
+    val connection = connect(desc.host, desc.port, desc.database, desc.username, desc.password)
+    connection.setAutoCommit(false)
+    connection
+  }
 
   @throws[RuntimeException]
   override def addFilterConditions(queryBuilder: StringBuilder): Unit = {
@@ -56,6 +66,7 @@ class PostgreSQLSourceOpExec private[postgresql] (descString: String)
       } else
         throw new RuntimeException("Can't do keyword search on type " + columnType.toString)
     }
+    addFilterPredicates(queryBuilder)
   }
 
   @throws[SQLException]
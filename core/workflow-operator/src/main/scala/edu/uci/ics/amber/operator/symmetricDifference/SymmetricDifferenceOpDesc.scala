@@ -65,8 +65,11 @@ class SymmetricDifferenceOpDesc extends LogicalOp {
       "SymmetricDifference",
       "find the symmetric difference (the set of elements which are in either of the sets, but not in their intersection) of two inputs",
       OperatorGroupConstants.SET_GROUP,
-      inputPorts = List(InputPort(PortIdentity(0)), InputPort(PortIdentity(1))),
-      outputPorts = List(OutputPort(blocking = true))
+      inputPorts = List(
+        InputPort(PortIdentity(0), displayName = "left", dependencies = List(PortIdentity(1))),
+        InputPort(PortIdentity(1), displayName = "right")
+      ),
+      outputPorts = List(OutputPort())
     )
 
 }
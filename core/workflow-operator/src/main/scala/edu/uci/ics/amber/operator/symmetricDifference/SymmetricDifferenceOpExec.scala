@@ -19,40 +19,15 @@
 
 package edu.uci.ics.amber.operator.symmetricDifference
 
-import edu.uci.ics.amber.core.executor.OperatorExecutor
-import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
-import scala.collection.mutable
+import edu.uci.ics.amber.operator.util.HashSetOpExec
 
-class SymmetricDifferenceOpExec extends OperatorExecutor {
-  private var leftSet: mutable.HashSet[Tuple] = _
-  private var rightSet: mutable.HashSet[Tuple] = _
-  private var exhaustedCounter: Int = _
+/**
+  * Emits the distinct left tuples that are not in the right input as the left input streams in,
+  * followed by the distinct right tuples that are not in the left input once it ends.
+  */
+class SymmetricDifferenceOpExec extends HashSetOpExec {
 
-  override def open(): Unit = {
-    leftSet = new mutable.HashSet[Tuple]()
-    rightSet = new mutable.HashSet[Tuple]()
-    exhaustedCounter = 0
-  }
+  override protected def emitsProbeTuple(inBuild: Boolean): Boolean = !inBuild
 
-  override def close(): Unit = {
-    leftSet.clear()
-    rightSet.clear()
-  }
-
-  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] = {
-    // add the tuple to corresponding set
-    if (port == 0) leftSet += tuple else rightSet += tuple
-    Iterator()
-  }
-
-  override def onFinish(port: Int): Iterator[TupleLike] = {
-    exhaustedCounter += 1
-    if (2 == exhaustedCounter) {
-      // both streams are exhausted, take the intersect and return the results
-      leftSet.union(rightSet).diff(leftSet.intersect(rightSet)).iterator
-    } else {
-      // only one of the stream is exhausted, continue accepting tuples
-      Iterator()
-    }
-  }
+  override protected def emitsUnmatchedBuildTuples: Boolean = true
 }
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.util
+
+import com.google.common.hash.{Hasher, Hashing}
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple}
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.sql.Timestamp
+
+/**
+  * A set of tuples that stores only a 128-bit fingerprint of each tuple in a primitive
+  * open-addressing table, taking 16 bytes per entry instead of the boxed tuple. Two distinct
+  * tuples are considered equal only if their fingerprints collide, which is negligible in
+  * practice but not impossible.
+  *
+  * Only tuples whose schema is [[FingerprintSet.supports supported]] can be fingerprinted.
+  */
+class FingerprintSet {
+  private var highs: Array[Long] = new Array[Long](FingerprintSet.INITIAL_CAPACITY)
+  private var lows: Array[Long] = new Array[Long](FingerprintSet.INITIAL_CAPACITY)
+  private var count: Int = 0
+
+  def size: Int = count
+
+  def sizeInBytes: Long = highs.length.toLong * 16
+
+  /**
+    * Adds the fingerprint of the tuple and returns whether it was not already present.
+    */
+  def add(tuple: Tuple): Boolean = {
+    val hash = FingerprintSet.fingerprint(tuple)
+    val slot = find(hash(0), hash(1))
+    if (highs(slot) == 0 && lows(slot) == 0) {
+      highs(slot) = hash(0)
+      lows(slot) = hash(1)
+      count += 1
+      if (count * 2 > highs.length) {
+        grow()
+      }
+      true
+    } else {
+      false
+    }
+  }
+
+  def contains(tuple: Tuple): Boolean = {
+    val hash = FingerprintSet.fingerprint(tuple)
+    val slot = find(hash(0), hash(1))
+    highs(slot) != 0 || lows(slot) != 0
+  }
+
+  /**
+    * The slot holding the fingerprint, or the empty slot where it would be inserted.
+    */
+  private def find(high: Long, low: Long): Int = {
+    val mask = highs.length - 1
+    var slot = (low ^ (low >>> 32)).toInt & mask
+    while ((highs(slot) != 0 || lows(slot) != 0) && (highs(slot) != high || lows(slot) != low)) {
+      slot = (slot + 1) & mask
+    }
+    slot
+  }
+
+  private def grow(): Unit = {
+    val oldHighs = highs
+    val oldLows = lows
+    highs = new Array[Long](oldHighs.length * 2)
+    lows = new Array[Long](oldLows.length * 2)
+    var i = 0
+    while (i < oldHighs.length) {
+      if (oldHighs(i) != 0 || oldLows(i) != 0) {
+        val slot = find(oldHighs(i), oldLows(i))
+        highs(slot) = oldHighs(i)
+        lows(slot) = oldLows(i)
+      }
+      i += 1
+    }
+  }
+}
+
+object FingerprintSet {
+  private val INITIAL_CAPACITY = 1024
+
+  /**
+    * Whether tuples of the schema can be fingerprinted. Values of ANY columns have no stable
+    * byte encoding, so tuples holding them must be compared in full instead.
+    */
+  def supports(schema: Schema): Boolean =
+    !schema.getAttributes.exists(_.getType == AttributeType.ANY)
+
+  /**
+    * The 128-bit murmur3 hash of the tuple's fields as two longs, never both zero. Each field
+    * is prefixed with a marker so that null and empty values, and values of adjacent fields,
+    * cannot run into each other.
+    */
+  def fingerprint(tuple: Tuple): Array[Long] = {
+    val hasher = Hashing.murmur3_128().newHasher()
+    tuple.getFields.foreach(putField(hasher, _))
+    val hash = ByteBuffer.wrap(hasher.hash().asBytes())
+    val high = hash.getLong(0)
+    val low = hash.getLong(8)
+    // (0, 0) marks an empty slot in the table
+    Array(high, if (high == 0 && low == 0) 1L else low)
+  }
+
+  private def putField(hasher: Hasher, field: Any): Unit =
+    field match {
+      case null => hasher.putByte(0)
+      case value: String =>
+        val bytes = value.getBytes(StandardCharsets.UTF_8)
+        hasher.putByte(1).putInt(bytes.length).putBytes(bytes)
+      case value: Integer           => hasher.putByte(2).putInt(value)
+      case value: java.lang.Long    => hasher.putByte(3).putLong(value)
+      case value: java.lang.Double  => hasher.putByte(4).putDouble(value)
+      case value: java.lang.Boolean => hasher.putByte(5).putBoolean(value)
+      case value: Array[Byte]       => hasher.putByte(7).putInt(value.length).putBytes(value)
+      case value: Timestamp =>
+        hasher.putByte(6).putLong(value.getTime).putInt(value.getNanos)
+      case value =>
+        throw new IllegalArgumentException(
+          s"cannot fingerprint a value of type ${value.getClass.getName}"
+        )
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.util
+
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.config.ApplicationConfig
+import edu.uci.ics.amber.core.executor.OperatorExecutor
+import edu.uci.ics.amber.core.tuple.{Tuple, TupleLike}
+
+import scala.collection.mutable
+
+/**
+  * Base of the set operators over a left and a right input of the same schema. The right input
+  * is the build side: its port is a dependee of the left port, so it is fully loaded into a hash
+  * table before the left input streams through and is emitted incrementally. The table maps
+  * each distinct tuple to whether an equal tuple has been seen on the left.
+  *
+  * The table is kept in memory until its estimated size exceeds the operator spill budget.
+  * If that happens while building, the operator works like a grace hash join: the build tuples
+  * and all left tuples are hash partitioned into spill files, and each pair of partitions is
+  * processed in memory after the left input ends. If it happens while remembering left tuples,
+  * the table stops growing; left tuples it does not contain are partitioned into spill files
+  * and deduplicated per partition at the end. A partition whose tuples still exceed the budget
+  * is split again before it is loaded, unless all of its tuples are equal.
+  */
+abstract class HashSetOpExec extends OperatorExecutor with LazyLogging {
+  private[operator] var memoryBudget: Long = ApplicationConfig.operatorSpillMemoryBudgetInBytes
+
+  private var table: mutable.HashMap[Tuple, Boolean] = _
+  private var tableBytes: Long = 0L
+  // the table stops growing once it exceeds the budget while probing
+  private var tableFrozen: Boolean = false
+  private var buildPartitions: TupleSpillPartitions = _
+  private var probePartitions: TupleSpillPartitions = _
+
+  /**
+    * Whether the first occurrence of a left tuple is emitted, given whether it is in the right
+    * input. Later occurrences of the same tuple are never emitted.
+    */
+  protected def emitsProbeTuple(inBuild: Boolean): Boolean
+
+  /**
+    * Whether the right tuples that no left tuple matched are emitted after the left input ends.
+    */
+  protected def emitsUnmatchedBuildTuples: Boolean
+
+  def isSpilling: Boolean = buildPartitions != null || probePartitions != null
+
+  override def spilledBytes: Long =
+    Iterator(buildPartitions, probePartitions).filter(_ != null).map(_.sizeInBytes).sum
+
+  override def open(): Unit = {
+    table = new mutable.HashMap[Tuple, Boolean]()
+    tableBytes = 0L
+    tableFrozen = false
+  }
+
+  override def close(): Unit = {
+    table.clear()
+    Iterator(buildPartitions, probePartitions).filter(_ != null).foreach(_.delete())
+    buildPartitions = null
+    probePartitions = null
+  }
+
+  override def processTuple(tuple: Tuple, port: Int): Iterator[TupleLike] =
+    if (port == 1) {
+      build(tuple)
+      Iterator.empty
+    } else if (buildPartitions != null) {
+      spillProbeTuple(tuple)
+      Iterator.empty
+    } else {
+      probe(tuple, table, canSpill = true)
+    }
+
+  override def onFinish(port: Int): Iterator[TupleLike] =
+    if (port == 0) {
+      val inMemory = if (buildPartitions == null) unmatchedBuildTuples(table) else Iterator.empty
+      if (isSpilling) {
+        logger.info(s"Set operator spilled $spilledBytes bytes, processing partitions from disk")
+        inMemory ++ TupleSpillPartitions.flatMapPartitions(
+          Seq(
+            TupleSpillPartitions.Side(buildPartitions, identity, loaded = true),
+            TupleSpillPartitions.Side(probePartitions, identity, loaded = true)
+          ),
+          memoryBudget
+        ) {
+          case Seq(buildTuples, probeTuples) => processPartition(buildTuples, probeTuples)
+        }
+      } else {
+        inMemory
+      }
+    } else {
+      Iterator.empty
+    }
+
+  private def build(tuple: Tuple): Unit = {
+    if (buildPartitions != null) {
+      buildPartitions.write(tuple, tuple)
+    } else if (!table.contains(tuple)) {
+      table.put(tuple, false)
+      tableBytes += tuple.inMemSize
+      if (tableBytes > memoryBudget) {
+        logger.info(
+          s"Set operator build table reached $tableBytes bytes, " +
+            s"exceeding the budget of $memoryBudget bytes; switching to partitioned spilling"
+        )
+        buildPartitions = new TupleSpillPartitions(tuple.getSchema)
+        table.keysIterator.foreach(t => buildPartitions.write(t, t))
+        table.clear()
+        tableBytes = 0L
+      }
+    }
+  }
+
+  private def probe(
+      tuple: Tuple,
+      hashMap: mutable.HashMap[Tuple, Boolean],
+      canSpill: Boolean
+  ): Iterator[TupleLike] = {
+    val emit = hashMap.get(tuple) match {
+      case Some(seenOnLeft) =>
+        if (!seenOnLeft) {
+          hashMap.put(tuple, true)
+        }
+        !seenOnLeft && emitsProbeTuple(inBuild = true)
+      case None if canSpill && tableFrozen =>
+        spillProbeTuple(tuple)
+        false
+      case None =>
+        val emitted = emitsProbeTuple(inBuild = false)
+        // emitted tuples are remembered as seen to drop their duplicates later
+        if (emitted) {
+          hashMap.put(tuple, true)
+          if (canSpill) {
+            tableBytes += tuple.inMemSize
+            if (tableBytes > memoryBudget) {
+              logger.info(
+                s"Set operator table reached $tableBytes bytes, exceeding the budget of " +
+                  s"$memoryBudget bytes; spilling left tuples it does not contain"
+              )
+              tableFrozen = true
+            }
+          }
+        }
+        emitted
+    }
+    if (emit) Iterator.single(tuple) else Iterator.empty
+  }
+
+  private def spillProbeTuple(tuple: Tuple): Unit = {
+    if (probePartitions == null) {
+      probePartitions = new TupleSpillPartitions(tuple.getSchema)
+    }
+    probePartitions.write(tuple, tuple)
+  }
+
+  /**
+    * Processes the spilled left tuples of a partition against the spilled right tuples of the
+    * same partition, which are empty if the right input was kept in memory.
+    */
+  private def processPartition(
+      buildTuples: Iterator[Tuple],
+      probeTuples: Iterator[Tuple]
+  ): Iterator[TupleLike] = {
+    val hashMap = new mutable.HashMap[Tuple, Boolean]()
+    buildTuples.foreach(hashMap.put(_, false))
+    // the unmatched build tuples are only known after the probe partition is exhausted,
+    // which the by-name argument of ++ guarantees
+    probeTuples.flatMap(probe(_, hashMap, canSpill = false)) ++ unmatchedBuildTuples(hashMap)
+  }
+
+  private def unmatchedBuildTuples(hashMap: mutable.HashMap[Tuple, Boolean]): Iterator[Tuple] =
+    if (emitsUnmatchedBuildTuples) {
+      hashMap.iterator.collect { case (tuple, seenOnLeft) if !seenOnLeft => tuple }
+    } else {
+      Iterator.empty
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.util
+
+import com.google.common.io.CountingOutputStream
+import edu.uci.ics.amber.config.ApplicationConfig
+import edu.uci.ics.amber.core.tuple.{AttributeType, Schema, Tuple}
+
+import java.io._
+import java.nio.file.{Files, Path}
+import java.sql.Timestamp
+import scala.collection.mutable
+
+/**
+  * An append-only temporary file of tuples sharing one schema, used by operators to spill
+  * state that exceeds their memory budget. Values are written in a compact binary layout
+  * following the schema; the schema itself is kept in memory and not written to the file.
+  *
+  * The file is written first and then read back any number of times through [[iterator]].
+  * A reader closes its stream once exhausted or closed; [[delete]] closes the readers that are
+  * still open, so a consumer that stops early does not leak a file handle past the operator's
+  * cleanup.
+  */
+class TupleSpillFile(val schema: Schema) {
+  private val attributeTypes: Array[AttributeType] = schema.getAttributes.map(_.getType).toArray
+
+  val path: Path = ApplicationConfig.operatorSpillDirectory match {
+    case Some(directory) =>
+      Files.createDirectories(directory)
+      Files.createTempFile(directory, "texera-spill-", ".bin")
+    case None => Files.createTempFile("texera-spill-", ".bin")
+  }
+
+  private val countingStream = new CountingOutputStream(
+    new BufferedOutputStream(Files.newOutputStream(path), TupleSpillFile.BUFFER_SIZE)
+  )
+  private var output: DataOutputStream = new DataOutputStream(countingStream)
+  private var count: Long = 0L
+  // readers that are neither exhausted nor closed yet
+  private val openReaders = mutable.Set[Reader]()
+
+  def tupleCount: Long = count
+
+  def sizeInBytes: Long = countingStream.getCount
+
+  def write(tuple: Tuple): Unit = {
+    val fields = tuple.getFields
+    var i = 0
+    while (i < attributeTypes.length) {
+      TupleSpillFile.writeField(output, attributeTypes(i), fields(i))
+      i += 1
+    }
+    count += 1
+  }
+
+  /**
+    * Finishes writing and returns an iterator over all tuples in the order they were written.
+    */
+  def iterator: Iterator[Tuple] with AutoCloseable = {
+    closeOutput()
+    val reader = new Reader
+    openReaders += reader
+    reader
+  }
+
+  private class Reader extends Iterator[Tuple] with AutoCloseable {
+    private val input = new DataInputStream(
+      new BufferedInputStream(Files.newInputStream(path), TupleSpillFile.BUFFER_SIZE)
+    )
+    private var remaining = count
+
+    override def hasNext: Boolean = {
+      if (remaining == 0) {
+        close()
+      }
+      remaining > 0
+    }
+
+    override def next(): Tuple = {
+      val fields = new Array[Any](attributeTypes.length)
+      var i = 0
+      while (i < attributeTypes.length) {
+        fields(i) = TupleSpillFile.readField(input, attributeTypes(i))
+        i += 1
+      }
+      remaining -= 1
+      Tuple(schema, fields)
+    }
+
+    override def close(): Unit = {
+      remaining = 0
+      if (openReaders.remove(this)) {
+        input.close()
+      }
+    }
+  }
+
+  private def closeOutput(): Unit = {
+    if (output != null) {
+      output.close()
+      output = null
+    }
+  }
+
+  def delete(): Unit = {
+    closeOutput()
+    openReaders.toList.foreach(_.close())
+    Files.deleteIfExists(path)
+  }
+}
+
+object TupleSpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+
+  private def writeField(
+      output: DataOutputStream,
+      attributeType: AttributeType,
+      field: Any
+  ): Unit = {
+    if (field == null) {
+      output.writeBoolean(false)
+      return
+    }
+    output.writeBoolean(true)
+    attributeType match {
+      case AttributeType.INTEGER   => output.writeInt(field.asInstanceOf[Integer])
+      case AttributeType.LONG      => output.writeLong(field.asInstanceOf[java.lang.Long])
+      case AttributeType.DOUBLE    => output.writeDouble(field.asInstanceOf[java.lang.Double])
+      case AttributeType.BOOLEAN   => output.writeBoolean(field.asInstanceOf[java.lang.Boolean])
+      case AttributeType.TIMESTAMP =>
+        val timestamp = field.asInstanceOf[Timestamp]
+        output.writeLong(timestamp.getTime)
+        output.writeInt(timestamp.getNanos)
+      case AttributeType.STRING    =>
+        // writeUTF is limited to 64KB, so strings are written as length-prefixed UTF-8 bytes
+        writeBytes(output, field.asInstanceOf[String].getBytes("UTF-8"))
+      case AttributeType.BINARY => writeBytes(output, field.asInstanceOf[Array[Byte]])
+      case _ =>
+        val bytes = new ByteArrayOutputStream()
+        val objectOutput = new ObjectOutputStream(bytes)
+        objectOutput.writeObject(field)
+        objectOutput.close()
+        writeBytes(output, bytes.toByteArray)
+    }
+  }
+
+  private def writeBytes(output: DataOutputStream, bytes: Array[Byte]): Unit = {
+    output.writeInt(bytes.length)
+    output.write(bytes)
+  }
+
+  private def readField(input: DataInputStream, attributeType: AttributeType): Any = {
+    if (!input.readBoolean()) {
+      return null
+    }
+    attributeType match {
+      case AttributeType.INTEGER   => input.readInt()
+      case AttributeType.LONG      => input.readLong()
+      case AttributeType.DOUBLE    => input.readDouble()
+      case AttributeType.BOOLEAN   => input.readBoolean()
+      case AttributeType.TIMESTAMP =>
+        val timestamp = new Timestamp(input.readLong())
+        timestamp.setNanos(input.readInt())
+        timestamp
+      case AttributeType.STRING    => new String(readBytes(input), "UTF-8")
+      case AttributeType.BINARY    => readBytes(input)
+      case _ =>
+        val objectInput = new ObjectInputStream(new ByteArrayInputStream(readBytes(input)))
+        try objectInput.readObject()
+        finally objectInput.close()
+    }
+  }
+
+  private def readBytes(input: DataInputStream): Array[Byte] = {
+    val bytes = new Array[Byte](input.readInt())
+    input.readFully(bytes)
+    bytes
+  }
+}
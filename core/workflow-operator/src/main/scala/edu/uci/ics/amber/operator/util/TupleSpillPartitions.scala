@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.util
+
+import com.typesafe.scalalogging.LazyLogging
+import edu.uci.ics.amber.core.tuple.{Schema, Tuple}
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.hashing.MurmurHash3
+
+/**
+  * A fixed number of [[TupleSpillFile]]s that tuples are hash partitioned into by a key, for
+  * operators that process state exceeding their memory budget one partition at a time, as in
+  * a grace hash join. Each partition also tracks the estimated in-memory size of its tuples,
+  * so that a partition still too large to be loaded can be split again with [[repartition]].
+  * Every level of partitioning hashes the keys with a different seed.
+  *
+  * Operators process their partitions through [[TupleSpillPartitions.flatMapPartitions]], which
+  * applies the memory budget to every partition in the same way.
+  */
+class TupleSpillPartitions(val schema: Schema, val level: Int = 0) {
+  private val files: Array[TupleSpillFile] =
+    Array.fill(TupleSpillPartitions.NUM_PARTITIONS)(new TupleSpillFile(schema))
+  private val inMemBytes = new Array[Long](TupleSpillPartitions.NUM_PARTITIONS)
+  // the number of tuples of the partition this one was split from, if any
+  private var parentTupleCount: Long = -1L
+  // the partitionings split from partitions of this one
+  private val splits = new ArrayBuffer[TupleSpillPartitions]()
+
+  def numPartitions: Int = files.length
+
+  def partitionOf(key: Any): Int = TupleSpillPartitions.partitionOf(key, level)
+
+  def write(key: Any, tuple: Tuple): Unit = {
+    val partition = partitionOf(key)
+    files(partition).write(tuple)
+    inMemBytes(partition) += tuple.inMemSize
+  }
+
+  /**
+    * The total number of bytes written to all partitions, including deleted ones and the ones
+    * split from them.
+    */
+  def sizeInBytes: Long =
+    files.iterator.map(_.sizeInBytes).sum + splits.iterator.map(_.sizeInBytes).sum
+
+  def tupleCount(partition: Int): Long = files(partition).tupleCount
+
+  /**
+    * The estimated in-memory size of the tuples of a partition once loaded.
+    */
+  def inMemSize(partition: Int): Long = inMemBytes(partition)
+
+  /**
+    * Whether splitting a partition again can make it smaller: it has more than one tuple,
+    * the maximum depth is not reached, and the last split did not keep all tuples together,
+    * which happens when they share one key.
+    */
+  def canRepartition(partition: Int): Boolean =
+    level < TupleSpillPartitions.MAX_LEVEL && files(partition).tupleCount > 1 &&
+      files(partition).tupleCount != parentTupleCount
+
+  /**
+    * Splits a partition into new partitions one level deeper and deletes it.
+    */
+  def repartition(partition: Int, key: Tuple => Any): TupleSpillPartitions = {
+    val split = new TupleSpillPartitions(schema, level + 1)
+    split.parentTupleCount = files(partition).tupleCount
+    files(partition).iterator.foreach(tuple => split.write(key(tuple), tuple))
+    delete(partition)
+    splits += split
+    split
+  }
+
+  def iterator(partition: Int): Iterator[Tuple] with AutoCloseable = files(partition).iterator
+
+  def delete(partition: Int): Unit = files(partition).delete()
+
+  def delete(): Unit = {
+    files.foreach(_.delete())
+    splits.foreach(_.delete())
+  }
+}
+
+object TupleSpillPartitions extends LazyLogging {
+  val NUM_PARTITIONS = 16
+  // 16^4 partitions are enough to split any input that is not dominated by a single key
+  val MAX_LEVEL = 3
+
+  private val SEED = 0x3c6ef372
+
+  def partitionOf(key: Any, level: Int): Int = {
+    val hash = if (key == null) 0 else key.##
+    Math.floorMod(MurmurHash3.finalizeHash(MurmurHash3.mix(SEED + level, hash), 1), NUM_PARTITIONS)
+  }
+
+  /**
+    * One input of an operator processing spilled state: its partitions, or null if it spilled
+    * nothing, the key its tuples are partitioned by, and whether the tuples of a partition are
+    * held in memory while the partition is processed.
+    */
+  case class Side(partitions: TupleSpillPartitions, key: Tuple => Any, loaded: Boolean)
+
+  /**
+    * Processes inputs partitioned at the same level one partition at a time, as in a grace hash
+    * join. A partition whose loaded sides together exceed the memory budget is split again on
+    * every side and processed recursively, unless none of its loaded sides can be split any
+    * further. `process` gets the tuples of the partition on each side, in the order of `sides`
+    * and empty for the sides that spilled nothing. The partition is deleted once the output of
+    * `process` for it is consumed.
+    */
+  def flatMapPartitions[T](sides: Seq[Side], memoryBudget: Long)(
+      process: Seq[Iterator[Tuple]] => Iterator[T]
+  ): Iterator[T] = {
+    val spilled = sides.filter(_.partitions != null)
+    val loaded = spilled.filter(_.loaded)
+    val partitions = if (spilled.isEmpty) Iterator.empty else Iterator.range(0, NUM_PARTITIONS)
+    partitions.flatMap { partition =>
+      val loadedBytes = loaded.iterator.map(_.partitions.inMemSize(partition)).sum
+      if (loadedBytes > memoryBudget && loaded.exists(_.partitions.canRepartition(partition))) {
+        logger.info(
+          s"Spill partition $partition at level ${spilled.head.partitions.level} holds " +
+            s"$loadedBytes bytes exceeding the budget of $memoryBudget bytes; repartitioning it"
+        )
+        val splitSides = sides.map(side =>
+          if (side.partitions == null) side
+          else side.copy(partitions = side.partitions.repartition(partition, side.key))
+        )
+        flatMapPartitions(splitSides, memoryBudget)(process)
+      } else {
+        val tuples = sides.map(side =>
+          if (side.partitions == null) Iterator.empty else side.partitions.iterator(partition)
+        )
+        // the by-name argument of ++ deletes the partition only after its output is consumed
+        process(tuples) ++ {
+          spilled.foreach(_.partitions.delete(partition))
+          Iterator.empty
+        }
+      }
+    }
+  }
+}
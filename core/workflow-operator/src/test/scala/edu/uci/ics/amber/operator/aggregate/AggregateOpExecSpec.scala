@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.aggregate
+
+import edu.uci.ics.amber.core.tuple._
+import edu.uci.ics.amber.core.workflow.PortIdentity
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
+import org.scalatest.flatspec.AnyFlatSpec
+
+class AggregateOpExecSpec extends AnyFlatSpec {
+  val inputSchema: Schema = Schema()
+    .add(new Attribute("group", AttributeType.LONG))
+    .add(new Attribute("value", AttributeType.INTEGER))
+    .add(new Attribute("score", AttributeType.DOUBLE))
+
+  def tuple(group: java.lang.Long, value: Integer, score: java.lang.Double): Tuple =
+    Tuple.builder(inputSchema).addSequentially(Array[Any](group, value, score)).build()
+
+  def aggregation(
+      function: AggregationFunction,
+      attribute: String,
+      result: String
+  ): AggregationOperation = {
+    val operation = new AggregationOperation()
+    operation.aggFunction = function
+    operation.attribute = attribute
+    operation.resultAttribute = result
+    operation
+  }
+
+  def opDesc(groupByKeys: List[String]): AggregateOpDesc = {
+    val desc = new AggregateOpDesc()
+    desc.groupByKeys = groupByKeys
+    desc.aggregations = List(
+      aggregation(AggregationFunction.SUM, "value", "sum"),
+      aggregation(AggregationFunction.COUNT, "value", "count"),
+      aggregation(AggregationFunction.AVERAGE, "value", "avg"),
+      aggregation(AggregationFunction.MIN, "score", "min"),
+      aggregation(AggregationFunction.MAX, "score", "max")
+    )
+    desc
+  }
+
+  def run(desc: AggregateOpDesc, input: Seq[Tuple]): List[Tuple] = {
+    // serialize first, as building the physical plan turns the aggregations into final ones
+    val opExec = new AggregateOpExec(objectMapper.writeValueAsString(desc))
+    val outputSchema =
+      desc.getExternalOutputSchemas(Map(PortIdentity() -> inputSchema)).values.head
+    opExec.open()
+    assert(opExec.processBatch(input.toArray, 0).isEmpty)
+    val output = opExec
+      .onFinish(0)
+      .map(_.asInstanceOf[SchemaEnforceable].enforceSchema(outputSchema))
+      .toList
+    opExec.close()
+    output
+  }
+
+  it should "aggregate many primitive groups including a null group" in {
+    val input = (0 until 1000).flatMap(i =>
+      Seq(tuple(i.toLong, i, -i.toDouble), tuple(i.toLong, null, null), tuple(i.toLong, 1, 0.5))
+    ) ++ Seq(tuple(null, 7, null))
+    val results = run(opDesc(List("group")), input)
+      .map(t => t.getField[java.lang.Long]("group") -> t)
+      .toMap
+
+    assert(results.size == 1001)
+    val group10 = results(10L)
+    assert(group10.getField[Integer]("sum") == 11)
+    assert(group10.getField[Integer]("count") == 2)
+    assert(group10.getField[java.lang.Double]("avg") == 5.5)
+    assert(group10.getField[java.lang.Double]("min") == -10.0)
+    assert(group10.getField[java.lang.Double]("max") == 0.5)
+
+    val nullGroup = results(null)
+    assert(nullGroup.getField[Integer]("sum") == 7)
+    assert(nullGroup.getField[java.lang.Double]("min") == null)
+    assert(nullGroup.getField[java.lang.Double]("max") == null)
+  }
+
+  it should "aggregate all tuples into one group without group keys" in {
+    val results = run(opDesc(List()), Seq(tuple(1L, 2, -3.0), tuple(2L, 4, -1.0)))
+    assert(results.size == 1)
+    assert(results.head.getField[Integer]("sum") == 6)
+    assert(results.head.getField[java.lang.Double]("max") == -1.0)
+  }
+
+  it should "flush partial results past the memory budget and merge them in the final stage" in {
+    val desc = new AggregateOpDesc()
+    desc.groupByKeys = List("group")
+    desc.aggregations = List(
+      aggregation(AggregationFunction.SUM, "value", "sum"),
+      aggregation(AggregationFunction.COUNT, "value", "count"),
+      aggregation(AggregationFunction.MIN, "score", "min"),
+      aggregation(AggregationFunction.MAX, "score", "max")
+    )
+    val partialDesc = objectMapper.writeValueAsString(desc)
+    val input = (0 until 1000).map(i => tuple((i % 100).toLong, i, i.toDouble))
+    val expected = run(desc, input).map(_.getFields.toList).toSet
+
+    val partialExec = new PartialAggregateOpExec(partialDesc)
+    // about 20 groups fit into the budget
+    partialExec.memoryBudget = input.head.inMemSize * 20
+    partialExec.open()
+    val partialResults = input.flatMap(t => partialExec.processTuple(t, 0)) ++
+      partialExec.onFinish(0)
+    partialExec.close()
+    assert(partialResults.size > 100)
+
+    val partialSchema = Schema()
+      .add(new Attribute("group", AttributeType.LONG))
+      .add(new Attribute("sum", AttributeType.INTEGER))
+      .add(new Attribute("count", AttributeType.INTEGER))
+      .add(new Attribute("min", AttributeType.DOUBLE))
+      .add(new Attribute("max", AttributeType.DOUBLE))
+    val finalDesc = objectMapper.readValue(partialDesc, classOf[AggregateOpDesc])
+    finalDesc.aggregations = finalDesc.aggregations.map(_.getFinal)
+    val finalExec = new AggregateOpExec(objectMapper.writeValueAsString(finalDesc))
+    finalExec.open()
+    partialResults.foreach { partial =>
+      val partialTuple = partial.asInstanceOf[SchemaEnforceable].enforceSchema(partialSchema)
+      assert(finalExec.processTuple(partialTuple, 0).isEmpty)
+    }
+    val results = finalExec.onFinish(0).map(_.getFields.toList).toSet
+    finalExec.close()
+
+    assert(results.size == 100)
+    assert(results == expected)
+  }
+}
@@ -56,17 +56,15 @@ class DifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     counter = 0
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
-    (0 to 7).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-    assert(opExec.onFinish(input1).isEmpty)
-
+    // the right input is the build side and is processed first
     (5 to 9).map(i => {
       opExec.processTuple(commonTuples(i), input2)
     })
+    assert(opExec.onFinish(input2).isEmpty)
 
-    val outputTuples: Set[TupleLike] =
-      opExec.onFinish(input2).toSet
+    val outputTuples: Set[TupleLike] = ((0 to 7).flatMap(i => {
+      opExec.processTuple(commonTuples(i), input1)
+    }) ++ opExec.onFinish(input1)).toSet
     assert(
       outputTuples.equals(commonTuples.slice(0, 5).toSet)
     )
@@ -79,13 +77,9 @@ class DifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     counter = 0
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
-    (0 to 9).map(i => {
+    val outputTuples: Set[TupleLike] = ((0 to 9).flatMap(i => {
       opExec.processTuple(commonTuples(i), input1)
-    })
-    assert(opExec.onFinish(input1).isEmpty)
-
-    val outputTuples: Set[TupleLike] =
-      opExec.onFinish(input2).toSet
+    }) ++ opExec.onFinish(input1) ++ opExec.onFinish(input2)).toSet
     assert(outputTuples.equals(commonTuples.toSet))
     opExec.close()
   }
@@ -112,12 +106,12 @@ class DifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
     assert(opExec.onFinish(input2).isEmpty)
-    (0 to 9).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-
-    val outputTuples: Set[TupleLike] =
-      opExec.onFinish(input1).toSet
+    val outputTuples: Set[TupleLike] = (0 to 9)
+      .flatMap(i => {
+        opExec.processTuple(commonTuples(i), input1)
+      })
+      .toSet
+    assert(opExec.onFinish(input1).isEmpty)
     assert(outputTuples.equals(commonTuples.toSet))
     opExec.close()
   }
@@ -127,20 +121,84 @@ class DifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     counter = 0
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
-    (0 to 5).map(i => {
+    val outputTuples: Set[TupleLike] = ((0 to 5).flatMap(i => {
       opExec.processTuple(commonTuples(i), input1)
-    })
-    assert(opExec.onFinish(input2).isEmpty)
-    (6 to 9).map(i => {
+    }) ++ opExec.onFinish(input2) ++ (6 to 9).flatMap(i => {
       opExec.processTuple(commonTuples(i), input1)
+    }) ++ opExec.onFinish(input1)).toSet
+    assert(outputTuples.equals(commonTuples.toSet))
+    opExec.close()
+  }
+
+  it should "emit left tuples as they arrive and drop their duplicates" in {
+    opExec.open()
+    counter = 0
+    val commonTuples = (1 to 10).map(_ => tuple()).toList
+
+    opExec.processTuple(commonTuples(0), input2)
+    assert(opExec.onFinish(input2).isEmpty)
+
+    assert(opExec.processTuple(commonTuples(0), input1).isEmpty)
+    assert(opExec.processTuple(commonTuples(1), input1).toList == List(commonTuples(1)))
+    assert(opExec.processTuple(commonTuples(1), input1).isEmpty)
+    assert(opExec.onFinish(input1).isEmpty)
+    opExec.close()
+  }
+
+  it should "spill the right input to disk and produce the same result" in {
+    opExec.memoryBudget = 1
+    opExec.open()
+    counter = 0
+    val commonTuples = (1 to 10).map(_ => tuple()).toList
+
+    (5 to 9).map(i => {
+      opExec.processTuple(commonTuples(i), input2)
     })
+    assert(opExec.onFinish(input2).isEmpty)
 
-    val outputTuples: Set[TupleLike] =
-      opExec.onFinish(input1).toSet
-    assert(outputTuples.equals(commonTuples.toSet))
+    val outputTuples: List[TupleLike] = ((0 to 7).flatMap(i => {
+      opExec.processTuple(commonTuples(i), input1)
+    }) ++ (0 to 7).flatMap(i => {
+      opExec.processTuple(commonTuples(i), input1)
+    })).toList ++ opExec.onFinish(input1)
+    assert(opExec.spilledBytes > 0)
+    assert(outputTuples.size == 5)
+    assert(outputTuples.toSet.equals(commonTuples.slice(0, 5).toSet))
     opExec.close()
   }
 
+  /**
+    * Subtracts 200 right tuples from 300 left tuples, each arriving twice, using the given
+    * memory budget, and returns the executor together with the result.
+    */
+  private def spillingDifference(memoryBudget: Long): (DifferenceOpExec, List[TupleLike]) = {
+    val exec = new DifferenceOpExec()
+    exec.memoryBudget = memoryBudget
+    exec.open()
+    counter = 0
+    val tuples = (1 to 300).map(_ => tuple()).toList
+    tuples.slice(100, 300).foreach(t => assert(exec.processTuple(t, input2).isEmpty))
+    assert(exec.onFinish(input2).isEmpty)
+    val output = ((tuples ++ tuples).flatMap(exec.processTuple(_, input1)).iterator ++
+      exec.onFinish(input1)).toList
+    (exec, output)
+  }
+
+  it should "repartition spilled partitions that still exceed the budget" in {
+    val (partitionedExec, partitioned) = spillingDifference(memoryBudget = 20000)
+    val (repartitionedExec, repartitioned) = spillingDifference(memoryBudget = 1)
+    assert(partitionedExec.isSpilling && repartitionedExec.isSpilling)
+    // the repartitioned partitions are written again one level deeper
+    assert(repartitionedExec.spilledBytes > partitionedExec.spilledBytes)
+
+    counter = 0
+    val expected = (1 to 100).map(_ => tuple()).toSet
+    assert(partitioned.size == 100 && partitioned.toSet == expected)
+    assert(repartitioned.size == 100 && repartitioned.toSet == expected)
+    partitionedExec.close()
+    repartitionedExec.close()
+  }
+
   it should "work with two empty input upstreams" in {
 
     opExec.open()
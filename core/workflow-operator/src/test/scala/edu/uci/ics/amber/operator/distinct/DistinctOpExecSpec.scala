@@ -22,6 +22,7 @@ package edu.uci.ics.amber.operator.distinct
 import org.scalatest.BeforeAndAfter
 import org.scalatest.flatspec.AnyFlatSpec
 import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple, TupleLike}
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
 class DistinctOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
   val tupleSchema: Schema = Schema()
     .add(new Attribute("field1", AttributeType.STRING))
@@ -52,7 +53,7 @@ class DistinctOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
 
   var opExec: DistinctOpExec = _
   before {
-    opExec = new DistinctOpExec()
+    opExec = new DistinctOpExec(objectMapper.writeValueAsString(new DistinctOpDesc))
   }
 
   it should "open" in {
@@ -64,12 +65,11 @@ class DistinctOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
   it should "remove duplicate Tuple with the same content" in {
 
     opExec.open()
-    (1 to 1000).map(_ => {
-      opExec.processTuple(tuple(), 0)
-    })
-
-    val outputTuples: List[TupleLike] =
-      opExec.onFinish(0).toList
+    val outputTuples: List[TupleLike] = (1 to 1000)
+      .flatMap(_ => {
+        opExec.processTuple(tuple(), 0)
+      })
+      .toList ++ opExec.onFinish(0)
     assert(outputTuples.size == 1)
     assert(outputTuples.head.equals(tuple()))
     opExec.close()
@@ -78,22 +78,88 @@ class DistinctOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
   it should "preserve the insertion order" in {
 
     opExec.open()
-    (1 to 1000).map(_ => {
-      opExec.processTuple(tuple(), 0)
-    })
-    (1 to 1000).map(_ => {
-      opExec.processTuple(tuple2(), 0)
-    })
-    (1 to 1000).map(_ => {
-      opExec.processTuple(tuple(), 0)
-    })
-
-    val outputTuples: List[TupleLike] =
-      opExec.onFinish(0).toList
+    val outputTuples: List[TupleLike] = List(tuple, tuple2, tuple)
+      .flatMap(makeTuple =>
+        (1 to 1000).flatMap(_ => {
+          opExec.processTuple(makeTuple(), 0)
+        })
+      ) ++ opExec.onFinish(0)
     assert(outputTuples.size == 2)
     assert(outputTuples.head.equals(tuple()))
     assert(outputTuples.apply(1).equals(tuple2()))
     opExec.close()
   }
 
+  it should "emit the first occurrence of a Tuple as soon as it arrives" in {
+
+    opExec.open()
+    assert(opExec.processTuple(tuple(), 0).toList == List(tuple()))
+    assert(opExec.processTuple(tuple(), 0).isEmpty)
+    assert(opExec.processTuple(tuple2(), 0).toList == List(tuple2()))
+    assert(opExec.onFinish(0).isEmpty)
+    opExec.close()
+  }
+
+  it should "remove duplicate Tuples using fingerprints" in {
+    val desc = new DistinctOpDesc
+    desc.useFingerprints = true
+    opExec = new DistinctOpExec(objectMapper.writeValueAsString(desc))
+
+    opExec.open()
+    val outputTuples: List[TupleLike] =
+      (Array.fill(500)(tuple()) ++ Array.fill(500)(tuple2()))
+        .flatMap(opExec.processTuple(_, 0))
+        .toList ++ opExec.onFinish(0)
+    assert(outputTuples == List(tuple(), tuple2()))
+    opExec.close()
+  }
+
+  it should "compare Tuples with ANY fields in full when fingerprints are enabled" in {
+    val desc = new DistinctOpDesc
+    desc.useFingerprints = true
+    opExec = new DistinctOpExec(objectMapper.writeValueAsString(desc))
+    val anySchema = Schema().add(new Attribute("field1", AttributeType.ANY))
+    // "Aa" and "BB" share a hashCode, so a hashCode-based fingerprint would drop one of them
+    val anyTuples = List(List("Aa"), List("BB"), List("Aa")).map(value =>
+      Tuple.builder(anySchema).addSequentially(Array[Any](value)).build()
+    )
+
+    opExec.open()
+    val outputTuples: List[TupleLike] =
+      anyTuples.flatMap(opExec.processTuple(_, 0)) ++ opExec.onFinish(0)
+    assert(outputTuples == anyTuples.take(2))
+    opExec.close()
+  }
+
+  it should "spill unseen Tuples to disk and deduplicate them at the end" in {
+    opExec.memoryBudget = 1
+
+    opExec.open()
+    val streamed = List(tuple, tuple2, tuple, tuple2).flatMap(makeTuple =>
+      opExec.processTuple(makeTuple(), 0)
+    )
+    assert(streamed == List(tuple()))
+    assert(opExec.isSpilling)
+    assert(opExec.spilledBytes > 0)
+    assert(opExec.onFinish(0).toList == List(tuple2()))
+    opExec.close()
+  }
+
+  it should "repartition spilled partitions that still exceed the budget" in {
+    val tuples = (1 to 300).map(i =>
+      Tuple.builder(tupleSchema).addSequentially(Array[Any]("hello", i, i % 2 == 0)).build()
+    )
+    opExec.memoryBudget = 1
+
+    opExec.open()
+    val streamed = (tuples ++ tuples).flatMap(opExec.processTuple(_, 0)).toList
+    val spilledBeforeFinish = opExec.spilledBytes
+    val outputTuples = streamed ++ opExec.onFinish(0)
+    // the repartitioned partitions are written again one level deeper
+    assert(opExec.spilledBytes > spilledBeforeFinish)
+    assert(outputTuples.size == 300)
+    assert(outputTuples.toSet == tuples.toSet)
+    opExec.close()
+  }
+
 }
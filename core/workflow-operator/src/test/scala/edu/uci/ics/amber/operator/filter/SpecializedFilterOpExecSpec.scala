@@ -135,4 +135,41 @@ class SpecializedFilterOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
         opExec.close()
       })
   }
+
+  it should "filter a batch like one tuple at a time" in {
+    val opExec = new FilterOpExec {
+      setFilterFunc(_.getField[Any]("int") != null)
+    }
+    val batch = Array(nonNullTuple, allNullTuple, nonNullTuple)
+    val output = opExec.processBatch(batch, inputPort).toList
+    assert(output == List(nonNullTuple, nonNullTuple))
+    assert(batch.flatMap(opExec.processTuple(_, inputPort)).toList == output)
+  }
+
+  it should "compare numeric strings as numbers and other strings as text in a batch" in {
+    val schema = Schema().add(new Attribute("string", AttributeType.STRING))
+    val batch = Array("9", " 10", "abc", "1e1", null).map(value =>
+      Tuple.builder(schema).add(new Attribute("string", AttributeType.STRING), value).build()
+    )
+    opDesc.predicates =
+      List(new FilterPredicate("string", ComparisonType.GREATER_THAN_OR_EQUAL_TO, "10"))
+    val opExec = new SpecializedFilterOpExec(objectMapper.writeValueAsString(opDesc))
+    opExec.open()
+    val output = opExec.processBatch(batch, inputPort).map(_.asInstanceOf[Tuple]).toList
+    assert(output.map(_.getField[String]("string")) == List(" 10", "abc", "1e1"))
+    assert(batch.filter(opExec.processTuple(_, inputPort).nonEmpty).toList == output)
+    opExec.close()
+  }
+
+  it should "compare numeric columns against the parsed value" in {
+    opDesc.predicates = List(
+      new FilterPredicate("int", ComparisonType.LESS_THAN, "0.5"),
+      new FilterPredicate("long", ComparisonType.EQUAL_TO, " 1 ")
+    )
+    val opExec = new SpecializedFilterOpExec(objectMapper.writeValueAsString(opDesc))
+    opExec.open()
+    assert(opExec.processTuple(nonNullTuple, inputPort).nonEmpty)
+    assert(opExec.processTuple(allNullTuple, inputPort).isEmpty)
+    opExec.close()
+  }
 }
@@ -230,4 +230,127 @@ class HashJoinOpSpec extends AnyFlatSpec with BeforeAndAfter {
 
     probeOpExec.close()
   }
+
+  it should "spill the build side to disk and produce the same Full Outer Join result" in {
+    opDesc = new HashJoinOpDesc[String]()
+    opDesc.buildAttributeName = "same"
+    opDesc.probeAttributeName = "same"
+    opDesc.joinType = JoinType.FULL_OUTER
+    val inputSchemas =
+      Map(PortIdentity() -> schema("same", 1), PortIdentity(1) -> schema("same", 2))
+    val outputSchema = opDesc.getExternalOutputSchemas(inputSchemas).values.head
+
+    buildOpExec = new HashJoinBuildOpExec[String](objectMapper.writeValueAsString(opDesc))
+    buildOpExec.open()
+    (0 to 7).foreach(i => buildOpExec.processTuple(tuple("same", 1, Some(i)), build))
+    val buildOpOutputIterator = buildOpExec.onFinish(build)
+
+    probeOpExec = new HashJoinProbeOpExec[String](objectMapper.writeValueAsString(opDesc))
+    probeOpExec.memoryBudget = 1
+    probeOpExec.open()
+    while (buildOpOutputIterator.hasNext) {
+      probeOpExec.processTuple(
+        buildOpOutputIterator
+          .next()
+          .asInstanceOf[SchemaEnforceable]
+          .enforceSchema(getInternalHashTableSchema(inputSchemas.head._2)),
+        build
+      )
+    }
+    buildOpExec.close()
+    assert(probeOpExec.isSpilling)
+
+    assert(
+      (5 to 9)
+        .map(i => probeOpExec.processTuple(tuple("same", n = 2, Some(i)), probe))
+        .forall(_.isEmpty)
+    )
+    assert(probeOpExec.spilledBytes > 0)
+
+    val outputTuples = probeOpExec
+      .onFinish(probe)
+      .map(tupleLike => tupleLike.asInstanceOf[SchemaEnforceable].enforceSchema(outputSchema))
+      .toList
+
+    // 3 matches, 5 unmatched build tuples and 2 unmatched probe tuples
+    assert(outputTuples.size == 10)
+    assert(
+      outputTuples.count(t =>
+        t.getField[String]("same_1") != null && t.getField[String]("same_2") != null
+      ) == 3
+    )
+
+    probeOpExec.close()
+  }
+
+  it should "spill the build input to disk and still emit every tuple with its key" in {
+    opDesc = new HashJoinOpDesc[String]()
+    opDesc.buildAttributeName = "build_1"
+    opDesc.probeAttributeName = "probe_1"
+    opDesc.joinType = JoinType.INNER
+
+    buildOpExec = new HashJoinBuildOpExec[String](objectMapper.writeValueAsString(opDesc))
+    buildOpExec.memoryBudget = 1
+    buildOpExec.open()
+    (0 to 7).foreach { i =>
+      assert(buildOpExec.processTuple(tuple("build", 1, Some(i)), build).isEmpty)
+    }
+    assert(buildOpExec.spilledBytes > 0)
+
+    val outputFields = buildOpExec.onFinish(build).map(_.getFields.toList).toList
+    assert(outputFields.size == 8)
+    assert(outputFields.forall(fields => fields.head == fields(1)))
+    assert(outputFields.map(_.head).toSet == (0 to 7).map(_.toString).toSet)
+    buildOpExec.close()
+  }
+
+  /**
+    * Joins 200 build tuples over 50 keys with probe tuples for keys 0 to 59 using the given
+    * probe memory budget, and returns the probe executor together with the join result.
+    */
+  private def spillingInnerJoin(
+      memoryBudget: Long
+  ): (HashJoinProbeOpExec[String], List[Tuple]) = {
+    opDesc = new HashJoinOpDesc[String]()
+    opDesc.buildAttributeName = "build_1"
+    opDesc.probeAttributeName = "probe_1"
+    opDesc.joinType = JoinType.INNER
+    val inputSchemas = Map(PortIdentity() -> schema("build"), PortIdentity(1) -> schema("probe"))
+    val outputSchema = opDesc.getExternalOutputSchemas(inputSchemas).values.head
+    val internalSchema = getInternalHashTableSchema(inputSchemas.head._2)
+
+    val probeExec = new HashJoinProbeOpExec[String](objectMapper.writeValueAsString(opDesc))
+    probeExec.memoryBudget = memoryBudget
+    probeExec.open()
+    (0 until 200).foreach { i =>
+      val key = (i % 50).toString
+      val buildTuple =
+        Tuple.builder(internalSchema).addSequentially(Array[Any](key, i.toString, key)).build()
+      assert(probeExec.processTuple(buildTuple, build).isEmpty)
+    }
+    assert(probeExec.onFinish(build).isEmpty)
+    val probed =
+      (0 until 60).flatMap(i => probeExec.processTuple(tuple("probe", 1, Some(i)), probe))
+    val output = (probed.iterator ++ probeExec.onFinish(probe))
+      .map(_.asInstanceOf[SchemaEnforceable].enforceSchema(outputSchema))
+      .toList
+    (probeExec, output)
+  }
+
+  it should "repartition spilled partitions that still exceed the budget" in {
+    val (partitionedExec, partitioned) = spillingInnerJoin(memoryBudget = 10000)
+    val (repartitionedExec, repartitioned) = spillingInnerJoin(memoryBudget = 1)
+    assert(partitionedExec.isSpilling && repartitionedExec.isSpilling)
+    // the repartitioned partitions are written again one level deeper
+    assert(repartitionedExec.spilledBytes > partitionedExec.spilledBytes)
+
+    // 4 build tuples for each of the 50 keys that are probed
+    assert(repartitioned.size == 200)
+    assert(
+      repartitioned.map(_.getFields.toList).toSet == partitioned.map(_.getFields.toList).toSet
+    )
+    assert(repartitioned.forall(t => t.getField[String]("build_1") == t.getField[String]("probe")))
+    partitionedExec.close()
+    repartitionedExec.close()
+  }
 }
@@ -78,17 +78,15 @@ class IntersectOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     counter = 0
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
-    (0 to 7).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-    assert(opExec.onFinish(input1).isEmpty)
-
+    // the right input is the build side and is processed first
     (5 to 9).map(i => {
       opExec.processTuple(commonTuples(i), input2)
     })
+    assert(opExec.onFinish(input2).isEmpty)
 
-    val outputTuples: Set[TupleLike] =
-      opExec.onFinish(input2).toSet
+    val outputTuples: Set[TupleLike] = ((0 to 7).flatMap(i => {
+      opExec.processTuple(commonTuples(i), input1)
+    }) ++ opExec.onFinish(input1)).toSet
     assert(outputTuples.equals(commonTuples.slice(5, 8).toSet))
 
     opExec.close()
@@ -167,6 +165,23 @@ class IntersectOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     opExec.close()
   }
 
+  it should "emit each matching left tuple once as it arrives" in {
+    val input1 = 0
+    val input2 = 1
+    opExec.open()
+    counter = 0
+    val commonTuples = (1 to 10).map(_ => tuple()).toList
+
+    opExec.processTuple(commonTuples(0), input2)
+    assert(opExec.onFinish(input2).isEmpty)
+
+    assert(opExec.processTuple(commonTuples(1), input1).isEmpty)
+    assert(opExec.processTuple(commonTuples(0), input1).toList == List(commonTuples(0)))
+    assert(opExec.processTuple(commonTuples(0), input1).isEmpty)
+    assert(opExec.onFinish(input1).isEmpty)
+    opExec.close()
+  }
+
   it should "work with two empty input upstreams" in {
 
     opExec.open()
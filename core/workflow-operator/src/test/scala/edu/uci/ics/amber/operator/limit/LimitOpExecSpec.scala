@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package edu.uci.ics.amber.operator.limit
+
+import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple}
+import edu.uci.ics.amber.core.workflow.WorkflowContext.{DEFAULT_EXECUTION_ID, DEFAULT_WORKFLOW_ID}
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
+import org.scalatest.flatspec.AnyFlatSpec
+
+class LimitOpExecSpec extends AnyFlatSpec {
+  val tupleSchema: Schema = Schema().add(new Attribute("field1", AttributeType.INTEGER))
+
+  val tuples: Array[Tuple] = (0 until 10)
+    .map(i => Tuple.builder(tupleSchema).add("field1", AttributeType.INTEGER, i).build())
+    .toArray
+
+  def limitOpDesc(limit: Int): LimitOpDesc = {
+    val opDesc = new LimitOpDesc()
+    opDesc.limit = limit
+    opDesc
+  }
+
+  def limitOpExec(limit: Int): LimitOpExec = {
+    val opExec = new LimitOpExec(objectMapper.writeValueAsString(limitOpDesc(limit)))
+    opExec.open()
+    opExec
+  }
+
+  "LimitOpExec" should "output the first tuples of a batch up to the limit" in {
+    val opExec = limitOpExec(4)
+    assert(opExec.processBatch(tuples, 0).toList == tuples.take(4).toList)
+    assert(opExec.processBatch(tuples, 0).isEmpty)
+  }
+
+  it should "continue the limit across batches" in {
+    val opExec = limitOpExec(7)
+    assert(opExec.processBatch(tuples.take(5), 0).toList == tuples.take(5).toList)
+    assert(opExec.processBatch(tuples.drop(5), 0).toList == tuples.slice(5, 7).toList)
+    assert(opExec.processBatch(tuples, 0).isEmpty)
+  }
+
+  it should "count tuples processed one by one and in batches alike" in {
+    val opExec = limitOpExec(5)
+    assert(opExec.processTuple(tuples(0), 0).toList == List(tuples(0)))
+    assert(opExec.processBatch(tuples.drop(1), 0).toList == tuples.slice(1, 5).toList)
+    assert(opExec.processTuple(tuples(5), 0).isEmpty)
+  }
+
+  it should "need more input only until the limit is reached" in {
+    val opExec = limitOpExec(5)
+    assert(opExec.needsMoreInput)
+    opExec.processBatch(tuples.take(4), 0)
+    assert(opExec.needsMoreInput)
+    opExec.processBatch(tuples.take(1), 0)
+    assert(!opExec.needsMoreInput)
+  }
+
+  it should "need no input with a limit of zero" in {
+    val opExec = limitOpExec(0)
+    assert(!opExec.needsMoreInput)
+    assert(opExec.processBatch(tuples, 0).isEmpty)
+  }
+
+  "LimitOpDesc" should "allow lowering the limit during execution" in {
+    val reconfiguration = limitOpDesc(10).runtimeReconfiguration(
+      DEFAULT_WORKFLOW_ID,
+      DEFAULT_EXECUTION_ID,
+      limitOpDesc(10),
+      limitOpDesc(5)
+    )
+    assert(reconfiguration.isSuccess)
+  }
+
+  it should "reject raising the limit during execution" in {
+    val reconfiguration = limitOpDesc(10).runtimeReconfiguration(
+      DEFAULT_WORKFLOW_ID,
+      DEFAULT_EXECUTION_ID,
+      limitOpDesc(10),
+      limitOpDesc(20)
+    )
+    assert(reconfiguration.isFailure)
+  }
+}
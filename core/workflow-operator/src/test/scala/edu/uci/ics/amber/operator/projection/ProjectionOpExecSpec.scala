@@ -153,4 +153,29 @@ class ProjectionOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     assert(outputTuple.getField[String](0) == "hello")
     assert(outputTuple.getField[Int](1) == 1)
   }
+
+  it should "process a batch of Tuples" in {
+    opDesc.attributes = List(
+      new AttributeUnit("field2", "f2"),
+      new AttributeUnit("field1", "f1")
+    )
+    val outputSchema = Schema()
+      .add(new Attribute("f2", AttributeType.INTEGER))
+      .add(new Attribute("f1", AttributeType.STRING))
+
+    val projectionOpExec = new ProjectionOpExec(objectMapper.writeValueAsString(opDesc))
+    projectionOpExec.open()
+    assert(projectionOpExec.supportsBatchProcessing)
+
+    val outputTuples =
+      projectionOpExec
+        .processBatch(Array(tuple, tuple, tuple), 0)
+        .map(_.asInstanceOf[SchemaEnforceable].enforceSchema(outputSchema))
+        .toList
+    assert(outputTuples.size == 3)
+    outputTuples.foreach { outputTuple =>
+      assert(outputTuple.getField[Int](0) == 1)
+      assert(outputTuple.getField[String](1) == "hello")
+    }
+  }
 }
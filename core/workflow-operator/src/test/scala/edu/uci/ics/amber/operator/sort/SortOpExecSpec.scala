@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.sort
+
+import edu.uci.ics.amber.core.tuple._
+import edu.uci.ics.amber.core.workflow.PortIdentity
+import edu.uci.ics.amber.operator.sort.SortOpDesc.{SAMPLE_SIZE_PER_WORKER, SORT_RUN_ATTRIBUTE_NAME}
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
+import org.scalatest.flatspec.AnyFlatSpec
+
+class SortOpExecSpec extends AnyFlatSpec {
+  val tupleSchema: Schema = Schema()
+    .add(new Attribute("name", AttributeType.STRING))
+    .add(new Attribute("score", AttributeType.INTEGER))
+    .add(new Attribute("id", AttributeType.INTEGER))
+  val runSchema: Schema =
+    Schema().add(new Attribute(SORT_RUN_ATTRIBUTE_NAME, AttributeType.INTEGER)).add(tupleSchema)
+
+  def tuple(name: String, score: Integer, id: Int): Tuple =
+    Tuple.builder(tupleSchema).addSequentially(Array[Any](name, score, id)).build()
+
+  def runTuple(run: Int, tuple: Tuple): Tuple =
+    Tuple.builder(runSchema).addSequentially(Array[Any](run) ++ tuple.getFields).build()
+
+  def criteria(attributeName: String, sortPreference: SortPreference): SortCriteriaUnit = {
+    val unit = new SortCriteriaUnit()
+    unit.attributeName = attributeName
+    unit.sortPreference = sortPreference
+    unit
+  }
+
+  val opDesc: SortOpDesc = new SortOpDesc()
+  opDesc.attributes = List(
+    criteria("name", SortPreference.ASC),
+    criteria("score", SortPreference.DESC)
+  )
+  val descString: String = objectMapper.writeValueAsString(opDesc)
+  val ordering: Ordering[Tuple] = SortUtils.tupleOrdering(tupleSchema, opDesc.attributes)
+
+  // ties on (name, score) are told apart by id, which follows the input order
+  val input: List[Tuple] = List(
+    tuple("b", 1, 0),
+    tuple("a", 1, 1),
+    tuple(null, 7, 2),
+    tuple("a", 3, 3),
+    tuple("b", 2, 4),
+    tuple("a", null, 5),
+    tuple("a", 1, 6),
+    tuple("c", 5, 7),
+    tuple(null, 7, 8),
+    tuple("b", 2, 9)
+  )
+  val sortedInput: List[Tuple] = List(
+    tuple("a", 3, 3),
+    tuple("a", 1, 1),
+    tuple("a", 1, 6),
+    tuple("a", null, 5),
+    tuple("b", 2, 4),
+    tuple("b", 2, 9),
+    tuple("b", 1, 0),
+    tuple("c", 5, 7),
+    tuple(null, 7, 2),
+    tuple(null, 7, 8)
+  )
+
+  def enforce(tuples: Iterator[TupleLike], schema: Schema): List[Tuple] =
+    tuples.map(_.asInstanceOf[SchemaEnforceable].enforceSchema(schema)).toList
+
+  "SortOpExec" should "sort a range with ties, nulls and descending keys in memory" in {
+    val local = new SortOpExec(descString, 0, 1)
+    local.open()
+    input.foreach(t => assert(local.processTuple(runTuple(0, t), 0).isEmpty))
+    val outputTuples = enforce(local.onFinish(0), runSchema)
+    local.close()
+
+    assert(outputTuples == sortedInput.map(runTuple(0, _)))
+  }
+
+  it should "produce the same order when every tuple spills a run" in {
+    val local = new SortOpExec(descString, 0, 1)
+    local.memoryBudget = 1
+    local.open()
+    input.foreach(t => assert(local.processTuple(runTuple(2, t), 0).isEmpty))
+    val outputTuples = enforce(local.onFinish(0), runSchema)
+    local.close()
+
+    assert(outputTuples == sortedInput.map(runTuple(2, _)))
+  }
+
+  "SortMergeOpExec" should "emit run 0 right away and concatenate the other runs in order" in {
+    val runs = List(
+      List(tuple("a", 3, 0), tuple("a", 1, 1)),
+      List(tuple("b", 2, 2), tuple("b", 2, 3)),
+      List(tuple(null, 7, 4))
+    )
+    List(Long.MaxValue, 1L).foreach { budget =>
+      val merge = new SortMergeOpExec()
+      merge.memoryBudget = budget
+      merge.open()
+      // runs arrive interleaved, later runs first
+      val immediate = List(
+        runTuple(2, runs(2).head),
+        runTuple(1, runs(1).head),
+        runTuple(0, runs(0).head),
+        runTuple(1, runs(1)(1)),
+        runTuple(0, runs(0)(1))
+      ).flatMap(t => enforce(merge.processTuple(t, 0), tupleSchema))
+      val outputTuples = enforce(merge.onFinish(0), tupleSchema)
+      merge.close()
+
+      assert(immediate == runs(0))
+      assert(outputTuples == runs(1) ++ runs(2))
+    }
+  }
+
+  "SortSampleOpExec" should "pass its input through and sample it once finished" in {
+    val sample = new SortSampleOpExec(0, 1)
+    sample.open()
+    val size = SAMPLE_SIZE_PER_WORKER + 10
+    val tuples = (0 until size).map(i => tuple("n" + i, i, i))
+    val passed = tuples.flatMap(t => sample.processTupleMultiPort(t, 0)).toList
+    val sampled = sample.onFinishMultiPort(0).toList
+    sample.close()
+
+    assert(passed == tuples.map(t => (t, Some(PortIdentity(0, internal = true)))))
+    assert(sampled.size == SAMPLE_SIZE_PER_WORKER)
+    assert(sampled.forall(_._2.contains(PortIdentity(1, internal = true))))
+    assert(sampled.map(_._1.asInstanceOf[Tuple]).toSet.subsetOf(tuples.toSet))
+  }
+
+  "SortRangeOpExec" should "assign ranges that follow the sort order" in {
+    val range = new SortRangeOpExec(descString, 0, 3)
+    range.open()
+    input.foreach(t => assert(range.processTuple(t, 0).isEmpty))
+    assert(range.onFinish(0).isEmpty)
+    val tagged = enforce(input.iterator.flatMap(t => range.processTuple(t, 1)), runSchema)
+    range.close()
+
+    val runs = tagged.map(_.getField[Int](SORT_RUN_ATTRIBUTE_NAME))
+    assert(runs.forall(run => run >= 0 && run < 3))
+    assert(runs.toSet.size > 1)
+    val runOf = input.zip(runs).toMap
+    // a tuple never lands in a later range than a tuple that sorts after it
+    for (x <- input; y <- input if ordering.lt(x, y)) {
+      assert(runOf(x) <= runOf(y))
+    }
+  }
+
+  "The sort operators" should "sort the input across sample, range, sort and merge workers" in {
+    val numSampleWorkers = 2
+    val numRanges = 3
+    val workerInputs = input.zipWithIndex.groupBy(_._2 % numSampleWorkers).toList.sortBy(_._1)
+
+    // every sample worker passes its share through and samples it
+    val passed = workerInputs.map {
+      case (idx, share) =>
+        val sample = new SortSampleOpExec(idx, numSampleWorkers)
+        sample.open()
+        val data = share.flatMap(t => sample.processTupleMultiPort(t._1, 0)).map(_._1)
+        val samples = sample.onFinishMultiPort(0).map(_._1).toList
+        sample.close()
+        (data, samples)
+    }
+    val samples = passed.flatMap(_._2).map(_.asInstanceOf[Tuple])
+    val data = passed.flatMap(_._1).map(_.asInstanceOf[Tuple])
+
+    // every range worker sees all samples and a round-robin share of the data
+    val tagged = (0 until numRanges).flatMap { idx =>
+      val range = new SortRangeOpExec(descString, idx, numRanges)
+      range.open()
+      samples.foreach(t => range.processTuple(t, 0))
+      range.onFinish(0)
+      val share = data.zipWithIndex.filter(_._2 % numRanges == idx).map(_._1)
+      val output = enforce(share.iterator.flatMap(t => range.processTuple(t, 1)), runSchema)
+      range.close()
+      output
+    }
+
+    // sort worker r receives range r
+    val merge = new SortMergeOpExec()
+    merge.memoryBudget = 1
+    merge.open()
+    val streamed = (0 until numRanges).toList.flatMap { idx =>
+      val local = new SortOpExec(descString, idx, numRanges)
+      local.memoryBudget = 1
+      local.open()
+      tagged
+        .filter(_.getField[Int](SORT_RUN_ATTRIBUTE_NAME) == idx)
+        .foreach(t => local.processTuple(t, 0))
+      val run = enforce(local.onFinish(0), runSchema)
+      local.close()
+      run.flatMap(t => enforce(merge.processTuple(t, 0), tupleSchema))
+    }
+    val outputTuples = streamed ++ enforce(merge.onFinish(0), tupleSchema)
+    merge.close()
+
+    // ties may be split across the sample workers, so only the sort keys have a fixed order
+    def sortKey(t: Tuple): List[Any] = t.getFields.take(2).toList
+    assert(outputTuples.map(sortKey) == sortedInput.map(sortKey))
+    assert(outputTuples.toSet == input.toSet)
+  }
+}
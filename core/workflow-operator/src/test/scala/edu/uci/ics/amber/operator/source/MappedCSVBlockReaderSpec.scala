@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package edu.uci.ics.amber.operator.source
+
+import edu.uci.ics.amber.core.tuple.AttributeType
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path, StandardOpenOption}
+import scala.collection.mutable.ArrayBuffer
+
+class MappedCSVBlockReaderSpec extends AnyFlatSpec {
+  private val attributeTypes =
+    Array(AttributeType.INTEGER, AttributeType.STRING, AttributeType.DOUBLE)
+
+  private def writeTempFile(content: String): Path = {
+    val path = Files.createTempFile("mapped-csv-block-reader", ".csv")
+    path.toFile.deleteOnExit()
+    Files.write(path, content.getBytes(StandardCharsets.UTF_8))
+    path
+  }
+
+  private def readAll(path: Path, startOffset: Long, endOffset: Long): List[List[Any]] = {
+    val reader = new MappedCSVBlockReader(
+      FileChannel.open(path, StandardOpenOption.READ),
+      startOffset,
+      endOffset,
+      ',',
+      StandardCharsets.UTF_8,
+      attributeTypes
+    )
+    if (startOffset > 0) reader.skipLine()
+    val rows = new ArrayBuffer[List[Any]]()
+    while (reader.hasNext) {
+      val fields = reader.readLine()
+      if (fields != null) rows += fields.toList
+    }
+    reader.close()
+    rows.toList
+  }
+
+  it should "parse typed fields, quoted fields and missing fields" in {
+    val path = writeTempFile(
+      "1,hello,1.5\r\n-20,\"a, \"\"quoted\"\" b\",-0.25\n\n3,,\n4\n"
+    )
+    val rows = readAll(path, 0, Files.size(path))
+    assert(
+      rows == List(
+        List(1, "hello", 1.5),
+        List(-20, "a, \"quoted\" b", -0.25),
+        List(3, null, null),
+        List(4, null, null)
+      )
+    )
+  }
+
+  it should "skip rows that do not match the attribute types" in {
+    val path = writeTempFile("1,a,1.0\nx,b,2.0\n2,c,3.0,extra\n3,d,1e3\n")
+    val rows = readAll(path, 0, Files.size(path))
+    assert(rows == List(List(1, "a", 1.0), List(3, "d", 1000.0)))
+  }
+
+  it should "read every record exactly once when the file is split into ranges" in {
+    val content = (1 to 100).map(i => s"$i,row$i,$i.5").mkString("\n") + "\n"
+    val path = writeTempFile(content)
+    val totalBytes = Files.size(path)
+    val workerCount = 7
+    val rows = (0 until workerCount).flatMap { idx =>
+      val startOffset = totalBytes / workerCount * idx
+      val endOffset =
+        if (idx != workerCount - 1) totalBytes / workerCount * (idx + 1) else totalBytes
+      readAll(path, startOffset, endOffset)
+    }
+    assert(rows.map(_.head) == (1 to 100).toList)
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.source.scan.json
+
+import edu.uci.ics.amber.util.JSONUtils.objectMapper
+import org.scalatest.BeforeAndAfter
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+
+class JSONLScanSourceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
+
+  var file: Path = _
+  var desc: JSONLScanSourceOpDesc = _
+
+  before {
+    file = Files.createTempFile("jsonl-scan", ".jsonl")
+    desc = new JSONLScanSourceOpDesc()
+  }
+
+  after {
+    Files.deleteIfExists(file)
+  }
+
+  private def writeLines(lines: Seq[String]): Unit = {
+    Files.write(file, lines.map(_ + "\n").mkString.getBytes(StandardCharsets.UTF_8))
+    desc.setResolvedFileName(file.toUri)
+  }
+
+  private def scan(idx: Int, workerCount: Int): List[Seq[Any]] = {
+    val exec =
+      new JSONLScanSourceOpExec(objectMapper.writeValueAsString(desc), idx, workerCount)
+    exec.open()
+    val rows = exec.produceTuple().map(_.getFields.toSeq).toList
+    exec.close()
+    rows
+  }
+
+  private def scanAll(workerCount: Int): List[Seq[Any]] =
+    (0 until workerCount).flatMap(idx => scan(idx, workerCount)).toList
+
+  // lines of different lengths, so that the split points fall at various places within lines
+  private val records: Seq[String] =
+    (0 until 50).map(i => s"""{"id":$i,"name":"${"n" * (i % 13 * 7)}"}""")
+
+  it should "read every line of the file with a single worker" in {
+    writeLines(records)
+    val rows = scan(0, 1)
+    assert(rows.map(_.head) == (0 until 50).toList)
+    assert(rows(3) == Seq(3, "n" * 21))
+  }
+
+  it should "read every line exactly once when the file is split across workers" in {
+    writeLines(records)
+    val expected = scan(0, 1)
+    (2 to 9).foreach { workerCount =>
+      assert(scanAll(workerCount) == expected, s"with $workerCount workers")
+    }
+  }
+
+  it should "assign a line that starts at a split point to the preceding worker only" in {
+    // both lines have 9 bytes, so the second worker's range starts with the second line
+    writeLines(Seq("""{"id":1}""", """{"id":2}"""))
+    assert(scan(0, 2) == List(Seq(1), Seq(2)))
+    assert(scan(1, 2).isEmpty)
+  }
+
+  it should "read a line straddling a split point in the worker where it starts" in {
+    writeLines(Seq("""{"id":1}""", s"""{"id":2,"name":"${"n" * 100}"}""", """{"id":3}"""))
+    val totalBytes = Files.size(file)
+    assert(totalBytes / 2 > 9 && totalBytes / 2 < totalBytes - 9)
+    assert(scan(0, 2) == List(Seq(1, null), Seq(2, "n" * 100)))
+    assert(scan(1, 2) == List(Seq(3, null)))
+  }
+
+  it should "apply offset and limit on the first worker only" in {
+    writeLines(records)
+    desc.offset = Some(5)
+    desc.limit = Some(3)
+    assert(scan(0, 2).map(_.head) == List(5, 6, 7))
+    assert(scan(1, 2).isEmpty)
+  }
+
+  it should "produce a tuple of nulls for a blank line" in {
+    writeLines(Seq("""{"id":1,"name":"a"}""", "", """{"id":2,"name":"b"}"""))
+    val expected = List(Seq(1, "a"), Seq(null, null), Seq(2, "b"))
+    assert(scan(0, 1) == expected)
+    assert(scanAll(2) == expected)
+    desc.offset = Some(0)
+    assert(scan(0, 1) == expected)
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package edu.uci.ics.amber.operator.source.sql
+
+import edu.uci.ics.amber.core.tuple.AttributeType
+import org.scalatest.flatspec.AnyFlatSpec
+
+class SQLSourceOpExecSpec extends AnyFlatSpec {
+
+  private def parts(
+      lowerBound: Number,
+      upperBound: Number,
+      attributeType: AttributeType,
+      workerCount: Int
+  ): List[(Number, Number, Boolean)] =
+    (0 until workerCount).map { idx =>
+      SQLSourceOpExec.partitionBatchColumnRange(
+        lowerBound,
+        upperBound,
+        attributeType,
+        idx,
+        workerCount
+      )
+    }.toList
+
+  private def asLongs(part: (Number, Number, Boolean)): (Long, Long, Boolean) =
+    (part._1.longValue, part._2.longValue, part._3)
+
+  /**
+    * The parts must be contiguous and cover exactly [lowerBound, upperBound], with only the last
+    * part including its upper bound.
+    */
+  private def assertCovers(
+      parts: List[(Number, Number, Boolean)],
+      lowerBound: Number,
+      upperBound: Number
+  ): Unit = {
+    assert(parts.head._1 == lowerBound)
+    assert(parts.last._2 == upperBound)
+    parts.sliding(2).foreach {
+      case List(part, nextPart) => assert(part._2 == nextPart._1)
+      case _                    =>
+    }
+    assert(parts.map(_._3) == List.fill(parts.size - 1)(false) :+ true)
+  }
+
+  "SQLSourceOpExec" should "split a long range into equal parts" in {
+    val longParts = parts(0L, 100L, AttributeType.LONG, 4)
+    assert(
+      longParts.map(asLongs) == List(
+        (0L, 25L, false),
+        (25L, 50L, false),
+        (50L, 75L, false),
+        (75L, 100L, true)
+      )
+    )
+  }
+
+  it should "cover a long range that does not divide evenly" in {
+    val longParts = parts(0L, 10L, AttributeType.LONG, 3)
+    assertCovers(longParts, 0L, 10L)
+    assert(longParts.map(_._1.longValue) == List(0L, 3L, 6L))
+  }
+
+  it should "split the full long range without overflowing" in {
+    val longParts = parts(Long.MinValue, Long.MaxValue, AttributeType.TIMESTAMP, 2)
+    assertCovers(longParts, Long.MinValue, Long.MaxValue)
+    assert(longParts(1)._1.longValue == -1L)
+  }
+
+  it should "split a double range into contiguous parts" in {
+    val doubleParts = parts(0.0, 1.0, AttributeType.DOUBLE, 4)
+    assertCovers(doubleParts, 0.0, 1.0)
+    assert(doubleParts.map(_._1.doubleValue) == List(0.0, 0.25, 0.5, 0.75))
+  }
+
+  it should "leave the range unchanged for a single worker" in {
+    assert(parts(5L, 50L, AttributeType.LONG, 1).map(asLongs) == List((5L, 50L, true)))
+  }
+}
@@ -63,17 +63,15 @@ class SymmetricDifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     counter = 0
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
-    (0 to 7).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-    assert(opExec.onFinish(input1).isEmpty)
-
+    // the right input is the build side and is processed first
     (5 to 9).map(i => {
       opExec.processTuple(commonTuples(i), input2)
     })
+    assert(opExec.onFinish(input2).isEmpty)
 
-    val outputTuples: Set[TupleLike] =
-      opExec.onFinish(input2).toSet
+    val outputTuples: Set[TupleLike] = ((0 to 7).flatMap(i => {
+      opExec.processTuple(commonTuples(i), input1)
+    }) ++ opExec.onFinish(input1)).toSet
     assert(
       outputTuples.equals(commonTuples.slice(0, 5).toSet.union(commonTuples.slice(8, 10).toSet))
     )
@@ -88,14 +86,10 @@ class SymmetricDifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     counter = 0
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
-    (0 to 9).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-    assert(opExec.onFinish(input1).isEmpty)
-
     val outputTuples: Set[Tuple] =
-      opExec
-        .onFinish(input2)
+      ((0 to 9).flatMap(i => {
+        opExec.processTuple(commonTuples(i), input1)
+      }) ++ opExec.onFinish(input1) ++ opExec.onFinish(input2))
         .map(tupleLike => tupleLike.asInstanceOf[SchemaEnforceable].enforceSchema(schema))
         .toSet
     assert(outputTuples.equals(commonTuples.toSet))
@@ -131,13 +125,10 @@ class SymmetricDifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
     assert(opExec.onFinish(input2).isEmpty)
-    (0 to 9).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-
     val outputTuples: Set[Tuple] =
-      opExec
-        .onFinish(input1)
+      ((0 to 9).flatMap(i => {
+        opExec.processTuple(commonTuples(i), input1)
+      }) ++ opExec.onFinish(input1))
         .map(tupleLike => tupleLike.asInstanceOf[SchemaEnforceable].enforceSchema(schema))
         .toSet
     assert(outputTuples.equals(commonTuples.toSet))
@@ -151,23 +142,45 @@ class SymmetricDifferenceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
     counter = 0
     val commonTuples = (1 to 10).map(_ => tuple()).toList
 
-    (0 to 5).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-    assert(opExec.onFinish(input2).isEmpty)
-    (6 to 9).map(i => {
-      opExec.processTuple(commonTuples(i), input1)
-    })
-
     val outputTuples: Set[Tuple] =
-      opExec
-        .onFinish(input1)
+      ((0 to 5).flatMap(i => {
+        opExec.processTuple(commonTuples(i), input1)
+      }) ++ opExec.onFinish(input2) ++ (6 to 9).flatMap(i => {
+        opExec.processTuple(commonTuples(i), input1)
+      }) ++ opExec.onFinish(input1))
         .map(tupleLike => tupleLike.asInstanceOf[SchemaEnforceable].enforceSchema(schema))
         .toSet
     assert(outputTuples.equals(commonTuples.toSet))
     opExec.close()
   }
 
+  it should "spill the right input to disk and produce the same result" in {
+    val input1 = 0
+    val input2 = 1
+    opExec.memoryBudget = 1
+    opExec.open()
+    counter = 0
+    val commonTuples = (1 to 10).map(_ => tuple()).toList
+
+    (5 to 9).map(i => {
+      opExec.processTuple(commonTuples(i), input2)
+    })
+    assert(opExec.onFinish(input2).isEmpty)
+
+    val outputTuples: List[TupleLike] = (0 to 7)
+      .flatMap(i => {
+        opExec.processTuple(commonTuples(i), input1)
+      })
+      .toList ++ opExec.onFinish(input1)
+    assert(opExec.spilledBytes > 0)
+    assert(outputTuples.size == 7)
+    assert(
+      outputTuples.toSet
+        .equals(commonTuples.slice(0, 5).toSet.union(commonTuples.slice(8, 10).toSet))
+    )
+    opExec.close()
+  }
+
   it should "work with two empty input upstreams" in {
 
     opExec.open()
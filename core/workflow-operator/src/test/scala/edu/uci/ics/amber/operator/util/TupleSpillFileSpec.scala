@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package edu.uci.ics.amber.operator.util
+
+import edu.uci.ics.amber.core.tuple.{Attribute, AttributeType, Schema, Tuple}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.nio.file.Files
+
+class TupleSpillFileSpec extends AnyFlatSpec {
+  private val schema: Schema = Schema()
+    .add(new Attribute("id", AttributeType.INTEGER))
+    .add(new Attribute("name", AttributeType.STRING))
+
+  private val tuples: List[Tuple] = (1 to 3).toList.map(i =>
+    Tuple.builder(schema).addSequentially(Array[Any](i, if (i == 2) null else s"n$i")).build()
+  )
+
+  private def spillFile(): TupleSpillFile = {
+    val file = new TupleSpillFile(schema)
+    tuples.foreach(file.write)
+    file
+  }
+
+  "TupleSpillFile" should "read back the tuples in the order they were written" in {
+    val file = spillFile()
+    assert(file.tupleCount == 3)
+    assert(file.iterator.toList == tuples)
+    // the file can be read more than once
+    assert(file.iterator.toList == tuples)
+    file.delete()
+    assert(!Files.exists(file.path))
+  }
+
+  it should "stop a reader that is closed before it is exhausted" in {
+    val file = spillFile()
+    val reader = file.iterator
+    assert(reader.next() == tuples.head)
+    reader.close()
+    assert(!reader.hasNext)
+    // closing twice is harmless
+    reader.close()
+    assert(file.iterator.toList == tuples)
+    file.delete()
+  }
+
+  it should "close the readers that are still open when it is deleted" in {
+    val file = spillFile()
+    val reader = file.iterator
+    assert(reader.next() == tuples.head)
+    file.delete()
+    assert(!Files.exists(file.path))
+    assert(!reader.hasNext)
+  }
+}
@@ -239,4 +239,32 @@ class ArrowUtilsSpec extends AnyFlatSpec {
 
   }
 
+  it should "convert a batch of Texera Tuples to Arrow Fields and back correctly" in {
+
+    val tuples = (0 until 3).map { i =>
+      Tuple
+        .builder(texeraSchema)
+        .addSequentially(
+          Array(
+            Int.box(i),
+            if (i == 1) null else Long.box(i * 10L),
+            Boolean.box(i % 2 == 0),
+            Double.box(i + 0.5),
+            new Timestamp(10000L + i),
+            if (i == 2) null else s"row $i"
+          )
+        )
+        .build()
+    }
+    val allocator: BufferAllocator = new RootAllocator()
+    val vectorSchemaRoot = VectorSchemaRoot.create(arrowSchema, allocator)
+    vectorSchemaRoot.allocateNew()
+
+    ArrowUtils.appendTexeraTuples(tuples, vectorSchemaRoot)
+
+    assert(vectorSchemaRoot.getRowCount == 3)
+    assert(ArrowUtils.getTexeraTuples(vectorSchemaRoot).toSeq == tuples)
+
+  }
+
 }